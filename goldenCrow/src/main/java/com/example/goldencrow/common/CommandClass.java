@@ -0,0 +1,52 @@
+package com.example.goldencrow.common;
+
+/**
+ * ProcessExecutor가 동시 실행 수와 제한 시간을 따로 관리하는 명령어 분류
+ * <p>
+ * 각 분류의 기본값은 process.{key}.concurrency, process.{key}.queue, process.{key}.timeout 설정으로 바꿀 수 있다.
+ */
+public enum CommandClass {
+
+    /**
+     * git clone, commit, push 등 git 명령어
+     */
+    GIT("git", 4, 50, 300000),
+
+    /**
+     * black, pylint 등 포맷팅, 린트 명령어
+     */
+    LINT("lint", 4, 50, 30000),
+
+    /**
+     * rm, mv, django-admin 등 기타 서버 명령어
+     */
+    SYSTEM("system", 4, 50, 120000);
+
+    private final String key;
+    private final int concurrency;
+    private final int queue;
+    private final long timeout;
+
+    CommandClass(String key, int concurrency, int queue, long timeout) {
+        this.key = key;
+        this.concurrency = concurrency;
+        this.queue = queue;
+        this.timeout = timeout;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getQueue() {
+        return queue;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+}
@@ -39,6 +39,11 @@ public final class Constants {
      */
     public static final String WRONG = "WRONG DATA...";
 
+    /**
+     * 요청이 몰려 로직을 수행하지 못한 결과
+     */
+    public static final String BUSY = "TOO MANY REQUESTS...";
+
     /**
     * 프로젝트의 데이터를 저장할 기본 URL
     */
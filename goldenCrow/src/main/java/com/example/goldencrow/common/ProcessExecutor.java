@@ -0,0 +1,315 @@
+package com.example.goldencrow.common;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 서버에서 실행하는 모든 외부 명령어(git, black, pylint 등)를 처리하는 공용 실행기
+ * (컨테이너 관련 작업은 DockerEngineClient로 Docker Engine API를 직접 호출)
+ * <p>
+ * 명령어 분류(CommandClass)마다 동시 실행 수와 대기열 크기가 정해진 스레드풀을 두어,
+ * 요청이 몰려도 대기열을 넘는 요청은 바로 거절되고 요청 스레드가 무한정 묶이지 않도록 한다.
+ * 모든 실행에는 제한 시간과 출력 크기 제한이 적용된다.
+ * 출력 읽기와 stdin 쓰기는 크기가 정해진 pump 스레드풀에서 하므로, 입력을 읽지 않는 프로세스도 제한 시간에 끝난다.
+ */
+@Component
+public class ProcessExecutor {
+
+    private final Map<CommandClass, ThreadPoolExecutor> executors = new EnumMap<>(CommandClass.class);
+    private final Map<CommandClass, Long> timeouts = new EnumMap<>(CommandClass.class);
+    private final Map<CommandClass, ProcessStats> stats = new EnumMap<>(CommandClass.class);
+    private final ThreadPoolExecutor pumpExecutor;
+    private final AtomicLong pumpRejected = new AtomicLong();
+    private final int maxOutput;
+
+    /**
+     * ProcessExecutor 생성자
+     *
+     * @param environment 분류별 설정값(process.{key}.concurrency, queue, timeout)과
+     *                    pump 스레드 수(process.pump-threads, 기본값은 동시 실행 수 합의 2배)를 읽을 Environment
+     */
+    public ProcessExecutor(Environment environment) {
+        this.maxOutput = environment.getProperty("process.max-output", Integer.class, 1024 * 1024);
+        int totalConcurrency = 0;
+        for (CommandClass commandClass : CommandClass.values()) {
+            String prefix = "process." + commandClass.getKey() + ".";
+            int concurrency = environment.getProperty(prefix + "concurrency", Integer.class,
+                    commandClass.getConcurrency());
+            int queue = environment.getProperty(prefix + "queue", Integer.class, commandClass.getQueue());
+            long timeout = environment.getProperty(prefix + "timeout", Long.class, commandClass.getTimeout());
+            executors.put(commandClass, new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queue)));
+            timeouts.put(commandClass, timeout);
+            stats.put(commandClass, new ProcessStats());
+            totalConcurrency += concurrency;
+        }
+        // 실행 중인 프로세스마다 출력 읽기와 stdin 쓰기에 하나씩 필요
+        int pumpThreads = environment.getProperty("process.pump-threads", Integer.class, totalConcurrency * 2);
+        this.pumpExecutor = new ThreadPoolExecutor(0, Math.max(1, pumpThreads), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>());
+    }
+
+    /**
+     * 명령어를 비동기로 실행하는 내부 로직
+     *
+     * @param commandClass 명령어 분류
+     * @param cmd          명령어
+     * @param directory    명령어를 실행할 디렉토리 (null이면 서버 실행 디렉토리)
+     * @param mergeError   stderr를 출력에 합칠지 여부 (false면 stderr는 버림)
+     * @param stdin        프로세스에 전달할 입력 (없으면 null)
+     * @return 실행 결과를 담은 CompletableFuture (대기열이 가득 차면 REJECTED 결과)
+     */
+    public CompletableFuture<ProcessResult> submit(CommandClass commandClass, String[] cmd, File directory,
+                                                   boolean mergeError, String stdin) {
+        ProcessStats stat = stats.get(commandClass);
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> execute(commandClass, cmd, directory, mergeError, stdin, queuedAt),
+                    executors.get(commandClass));
+        } catch (RejectedExecutionException e) {
+            stat.rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(ProcessResult.failed(ProcessResult.REJECTED));
+        }
+    }
+
+    /**
+     * 명령어를 비동기로 실행하는 내부 로직 (입력 없음)
+     */
+    public CompletableFuture<ProcessResult> submit(CommandClass commandClass, String[] cmd, File directory,
+                                                   boolean mergeError) {
+        return submit(commandClass, cmd, directory, mergeError, null);
+    }
+
+    /**
+     * 명령어를 실행하고 끝날 때까지 기다리는 내부 로직
+     *
+     * @param commandClass 명령어 분류
+     * @param cmd          명령어
+     * @param directory    명령어를 실행할 디렉토리 (null이면 서버 실행 디렉토리)
+     * @param mergeError   stderr를 출력에 합칠지 여부
+     * @return 실행 결과
+     */
+    public ProcessResult run(CommandClass commandClass, String[] cmd, File directory, boolean mergeError) {
+        return submit(commandClass, cmd, directory, mergeError, null).join();
+    }
+
+    /**
+     * 명령어를 실행하고 끝날 때까지 기다리는 내부 로직 (stderr 포함)
+     */
+    public ProcessResult run(CommandClass commandClass, String[] cmd) {
+        return run(commandClass, cmd, null, true);
+    }
+
+    /**
+     * 스레드풀 안에서 실제로 프로세스를 실행하는 내부 로직
+     */
+    private ProcessResult execute(CommandClass commandClass, String[] cmd, File directory, boolean mergeError,
+                                  String stdin, long queuedAt) {
+        ProcessStats stat = stats.get(commandClass);
+        long startedAt = System.nanoTime();
+        long waitMillis = (startedAt - queuedAt) / 1000000;
+        stat.waitMillis.addAndGet(waitMillis);
+
+        ProcessBuilder builder = new ProcessBuilder(cmd);
+        if (directory != null) {
+            builder.directory(directory);
+        }
+        if (mergeError) {
+            builder.redirectErrorStream(true);
+        } else {
+            builder.redirectError(ProcessBuilder.Redirect.to(new File("/dev/null")));
+        }
+
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            stat.failed.incrementAndGet();
+            return ProcessResult.failed(e.getMessage() == null ? "" : e.getMessage());
+        }
+
+        OutputCollector collector = new OutputCollector(process.getInputStream(), maxOutput);
+        Future<?> pump;
+        Future<?> input = null;
+        try {
+            pump = pumpExecutor.submit(collector);
+            if (stdin != null) {
+                // 프로세스가 입력을 읽지 않아도 제한 시간을 재도록 다른 스레드에서 씀
+                input = pumpExecutor.submit(() -> writeInput(process, stdin));
+            } else {
+                closeInput(process);
+            }
+        } catch (RejectedExecutionException e) {
+            // 강제 종료 후에도 출력을 붙잡은 자식 프로세스 때문에 pump 스레드가 모자란 경우
+            process.destroyForcibly();
+            pumpRejected.incrementAndGet();
+            stat.rejected.incrementAndGet();
+            return ProcessResult.failed(ProcessResult.REJECTED);
+        }
+
+        boolean timedOut = false;
+        int exitCode;
+        try {
+            if (!process.waitFor(timeouts.get(commandClass), TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+                process.destroyForcibly();
+                process.waitFor(5, TimeUnit.SECONDS);
+            }
+            exitCode = process.isAlive() ? -1 : process.exitValue();
+            pump.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            exitCode = -1;
+        } catch (ExecutionException | TimeoutException e) {
+            // 자식 프로세스가 출력을 붙잡고 있는 경우, 모은 데까지만 사용
+            pump.cancel(true);
+            exitCode = process.isAlive() ? -1 : process.exitValue();
+        }
+        if (input != null) {
+            input.cancel(true);
+        }
+
+        long runMillis = (System.nanoTime() - startedAt) / 1000000;
+        stat.completed.incrementAndGet();
+        stat.runMillis.addAndGet(runMillis);
+        stat.maxRunMillis.accumulateAndGet(runMillis, Math::max);
+        if (timedOut) {
+            stat.timedOut.incrementAndGet();
+        }
+        return new ProcessResult(exitCode, collector.text(), collector.truncated, timedOut, null,
+                waitMillis, runMillis);
+    }
+
+    /**
+     * 명령어 분류별 대기열 길이, 실행 수, 지연 시간을 반환하는 내부 로직
+     *
+     * @return 분류 key를 key로 가지는 지표 Map (pump 스레드풀 지표는 "pump")
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        for (CommandClass commandClass : CommandClass.values()) {
+            ThreadPoolExecutor executor = executors.get(commandClass);
+            ProcessStats stat = stats.get(commandClass);
+            long completed = stat.completed.get();
+            Map<String, Object> metric = new HashMap<>();
+            metric.put("queued", executor.getQueue().size());
+            metric.put("active", executor.getActiveCount());
+            metric.put("completed", completed);
+            metric.put("rejected", stat.rejected.get());
+            metric.put("failed", stat.failed.get());
+            metric.put("timedOut", stat.timedOut.get());
+            metric.put("avgWaitMillis", completed == 0 ? 0 : stat.waitMillis.get() / completed);
+            metric.put("avgRunMillis", completed == 0 ? 0 : stat.runMillis.get() / completed);
+            metric.put("maxRunMillis", stat.maxRunMillis.get());
+            res.put(commandClass.getKey(), metric);
+        }
+        Map<String, Object> pump = new HashMap<>();
+        pump.put("active", pumpExecutor.getActiveCount());
+        pump.put("max", pumpExecutor.getMaximumPoolSize());
+        pump.put("rejected", pumpRejected.get());
+        res.put("pump", pump);
+        return res;
+    }
+
+    /**
+     * 프로세스의 stdin에 입력을 모두 쓰고 닫는 내부 로직
+     */
+    private static void writeInput(Process process, String stdin) {
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(stdin.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // 입력을 다 받기 전에 종료된 프로세스
+        }
+    }
+
+    /**
+     * 입력이 없는 프로세스의 stdin을 닫아 EOF를 알리는 내부 로직
+     */
+    private static void closeInput(Process process) {
+        try {
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            // 이미 종료된 프로세스
+        }
+    }
+
+    /**
+     * 서버 종료 시 실행 중인 명령어를 정리하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdownNow();
+        }
+        pumpExecutor.shutdownNow();
+    }
+
+    /**
+     * 명령어 분류별 누적 지표
+     */
+    private static class ProcessStats {
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong waitMillis = new AtomicLong();
+        private final AtomicLong runMillis = new AtomicLong();
+        private final AtomicLong maxRunMillis = new AtomicLong();
+    }
+
+    /**
+     * 프로세스 출력을 제한 크기까지 모으고, 나머지는 읽어서 버리는 Runnable
+     * 출력을 끝까지 읽어줘야 프로세스가 pipe에 막혀 멈추지 않는다.
+     */
+    private static class OutputCollector implements Runnable {
+        private final InputStream stream;
+        private final int limit;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private volatile boolean truncated = false;
+
+        OutputCollector(InputStream stream, int limit) {
+            this.stream = stream;
+            this.limit = limit;
+        }
+
+        @Override
+        public void run() {
+            byte[] chunk = new byte[8192];
+            int read;
+            try (InputStream in = stream) {
+                while ((read = in.read(chunk)) != -1) {
+                    synchronized (buffer) {
+                        int room = limit - buffer.size();
+                        if (room >= read) {
+                            buffer.write(chunk, 0, read);
+                        } else {
+                            if (room > 0) {
+                                buffer.write(chunk, 0, room);
+                            }
+                            truncated = true;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // 프로세스가 강제 종료되면 스트림이 닫힌다
+            }
+        }
+
+        String text() {
+            synchronized (buffer) {
+                return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
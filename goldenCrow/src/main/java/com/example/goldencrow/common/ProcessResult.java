@@ -0,0 +1,107 @@
+package com.example.goldencrow.common;
+
+/**
+ * ProcessExecutor로 실행한 명령어의 결과
+ */
+public class ProcessResult {
+
+    /**
+     * 프로세스의 종료 코드 (실행하지 못했으면 -1)
+     */
+    private final int exitCode;
+
+    /**
+     * 출력된 내용 (출력 제한까지만 저장)
+     */
+    private final String output;
+
+    /**
+     * 출력이 제한을 넘어 잘렸는지 여부
+     */
+    private final boolean truncated;
+
+    /**
+     * 제한 시간을 넘어 강제 종료되었는지 여부
+     */
+    private final boolean timedOut;
+
+    /**
+     * 실행하지 못한 이유 (대기열 초과 시 REJECTED, 실행 실패 시 에러 메시지, 정상 실행 시 null)
+     */
+    private final String error;
+
+    /**
+     * 대기열에서 기다린 시간 (ms)
+     */
+    private final long waitMillis;
+
+    /**
+     * 실행에 걸린 시간 (ms)
+     */
+    private final long runMillis;
+
+    public static final String REJECTED = "REJECTED";
+
+    public ProcessResult(int exitCode, String output, boolean truncated, boolean timedOut,
+                         String error, long waitMillis, long runMillis) {
+        this.exitCode = exitCode;
+        this.output = output;
+        this.truncated = truncated;
+        this.timedOut = timedOut;
+        this.error = error;
+        this.waitMillis = waitMillis;
+        this.runMillis = runMillis;
+    }
+
+    /**
+     * 실행하지 못한 결과를 만드는 내부 로직
+     *
+     * @param error 실행하지 못한 이유
+     * @return 실패 결과
+     */
+    public static ProcessResult failed(String error) {
+        return new ProcessResult(-1, "", false, false, error, 0, 0);
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+
+    public long getRunMillis() {
+        return runMillis;
+    }
+
+    /**
+     * 프로세스가 실행되었는지 여부 (종료 코드와 관계 없음)
+     */
+    public boolean isStarted() {
+        return error == null;
+    }
+
+    /**
+     * 프로세스가 제한 시간 안에 종료 코드 0으로 끝났는지 여부
+     */
+    public boolean isSuccess() {
+        return error == null && !timedOut && exitCode == 0;
+    }
+}
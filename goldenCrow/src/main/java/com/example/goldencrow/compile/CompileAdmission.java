@@ -0,0 +1,311 @@
+package com.example.goldencrow.compile;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 서버 전체에서 동시에 실행되는 컴파일 수를 제한하는 입장 제어
+ * <p>
+ * 동시 실행 수는 CPU 코어 수와 메모리 예산 중 작은 쪽으로 정한다.
+ * 자리가 나면 로그인 사용자의 요청을 비로그인 요청보다 먼저 받고,
+ * 같은 등급에서는 지금 실행 중인 작업이 가장 적은 팀의 가장 오래 기다린 요청을 먼저 받는다.
+ * 비로그인 요청은 전체 자리의 일부까지만 쓸 수 있고,
+ * 대기열이 가득 찼거나 대기 시간이 제한을 넘으면 거절하고 다시 시도할 시각(초)을 알려준다.
+ */
+@Component
+public class CompileAdmission {
+
+    private final int slots;
+    private final int unloginSlots;
+    private final int perOwnerSlots;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+
+    /**
+     * 대기 중인 요청, 들어온 순서대로 정렬
+     */
+    private final List<Waiter> waiting = new ArrayList<>();
+    /**
+     * 팀(비로그인은 세션)별 실행 중인 작업 수
+     */
+    private final Map<String, Integer> runningByOwner = new HashMap<>();
+    private int running = 0;
+    private int runningUnlogin = 0;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitObserved = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+
+    /**
+     * CompileAdmission 생성자
+     *
+     * @param maxRunning    CPU 기준 최대 동시 실행 수 (0이면 CPU 코어 수)
+     * @param memoryMb      컴파일에 쓸 수 있는 메모리 (MB, 0이면 물리 메모리의 3/4)
+     * @param runMemoryMb   실행 한 번이 차지한다고 보는 메모리 (MB)
+     * @param unloginShare  비로그인 요청이 쓸 수 있는 자리의 비율 (%)
+     * @param perOwnerSlots 한 팀이 동시에 쓸 수 있는 최대 자리 수
+     * @param maxQueue      대기열 최대 길이
+     * @param maxWaitMillis 대기열에서 기다릴 수 있는 최대 시간 (ms)
+     */
+    public CompileAdmission(@Value("${compile.admission.max-running:0}") int maxRunning,
+                            @Value("${compile.admission.memory-mb:0}") long memoryMb,
+                            @Value("${compile.admission.run-memory-mb:${compile.profile.run.memory-mb:512}}") long runMemoryMb,
+                            @Value("${compile.admission.unlogin-share:50}") int unloginShare,
+                            @Value("${compile.admission.per-team:2}") int perOwnerSlots,
+                            @Value("${compile.admission.max-queue:32}") int maxQueue,
+                            @Value("${compile.admission.max-wait-ms:20000}") long maxWaitMillis) {
+        int cpuSlots = maxRunning > 0 ? maxRunning : Runtime.getRuntime().availableProcessors();
+        long budget = memoryMb > 0 ? memoryMb : physicalMemoryMb() * 3 / 4;
+        int memorySlots = budget > 0 ? (int) Math.min(Integer.MAX_VALUE, budget / Math.max(1, runMemoryMb)) : cpuSlots;
+        this.slots = Math.max(1, Math.min(cpuSlots, memorySlots));
+        this.unloginSlots = Math.max(1, this.slots * unloginShare / 100);
+        this.perOwnerSlots = Math.max(1, perOwnerSlots);
+        this.maxQueue = maxQueue;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * 실행할 자리를 얻을 때까지 기다리는 내부 로직
+     *
+     * @param owner    자리를 요청한 팀 sequence 혹은 비로그인 세션 Id
+     * @param loggedIn 로그인 사용자의 요청인지 여부
+     * @return 자리를 얻었으면 isGranted()가 true인 Permit, 거절되었으면 retryAfter가 담긴 Permit
+     */
+    public Permit acquire(String owner, boolean loggedIn) {
+        long start = System.nanoTime();
+        Waiter waiter = new Waiter(owner, loggedIn);
+        synchronized (this) {
+            if (waiting.isEmpty() && canRun(waiter)) {
+                return grant(waiter, start);
+            }
+            if (waiting.size() >= maxQueue) {
+                rejected.incrementAndGet();
+                return new Permit(null, false, retryAfterSeconds(), 0);
+            }
+            waiting.add(waiter);
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            boolean interrupted = false;
+            try {
+                while (next() != waiter) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        waiting.remove(waiter);
+                        timedOut.incrementAndGet();
+                        rejected.incrementAndGet();
+                        // 이 요청이 빠지면서 다른 요청의 차례가 되었을 수 있다
+                        notifyAll();
+                        return new Permit(null, false, retryAfterSeconds(), 0);
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                waiting.remove(waiter);
+                Permit permit = grant(waiter, start);
+                notifyAll();
+                return permit;
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 팀 대기열에 넣기 전에, 지금 자리를 요청하면 바로 거절될지 확인하는 내부 로직
+     * 팀 대기열(TeamRunQueue)에서 차례를 기다린 뒤에야 거절되면 그동안 요청 스레드가 묶이므로, 먼저 확인해 바로 거절한다.
+     *
+     * @param owner    자리를 요청할 팀 sequence 혹은 비로그인 세션 Id
+     * @param loggedIn 로그인 사용자의 요청인지 여부
+     * @return 거절될 요청이면 다시 시도할 시각(초), 자리를 얻거나 기다릴 수 있으면 0
+     */
+    public synchronized long precheck(String owner, boolean loggedIn) {
+        if (waiting.isEmpty() && canRun(new Waiter(owner, loggedIn))) {
+            return 0;
+        }
+        if (waiting.size() < maxQueue) {
+            return 0;
+        }
+        rejected.incrementAndGet();
+        return retryAfterSeconds();
+    }
+
+    /**
+     * 받은 자리를 돌려주는 내부 로직
+     */
+    private synchronized void release(Waiter waiter, long grantedAt) {
+        running--;
+        if (!waiter.loggedIn) {
+            runningUnlogin--;
+        }
+        runningByOwner.computeIfPresent(waiter.owner, (key, count) -> count <= 1 ? null : count - 1);
+        finished.incrementAndGet();
+        totalRunMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - grantedAt));
+        notifyAll();
+    }
+
+    private Permit grant(Waiter waiter, long start) {
+        running++;
+        if (!waiter.loggedIn) {
+            runningUnlogin++;
+        }
+        runningByOwner.merge(waiter.owner, 1, Integer::sum);
+        admitted.incrementAndGet();
+        long now = System.nanoTime();
+        long waited = TimeUnit.NANOSECONDS.toMillis(now - start);
+        totalWaitMillis.addAndGet(waited);
+        maxWaitObserved.accumulateAndGet(waited, Math::max);
+        return new Permit(waiter, true, 0, now);
+    }
+
+    /**
+     * 지금 자리가 나면 받을 요청을 고르는 내부 로직
+     * 로그인 요청을 먼저 보고, 같은 등급 안에서는 실행 중인 작업이 적은 팀, 먼저 온 요청 순서로 고른다.
+     *
+     * @return 다음 요청, 받을 수 있는 요청이 없으면 null
+     */
+    private Waiter next() {
+        Waiter best = null;
+        int bestRunning = Integer.MAX_VALUE;
+        for (Waiter candidate : waiting) {
+            if (!canRun(candidate)) {
+                continue;
+            }
+            if (best != null && best.loggedIn && !candidate.loggedIn) {
+                continue;
+            }
+            int ownerRunning = runningByOwner.getOrDefault(candidate.owner, 0);
+            if (best == null || (candidate.loggedIn && !best.loggedIn) || ownerRunning < bestRunning) {
+                best = candidate;
+                bestRunning = ownerRunning;
+            }
+        }
+        return best;
+    }
+
+    private boolean canRun(Waiter waiter) {
+        if (running >= slots) {
+            return false;
+        }
+        if (!waiter.loggedIn && runningUnlogin >= unloginSlots) {
+            return false;
+        }
+        return runningByOwner.getOrDefault(waiter.owner, 0) < perOwnerSlots;
+    }
+
+    /**
+     * 평균 실행 시간과 대기열 길이로 다시 시도할 시각(초)을 계산하는 내부 로직
+     */
+    private long retryAfterSeconds() {
+        long count = finished.get();
+        long averageMillis = count == 0 ? 1000 : totalRunMillis.get() / count;
+        long estimate = averageMillis * (waiting.size() + 1) / slots;
+        return Math.max(1, (estimate + 999) / 1000);
+    }
+
+    /**
+     * 동시 실행 수, 대기열 길이, 입장/거절 수와 대기 시간을 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        long count = admitted.get();
+        res.put("slots", slots);
+        res.put("unloginSlots", unloginSlots);
+        res.put("running", running);
+        res.put("runningUnlogin", runningUnlogin);
+        res.put("queued", waiting.size());
+        res.put("admitted", count);
+        res.put("rejected", rejected.get());
+        res.put("timedOut", timedOut.get());
+        res.put("avgQueueMillis", count == 0 ? 0 : totalWaitMillis.get() / count);
+        res.put("maxQueueMillis", maxWaitObserved.get());
+        res.put("retryAfter", retryAfterSeconds());
+        return res;
+    }
+
+    /**
+     * compile.admission.memory-mb를 정하지 않았을 때 쓸 서버의 전체 메모리를 구하는 내부 로직
+     * 구할 수 없으면 0을 반환하고, 이때는 CPU 수만으로 자리 수를 정한다.
+     * Java 8에는 getTotalMemorySize가 없어 getTotalPhysicalMemorySize를 쓴다.
+     * JDK 14부터 deprecated지만 같은 값을 돌려주는 getTotalMemorySize를 그대로 부르므로 여기서만 경고를 끈다.
+     *
+     * @return 전체 메모리 (MB), 구할 수 없으면 0
+     */
+    @SuppressWarnings("deprecation")
+    private static long physicalMemoryMb() {
+        try {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() / (1024 * 1024);
+            }
+        } catch (RuntimeException e) {
+            // 구할 수 없으면 CPU 수만으로 정함
+        }
+        return 0;
+    }
+
+    /**
+     * 대기 중인 요청
+     */
+    private static class Waiter {
+        private final String owner;
+        private final boolean loggedIn;
+
+        Waiter(String owner, boolean loggedIn) {
+            this.owner = owner;
+            this.loggedIn = loggedIn;
+        }
+    }
+
+    /**
+     * 입장 결과, 자리를 얻었다면 실행이 끝난 뒤 close()로 돌려준다 (여러 번 호출해도 한 번만 반환)
+     */
+    public class Permit implements AutoCloseable {
+        private final Waiter waiter;
+        private final boolean granted;
+        private final long retryAfter;
+        private final long grantedAt;
+        private boolean closed = false;
+
+        Permit(Waiter waiter, boolean granted, long retryAfter, long grantedAt) {
+            this.waiter = waiter;
+            this.granted = granted;
+            this.retryAfter = retryAfter;
+            this.grantedAt = grantedAt;
+        }
+
+        public boolean isGranted() {
+            return granted;
+        }
+
+        public long getRetryAfter() {
+            return retryAfter;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (!granted || closed) {
+                    return;
+                }
+                closed = true;
+            }
+            release(waiter, grantedAt);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.goldencrow.compile;
 
+import com.example.goldencrow.compile.dto.RunResultDto;
+import com.example.goldencrow.compile.preview.PreviewService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,14 +21,21 @@ import static com.example.goldencrow.common.Constants.*;
 @RequestMapping(value = "/api/compile")
 public class CompileController {
     private final CompileService compileService;
+    private final PreviewService previewService;
+    private final RunSessionService runSessionService;
 
     /**
      * CompileController 생성자
      *
-     * @param compileService 컴파일 관련 로직을 처리하는 Service
+     * @param compileService    컴파일 관련 로직을 처리하는 Service
+     * @param previewService    팀 서버 미리보기 요청을 전달하는 Service
+     * @param runSessionService 대화형 실행 세션을 관리하는 Service
      */
-    public CompileController(CompileService compileService) {
+    public CompileController(CompileService compileService, PreviewService previewService,
+                             RunSessionService runSessionService) {
         this.compileService = compileService;
+        this.previewService = previewService;
+        this.runSessionService = runSessionService;
     }
 
     /**
@@ -34,7 +44,7 @@ public class CompileController {
      *
      * @param req "filePath" ,"input"을 key로 가지는 Map<String, String>
      * @return 컴파일 성공 시 컴파일 결과 반환, 성패에 따른 result 반환
-     * @status 200, 400, 401, 404
+     * @status 200, 400, 401, 404, 429
      */
     @PostMapping("/py")
     public ResponseEntity<Map<String, String>> pyCompilePost(@RequestBody Map<String, String> req) {
@@ -56,6 +66,8 @@ public class CompileController {
             Map<String, String> res = compileService.pyCompileService(type, mainPath, input);
             String result = res.get("result");
             switch (result) {
+                case BUSY:
+                    return busyResponse(res);
                 case SUCCESS:
                     return new ResponseEntity<>(res, HttpStatus.OK);
                 case NO_SUCH:
@@ -72,13 +84,155 @@ public class CompileController {
         }
     }
 
+    /**
+     * 실행 결과 API
+     * access token 필요
+     * pure Python 파일은 종료 코드, 출력, 잘림 여부, 단계별 시간, 자원 사용량과 traceback(파일, 줄 번호)을 나눠 반환하고,
+     * 그 외 프로젝트는 서버 주소를 response로 반환한다.
+     *
+     * @param req "filePath" ,"input"을 key로 가지는 Map<String, String>
+     * @return 실행 결과, 성패에 따른 result 반환
+     * @status 200, 400, 401, 404, 429
+     */
+    @PostMapping("/py/result")
+    public ResponseEntity<RunResultDto> pyRunResultPost(@RequestBody Map<String, String> req) {
+
+        if (req.containsKey("filePath") && req.containsKey("input")) {
+            Map<String, String> typeRes = compileService.findProjectTypeService(req.get("filePath"));
+            int type = Integer.parseInt(typeRes.get("type"));
+            if (type == 0) {
+                return new ResponseEntity<>(RunResultDto.of(BAD_REQ), HttpStatus.BAD_REQUEST);
+            }
+            RunResultDto res = compileService.pyRunService(type, typeRes.get("path"), req.get("input"));
+            switch (res.getResult()) {
+                case BUSY:
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(res.getRetryAfter()));
+                    return new ResponseEntity<>(res, headers, HttpStatus.TOO_MANY_REQUESTS);
+                case SUCCESS:
+                    return new ResponseEntity<>(res, HttpStatus.OK);
+                case NO_SUCH:
+                    return new ResponseEntity<>(res, HttpStatus.NOT_FOUND);
+                default:
+                    return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+        } else {
+            return new ResponseEntity<>(RunResultDto.of(BAD_REQ), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 스트리밍 컴파일 API
+     * pure Python 파일은 실행 출력을 /topic/run/{teamSeq}로 흘려보내고 바로 응답하며,
+     * 그 외 프로젝트는 컴파일 API와 같이 처리한다.
+     *
+     * @param req "filePath" ,"input"을 key로 가지는 Map<String, String>
+     * @return pure Python이면 구독할 "topic", 프로젝트면 컴파일 결과 반환, 성패에 따른 result 반환
+     * @status 200, 400, 404, 429
+     */
+    @PostMapping("/py/stream")
+    public ResponseEntity<Map<String, String>> pyCompileStreamPost(@RequestBody Map<String, String> req) {
+
+        if (req.containsKey("filePath") && req.containsKey("input")) {
+            String filePath = req.get("filePath");
+            String input = req.get("input");
+            Map<String, String> typeRes = compileService.findProjectTypeService(filePath);
+            int type = Integer.parseInt(typeRes.get("type"));
+            String mainPath = typeRes.get("path");
+            if (type == 0) {
+                Map<String, String> res = new HashMap<>();
+                res.put("result", BAD_REQ);
+                return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+            Map<String, String> res;
+            if (type == 1) {
+                res = compileService.pyCompileStreamService(mainPath, input);
+            } else {
+                res = compileService.pyCompileService(type, mainPath, input);
+            }
+            String result = res.get("result");
+            switch (result) {
+                case BUSY:
+                    return busyResponse(res);
+                case SUCCESS:
+                    return new ResponseEntity<>(res, HttpStatus.OK);
+                case NO_SUCH:
+                    return new ResponseEntity<>(res, HttpStatus.NOT_FOUND);
+                default:
+                    return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+        } else {
+            Map<String, String> res = new HashMap<>();
+            res.put("result", BAD_REQ);
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 대화형 실행 세션 생성 API
+     * access token 필요
+     * pure Python 파일을 실행할 컨테이너를 띄워 두고, 입력은 /code/session/{sessionId}로 보내고
+     * 출력은 /topic/session/{sessionId}에서 받는다.
+     *
+     * @param req "filePath"를 key로 가지는 Map<String, String>
+     * @return 세션 생성 성공 시 "sessionId", "topic", "destination" 반환, 성패에 따른 result 반환
+     * @status 200, 400, 401, 404, 429
+     */
+    @PostMapping("/py/session")
+    public ResponseEntity<Map<String, String>> pySessionPost(@RequestBody Map<String, String> req) {
+
+        if (req.containsKey("filePath")) {
+            Map<String, String> typeRes = compileService.findProjectTypeService(req.get("filePath"));
+            if (Integer.parseInt(typeRes.get("type")) != 1) {
+                Map<String, String> res = new HashMap<>();
+                res.put("result", BAD_REQ);
+                return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+            Map<String, String> res = runSessionService.openSessionService(typeRes.get("path"));
+            return sessionResponse(res);
+        } else {
+            Map<String, String> res = new HashMap<>();
+            res.put("result", BAD_REQ);
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 대화형 실행 API
+     * access token 필요
+     * 세션의 컨테이너에서 파일을 다시 실행하며, 이미지를 다시 만들지 않는다.
+     *
+     * @param sessionId 세션 Id
+     * @return 성패에 따른 result 반환
+     * @status 200, 400, 401, 404, 409, 429
+     */
+    @PostMapping("/py/session/{sessionId}/run")
+    public ResponseEntity<Map<String, String>> pySessionRunPost(@PathVariable String sessionId) {
+        Map<String, String> res = runSessionService.runSessionService(sessionId);
+        return sessionResponse(res);
+    }
+
+    /**
+     * 대화형 실행 세션 종료 API
+     * access token 필요
+     *
+     * @param sessionId 세션 Id
+     * @return 성패에 따른 result 반환
+     * @status 200, 401, 404
+     */
+    @DeleteMapping("/py/session/{sessionId}")
+    public ResponseEntity<Map<String, String>> pySessionDelete(@PathVariable String sessionId) {
+        Map<String, String> res = runSessionService.closeSessionService(sessionId);
+        return sessionResponse(res);
+    }
+
     /**
      * 컴파일 중지 API
      * access token 필요
      *
      * @param req "teamName", "teamSeq"을 key로 가지는 Map<String, String>
      * @return 성패에 따른 result 반환
-     * @status 200, 400, 401, 404
+     * @status 200, 400, 401, 404, 429
      */
     @PostMapping("/py/stop")
     public ResponseEntity<Map<String, String>> pyCompileStopPost(@RequestBody Map<String, String> req) {
@@ -89,6 +243,8 @@ public class CompileController {
             Map<String, String> res = compileService.pyCompileStopService(teamName, teamSeq);
             String result = res.get("result");
             switch (result) {
+                case BUSY:
+                    return busyResponse(res);
                 case SUCCESS:
                     return new ResponseEntity<>(res, HttpStatus.OK);
                 case NO_SUCH:
@@ -103,5 +259,65 @@ public class CompileController {
         }
     }
 
+    /**
+     * 컴파일 지표 조회 API
+     * access token 필요
+     *
+     * @return 명령어 분류별 대기열 길이, 실행 수, 지연 시간, 미리보기 전달, 대화형 세션 지표 반환, 성패에 따른 result 반환
+     * @status 200, 401
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> metricsGet() {
+        Map<String, Object> res = compileService.metricsService();
+        res.put("preview", previewService.metrics());
+        res.put("session", runSessionService.metrics());
+        return new ResponseEntity<>(res, HttpStatus.OK);
+    }
+
+    /**
+     * 팀 자원 사용량 조회 API
+     * access token 필요
+     *
+     * @param teamSeq 조회할 팀의 sequence
+     * @return 실행 수, 누적 CPU 시간(초), 누적 실행 시간(ms), 최대 메모리(KB), 시간 초과 수, 적용 중인 자원 제한 반환
+     * @status 200, 401
+     */
+    @GetMapping("/usage/{teamSeq}")
+    public ResponseEntity<Map<String, Object>> teamUsageGet(@PathVariable Long teamSeq) {
+        Map<String, Object> res = compileService.teamUsageService(String.valueOf(teamSeq));
+        return new ResponseEntity<>(res, HttpStatus.OK);
+    }
+
+    /**
+     * 대화형 실행 세션 API의 결과를 응답으로 바꾸는 내부 로직
+     *
+     * @param res 성패에 따른 result
+     * @return result에 맞는 응답
+     */
+    private ResponseEntity<Map<String, String>> sessionResponse(Map<String, String> res) {
+        switch (res.get("result")) {
+            case BUSY:
+                return busyResponse(res);
+            case SUCCESS:
+                return new ResponseEntity<>(res, HttpStatus.OK);
+            case NO_SUCH:
+                return new ResponseEntity<>(res, HttpStatus.NOT_FOUND);
+            case DUPLICATE:
+                return new ResponseEntity<>(res, HttpStatus.CONFLICT);
+            default:
+                return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
 
+    /**
+     * 입장이 거절된 요청에 Retry-After 헤더와 함께 429를 반환하는 내부 로직
+     *
+     * @param res BUSY와 "retryAfter"를 담은 결과
+     * @return 429 응답
+     */
+    private ResponseEntity<Map<String, String>> busyResponse(Map<String, String> res) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, res.get("retryAfter"));
+        return new ResponseEntity<>(res, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
 }
@@ -1,11 +1,16 @@
 package com.example.goldencrow.compile;
 
-import com.example.goldencrow.file.dto.FileCreateDto;
+import com.example.goldencrow.common.ProcessExecutor;
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.DockerException;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.dto.RunResultDto;
 import com.example.goldencrow.file.service.FileService;
 import com.example.goldencrow.file.service.ProjectService;
 import com.example.goldencrow.team.entity.TeamEntity;
 import com.example.goldencrow.team.repository.TeamRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -13,6 +18,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static com.example.goldencrow.common.Constants.*;
 
@@ -21,9 +27,6 @@ import static com.example.goldencrow.common.Constants.*;
  */
 @Service
 public class CompileService {
-    private String FLASK = "import Flask";
-    private String FASTAPI = "import FastAPI";
-    private String DJANGO = "os.environ.setdefault('DJANGO_SETTINGS_MODULE'";
 
     @Autowired
     private FileService fileService;
@@ -33,129 +36,151 @@ public class CompileService {
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private ContainerPool containerPool;
+
+    @Autowired
+    private ProcessExecutor processExecutor;
+
+    @Autowired
+    private RunStreamService runStreamService;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private TeamRunQueue teamRunQueue;
+
+    @Autowired
+    private CompileAdmission compileAdmission;
+
+    @Autowired
+    private ProjectTypeCache projectTypeCache;
+
+    @Autowired
+    private SandboxPool sandboxPool;
+
+    @Autowired
+    private ResourceProfiles resourceProfiles;
+
+    @Autowired
+    private RunMeter runMeter;
+
+    @Autowired
+    private PortAllocator portAllocator;
+
+    @Autowired
+    private ContainerReaper containerReaper;
+
+    @Autowired
+    private RuntimeSnapshots runtimeSnapshots;
+
     /**
-     * 명령어를 linux bash에 입력, 출력된 내용을 String으로 반환하는 내부 로직
-     *
-     * @param cmd 명령어
-     * @return 명령어 수행 성공 시 결과 문자열 반환, 성패에 따른 result 반환
+     * 팀 서버를 포트 대신 팀별 미리보기 도메인({teamSeq}.{미리보기 도메인})으로 보여줄지 여부
+     * 미리보기 도메인의 wildcard DNS와 인증서가 준비된 경우에만 켠다.
      */
-    public String resultStringService(String[] cmd) {
-        System.out.println(Arrays.toString(cmd));
-        ProcessBuilder command = new ProcessBuilder(cmd);
-        command.redirectErrorStream(true);
-        StringBuilder msg = new StringBuilder();
+    @Value("${compile.preview.enabled:false}")
+    private boolean previewEnabled;
 
-        try {
-            String read;
-            Process p = command.start();
-            BufferedReader result = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            while ((read = result.readLine()) != null) {
-                msg.append(read).append("\n");
+    /**
+     * 팀 번호를 앞에 붙여 팀 서버를 열 미리보기 도메인
+     */
+    @Value("${compile.preview.domain:preview.k7d207.p.ssafy.io}")
+    private String previewDomain;
+
+    /**
+     * 각 프로젝트 종류에 따라 컨테이너 실행 설정을 만드는 내부 로직
+     * 의존성은 ImageCache의 이미지에 설치되어 있으므로, 실행 명령어와 작업 디렉토리, 자원 제한만 정한다.
+     *
+     * @param image        컨테이너를 만들 이미지
+     * @param absolutePath 실행할 파일의 절대 경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param type         프로젝트의 타입 번호 (1: pure python, 2: django, 3: flask, 4: fastapi)
+     * @param input        pure python 파일일 때 input값 (없으면 빈 문자열)
+     * @param profile      컨테이너에 적용할 자원 제한
+     * @param meter        pure python 파일일 때 사용량을 잴 Meter (서버는 null)
+     * @return 컨테이너 설정
+     */
+    public ContainerSpecDto runSpec(String image, String absolutePath, int type, String input,
+                                    ResourceProfiles.Profile profile, RunMeter.Meter meter) {
+        if (type == 1) {
+            ContainerSpecDto spec = new ContainerSpecDto(image, pythonExecCommand(absolutePath, input, meter, profile));
+            String[] env = pythonExecEnv(input);
+            if (env != null) {
+                spec.setEnv(Arrays.asList(env));
             }
-            p.waitFor();
-        } catch (IOException e) {
-            return NO_SUCH;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return UNKNOWN;
+            return profile.applyTo(spec);
         }
-        return msg.toString();
+        ContainerSpecDto spec = new ContainerSpecDto(image, serverCommand(type, absolutePath, profile));
+        spec.setWorkingDir(serverWorkDir(type, absolutePath));
+        return profile.applyTo(spec);
     }
 
     /**
-     * 각 프로젝트 종류에 따라 도커파일을 생성하는 내부 로직
+     * 프로젝트 서버를 실행하는 명령어를 만드는 내부 로직
      *
-     * @param absolutePath 도커파일을 생성하려는 절대 경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
-     * @param teamSeq      도커파일을 생성하려는 프로젝트의 팀 sequence
-     * @param type         프로젝트의 타입 번호 (1: pure python, 2: django, 3: flask, 4: fastapi)
-     * @return 성패에 따른 result 반환
+     * @param type         프로젝트의 타입 번호 (2: django, 3: flask, 4: fastapi)
+     * @param absolutePath 실행할 파일의 절대 경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param profile      서버에 적용할 자원 제한 (실행 시간 제한이 있으면 timeout으로 감쌈)
+     * @return 컨테이너 안에서 실행할 명령어
      */
-    public String createDockerfile(String absolutePath, Long teamSeq, int type, String input) {
-        // teamSeq가 DB에 존재하는지 체크
-        Optional<TeamEntity> existTeam = teamRepository.findByTeamSeq(teamSeq);
-        if (!existTeam.isPresent()) {
-            return NO_SUCH;
+    public String[] serverCommand(int type, String absolutePath, ResourceProfiles.Profile profile) {
+        String[] command = serverCommand(type, absolutePath);
+        if (profile.getWallSeconds() <= 0) {
+            return command;
         }
-        System.out.println("createDockerfile에서 absolutePath : " + absolutePath);
+        String[] limited = new String[command.length + 4];
+        limited[0] = "timeout";
+        limited[1] = "-k";
+        limited[2] = "5";
+        limited[3] = String.valueOf(profile.getWallSeconds());
+        System.arraycopy(command, 0, limited, 4, command.length);
+        return limited;
+    }
+
+    /**
+     * 프로젝트 서버를 실행하는 명령어를 만드는 내부 로직 (자원 제한 없음)
+     *
+     * @param type         프로젝트의 타입 번호 (2: django, 3: flask, 4: fastapi)
+     * @param absolutePath 실행할 파일의 절대 경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @return 컨테이너 안에서 실행할 명령어
+     */
+    private String[] serverCommand(int type, String absolutePath) {
         String[] pathList = absolutePath.split("/");
-        System.out.println(Arrays.toString(pathList));
         int lastIdx = pathList.length - 1;
-        System.out.println("lastIdx" + lastIdx);
-//        String teamSeq = pathList[4];
-        String teamSeqPath = pathList[0] + "/" + pathList[1] + "/" + pathList[2] + "/"
-                + pathList[3] + "/" + pathList[4];
-        System.out.println("teamSeqPath" + teamSeqPath);
-        System.out.println(pathList[lastIdx]);
-        String[] mainFileNameList = pathList[lastIdx].split("\\.");
-        System.out.println("mainFileNameList " + Arrays.toString(mainFileNameList));
-        String mainFileName = mainFileNameList[0];
-        System.out.println("mainFileName" + mainFileName);
-        StringBuilder filePathBuilder = new StringBuilder();
+        // 프로젝트 기준 상대경로 (teamName/.../main.py)
+        StringBuilder relativeBuilder = new StringBuilder();
         for (int i = 5; i <= lastIdx; i++) {
-            filePathBuilder.append(pathList[i]).append("/");
+            relativeBuilder.append(pathList[i]).append("/");
         }
-        String filePath = filePathBuilder.substring(0, filePathBuilder.length() - 1);
-
-        String fastapiMainPath = absolutePath.replace(mainFileName + ".py", "");
+        String relativePath = relativeBuilder.substring(0, relativeBuilder.length() - 1);
+        String mainFileName = pathList[lastIdx].split("\\.")[0];
 
-        String content = "";
-
-        // 1: pure Python, 2 : Django, 3 : Flask, 4 : FastAPI
-        if (type == 1) {
-            if (input.isEmpty()) {
-                content = "FROM python:3.10\n" +
-                        "CMD [\"python3\", \"" + absolutePath + "\"]\n" +
-                        "EXPOSE 3000";
-            } else {
-                String inputString = "\"" + input + "\"";
-                content = "FROM python:3.10\n" +
-                        "CMD /bin/sh \n" +
-                        "CMD echo " + inputString +
-                        " | python3 " + absolutePath + "\n" +
-                        "EXPOSE 3000";
-            }
-        } else if (type == 2) {
-            content = "FROM python:3.10\n" +
-                    "RUN pip3 install django\n" +
-                    "WORKDIR " + teamSeqPath + "\n" +
-                    "COPY . .\n" +
-                    "CMD [\"python3\", \"" + filePath + "\", \"runserver\", \"0.0.0.0:3000\"]\n" +
-                    "EXPOSE 3000";
+        if (type == 2) {
+            return new String[]{"python3", relativePath, "runserver", "0.0.0.0:3000"};
         } else if (type == 3) {
-            content = "FROM python:3.10\n" +
-                    "WORKDIR " + teamSeqPath + "\n" +
-                    "COPY . .\n" +
-                    "RUN pip3 install Flask\n" +
-                    "EXPOSE 5000\n" +
-                    "CMD [ \"python3\" , \"" + filePath + "\", \"run\", \"--host=0.0.0.0\"]";
-        } else if (type == 4) {
-            content = "FROM python:3.10\n" +
-                    "WORKDIR " + fastapiMainPath + "\n" +
-                    "RUN python3 -m venv venv\n" +
-                    "RUN . ./venv/bin/activate\n" +
-                    "RUN pip3 install uvicorn[standard]\n" +
-                    "RUN pip3 install fastapi\n" +
-                    "COPY . .\n" +
-                    "EXPOSE 8000\n" +
-                    "CMD [\"uvicorn\", \"" + mainFileName +
-                    ":app" + "\", \"--host\", \"0.0.0.0\"]";
-        }
-
-        // Dockerfile 생성
-        File file = new File(teamSeqPath + "/Dockerfile");
-
-        // Dockerfile에 content 저장
-        try (FileWriter overWriteFile = new FileWriter(file, false)) {
-            overWriteFile.write(content);
-        } catch (IOException e) {
-            return UNKNOWN;
+            return new String[]{"python3", relativePath, "run", "--host=0.0.0.0"};
+        }
+        return new String[]{"uvicorn", mainFileName + ":app", "--host", "0.0.0.0"};
+    }
+
+    /**
+     * 프로젝트 서버를 실행할 작업 디렉토리를 정하는 내부 로직
+     * Django, Flask는 팀 디렉토리, FastAPI는 main 파일이 있는 디렉토리
+     *
+     * @param type         프로젝트의 타입 번호 (2: django, 3: flask, 4: fastapi)
+     * @param absolutePath 실행할 파일의 절대 경로
+     * @return 작업 디렉토리
+     */
+    public String serverWorkDir(int type, String absolutePath) {
+        String[] pathList = absolutePath.split("/");
+        if (type == 4) {
+            String mainFileName = pathList[pathList.length - 1].split("\\.")[0];
+            return absolutePath.replace(mainFileName + ".py", "");
         }
-        // DB에 저장
-        FileCreateDto fileCreateDto;
-        fileCreateDto =
-                new FileCreateDto("Dockerfile", teamSeqPath + "/Dockerfile", teamSeq);
-        fileService.insertFileService(fileCreateDto);
-        return SUCCESS;
+        return BASE_URL + pathList[4];
     }
 
     /**
@@ -165,25 +190,23 @@ public class CompileService {
      * @return 명령어를 수행하고 나온 출력값 반환
      */
     public String portNumService(String container) {
-        // linux bash에서 포트 번호를 검색하는 명령어
-        String[] command = {"docker", "port", container};
-
-        // 명령어 실행 로직 수행
-        String result = resultStringService(command);
-        System.out.println(result);
-        if (result.startsWith("Error: No such container")) {
+        // 컨테이너 정보에서 처음 연결된 포트 번호를 가져오기
+        String port;
+        try {
+            port = dockerEngineClient.hostPort(container, null);
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+        if (port == null) {
             return NO_SUCH;
         }
-        // \n 전까지의 문자열에서 : 뒤에 있는 숫자만 가져오기
-        String[] portList = result.split("\n");
-        String[] containerPort = portList[0].split(":");
-        System.out.println(Arrays.toString(containerPort));
-        // 서버 URL 생성
-        return containerPort[1];
+        return port;
     }
 
     /**
      * 프로젝트 혹은 파일을 컴파일하는 내부 로직
+     * 같은 팀의 컴파일은 TeamRunQueue에서 하나씩 실행되고, 대기 중에 들어온 같은 파일, 같은 input의 요청은 하나로 합쳐진다.
+     * 입장 제어의 대기열이 가득 차 있으면 팀 대기열에 넣지 않고 바로 BUSY를 반환한다.
      *
      * @param type     프로젝트의 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
      * @param filePath 컴파일을 수행할 프로젝트 혹은 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
@@ -191,6 +214,121 @@ public class CompileService {
      * @return 컴파일 성공 시 컴파일 결과 반환, 성패에 따른 result 반환
      */
     public Map<String, String> pyCompileService(int type, String filePath, String input) {
+        String teamSeq = filePath.split("/")[4];
+        long retryAfter = compileAdmission.precheck(teamSeq, true);
+        if (retryAfter > 0) {
+            return busyResult(retryAfter);
+        }
+        return new HashMap<>(teamRunQueue.submit(teamSeq, TeamRunQueue.key("run", type + "", filePath, input),
+                () -> admitService(teamSeq, true, () -> pyCompileTaskService(type, filePath, input)),
+                this::busyResult));
+    }
+
+    /**
+     * 프로젝트 혹은 파일을 실행하고 결과를 종료 코드, 단계별 시간, traceback으로 나눠 반환하는 내부 로직
+     * pure Python 파일은 출력과 함께 종료 코드, 잘림 여부, traceback을 담고,
+     * 그 외 프로젝트는 서버를 띄운 뒤 주소를 response에 담는다.
+     *
+     * @param type     프로젝트의 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param filePath 실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param input    pure python 파일일 때 input값 (없으면 빈 문자열)
+     * @return 실행 결과, 성패에 따른 result 반환
+     */
+    public RunResultDto pyRunService(int type, String filePath, String input) {
+        if (type != 1) {
+            Map<String, String> serverRes = pyCompileService(type, filePath, input);
+            RunResultDto result = RunResultDto.of(serverRes.get("result"));
+            result.setResponse(serverRes.get("response"));
+            if (serverRes.containsKey("retryAfter")) {
+                result.setRetryAfter(Long.valueOf(serverRes.get("retryAfter")));
+            }
+            return result;
+        }
+        long requestedAt = System.currentTimeMillis();
+        String teamSeq = filePath.split("/")[4];
+        long retryAfter = compileAdmission.precheck(teamSeq, true);
+        if (retryAfter > 0) {
+            return busyRunResult(retryAfter);
+        }
+        return teamRunQueue.submit(teamSeq, TeamRunQueue.key("run-result", filePath, input), () -> {
+            long queueMillis = System.currentTimeMillis() - requestedAt;
+            try (CompileAdmission.Permit permit = compileAdmission.acquire(teamSeq, true)) {
+                if (!permit.isGranted()) {
+                    return busyRunResult(permit.getRetryAfter());
+                }
+                RunResultDto result = pythonRunTaskService(filePath, input);
+                if (result.getTiming() != null) {
+                    result.getTiming().put("queueMillis", queueMillis);
+                }
+                return result;
+            }
+        }, this::busyRunResult);
+    }
+
+    /**
+     * 대기열이나 입장 제어에서 거절된 실행 결과를 만드는 내부 로직
+     *
+     * @param retryAfter 다시 시도할 시각 (초)
+     * @return BUSY와 retryAfter를 담은 실행 결과
+     */
+    public RunResultDto busyRunResult(long retryAfter) {
+        RunResultDto busy = RunResultDto.of(BUSY);
+        busy.setRetryAfter(retryAfter);
+        return busy;
+    }
+
+    /**
+     * 입장 제어에서 자리를 얻은 뒤 작업을 실행하고, 끝나면 자리를 돌려주는 내부 로직
+     *
+     * @param owner    자리를 요청한 팀 sequence 혹은 비로그인 세션 Id
+     * @param loggedIn 로그인 사용자의 요청인지 여부
+     * @param task     실행할 작업
+     * @return 작업 결과, 자리를 얻지 못하면 BUSY와 "retryAfter"(초) 반환
+     */
+    public Map<String, String> admitService(String owner, boolean loggedIn, Supplier<Map<String, String>> task) {
+        try (CompileAdmission.Permit permit = compileAdmission.acquire(owner, loggedIn)) {
+            if (!permit.isGranted()) {
+                return busyResult(permit);
+            }
+            return task.get();
+        }
+    }
+
+    /**
+     * 입장이 거절된 요청의 결과를 만드는 내부 로직
+     *
+     * @param permit 거절된 입장 결과
+     * @return BUSY와 "retryAfter"(초)를 담은 result
+     */
+    public Map<String, String> busyResult(CompileAdmission.Permit permit) {
+        return busyResult(permit.getRetryAfter());
+    }
+
+    /**
+     * 대기열이나 입장 제어에서 거절된 요청의 결과를 만드는 내부 로직
+     *
+     * @param retryAfter 다시 시도할 시각 (초)
+     * @return BUSY와 "retryAfter"(초)를 담은 result
+     */
+    public Map<String, String> busyResult(long retryAfter) {
+        Map<String, String> serviceRes = new HashMap<>();
+        serviceRes.put("result", BUSY);
+        serviceRes.put("retryAfter", String.valueOf(retryAfter));
+        return serviceRes;
+    }
+
+    /**
+     * 팀의 차례가 왔을 때 실제로 컴파일을 수행하는 내부 로직
+     *
+     * @param type     프로젝트의 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param filePath 컴파일을 수행할 프로젝트 혹은 파일의 절대경로
+     * @param input    pure python 파일일 때 input값 (없으면 빈 문자열)
+     * @return 컴파일 성공 시 컴파일 결과 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> pyCompileTaskService(int type, String filePath, String input) {
+        if (type == 1) {
+            return pythonRunTaskService(filePath, input).toMap();
+        }
         Map<String, String> serviceRes = new HashMap<>();
         String[] pathList = filePath.split("/");
         int lastIdx = pathList.length - 1;
@@ -198,8 +336,28 @@ public class CompileService {
         String teamName = pathList[5];
         // 프로젝트명과 teamSeq로 docker container와 image 이름 생성
         String conAndImgName = "crowstudio_" + teamName.toLowerCase().replaceAll(" ", "") + "_" + teamSeq;
+        String projectPath = BASE_URL + teamSeq;
+
+        // Django, FastAPI는 의존성이 그대로면 남은 컨테이너를 다시 시작하거나 저장된 실행 환경으로 실행
+        boolean snapshotted = runtimeSnapshots.supports(type);
+        String depsTag = null;
+        String snapshot = null;
+        if (snapshotted) {
+            try {
+                depsTag = imageCache.tagFor(type, new File(projectPath + "/" + teamName));
+            } catch (IOException e) {
+                serviceRes.put("result", UNKNOWN);
+                return serviceRes;
+            }
+            snapshot = runtimeSnapshots.image(Long.valueOf(teamSeq), depsTag);
+            Map<String, String> restarted = warmRestartService(type, filePath, conAndImgName, depsTag, snapshot);
+            if (restarted != null) {
+                return restarted;
+            }
+        }
+
         // 현재 실행되고 있는 컨테이너, 이미지 삭제, 도커파일 삭제
-        Map<String, String> stopped = pyCompileStopService(teamName, teamSeq);
+        Map<String, String> stopped = pyCompileStopTaskService(teamName, teamSeq);
         if (stopped.get("result").equals(SUCCESS)) {
             System.out.println("삭제 성공");
         }
@@ -208,65 +366,75 @@ public class CompileService {
             serviceRes.put("result", NO_SUCH);
             return serviceRes;
         }
-        String port = teamEntity.get().getTeamPort();
-        // 절대경로 생성
-//        String absolutePath;
-        // pure Python일 경우 파일명까지, 프로젝트일 경우 프로젝트명까지 절대경로로 선언
-//        if (type == 1) {
-//            absolutePath = filePath;
-//        } else {
-//            absolutePath = BASE_URL + teamSeq;
-//        }
-
-        String projectPath = BASE_URL + teamSeq;
-
-        // 도커 파일 생성
-        String dockerfile = createDockerfile(filePath, Long.valueOf(teamSeq), type, input);
-        if (!Objects.equals(dockerfile, "SUCCESS")) {
-            serviceRes.put("result", dockerfile);
-            return serviceRes;
+        // 미리보기 프록시를 쓰지 않을 때만 팀의 서버 포트를 외부에 연다 (회수된 팀은 새로 할당)
+        String port = null;
+        if (!previewEnabled) {
+            port = portAllocator.lease(teamEntity.get().getTeamSeq());
+            if (port == null) {
+                serviceRes.put("result", UNKNOWN);
+                return serviceRes;
+            }
+        }
+        // 새로 띄운 서버는 idle-ttl 동안 멈추지 않음
+        containerReaper.touch(teamEntity.get().getTeamSeq());
+
+        // 대기 중인 컨테이너를 빌려 실행, Pool이 가득 찬 경우 이미지를 빌드해 실행
+        // 실행 환경을 저장하는 타입은 프로젝트를 연결한 팀 컨테이너를 만들어야 하므로 Pool을 쓰지 않음
+        if (!snapshotted) {
+            PooledContainer pooled = containerPool.lease(type, Long.valueOf(teamSeq), projectPath);
+            if (pooled != null) {
+                return pooledCompileService(pooled, type, filePath, input);
+            }
         }
 
-        // 도커 이미지 빌드
-        String[] image = {"docker", "build", "-t", conAndImgName, projectPath + "/"};
-        String imageBuild = resultStringService(image);
-        if (imageBuild.isEmpty()) {
+        // 저장된 실행 환경 혹은 의존성이 설치된 실행 이미지 (같은 의존성이면 빌드하지 않고 재사용)
+        String image = snapshot;
+        try {
+            if (image == null) {
+                image = imageCache.resolve(type, new File(projectPath + "/" + teamName));
+            }
+        } catch (IOException e) {
             serviceRes.put("result", UNKNOWN);
             return serviceRes;
         }
         String insidePort;
         switch (type) {
             case 3:
-                insidePort = ":5000";
+                insidePort = "5000";
                 break;
             case 4:
-                insidePort = ":8000";
+                insidePort = "8000";
                 break;
             default:
-                insidePort = ":3000";
+                insidePort = "3000";
                 break;
         }
 
-        // 도커 컨테이너 런
-        String[] command = new String[]{"docker", "run", "-d", "--name", conAndImgName, "-v",
-                    projectPath + ":" + projectPath, "-p", port + insidePort, conAndImgName};
-//        if (type == 1) {
-//            command = new String[]{"docker", "run", "-d", "--name", conAndImgName, "-v",
-//                    projectPath + ":" + projectPath, "-p", port + insidePort, conAndImgName};
-//        } else {
-//            command = new String[]{"docker", "run", "-d", "--name", conAndImgName, "-p", port + insidePort, conAndImgName};
-//        }
+        // 도커 컨테이너 런 (팀의 자원 제한 적용)
+        ContainerSpecDto spec = runSpec(image, filePath, type, input, resourceProfiles.forType(type, teamSeq), null)
+                .bind(projectPath, projectPath);
+        if (port != null) {
+            spec.publish(insidePort, port);
+        }
 
         // 결과 문자열
-        String response = resultStringService(command);
+        String response;
+        boolean started = false;
+        try {
+            response = dockerEngineClient.createContainer(conAndImgName, spec);
+            dockerEngineClient.startContainer(response);
+            started = true;
+        } catch (IOException e) {
+            response = e.getMessage();
+        }
 
-        if (type == 1) {
-            String[] pythonCmd = {"docker", "logs", "-f", conAndImgName};
-            String pythonResponse = resultStringService(pythonCmd);
-            String pathUpdateRes = pythonResponse.replace(BASE_URL, "");
-            System.out.println(pythonResponse);
+        if (started && snapshotted && snapshot == null) {
+            // 서버가 준비되면 실행 환경을 팀 이미지로 저장
+            runtimeSnapshots.checkpoint(Long.valueOf(teamSeq), conAndImgName, depsTag);
+        }
+        if (previewEnabled && started) {
             serviceRes.put("result", SUCCESS);
-            serviceRes.put("response", pathUpdateRes);
+            serviceRes.put("response", previewUrl(teamSeq));
             return serviceRes;
         } else if (portNumService(conAndImgName).equals(port)) {
             serviceRes.put("result", SUCCESS);
@@ -280,6 +448,334 @@ public class CompileService {
 
     }
 
+    /**
+     * 팀의 차례가 왔을 때 pure Python 파일을 실행하는 내부 로직
+     * 대기 중인 sandbox, Pool 컨테이너, 새 컨테이너 순서로 실행할 곳을 찾고,
+     * 출력은 RunOutput으로 한 번만 읽어 경로를 지우고 traceback을 찾는다.
+     *
+     * @param filePath 실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param input    input값 (없으면 빈 문자열)
+     * @return 종료 코드, 출력, 단계별 시간, traceback, 자원 사용량을 담은 결과, 성패에 따른 result 반환
+     */
+    public RunResultDto pythonRunTaskService(String filePath, String input) {
+        long startedAt = System.currentTimeMillis();
+        String[] pathList = filePath.split("/");
+        String teamSeq = pathList[4];
+        String teamName = pathList[5];
+        String conAndImgName = "crowstudio_" + teamName.toLowerCase().replaceAll(" ", "") + "_" + teamSeq;
+        String projectPath = BASE_URL + teamSeq;
+
+        // 현재 실행되고 있는 컨테이너 삭제
+        pyCompileStopTaskService(teamName, teamSeq);
+        if (!teamRepository.findTeamPortByTeamSeq(Long.valueOf(teamSeq)).isPresent()) {
+            return RunResultDto.of(NO_SUCH);
+        }
+
+        RunResultDto result;
+        // 격리된 sandbox에서 바로 실행, sandbox가 없거나 프로젝트가 크거나 네트워크를 쓰면 Pool 컨테이너, 새 컨테이너 순서로 실행
+        SandboxPool.SandboxRun sandboxRun = sandboxPool.project(new File(projectPath), teamSeq,
+                filePath.substring(BASE_URL.length()), input, resourceProfiles.run(teamSeq));
+        PooledContainer pooled = sandboxRun == null
+                ? containerPool.lease(1, Long.valueOf(teamSeq), projectPath) : null;
+        if (sandboxRun != null) {
+            result = sandboxRunService(teamSeq, sandboxRun, sandboxRun.getWorkDir() + "/");
+        } else if (pooled != null) {
+            result = pooledRunService(pooled, filePath, input);
+        } else {
+            String image;
+            try {
+                image = imageCache.resolve(1, new File(projectPath + "/" + teamName));
+            } catch (IOException e) {
+                return RunResultDto.of(UNKNOWN);
+            }
+            RunMeter.Meter meter = runMeter.meter();
+            ContainerSpecDto spec = runSpec(image, filePath, 1, input, resourceProfiles.run(teamSeq), meter)
+                    .bind(projectPath, projectPath);
+            try {
+                dockerEngineClient.createContainer(conAndImgName, spec);
+                dockerEngineClient.startContainer(conAndImgName);
+                result = meter.scan(consumer -> dockerEngineClient.streamContainer(conAndImgName, consumer), BASE_URL);
+            } catch (IOException e) {
+                result = RunOutput.failed(e.getMessage());
+            }
+            runMeter.record(teamSeq, meter.usage());
+        }
+
+        // 실행 준비 시간은 전체 시간에서 실행 시간을 뺀 값
+        if (result.getTiming() != null) {
+            long totalMillis = System.currentTimeMillis() - startedAt;
+            result.getTiming().put("totalMillis", totalMillis);
+            result.getTiming().put("prepareMillis", totalMillis - result.getTiming().get("runMillis"));
+        }
+        return result;
+    }
+
+    /**
+     * 같은 의존성, 같은 명령어로 만든 팀 컨테이너가 남아 있으면 다시 만들지 않고 서버만 다시 시작하는 내부 로직
+     *
+     * @param type          프로젝트의 타입 (2: Django, 4: FastAPI)
+     * @param filePath      실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param conAndImgName 팀 컨테이너 이름
+     * @param depsTag       지금 의존성의 이미지 이름
+     * @param snapshot      쓸 수 있는 저장된 이미지 이름 (없으면 null)
+     * @return 다시 시작했으면 미리보기 주소 혹은 포트 반환, 새로 만들어야 하면 null
+     */
+    public Map<String, String> warmRestartService(int type, String filePath, String conAndImgName,
+                                                  String depsTag, String snapshot) {
+        String teamSeq = filePath.split("/")[4];
+        String[] command = serverCommand(type, filePath, resourceProfiles.server(teamSeq));
+        if (!runtimeSnapshots.restart(conAndImgName, depsTag, snapshot, command, serverWorkDir(type, filePath))) {
+            return null;
+        }
+        Map<String, String> serviceRes = new HashMap<>();
+        if (previewEnabled) {
+            serviceRes.put("response", previewUrl(teamSeq));
+        } else {
+            // 포트가 회수되었거나 바뀐 경우 컨테이너를 새로 만듦
+            String port = portAllocator.lease(Long.valueOf(teamSeq));
+            if (port == null || !port.equals(portNumService(conAndImgName))) {
+                return null;
+            }
+            serviceRes.put("response", "k7d207.p.ssafy.io:" + port);
+        }
+        containerReaper.touch(Long.valueOf(teamSeq));
+        serviceRes.put("result", SUCCESS);
+        return serviceRes;
+    }
+
+    /**
+     * sandbox에서 pure Python 파일을 실행하고 출력을 반환하는 내부 로직
+     *
+     * @param owner      사용량을 기록할 팀 sequence 혹은 RunMeter.UNLOGIN_OWNER
+     * @param sandboxRun 실행 준비가 된 sandbox
+     * @param hiddenPath 출력에서 지울 sandbox 안의 경로
+     * @return 실행 결과와 자원 사용량 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> sandboxCompileService(String owner, SandboxPool.SandboxRun sandboxRun,
+                                                     String hiddenPath) {
+        return sandboxRunService(owner, sandboxRun, hiddenPath).toMap();
+    }
+
+    /**
+     * sandbox에서 pure Python 파일을 실행하고 결과를 나눠 반환하는 내부 로직
+     *
+     * @param owner      사용량을 기록할 팀 sequence 혹은 RunMeter.UNLOGIN_OWNER
+     * @param sandboxRun 실행 준비가 된 sandbox
+     * @param hiddenPath 출력에서 지울 sandbox 안의 경로
+     * @return 종료 코드, 출력, traceback, 자원 사용량을 담은 결과
+     */
+    public RunResultDto sandboxRunService(String owner, SandboxPool.SandboxRun sandboxRun, String hiddenPath) {
+        RunResultDto result = sandboxRun.scan(hiddenPath);
+        runMeter.record(owner, sandboxRun.getUsage());
+        return result;
+    }
+
+    /**
+     * Pool에서 빌린 컨테이너 안에서 pure Python 파일을 실행하고 컨테이너를 반납하는 내부 로직
+     *
+     * @param container 빌린 컨테이너
+     * @param filePath  실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param input     input값 (없으면 빈 문자열)
+     * @return 종료 코드, 출력, traceback, 자원 사용량을 담은 결과
+     */
+    public RunResultDto pooledRunService(PooledContainer container, String filePath, String input) {
+        String teamSeq = String.valueOf(container.getTeamSeq());
+        RunMeter.Meter meter = runMeter.meter();
+        String[] command = pythonExecCommand(filePath, input, meter, resourceProfiles.run(teamSeq));
+        String[] env = pythonExecEnv(input);
+        RunResultDto result = meter.scan(
+                consumer -> dockerEngineClient.execStream(container.getName(), command, env, null, consumer), BASE_URL);
+        containerPool.release(container);
+        runMeter.record(teamSeq, meter.usage());
+        return result;
+    }
+
+    /**
+     * Pool에서 빌린 컨테이너 안에서 프로젝트 혹은 파일을 실행하는 내부 로직
+     *
+     * @param container 빌린 컨테이너
+     * @param type      프로젝트의 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param filePath  실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param input     pure python 파일일 때 input값 (없으면 빈 문자열)
+     * @return 컴파일 성공 시 컴파일 결과 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> pooledCompileService(PooledContainer container, int type, String filePath, String input) {
+        Map<String, String> serviceRes = new HashMap<>();
+
+        String teamSeq = String.valueOf(container.getTeamSeq());
+        if (type == 1) {
+            return pooledRunService(container, filePath, input).toMap();
+        }
+
+        try {
+            dockerEngineClient.execDetached(container.getName(),
+                    serverCommand(type, filePath, resourceProfiles.server(teamSeq)), serverWorkDir(type, filePath));
+        } catch (IOException e) {
+            containerPool.release(container);
+            serviceRes.put("result", UNKNOWN);
+            serviceRes.put("response", e.getMessage());
+            return serviceRes;
+        }
+        serviceRes.put("result", SUCCESS);
+        serviceRes.put("response", previewEnabled ? previewUrl(teamSeq) : "k7d207.p.ssafy.io:" + container.getHostPort());
+        return serviceRes;
+    }
+
+    /**
+     * 팀 서버의 미리보기 주소를 만드는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     * @return 미리보기 주소 ({teamSeq}.{미리보기 도메인}/)
+     */
+    public String previewUrl(String teamSeq) {
+        return teamSeq + "." + previewDomain + "/";
+    }
+
+    /**
+     * 컨테이너에서 pure Python 파일을 실행하는 명령어를 만드는 내부 로직
+     * 파일은 RunMeter.WRAPPER의 자식 프로세스로 실행되어 실행 시간, CPU 시간이 제한되고 사용량이 출력 끝에 붙는다.
+     *
+     * @param filePath 실행할 파일의 절대경로
+     * @param input    input값 (없으면 빈 문자열)
+     * @param meter    사용량을 읽을 Meter
+     * @param profile  실행에 적용할 자원 제한
+     * @return 컨테이너 안에서 실행할 명령어
+     */
+    public String[] pythonExecCommand(String filePath, String input, RunMeter.Meter meter,
+                                      ResourceProfiles.Profile profile) {
+        String wall = String.valueOf(profile.getWallSeconds());
+        String cpu = String.valueOf(profile.getCpuSeconds());
+        if (input.isEmpty()) {
+            return new String[]{"python3", "-c", RunMeter.WRAPPER, meter.getMarker(), wall, cpu, filePath};
+        }
+        // input과 WRAPPER는 쉘 문자열에 넣지 않고 환경변수로 전달
+        return new String[]{"sh", "-c", "echo \"$CROW_INPUT\" | python3 -c \"$CROW_METER\" \"$0\" \"$1\" \"$2\" \"$3\"",
+                meter.getMarker(), wall, cpu, filePath};
+    }
+
+    /**
+     * pure Python 실행 명령어에 넘길 환경변수를 만드는 내부 로직
+     *
+     * @param input input값 (없으면 빈 문자열)
+     * @return 환경변수 목록 (input이 없으면 null)
+     */
+    public String[] pythonExecEnv(String input) {
+        if (input.isEmpty()) {
+            return null;
+        }
+        return new String[]{"CROW_INPUT=" + input, "CROW_METER=" + RunMeter.WRAPPER};
+    }
+
+    /**
+     * pure Python 파일을 실행하고 출력을 STOMP topic으로 흘려보내는 내부 로직
+     * 실행은 비동기로 진행되며, 출력은 /topic/run/{teamSeq}로 전송된다.
+     *
+     * @param filePath 실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @param input    input값 (없으면 빈 문자열)
+     * @return 실행 등록 성공 시 구독할 topic 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> pyCompileStreamService(String filePath, String input) {
+        String teamSeq = filePath.split("/")[4];
+        long retryAfter = compileAdmission.precheck(teamSeq, true);
+        if (retryAfter > 0) {
+            return busyResult(retryAfter);
+        }
+        return new HashMap<>(teamRunQueue.submit(teamSeq, TeamRunQueue.key("stream", filePath, input),
+                () -> pyCompileStreamTaskService(filePath, input), this::busyResult));
+    }
+
+    /**
+     * 팀의 차례가 왔을 때 실제로 스트리밍 실행을 등록하는 내부 로직
+     *
+     * @param filePath 실행할 파일의 절대경로
+     * @param input    input값 (없으면 빈 문자열)
+     * @return 실행 등록 성공 시 구독할 topic 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> pyCompileStreamTaskService(String filePath, String input) {
+        Map<String, String> serviceRes = new HashMap<>();
+        String[] pathList = filePath.split("/");
+        String teamSeq = pathList[4];
+        String teamName = pathList[5];
+        String conAndImgName = "crowstudio_" + teamName.toLowerCase().replaceAll(" ", "") + "_" + teamSeq;
+        // 현재 실행되고 있는 컨테이너 정리
+        pyCompileStopTaskService(teamName, teamSeq);
+        Optional<TeamEntity> teamEntity = teamRepository.findByTeamSeq(Long.valueOf(teamSeq));
+        if (!teamEntity.isPresent()) {
+            serviceRes.put("result", NO_SUCH);
+            return serviceRes;
+        }
+        String projectPath = BASE_URL + teamSeq;
+        String topic = RunStreamService.RUN_TOPIC + teamSeq;
+
+        // 스트리밍 실행은 출력이 끝날 때까지 자리를 차지한다
+        CompileAdmission.Permit permit = compileAdmission.acquire(teamSeq, true);
+        if (!permit.isGranted()) {
+            return busyResult(permit);
+        }
+
+        RunStreamService.RunSource source;
+        Runnable onCancel;
+        Runnable onFinish;
+        String hiddenPath = BASE_URL;
+        ResourceProfiles.Profile profile = resourceProfiles.run(teamSeq);
+        SandboxPool.SandboxRun sandboxRun = sandboxPool.project(new File(projectPath), teamSeq,
+                filePath.substring(BASE_URL.length()), input, profile);
+        PooledContainer pooled = sandboxRun != null ? null
+                : containerPool.lease(1, Long.valueOf(teamSeq), projectPath);
+        if (sandboxRun != null) {
+            source = sandboxRun;
+            hiddenPath = sandboxRun.getWorkDir() + "/";
+            onCancel = null;
+            onFinish = () -> {
+                sandboxRun.close();
+                runMeter.record(teamSeq, sandboxRun.getUsage());
+                permit.close();
+            };
+        } else if (pooled != null) {
+            String containerName = pooled.getName();
+            RunMeter.Meter meter = runMeter.meter();
+            String[] command = pythonExecCommand(filePath, input, meter, profile);
+            String[] env = pythonExecEnv(input);
+            source = meter.wrap(consumer -> dockerEngineClient.execStream(containerName, command, env, null, consumer));
+            // 빌린 handle로만 반납하므로, 중단 후 같은 컨테이너를 다시 빌린 실행은 회수하지 않음
+            onCancel = () -> containerPool.release(pooled);
+            onFinish = () -> {
+                containerPool.release(pooled);
+                runMeter.record(teamSeq, meter.usage());
+                permit.close();
+            };
+        } else {
+            // 컨테이너를 먼저 만들어 두고, 실행과 함께 출력을 끝까지 따라가며 읽은 뒤 종료 코드를 기다린다
+            RunMeter.Meter meter = runMeter.meter();
+            try {
+                String image = imageCache.resolve(1, new File(projectPath + "/" + teamName));
+                dockerEngineClient.createContainer(conAndImgName,
+                        runSpec(image, filePath, 1, input, profile, meter).bind(projectPath, projectPath));
+            } catch (IOException e) {
+                permit.close();
+                serviceRes.put("result", UNKNOWN);
+                return serviceRes;
+            }
+            source = meter.wrap(consumer -> {
+                dockerEngineClient.startContainer(conAndImgName);
+                return dockerEngineClient.streamContainer(conAndImgName, consumer);
+            });
+            onCancel = () -> removeContainerQuietly(conAndImgName);
+            onFinish = () -> {
+                runMeter.record(teamSeq, meter.usage());
+                permit.close();
+            };
+        }
+
+        if (!runStreamService.stream(topic, source, hiddenPath, onCancel, onFinish)) {
+            serviceRes.put("result", UNKNOWN);
+            return serviceRes;
+        }
+        serviceRes.put("result", SUCCESS);
+        serviceRes.put("topic", topic);
+        return serviceRes;
+    }
+
     /**
      * 컴파일 중단을 처리하는 내부로직
      *
@@ -288,13 +784,48 @@ public class CompileService {
      * @return 성패에 따른 result 반환
      */
     public Map<String, String> pyCompileStopService(String teamName, String teamSeq) {
+        return new HashMap<>(teamRunQueue.submit(teamSeq, TeamRunQueue.key("stop"),
+                () -> pyCompileStopTaskService(teamName, teamSeq), this::busyResult));
+    }
+
+    /**
+     * 팀의 차례가 왔을 때 실제로 컴파일을 중단하는 내부 로직
+     * 컴파일, 스트리밍 실행 중에는 이 메서드를 직접 호출한다.
+     *
+     * @param teamName 컴파일 중단할 프로젝트의 팀 이름
+     * @param teamSeq  컴파일 중단할 프로젝트의 팀 sequence
+     * @return 성패에 따른 result 반환
+     */
+    public Map<String, String> pyCompileStopTaskService(String teamName, String teamSeq) {
         String conAndImgName = "crowstudio_" + teamName.toLowerCase().replaceAll(" ", "") + "_" + teamSeq;
+        Map<String, String> serviceRes = new HashMap<>();
+
+        // 실행 중인 서버가 있으면 지우기 전에 지금까지의 사용량을 cgroup 통계로 기록
+        List<PooledContainer> pooled = containerPool.leasedBy(Long.valueOf(teamSeq));
+        if (pooled.isEmpty()) {
+            runMeter.record(teamSeq, runMeter.containerUsage(conAndImgName));
+        }
+
+        // Pool에서 빌린 컨테이너로 실행 중이었다면 반납
+        boolean released = false;
+        for (PooledContainer container : pooled) {
+            if (container.getType() != 1) {
+                runMeter.record(teamSeq, runMeter.containerUsage(container.getName()));
+            }
+            released |= containerPool.release(container);
+        }
+        if (released) {
+            serviceRes.put("result", SUCCESS);
+            return serviceRes;
+        }
 
         // 도커 컨테이너 멈추기
-        String[] containerStop = {"docker", "stop", conAndImgName};
-        Map<String, String> serviceRes = new HashMap<>();
-        String stopedCon = resultStringService(containerStop);
-        System.out.println("컨테이너 중지" + stopedCon);
+        try {
+            boolean stopedCon = dockerEngineClient.stopContainer(conAndImgName, 10);
+            System.out.println("컨테이너 중지" + stopedCon);
+        } catch (IOException e) {
+            System.out.println("컨테이너 중지" + e.getMessage());
+        }
         // 컨테이너가 없는 경우
 //        if (stopedCon.equals("No such container")) {
 //            serviceRes.put("result", NO_SUCH);
@@ -305,9 +836,12 @@ public class CompileService {
 //        }
 
         // 컨테이너 삭제
-        String[] containerRm = {"docker", "rm", conAndImgName};
-        String removedCon = resultStringService(containerRm);
-        System.out.println("컨테이너 삭제" + removedCon);
+        try {
+            boolean removedCon = dockerEngineClient.removeContainer(conAndImgName, false);
+            System.out.println("컨테이너 삭제" + removedCon);
+        } catch (IOException e) {
+            System.out.println("컨테이너 삭제" + e.getMessage());
+        }
         // 컨테이너가 없는 경우
 //        if (removedCon.equals("No such container")) {
 //            serviceRes.put("result", NO_SUCH);
@@ -317,59 +851,82 @@ public class CompileService {
 //            return serviceRes;
 //        }
 
-        // 도커 이미지 삭제
-        String[] imageRm = {"docker", "rmi", conAndImgName};
-        String rmImg = resultStringService(imageRm);
-        System.out.println("이미지 삭제" + rmImg);
-        // 이미지가 없는 경우
-//        if (rmImg.contains("No such image")) {
-//            serviceRes.put("result", NO_SUCH);
-//            return serviceRes;
-//        } else if (rmImg.startsWith("Error")) {
-//            serviceRes.put("result", UNKNOWN);
-//            return serviceRes;
-//        }
+        // 실행 이미지는 ImageCache가 팀 사이에서 재사용하므로 삭제하지 않음
 
-        // 도커파일 삭제
-        Map<String, String> deletedFile = fileService.deleteFileService(
-                BASE_URL + teamSeq + "/Dockerfile", 2, Long.parseLong(teamSeq));
-        if (!deletedFile.get("result").equals(SUCCESS)) {
-            serviceRes.put("result", deletedFile.get("result"));
-            return serviceRes;
+        // 이전 방식으로 만들어진 도커파일이 남아 있으면 삭제
+        if (new File(BASE_URL + teamSeq + "/Dockerfile").exists()) {
+            Map<String, String> deletedFile = fileService.deleteFileService(
+                    BASE_URL + teamSeq + "/Dockerfile", 2, Long.parseLong(teamSeq));
+            if (!deletedFile.get("result").equals(SUCCESS)) {
+                serviceRes.put("result", deletedFile.get("result"));
+                return serviceRes;
+            }
         }
         serviceRes.put("result", SUCCESS);
         return serviceRes;
     }
 
     /**
-     * 팀 생성 시 자동으로 최초 컨테이너를 생성시켜 포트를 할당하는 내부 로직
+     * 컨테이너를 강제로 삭제하고, 실패는 무시하는 내부 로직
      *
-     * @param teamName 생성된 팀의 이름
-     * @param teamSeq  생성된 팀의 Sequence
-     * @return 생성된 컨테이너의 포트 번호, 성패에 따른 result 반환
+     * @param container 삭제할 컨테이너 이름
      */
-    public Map<String, String> containerCreateService(String teamName, Long teamSeq) {
-        Map<String, String> serviceRes = new HashMap<>();
-        String conAndImgName = "crowstudio_" + teamName.toLowerCase().replaceAll(" ", "") + "_" + teamSeq;
-        // python docker image로 초기 컨테이너 생성 및 포트 할당
-        String[] cmd = {"docker", "run", "-d", "--name", conAndImgName, "-p", "3000", "initialpython"};
-        String result = resultStringService(cmd);
-        System.out.println(result);
-        // 포트번호 가져오기
-        String portString = portNumService(conAndImgName);
-        if (portString.equals(NO_SUCH)) {
-            serviceRes.put("result", WRONG);
-            return serviceRes;
-        }
-        if (result.startsWith("Error: No such container")) {
-            serviceRes.put("result", NO_SUCH);
-            return serviceRes;
+    public void removeContainerQuietly(String container) {
+        try {
+            dockerEngineClient.removeContainer(container, true);
+        } catch (IOException e) {
+            System.out.println("컨테이너 삭제" + e.getMessage());
         }
-        serviceRes.put("port", portString);
+    }
+
+    /**
+     * 컴파일 관련 지표를 모아 반환하는 내부 로직
+     *
+     * @return 명령어 분류별 대기열 길이, 실행 수, 지연 시간과 Docker Engine API 호출, 이미지 캐시, 팀별 대기열, 입장 제어, 프로젝트 타입 캐시, sandbox, 자원 사용량, 포트 할당, 컨테이너 정리, 실행 환경 저장 지표
+     */
+    public Map<String, Object> metricsService() {
+        Map<String, Object> serviceRes = new HashMap<>();
+        serviceRes.put("process", processExecutor.metrics());
+        serviceRes.put("docker", dockerEngineClient.metrics());
+        serviceRes.put("imageCache", imageCache.metrics());
+        serviceRes.put("runQueue", teamRunQueue.metrics());
+        serviceRes.put("admission", compileAdmission.metrics());
+        serviceRes.put("projectType", projectTypeCache.metrics());
+        serviceRes.put("sandbox", sandboxPool.metrics());
+        serviceRes.put("meter", runMeter.metrics());
+        serviceRes.put("port", portAllocator.metrics());
+        serviceRes.put("reaper", containerReaper.metrics());
+        serviceRes.put("snapshot", runtimeSnapshots.metrics());
         serviceRes.put("result", SUCCESS);
         return serviceRes;
     }
 
+    /**
+     * 팀의 누적 자원 사용량을 반환하는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     * @return 실행 수, 누적 CPU 시간(초), 누적 실행 시간(ms), 최대 메모리(KB), 시간 초과 수, 적용 중인 자원 제한 반환
+     */
+    public Map<String, Object> teamUsageService(String teamSeq) {
+        Map<String, Object> serviceRes = runMeter.usage(teamSeq);
+        ResourceProfiles.Profile run = resourceProfiles.run(teamSeq);
+        ResourceProfiles.Profile server = resourceProfiles.server(teamSeq);
+        serviceRes.put("runProfile", profileMap(run));
+        serviceRes.put("serverProfile", profileMap(server));
+        serviceRes.put("result", SUCCESS);
+        return serviceRes;
+    }
+
+    private Map<String, Object> profileMap(ResourceProfiles.Profile profile) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("memoryMb", profile.getMemoryMb());
+        res.put("cpus", profile.getCpus());
+        res.put("pids", profile.getPids());
+        res.put("wallSeconds", profile.getWallSeconds());
+        res.put("cpuSeconds", profile.getCpuSeconds());
+        return res;
+    }
+
     /**
      * 프로젝트 타입 구분하는 내부 로직
      *
@@ -380,65 +937,14 @@ public class CompileService {
         Map<String, String> serviceRes = new HashMap<>();
         String[] pathList = filePath.split("/");
         String projectPath = BASE_URL + pathList[0] + "/" + pathList[1] + "/";
-        List<String> initialList = new ArrayList<>();
-        List<String> fileList = showFilesInDIr(projectPath, initialList);
-        if (fileList == null) {
+        // 파일이 바뀌지 않았다면 이전 판별 결과를 재사용
+        ProjectTypeCache.Detection detection = projectTypeCache.detect(projectPath);
+        if (detection == null) {
             serviceRes.put("type", "0");
             return serviceRes;
         }
-        // 통상적인 Django에 있는 manage.py가 있고 그 안에 특정 코드가 있으면 Django 프로젝트
-        if (fileList.contains(BASE_URL + projectPath + "manage.py")) {
-            Map<String, String> settingFile = fileService.readFileService(BASE_URL + projectPath + "manage.py");
-            String settingContent = settingFile.get("fileContent");
-            if (settingContent.contains(DJANGO)) {
-                serviceRes.put("type", "2");
-                serviceRes.put("path", BASE_URL + projectPath + "manage.py");
-                return serviceRes;
-            }
-        }
-        for (String file : fileList) {
-            Map<String, String> fileContentRes = fileService.readFileService(file);
-            String fileContent = fileContentRes.get("fileContent");
-            if (fileContent.contains(FASTAPI)) {
-                serviceRes.put("type", "4");
-                serviceRes.put("path", file);
-                return serviceRes;
-            } else if (fileContent.contains(FLASK)) {
-                serviceRes.put("type", "3");
-                serviceRes.put("path", file);
-                return serviceRes;
-            } else if (fileContent.contains(DJANGO)) {
-                serviceRes.put("type", "2");
-                serviceRes.put("path", file);
-                return serviceRes;
-            }
-        }
-        serviceRes.put("type", "1");
-        serviceRes.put("path", BASE_URL + filePath);
+        serviceRes.put("type", String.valueOf(detection.getType()));
+        serviceRes.put("path", detection.getPath() == null ? BASE_URL + filePath : detection.getPath());
         return serviceRes;
     }
-
-    /**
-     * 프로젝트에 있는 모든 파일을 리스트로 반환하는 내부 로직
-     *
-     * @param filePath 파일 조회할 프로젝트 경로
-     * @param fileList 현재 파일 리스트
-     * @return 파일 리스트 반환
-     */
-    public List<String> showFilesInDIr(String filePath, List<String> fileList) {
-        System.out.println(filePath);
-        File dir = new File(filePath);
-        File[] files = dir.listFiles();
-        if (files == null) {
-            return null;
-        }
-        for (File file : files) {
-            if (file.isDirectory()) {
-                showFilesInDIr(file.getPath(), fileList);
-            } else {
-                fileList.add(file.getPath());
-            }
-        }
-        return fileList;
-    }
 }
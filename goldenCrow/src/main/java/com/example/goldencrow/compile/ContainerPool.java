@@ -0,0 +1,378 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 팀별로 띄워둔 python:3.10 실행 컨테이너를 관리하는 Pool
+ * <p>
+ * 컴파일 시 매번 docker build, docker run 을 수행하는 대신,
+ * 팀 디렉토리를 같은 절대경로로 연결한 컨테이너를 빌려 exec 으로 실행하고,
+ * pure Python 컨테이너는 반납하면 프로세스만 정리해 남겨둔다.
+ * (서버 컨테이너는 cgroup 사용량을 실행 한 번 단위로 기록하도록 반납할 때 삭제한다)
+ * 같은 팀이 다시 실행하면 그 컨테이너를 그대로 쓰므로 프로젝트를 복사하지 않고,
+ * 프로그램이 만든 파일도 docker run -v 로 실행하던 때처럼 팀 디렉토리에 남는다.
+ * 컨테이너는 한 팀의 디렉토리만 연결하므로 다른 팀에게는 빌려주지 않으며,
+ * 최대 수에 이르면 가장 오래 쉬고 있는 다른 팀의 컨테이너를 지우고 새로 만든다.
+ * 자원 제한은 팀별 값으로 만들고, 빌려줄 때 설정이 바뀌었으면 다시 적용한다.
+ */
+@Component
+public class ContainerPool {
+    public static final String POOL_PREFIX = "crowpool_";
+
+    /**
+     * 타입별로 유휴 시간이 지나도 남겨둘 최소 대기 컨테이너 수 (최근에 반납된 순서)
+     */
+    @Value("${compile.pool.min-size:1}")
+    private int minSize;
+
+    /**
+     * 타입별로 생성할 수 있는 최대 컨테이너 수 (대기 + 사용 중)
+     */
+    @Value("${compile.pool.max-size:4}")
+    private int maxSize;
+
+    /**
+     * 최소 수를 넘는 대기 컨테이너를 정리하기까지의 유휴 시간 (ms)
+     */
+    @Value("${compile.pool.idle-timeout:600000}")
+    private long idleTimeout;
+
+    /**
+     * 미리보기 프록시를 쓰면 서버 포트를 외부에 열지 않음
+     */
+    @Value("${compile.preview.enabled:false}")
+    private boolean previewEnabled;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ResourceProfiles resourceProfiles;
+
+    private final Map<Integer, Deque<PooledContainer>> idle = new HashMap<>();
+    private final Map<Integer, Integer> total = new HashMap<>();
+    /**
+     * 빌려준 컨테이너 (컨테이너 이름 - 대여 handle)
+     */
+    private final Map<String, PooledContainer> leased = new ConcurrentHashMap<>();
+    /**
+     * 컨테이너에 적용된 자원 제한 (컨테이너 이름 - 자원 제한)
+     */
+    private final Map<String, ResourceProfiles.Profile> limits = new ConcurrentHashMap<>();
+    private volatile boolean initialized = false;
+
+    /**
+     * ContainerPool 생성자
+     */
+    public ContainerPool() {
+        for (int type = 1; type <= 4; type++) {
+            idle.put(type, new ArrayDeque<>());
+            total.put(type, 0);
+        }
+    }
+
+    /**
+     * 팀 디렉토리가 연결된 대기 컨테이너를 빌리거나, 없으면 새로 만드는 내부 로직
+     *
+     * @param type        프로젝트 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param teamSeq     컨테이너를 빌리는 팀의 sequence
+     * @param projectPath 컨테이너에 연결할 팀 디렉토리 (BASE_URL + teamSeq)
+     * @return 빌린 컨테이너의 handle (반납할 때 그대로 넘김), Pool이 가득 찼거나 준비에 실패하면 null
+     */
+    public PooledContainer lease(int type, Long teamSeq, String projectPath) {
+        if (type < 1 || type > 4 || maxSize <= 0) {
+            return null;
+        }
+        PooledContainer container = null;
+        PooledContainer evicted = null;
+        synchronized (this) {
+            Iterator<PooledContainer> it = idle.get(type).iterator();
+            while (it.hasNext()) {
+                PooledContainer waiting = it.next();
+                if (teamSeq.equals(waiting.getTeamSeq()) && projectPath.equals(waiting.getProjectPath())) {
+                    it.remove();
+                    container = waiting;
+                    break;
+                }
+            }
+            if (container == null) {
+                if (total.get(type) < maxSize) {
+                    // 생성 중인 컨테이너도 최대 수에 포함
+                    total.put(type, total.get(type) + 1);
+                } else {
+                    // 가장 오래 쉬고 있는 다른 팀의 컨테이너 자리를 넘겨받음
+                    evicted = idle.get(type).pollLast();
+                    if (evicted == null) {
+                        return null;
+                    }
+                }
+            }
+        }
+        if (evicted != null) {
+            removeContainer(evicted.getName());
+            limits.remove(evicted.getName());
+        }
+
+        ResourceProfiles.Profile profile = resourceProfiles.forType(type, String.valueOf(teamSeq));
+        ResourceProfiles.Profile applied = container == null ? null : limits.get(container.getName());
+        if (container == null) {
+            container = createContainer(type, teamSeq, projectPath, profile);
+            if (container == null) {
+                decreaseTotal(type);
+                return null;
+            }
+        } else if (applied == null || !profile.sameLimits(applied)) {
+            // 대기하는 동안 팀의 자원 제한이 바뀐 경우
+            try {
+                dockerEngineClient.updateContainer(container.getName(), profile.toHostConfig());
+                limits.put(container.getName(), profile);
+            } catch (IOException e) {
+                destroy(container);
+                return null;
+            }
+        }
+        PooledContainer handle = container.lease(teamSeq, projectPath);
+        leased.put(handle.getName(), handle);
+        return handle;
+    }
+
+    /**
+     * 빌려간 컨테이너를 회수하는 내부 로직
+     * pure Python 컨테이너는 실행 중인 프로세스를 모두 종료하고 같은 팀이 다시 빌릴 수 있도록 Pool에 되돌리며,
+     * 서버가 실행 중인 프로젝트 컨테이너는 삭제한다.
+     * 팀 디렉토리는 연결만 되어 있으므로 지우지 않는다.
+     * 이미 반납한 handle이면 같은 컨테이너를 다시 빌려간 다른 실행이 있어도 회수하지 않는다.
+     *
+     * @param container lease()가 반환한 handle
+     * @return 회수했는지 여부 (이미 반납했으면 false)
+     */
+    public boolean release(PooledContainer container) {
+        if (container == null || !leased.remove(container.getName(), container)) {
+            return false;
+        }
+        if (container.getType() != 1) {
+            destroy(container);
+            return true;
+        }
+        // 아직 실행 중인 프로세스를 모두 종료 (PID 1인 sleep은 제외됨)
+        String[] cleanCmd = {"sh", "-c", "kill -9 -1 2>/dev/null; true"};
+        if (!dockerEngineClient.exec(container.getName(), cleanCmd, null, null).isSuccess()) {
+            destroy(container);
+            return true;
+        }
+        PooledContainer waiting = new PooledContainer(container.getName(), container.getType(),
+                container.getHostPort(), container.getTeamSeq(), container.getProjectPath());
+        synchronized (this) {
+            idle.get(container.getType()).addFirst(waiting);
+        }
+        return true;
+    }
+
+    /**
+     * 팀이 빌려간 컨테이너를 조회하는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     * @return 빌려간 컨테이너의 handle 목록, 없으면 빈 목록
+     */
+    public List<PooledContainer> leasedBy(Long teamSeq) {
+        List<PooledContainer> containers = new ArrayList<>();
+        for (PooledContainer container : leased.values()) {
+            if (teamSeq.equals(container.getTeamSeq())) {
+                containers.add(container);
+            }
+        }
+        return containers;
+    }
+
+    /**
+     * 팀이 빌려가 서버를 실행 중인 컨테이너 목록을 조회하는 내부 로직
+     *
+     * @return Django, Flask, FastAPI 서버를 실행 중인 컨테이너 목록
+     */
+    public List<PooledContainer> leasedServers() {
+        List<PooledContainer> servers = new ArrayList<>();
+        for (PooledContainer container : leased.values()) {
+            if (container.getType() != 1) {
+                servers.add(container);
+            }
+        }
+        return servers;
+    }
+
+    /**
+     * 주기적으로 오래 쉬고 있는 컨테이너를 정리하는 내부 로직
+     * 컨테이너마다 한 팀의 디렉토리가 연결되므로 미리 만들어 두지 않는다.
+     */
+    @Scheduled(initialDelayString = "${compile.pool.warmup-delay:10000}",
+            fixedDelayString = "${compile.pool.maintain-interval:30000}")
+    public void maintain() {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (!initialized) {
+            // 이전 실행에서 남은 Pool 컨테이너 정리
+            try {
+                for (ContainerSummaryDto leftover : dockerEngineClient.listContainers(POOL_PREFIX, true)) {
+                    removeContainer(leftover.getId());
+                }
+                initialized = true;
+            } catch (IOException e) {
+                // Docker Engine에 연결할 수 없으면 다음 주기에 다시 시도
+                return;
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (int type = 1; type <= 4; type++) {
+            List<PooledContainer> evicted = new ArrayList<>();
+            synchronized (this) {
+                Deque<PooledContainer> waiting = idle.get(type);
+                Iterator<PooledContainer> it = waiting.descendingIterator();
+                while (it.hasNext() && waiting.size() > minSize) {
+                    PooledContainer container = it.next();
+                    if (now - container.getLastUsedAt() > idleTimeout) {
+                        it.remove();
+                        evicted.add(container);
+                    }
+                }
+            }
+            for (PooledContainer container : evicted) {
+                destroy(container);
+            }
+        }
+    }
+
+    /**
+     * 서버 종료 시 Pool의 모든 컨테이너를 삭제하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<PooledContainer> all = new ArrayList<>(leased.values());
+        leased.clear();
+        synchronized (this) {
+            for (Deque<PooledContainer> waiting : idle.values()) {
+                all.addAll(waiting);
+                waiting.clear();
+            }
+        }
+        for (PooledContainer container : all) {
+            removeContainer(container.getName());
+        }
+    }
+
+    /**
+     * 팀 디렉토리를 연결한 새 컨테이너를 띄우는 내부 로직
+     *
+     * @param type        프로젝트 타입
+     * @param teamSeq     디렉토리를 연결할 팀의 sequence
+     * @param projectPath 컨테이너의 같은 절대경로에 연결할 팀 디렉토리
+     * @param profile     팀의 자원 제한
+     * @return 생성된 컨테이너, 실패 시 null
+     */
+    private PooledContainer createContainer(int type, Long teamSeq, String projectPath,
+                                            ResourceProfiles.Profile profile) {
+        String image = prepareImage(type);
+        if (image == null) {
+            return null;
+        }
+        String name = POOL_PREFIX + type + "_" + teamSeq + "_" + UUID.randomUUID().toString().substring(0, 8);
+        String insidePort = insidePort(type);
+        ContainerSpecDto spec = profile.applyTo(new ContainerSpecDto(image, "sleep", "infinity"))
+                .bind(projectPath, projectPath);
+        boolean publish = insidePort != null && !previewEnabled;
+        if (publish) {
+            spec.publish(insidePort, "");
+        }
+        String hostPort = null;
+        try {
+            dockerEngineClient.createContainer(name, spec);
+            dockerEngineClient.startContainer(name);
+            if (publish) {
+                hostPort = dockerEngineClient.hostPort(name, insidePort);
+                if (hostPort == null) {
+                    removeContainer(name);
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            removeContainer(name);
+            return null;
+        }
+        limits.put(name, profile);
+        return new PooledContainer(name, type, hostPort, teamSeq, projectPath);
+    }
+
+    /**
+     * 프로젝트 타입에 맞는 의존성이 설치된 이미지를 준비하는 내부 로직
+     *
+     * @param type 프로젝트 타입
+     * @return 사용할 이미지 이름, 실패 시 null
+     */
+    private String prepareImage(int type) {
+        try {
+            return imageCache.resolve(type, null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 프로젝트 타입별 컨테이너 내부 서버 포트
+     *
+     * @param type 프로젝트 타입
+     * @return 내부 포트, pure Python은 null
+     */
+    public static String insidePort(int type) {
+        switch (type) {
+            case 2:
+                return "3000";
+            case 3:
+                return "5000";
+            case 4:
+                return "8000";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Pool에서 컨테이너를 완전히 제거하는 내부 로직
+     *
+     * @param container 제거할 컨테이너
+     */
+    private void destroy(PooledContainer container) {
+        removeContainer(container.getName());
+        limits.remove(container.getName());
+        decreaseTotal(container.getType());
+    }
+
+    private synchronized void decreaseTotal(int type) {
+        total.put(type, Math.max(0, total.get(type) - 1));
+    }
+
+    /**
+     * 컨테이너를 강제로 삭제하는 내부 로직 (이미 없으면 무시)
+     *
+     * @param container 삭제할 컨테이너 이름 또는 id
+     */
+    private void removeContainer(String container) {
+        try {
+            dockerEngineClient.removeContainer(container, true);
+        } catch (IOException e) {
+            // 다음 정리 주기에 다시 시도
+        }
+    }
+}
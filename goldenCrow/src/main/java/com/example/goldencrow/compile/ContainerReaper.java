@@ -0,0 +1,289 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerStatsDto;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 오래 쓰이지 않은 팀 서버 컨테이너를 멈추고, 캐시 이미지와 남은 컨테이너를 조금씩 정리하는 Component
+ * <p>
+ * 자정에 모든 서버를 한꺼번에 멈추는 대신, 팀별로 마지막 활동 시각(실행, 미리보기 접속)을 기록하고
+ * idle-ttl이 지난 서버만 네트워크 사용량을 확인해 그동안 요청이 없었던 경우에 멈춘다.
+ * 한 주기에 확인하는 컨테이너 수와 삭제하는 이미지 수를 제한해 Docker Engine에 부하가 몰리지 않게 한다.
+ */
+@Component
+public class ContainerReaper {
+    private static final String SERVER_PREFIX = "crowstudio_";
+    private static final String UNLOGIN_PREFIX = "unlogin_";
+
+    /**
+     * 활동이 없는 서버를 멈추기까지의 시간 (ms)
+     */
+    @Value("${compile.reaper.idle-ttl:1800000}")
+    private long idleTtl;
+
+    /**
+     * 네트워크 사용량을 비교할 최소 간격 (ms)
+     */
+    @Value("${compile.reaper.sample-window:60000}")
+    private long sampleWindow;
+
+    /**
+     * 한 주기에 사용량을 확인할 최대 컨테이너 수
+     */
+    @Value("${compile.reaper.batch-size:8}")
+    private int batchSize;
+
+    /**
+     * 한 주기에 삭제를 시도할 최대 캐시 이미지 수
+     */
+    @Value("${compile.reaper.image-batch:2}")
+    private int imageBatch;
+
+    /**
+     * tag 없는 이미지를 정리하는 간격 (ms)
+     */
+    @Value("${compile.reaper.prune-interval:3600000}")
+    private long pruneInterval;
+
+    /**
+     * 비로그인 실행 컨테이너가 정리되지 않고 남아 있을 수 있는 최대 시간 (ms)
+     */
+    @Value("${compile.reaper.unlogin-max-age:600000}")
+    private long unloginMaxAge;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ContainerPool containerPool;
+
+    @Autowired
+    private RunMeter runMeter;
+
+    private final Map<Long, Activity> activities = new ConcurrentHashMap<>();
+    private long lastPruneAt = System.currentTimeMillis();
+
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong kept = new AtomicLong();
+    private final AtomicLong reaped = new AtomicLong();
+    private final AtomicLong leftovers = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * 팀 서버가 사용되었음을 기록하는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     */
+    public void touch(Long teamSeq) {
+        activity(teamSeq, System.currentTimeMillis()).lastActiveAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 주기적으로 오래 쓰이지 않은 서버를 멈추고, 남은 비로그인 컨테이너와 캐시 이미지를 조금씩 정리하는 내부 로직
+     */
+    @Scheduled(initialDelayString = "${compile.reaper.interval:30000}",
+            fixedDelayString = "${compile.reaper.interval:30000}")
+    public void reap() {
+        Map<String, PooledContainer> pooled = new HashMap<>();
+        Map<Long, String> servers = runningServers(pooled);
+        if (servers != null) {
+            reapIdle(servers, pooled);
+        }
+        removeLeftovers();
+        evicted.addAndGet(imageCache.evict(imageBatch));
+        long now = System.currentTimeMillis();
+        if (now - lastPruneAt > pruneInterval) {
+            lastPruneAt = now;
+            try {
+                dockerEngineClient.pruneImages(true);
+            } catch (IOException e) {
+                // 다음 주기에 다시 시도
+            }
+        }
+    }
+
+    /**
+     * 확인, 유지, 중지한 서버 수와 정리한 컨테이너, 이미지 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("tracked", activities.size());
+        res.put("checked", checked.get());
+        res.put("kept", kept.get());
+        res.put("reaped", reaped.get());
+        res.put("leftovers", leftovers.get());
+        res.put("evicted", evicted.get());
+        res.put("idleTtl", idleTtl);
+        return res;
+    }
+
+    /**
+     * idle-ttl이 지난 서버 중 오래 확인하지 않은 순서로 batchSize개의 네트워크 사용량을 확인해,
+     * 직전 확인 이후 주고받은 데이터가 없으면 멈추는 내부 로직
+     *
+     * @param servers 실행 중인 팀 서버 (팀 sequence - 컨테이너 이름)
+     * @param pooled  그중 Pool에서 빌린 서버 (컨테이너 이름 - 대여 handle)
+     */
+    private void reapIdle(Map<Long, String> servers, Map<String, PooledContainer> pooled) {
+        long now = System.currentTimeMillis();
+        // 멈춘 서버의 기록 정리, 처음 보는 서버는 지금부터 활동한 것으로 봄
+        activities.keySet().retainAll(servers.keySet());
+        List<Map.Entry<Long, Activity>> candidates = new ArrayList<>();
+        for (Long teamSeq : servers.keySet()) {
+            Activity activity = activity(teamSeq, now);
+            if (now - activity.lastActiveAt > idleTtl && now - activity.lastCheckedAt >= sampleWindow) {
+                candidates.add(new AbstractMap.SimpleEntry<>(teamSeq, activity));
+            }
+        }
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastCheckedAt));
+
+        for (Map.Entry<Long, Activity> candidate : candidates.subList(0, Math.min(batchSize, candidates.size()))) {
+            Long teamSeq = candidate.getKey();
+            Activity activity = candidate.getValue();
+            String container = servers.get(teamSeq);
+            ContainerStatsDto stats;
+            try {
+                stats = dockerEngineClient.stats(container);
+            } catch (IOException e) {
+                continue;
+            }
+            if (stats == null) {
+                activities.remove(teamSeq);
+                continue;
+            }
+            checked.incrementAndGet();
+            long bytes = stats.networkBytes();
+            boolean sampled = activity.lastCheckedAt > 0;
+            boolean traffic = bytes != activity.lastBytes;
+            activity.lastBytes = bytes;
+            activity.lastCheckedAt = System.currentTimeMillis();
+            if (!sampled) {
+                // 비교할 기준값만 기록하고 다음 확인 때 판단
+                continue;
+            }
+            if (traffic) {
+                activity.lastActiveAt = activity.lastCheckedAt;
+                kept.incrementAndGet();
+                continue;
+            }
+            // 확인하는 사이 다시 실행되었다면 멈추지 않음
+            if (System.currentTimeMillis() - activity.lastActiveAt > idleTtl) {
+                stopServer(teamSeq, container, pooled.get(container));
+            }
+        }
+    }
+
+    /**
+     * 팀 서버의 사용량을 기록하고 멈추는 내부 로직
+     * Pool에서 빌린 컨테이너는 반납하고, 팀 이름으로 만든 컨테이너는 삭제한다.
+     *
+     * @param teamSeq   팀의 sequence
+     * @param container 컨테이너 이름
+     * @param handle    Pool에서 빌린 컨테이너면 목록을 구할 때의 대여 handle (그 사이 다시 빌린 실행은 반납하지 않음)
+     */
+    private void stopServer(Long teamSeq, String container, PooledContainer handle) {
+        activities.remove(teamSeq);
+        runMeter.record(String.valueOf(teamSeq), runMeter.containerUsage(container));
+        reaped.incrementAndGet();
+        if (handle != null) {
+            containerPool.release(handle);
+            return;
+        }
+        try {
+            dockerEngineClient.stopContainer(container, 10);
+            dockerEngineClient.removeContainer(container, false);
+        } catch (IOException e) {
+            // 아직 실행 중이면 다음 주기에 처음 보는 서버로 다시 잡혀 idle 시간이 지나면 다시 멈춤
+        }
+    }
+
+    /**
+     * 요청이 끝난 뒤에도 삭제되지 않고 남은 비로그인 실행 컨테이너를 삭제하는 내부 로직
+     */
+    private void removeLeftovers() {
+        List<ContainerSummaryDto> containers;
+        try {
+            containers = dockerEngineClient.listContainers(UNLOGIN_PREFIX, true);
+        } catch (IOException e) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (ContainerSummaryDto container : containers) {
+            if (removed >= batchSize) {
+                break;
+            }
+            if (now - container.getCreated() * 1000 <= unloginMaxAge) {
+                continue;
+            }
+            try {
+                if (dockerEngineClient.removeContainer(container.getId(), true)) {
+                    leftovers.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // 다음 주기에 다시 시도
+            }
+            removed++;
+        }
+    }
+
+    /**
+     * 실행 중인 팀 서버 목록을 구하는 내부 로직
+     * 팀 이름으로 만든 컨테이너(crowstudio_{teamName}_{teamSeq})와 Pool에서 빌린 서버 컨테이너를 모두 포함한다.
+     *
+     * @param pooled Pool에서 빌린 서버의 대여 handle을 담을 Map (컨테이너 이름 - handle)
+     * @return 팀 sequence - 컨테이너 이름, Docker Engine에 연결할 수 없으면 null
+     */
+    private Map<Long, String> runningServers(Map<String, PooledContainer> pooled) {
+        Map<Long, String> servers = new HashMap<>();
+        try {
+            for (ContainerSummaryDto container : dockerEngineClient.listContainers(SERVER_PREFIX, false)) {
+                String name = container.name();
+                try {
+                    servers.put(Long.valueOf(name.substring(name.lastIndexOf('_') + 1)), name);
+                } catch (NumberFormatException e) {
+                    // 팀 컨테이너가 아님
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        for (PooledContainer container : containerPool.leasedServers()) {
+            servers.put(container.getTeamSeq(), container.getName());
+            pooled.put(container.getName(), container);
+        }
+        return servers;
+    }
+
+    private Activity activity(Long teamSeq, long now) {
+        return activities.computeIfAbsent(teamSeq, key -> new Activity(now));
+    }
+
+    /**
+     * 팀 서버의 마지막 활동 시각과 마지막으로 확인한 네트워크 사용량
+     */
+    private static class Activity {
+        private volatile long lastActiveAt;
+        private volatile long lastCheckedAt = 0;
+        private volatile long lastBytes = -1;
+
+        private Activity(long lastActiveAt) {
+            this.lastActiveAt = lastActiveAt;
+        }
+    }
+}
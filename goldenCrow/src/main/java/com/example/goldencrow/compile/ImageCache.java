@@ -0,0 +1,638 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.docker.dto.ImageInspectDto;
+import com.example.goldencrow.compile.docker.dto.ImageSummaryDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.example.goldencrow.common.Constants.*;
+
+/**
+ * 프로젝트 타입과 의존성 목록으로 만든 실행 이미지를 재사용하는 캐시
+ * <p>
+ * 이미지에는 의존성 설치까지만 담고 (실행 명령어, 파일 경로, input은 컨테이너 생성 시 전달),
+ * tag는 Dockerfile 내용, 프로젝트 타입, 설치할 패키지 목록(프레임워크 + requirements.txt 혹은 pyproject.toml)의 hash로 정한다.
+ * 같은 hash의 이미지가 있으면 빌드하지 않고 재사용하며,
+ * 캐시 이미지의 총 용량이 예산을 넘으면 가장 오래 쓰이지 않은 이미지부터 삭제한다.
+ * <p>
+ * 패키지는 빌드 전에 호스트의 공유 wheel 디렉토리를 먼저 찾아 wheel로 준비하고 (없는 것만 내려받음),
+ * 이미지 빌드는 준비된 wheel만으로 설치하므로 빌드 중에는 네트워크를 쓰지 않는다.
+ * 공유 wheel 디렉토리는 읽기 전용으로 연결하며, 패키지 빌드 코드가 실행되지 않은 준비에서 받은 wheel만 서버가 공유 디렉토리에 추가한다.
+ */
+@Component
+public class ImageCache {
+    public static final String CACHE_REPOSITORY = "crowcache";
+    private static final String BASE_IMAGE = "python:3.10";
+    private static final String MANIFEST = "requirements.txt";
+    private static final String PYPROJECT = "pyproject.toml";
+    private static final String WHEEL_PREFIX = "crowwheel_";
+    private static final String DOCKERFILE = "FROM " + BASE_IMAGE + "\n"
+            + "COPY " + MANIFEST + " /tmp/" + MANIFEST + "\n"
+            + "COPY wheels /tmp/wheels\n"
+            + "RUN pip3 install --no-index --find-links /tmp/wheels -r /tmp/" + MANIFEST + "\n";
+    private static final Pattern QUOTED = Pattern.compile("([\"'])(.*?)\\1");
+    /**
+     * 이름, extras, 버전 조건, 환경 marker만 있는 requirements 줄 (pip 옵션, URL, 경로가 없음)
+     */
+    private static final Pattern PLAIN_REQUIREMENT = Pattern.compile(
+            "[A-Za-z0-9][A-Za-z0-9._-]*(\\[[A-Za-z0-9._,\\s-]*])?\\s*([<>=!~][^@/\\\\:;]*)?(;[^@/\\\\]*)?");
+
+    /**
+     * 캐시 이미지가 사용할 수 있는 최대 디스크 용량 (byte)
+     */
+    @Value("${compile.image-cache.max-bytes:10737418240}")
+    private long maxBytes;
+
+    /**
+     * 빌드에서 함께 쓰는 wheel을 모아두는 호스트 디렉토리
+     */
+    @Value("${compile.image-cache.wheelhouse:" + BASE_URL + "wheelhouse}")
+    private String wheelhouse;
+
+    /**
+     * 공유 wheel에 없는 패키지를 받을 index 주소 (비어 있으면 PyPI, 사내 미러나 로컬 index 지정 가능)
+     */
+    @Value("${compile.pip.index-url:}")
+    private String indexUrl;
+
+    /**
+     * 공유 wheel에 없는 패키지도 내려받지 않을지 여부 (네트워크가 없는 환경)
+     */
+    @Value("${compile.pip.offline:false}")
+    private boolean offline;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ResourceProfiles resourceProfiles;
+
+    /**
+     * tag별 이미지가 따로 차지하는 크기 (기본 이미지 등 공유 layer 제외), 접근 순서대로 정렬 (가장 앞이 가장 오래 쓰이지 않은 이미지)
+     */
+    private final LinkedHashMap<String, Long> images = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * 빌드 중인 tag별 lock (빌드가 끝나면 지움)
+     */
+    private final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+    private volatile long baseSize = -1;
+    private volatile boolean loaded = false;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong wheelLocal = new AtomicLong();
+    private final AtomicLong wheelFetched = new AtomicLong();
+
+    /**
+     * 프로젝트를 실행할 이미지를 찾고, 없으면 빌드하는 내부 로직
+     *
+     * @param type       프로젝트 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param projectDir 의존성 파일을 찾을 프로젝트 디렉토리 (없으면 null)
+     * @return 사용할 이미지 이름
+     * @throws IOException 빌드 실패
+     */
+    public String resolve(int type, File projectDir) throws IOException {
+        String requirements = requirements(type, projectDir);
+        if (requirements == null) {
+            // 설치할 의존성이 없으면 기본 이미지를 그대로 사용
+            return BASE_IMAGE;
+        }
+        String tag = tagFor(type, requirements);
+        loadIndex();
+
+        Object lock = buildLocks.computeIfAbsent(tag, key -> new Object());
+        try {
+            synchronized (lock) {
+                if (touch(tag)) {
+                    hits.incrementAndGet();
+                    return tag;
+                }
+                misses.incrementAndGet();
+                build(tag, requirements);
+            }
+        } finally {
+            // 기다리던 요청은 같은 lock으로 이어서 확인하고, 이후 요청은 빌드된 이미지를 찾으므로 지워도 됨
+            buildLocks.remove(tag, lock);
+        }
+        evict();
+        return tag;
+    }
+
+    /**
+     * 프로젝트를 실행할 이미지 이름만 계산하는 내부 로직 (빌드하지 않음)
+     * 의존성 파일 내용이 같으면 같은 이름이 나오므로, 의존성이 바뀌었는지 비교하는 데 사용한다.
+     *
+     * @param type       프로젝트 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param projectDir 의존성 파일을 찾을 프로젝트 디렉토리 (없으면 null)
+     * @return 사용할 이미지 이름
+     * @throws IOException 의존성 파일을 읽지 못한 경우
+     */
+    public String tagFor(int type, File projectDir) throws IOException {
+        String requirements = requirements(type, projectDir);
+        return requirements == null ? BASE_IMAGE : tagFor(type, requirements);
+    }
+
+    /**
+     * 의존성 설치에 쓰이는 파일인지 확인하는 내부 로직
+     *
+     * @param fileName 파일 이름
+     * @return requirements.txt, pyproject.toml이면 true
+     */
+    public static boolean isDependencyFile(String fileName) {
+        return MANIFEST.equals(fileName) || PYPROJECT.equals(fileName);
+    }
+
+    /**
+     * 캐시 이미지의 총 용량이 예산을 넘으면 오래 쓰이지 않은 이미지부터 삭제하는 내부 로직
+     * 실행 중인 컨테이너가 쓰고 있는 이미지는 삭제되지 않고 다음 정리 때 다시 시도한다.
+     */
+    public void evict() {
+        evict(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 예산을 넘은 캐시 이미지를 오래 쓰이지 않은 순서로 최대 limit개만 삭제하는 내부 로직
+     *
+     * @param limit 이번에 삭제를 시도할 최대 이미지 수
+     * @return 삭제한 이미지 수
+     */
+    public int evict(int limit) {
+        loadIndex();
+        List<String> candidates = new ArrayList<>();
+        synchronized (images) {
+            long over = totalBytes() - maxBytes;
+            for (Map.Entry<String, Long> entry : images.entrySet()) {
+                if (over <= 0 || candidates.size() >= limit) {
+                    break;
+                }
+                candidates.add(entry.getKey());
+                over -= entry.getValue();
+            }
+        }
+        int removed = 0;
+        for (String tag : candidates) {
+            try {
+                if (dockerEngineClient.removeImage(tag, false)) {
+                    evictions.incrementAndGet();
+                    removed++;
+                    synchronized (images) {
+                        images.remove(tag);
+                    }
+                }
+            } catch (IOException e) {
+                // 다음 정리 때 다시 시도
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 캐시 적중, 빌드, 삭제 수와 사용 중인 용량, wheel 준비 방식별 빌드 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("hits", hits.get());
+        res.put("misses", misses.get());
+        res.put("evictions", evictions.get());
+        synchronized (images) {
+            res.put("images", images.size());
+            res.put("bytes", totalBytes());
+        }
+        res.put("maxBytes", maxBytes);
+        res.put("wheelLocal", wheelLocal.get());
+        res.put("wheelFetched", wheelFetched.get());
+        res.put("offline", offline);
+        return res;
+    }
+
+    /**
+     * 프로젝트 타입의 프레임워크와 프로젝트 의존성 파일로 설치할 패키지 목록을 만드는 내부 로직
+     *
+     * @param type       프로젝트 타입
+     * @param projectDir 의존성 파일을 찾을 프로젝트 디렉토리 (없으면 null)
+     * @return requirements 형식의 패키지 목록 (설치할 것이 없으면 null)
+     * @throws IOException 의존성 파일을 읽지 못한 경우
+     */
+    public String requirements(int type, File projectDir) throws IOException {
+        StringBuilder content = new StringBuilder();
+        switch (type) {
+            case 2:
+                content.append("django\n");
+                break;
+            case 3:
+                content.append("Flask\n");
+                break;
+            case 4:
+                content.append("uvicorn[standard]\nfastapi\n");
+                break;
+            default:
+                break;
+        }
+        File manifest = findManifest(projectDir);
+        if (manifest != null && PYPROJECT.equals(manifest.getName())) {
+            for (String dependency : pyprojectDependencies(manifest)) {
+                content.append(dependency).append("\n");
+            }
+        } else if (manifest != null) {
+            String listed = new String(Files.readAllBytes(manifest.toPath()), StandardCharsets.UTF_8).trim();
+            if (!listed.isEmpty()) {
+                content.append(listed).append("\n");
+            }
+        }
+        return content.length() == 0 ? null : content.toString();
+    }
+
+    /**
+     * 프로젝트 최상위 혹은 그 바로 아래 디렉토리의 requirements.txt, pyproject.toml을 찾는 내부 로직
+     * 같은 디렉토리에 둘 다 있으면 requirements.txt를 사용한다.
+     */
+    private File findManifest(File projectDir) {
+        if (projectDir == null || !projectDir.isDirectory()) {
+            return null;
+        }
+        File manifest = manifestIn(projectDir);
+        if (manifest != null) {
+            return manifest;
+        }
+        File[] children = projectDir.listFiles(File::isDirectory);
+        if (children == null) {
+            return null;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            manifest = manifestIn(child);
+            if (manifest != null) {
+                return manifest;
+            }
+        }
+        return null;
+    }
+
+    private File manifestIn(File directory) {
+        for (String name : new String[]{MANIFEST, PYPROJECT}) {
+            File manifest = new File(directory, name);
+            if (manifest.isFile()) {
+                return manifest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * pyproject.toml의 [project] dependencies 목록을 읽는 내부 로직
+     * 여러 줄에 걸친 배열과 extras("uvicorn[standard]")를 지원하고, 주석은 무시한다.
+     */
+    private static List<String> pyprojectDependencies(File pyproject) throws IOException {
+        List<String> dependencies = new ArrayList<>();
+        String section = "";
+        boolean inList = false;
+        for (String raw : Files.readAllLines(pyproject.toPath(), StandardCharsets.UTF_8)) {
+            String line = raw.trim();
+            if (line.startsWith("#")) {
+                continue;
+            }
+            if (!inList && line.startsWith("[")) {
+                section = line;
+                continue;
+            }
+            if (!"[project]".equals(section)) {
+                continue;
+            }
+            if (!inList) {
+                if (!line.matches("dependencies\\s*=.*")) {
+                    continue;
+                }
+                line = line.substring(line.indexOf('=') + 1).trim();
+                inList = true;
+            }
+            Matcher matcher = QUOTED.matcher(line);
+            while (matcher.find()) {
+                dependencies.add(matcher.group(2));
+            }
+            // 따옴표 밖의 ']'에서 배열이 끝남
+            String rest = QUOTED.matcher(line).replaceAll("");
+            int comment = rest.indexOf('#');
+            if ((comment < 0 ? rest : rest.substring(0, comment)).contains("]")) {
+                inList = false;
+            }
+        }
+        return dependencies;
+    }
+
+    private String tagFor(int type, String requirements) throws IOException {
+        return CACHE_REPOSITORY + ":" + type + "-" + hash(type, requirements);
+    }
+    /**
+     * Dockerfile, 프로젝트 타입, 설치할 패키지 목록으로 tag를 만드는 내부 로직
+     */
+    private String hash(int type, String requirements) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(("type=" + type + "\n").getBytes(StandardCharsets.UTF_8));
+        digest.update(DOCKERFILE.getBytes(StandardCharsets.UTF_8));
+        digest.update(requirements.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+        byte[] bytes = digest.digest();
+        for (int i = 0; i < 8; i++) {
+            hex.append(String.format("%02x", bytes[i]));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Docker에 이미지가 있으면 사용 시각을 갱신하는 내부 로직
+     * Docker에서 이미지가 직접 삭제되었거나, 목록에 없던 이미지가 있는 경우도 함께 반영한다.
+     *
+     * @return 이미지가 있으면 true
+     */
+    private boolean touch(String tag) throws IOException {
+        ImageInspectDto inspect = dockerEngineClient.inspectImage(tag);
+        long size = inspect == null ? 0L : uniqueSize(inspect.getSize(), -1);
+        synchronized (images) {
+            if (inspect == null) {
+                images.remove(tag);
+                return false;
+            }
+            images.put(tag, size);
+            return true;
+        }
+    }
+
+    /**
+     * build context(Dockerfile, 패키지 목록, wheel)를 만들어 이미지를 빌드하는 내부 로직
+     */
+    private void build(String tag, String requirements) throws IOException {
+        File context = new File(BASE_URL + "imagecache/" + tag.replace(':', '_'));
+        if (!context.isDirectory() && !context.mkdirs()) {
+            throw new IOException("cannot create build context " + context.getPath());
+        }
+        try {
+            try (FileWriter writer = new FileWriter(new File(context, "Dockerfile"), false)) {
+                writer.write(DOCKERFILE);
+            }
+            try (FileWriter writer = new FileWriter(new File(context, MANIFEST), false)) {
+                writer.write(requirements);
+            }
+            prepareWheels(tag, context, requirements);
+            dockerEngineClient.buildImage(tag, context);
+        } finally {
+            deleteRecursively(context.toPath());
+        }
+        ImageInspectDto inspect = dockerEngineClient.inspectImage(tag);
+        long size = inspect == null ? 0L : uniqueSize(inspect.getSize(), -1);
+        synchronized (images) {
+            images.put(tag, size);
+        }
+    }
+
+    /**
+     * 이미지가 따로 차지하는 디스크 크기를 구하는 내부 로직
+     * Size에는 모든 캐시 이미지가 함께 쓰는 기본 이미지 layer가 포함되므로, 그대로 더하면 예산을 실제보다 빨리 넘긴다.
+     * Docker가 공유 layer 크기(SharedSize)를 알려주면 그 값을, 아니면 기본 이미지 크기를 뺀다.
+     *
+     * @param size       이미지 전체 크기
+     * @param sharedSize 다른 이미지와 함께 쓰는 layer 크기 (모르면 -1)
+     * @return 공유 layer를 뺀 크기
+     */
+    private long uniqueSize(long size, long sharedSize) {
+        long shared = sharedSize >= 0 ? sharedSize : baseSize();
+        return Math.max(0, size - shared);
+    }
+
+    private long baseSize() {
+        if (baseSize < 0) {
+            try {
+                ImageInspectDto base = dockerEngineClient.inspectImage(BASE_IMAGE);
+                if (base == null) {
+                    return 0;
+                }
+                baseSize = base.getSize();
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+        return baseSize;
+    }
+
+    /**
+     * 설치할 패키지를 build context의 wheels 디렉토리에 wheel로 준비하는 내부 로직
+     * 공유 wheel만으로 모두 준비되면 네트워크를 쓰지 않고, 부족하면 index에서 받는다.
+     * 기본 이미지와 같은 Python으로 준비하므로 빌드 중 설치에 그대로 쓸 수 있다.
+     * <p>
+     * 준비하는 컨테이너에는 공유 wheel을 읽기 전용으로 연결한다.
+     * requirements에 pip 옵션, URL, 경로가 없고 index의 binary wheel만으로 준비되었을 때만 (패키지 빌드 코드가 실행되지 않음)
+     * 새로 받은 wheel을 서버에서 공유 wheel에 추가하며, sdist 빌드가 필요한 준비의 결과는 이 빌드에만 쓴다.
+     *
+     * @param tag          빌드할 이미지 tag
+     * @param context      build context 디렉토리
+     * @param requirements 설치할 패키지 목록
+     * @throws IOException wheel 준비 실패
+     */
+    private void prepareWheels(String tag, File context, String requirements) throws IOException {
+        File shared = new File(wheelhouse);
+        if (!shared.isDirectory() && !shared.mkdirs()) {
+            throw new IOException("cannot create wheelhouse " + shared.getPath());
+        }
+        File wheels = new File(context, "wheels");
+        if (!wheels.isDirectory() && !wheels.mkdirs()) {
+            throw new IOException("cannot create wheel directory " + wheels.getPath());
+        }
+        File fetched = new File(context, "fetched");
+        String wheel = "pip wheel --quiet --disable-pip-version-check --find-links /wheelhouse"
+                + " -w /context/wheels -r /context/" + MANIFEST;
+        String local = wheel + " --no-index";
+        String name = WHEEL_PREFIX + tag.substring(tag.indexOf(':') + 1);
+
+        // 공유 wheel, index의 binary wheel 순서로 시도하고, 실패하면 sdist 빌드를 허용해 다시 시도
+        boolean trusted = !offline && plainRequirements(requirements)
+                && runWheelHelper(name, shared, context, local
+                + " || { touch /context/fetched && " + wheel + " --only-binary=:all:; }", false);
+        if (!trusted) {
+            runWheelHelper(name, shared, context, local
+                    + (offline ? "" : " || { touch /context/fetched && " + wheel + "; }"), true);
+        }
+        if (fetched.exists()) {
+            wheelFetched.incrementAndGet();
+            if (trusted) {
+                promoteWheels(wheels, shared);
+            }
+        } else {
+            wheelLocal.incrementAndGet();
+        }
+    }
+
+    /**
+     * wheel을 준비하는 컨테이너를 빌드 자원 제한으로 실행하는 내부 로직
+     *
+     * @param name     컨테이너 이름
+     * @param shared   공유 wheel 디렉토리 (읽기 전용으로 연결)
+     * @param context  build context 디렉토리
+     * @param script   컨테이너에서 실행할 shell script
+     * @param required 실패하면 예외를 던질지 여부
+     * @return 성공 여부
+     * @throws IOException 컨테이너 실행 실패, required인데 준비에 실패한 경우
+     */
+    private boolean runWheelHelper(String name, File shared, File context, String script, boolean required)
+            throws IOException {
+        ResourceProfiles.Profile profile = resourceProfiles.build();
+        ContainerSpecDto spec = profile.getWallSeconds() > 0
+                ? new ContainerSpecDto(BASE_IMAGE, "timeout", "-k", "5", String.valueOf(profile.getWallSeconds()),
+                "sh", "-c", script)
+                : new ContainerSpecDto(BASE_IMAGE, "sh", "-c", script);
+        profile.applyTo(spec)
+                .bindReadOnly(shared.getAbsolutePath(), "/wheelhouse")
+                .bind(context.getAbsolutePath(), "/context");
+        if (indexUrl != null && !indexUrl.isEmpty()) {
+            spec.setEnv(Collections.singletonList("PIP_INDEX_URL=" + indexUrl));
+        }
+
+        dockerEngineClient.removeContainer(name, true);
+        try {
+            dockerEngineClient.startContainer(dockerEngineClient.createContainer(name, spec));
+            int exitCode = dockerEngineClient.waitContainer(name);
+            if (exitCode != 0 && required) {
+                String output = dockerEngineClient.containerOutput(name).getOutput();
+                throw new IOException("wheel build failed (" + exitCode + ") " + output);
+            }
+            return exitCode == 0;
+        } finally {
+            dockerEngineClient.removeContainer(name, true);
+        }
+    }
+
+    /**
+     * requirements가 패키지 이름과 버전 조건으로만 되어 있는지 확인하는 내부 로직
+     *
+     * @param requirements 설치할 패키지 목록
+     * @return pip 옵션(-i, -f, -e 등), URL, 경로가 없으면 true
+     */
+    private static boolean plainRequirements(String requirements) {
+        for (String line : requirements.split("\n")) {
+            String requirement = line.replaceAll("(^|\\s)#.*$", "").trim();
+            if (!requirement.isEmpty() && !PLAIN_REQUIREMENT.matcher(requirement).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 준비한 wheel 중 공유 wheel에 없는 것을 추가하는 내부 로직
+     * 컨테이너가 만든 symbolic link 등은 따라가지 않고 일반 .whl 파일만 복사한다.
+     *
+     * @param wheels 준비한 wheel 디렉토리
+     * @param shared 공유 wheel 디렉토리
+     */
+    private static void promoteWheels(File wheels, File shared) {
+        File[] files = wheels.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Path source = file.toPath();
+            Path target = shared.toPath().resolve(file.getName());
+            if (!file.getName().endsWith(".whl") || !Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)
+                    || Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                continue;
+            }
+            try {
+                // 다른 빌드가 복사 중인 파일을 읽지 않도록 임시 파일에 복사한 뒤 이름을 바꿈
+                Path temp = Files.createTempFile(shared.toPath(), ".promote", ".tmp");
+                try {
+                    Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                // 공유하지 못해도 이번 빌드에는 영향 없음
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<Path> it = paths.sorted(Comparator.reverseOrder()).iterator();
+            while (it.hasNext()) {
+                Files.deleteIfExists(it.next());
+            }
+        }
+    }
+
+    /**
+     * 서버 재시작 후 처음 사용할 때 Docker에 남아있는 캐시 이미지를 목록에 올리는 내부 로직
+     * 만들어진 순서를 사용 순서로 간주한다.
+     */
+    private void loadIndex() {
+        if (loaded) {
+            return;
+        }
+        List<ImageSummaryDto> existing;
+        try {
+            existing = new ArrayList<>(dockerEngineClient.listImages(CACHE_REPOSITORY));
+        } catch (IOException e) {
+            return;
+        }
+        existing.sort(Comparator.comparingLong(ImageSummaryDto::getCreated));
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (ImageSummaryDto image : existing) {
+            if (image.getRepoTags() == null) {
+                continue;
+            }
+            for (String tag : image.getRepoTags()) {
+                if (tag.startsWith(CACHE_REPOSITORY + ":")) {
+                    sizes.put(tag, uniqueSize(image.getSize(), image.getSharedSize()));
+                }
+            }
+        }
+        synchronized (images) {
+            if (loaded) {
+                return;
+            }
+            for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+                if (!images.containsKey(entry.getKey())) {
+                    images.put(entry.getKey(), entry.getValue());
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (Long size : images.values()) {
+            total += size;
+        }
+        return total;
+    }
+}
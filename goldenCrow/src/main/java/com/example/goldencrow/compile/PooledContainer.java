@@ -0,0 +1,111 @@
+package com.example.goldencrow.compile;
+
+/**
+ * ContainerPool이 관리하는 warm 컨테이너 한 개의 정보
+ */
+public class PooledContainer {
+
+    /**
+     * 도커 컨테이너 이름 (crowpool_{type}_{id})
+     */
+    private final String name;
+
+    /**
+     * 컨테이너가 담당하는 프로젝트 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     */
+    private final int type;
+
+    /**
+     * 컨테이너 내부 서버 포트와 연결된 호스트 포트 (pure Python은 null)
+     */
+    private final String hostPort;
+
+    /**
+     * 컨테이너에 팀 디렉토리가 연결된 팀 혹은 컨테이너를 빌려간 팀의 sequence (어느 팀의 것도 아니면 null)
+     */
+    private Long teamSeq;
+
+    /**
+     * 컨테이너에 연결되거나 복사된 프로젝트 경로 (어느 팀의 것도 아니면 null)
+     */
+    private String projectPath;
+
+    /**
+     * 마지막으로 반납되거나 생성된 시간 (ms)
+     */
+    private long lastUsedAt;
+
+    /**
+     * PooledContainer 생성자
+     *
+     * @param name     도커 컨테이너 이름
+     * @param type     프로젝트 타입
+     * @param hostPort 연결된 호스트 포트
+     */
+    public PooledContainer(String name, int type, String hostPort) {
+        this.name = name;
+        this.type = type;
+        this.hostPort = hostPort;
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 팀 디렉토리가 연결된 PooledContainer 생성자
+     *
+     * @param name        도커 컨테이너 이름
+     * @param type        프로젝트 타입
+     * @param hostPort    연결된 호스트 포트
+     * @param teamSeq     디렉토리가 연결된 팀의 sequence
+     * @param projectPath 컨테이너의 같은 절대경로에 연결된 팀 디렉토리
+     */
+    public PooledContainer(String name, int type, String hostPort, Long teamSeq, String projectPath) {
+        this(name, type, hostPort);
+        this.teamSeq = teamSeq;
+        this.projectPath = projectPath;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public String getHostPort() {
+        return hostPort;
+    }
+
+    public Long getTeamSeq() {
+        return teamSeq;
+    }
+
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * 컨테이너를 팀에게 빌려준 handle을 생성
+     * 대여마다 새 객체를 만들어, 이미 반납한 handle로 같은 컨테이너의 다음 대여를 반납하지 않도록 한다.
+     *
+     * @param teamSeq     빌려가는 팀의 sequence
+     * @param projectPath 컨테이너에 연결되거나 복사된 프로젝트 경로
+     * @return 빌려준 상태의 handle
+     */
+    public PooledContainer lease(Long teamSeq, String projectPath) {
+        return new PooledContainer(name, type, hostPort, teamSeq, projectPath);
+    }
+
+    /**
+     * 컨테이너를 대기 상태로 변경
+     */
+    public void giveBack() {
+        this.teamSeq = null;
+        this.projectPath = null;
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import com.example.goldencrow.team.entity.TeamEntity;
+import com.example.goldencrow.team.repository.TeamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 팀 프로젝트 서버가 쓸 서버 포트를 나눠주는 Component
+ * <p>
+ * 팀마다 컨테이너를 띄워 Docker가 고른 포트를 받아오는 대신,
+ * 설정한 범위(compile.port.range-start ~ range-end)의 포트를 사용 여부 bitmap과 빈 포트 stack으로 관리해
+ * 할당과 반납을 O(1)로 처리한다. 할당한 포트는 TeamEntity.teamPort에 저장되며, 서버 시작 시 DB에서 다시 읽는다.
+ * 삭제된 팀과 오래 실행하지 않은 팀의 포트는 주기적으로 회수하고, 회수된 팀은 다음 실행 때 새로 할당받는다.
+ * 범위는 Docker가 임의로 배정하는 포트(32768 이상)와 겹치지 않게 잡아야 한다.
+ */
+@Component
+public class PortAllocator {
+    private static final String NO_PORT = "0";
+
+    private final int rangeStart;
+    private final int capacity;
+    private final long idleTimeout;
+
+    /**
+     * 포트별 사용 여부 (offset = port - rangeStart)
+     */
+    private final long[] used;
+    /**
+     * 빈 포트 offset stack
+     */
+    private final int[] free;
+    private int freeSize = 0;
+    private final Map<Long, Integer> leases = new HashMap<>();
+    private final Map<Long, Long> lastUsedAt = new HashMap<>();
+    private boolean loaded = false;
+
+    private final AtomicLong leased = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    /**
+     * PortAllocator 생성자
+     *
+     * @param rangeStart  나눠줄 포트 범위의 시작 (포함)
+     * @param rangeEnd    나눠줄 포트 범위의 끝 (포함)
+     * @param idleTimeout 실행하지 않은 팀의 포트를 회수하기까지의 시간 (ms, 0이면 회수하지 않음)
+     */
+    public PortAllocator(@Value("${compile.port.range-start:20000}") int rangeStart,
+                         @Value("${compile.port.range-end:24999}") int rangeEnd,
+                         @Value("${compile.port.idle-timeout:259200000}") long idleTimeout) {
+        this.rangeStart = rangeStart;
+        this.capacity = Math.max(0, rangeEnd - rangeStart + 1);
+        this.idleTimeout = idleTimeout;
+        this.used = new long[(capacity + 63) / 64];
+        this.free = new int[capacity];
+    }
+
+    /**
+     * 팀의 포트를 반환하고, 없으면 새로 할당해 DB에 저장하는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     * @return 포트 번호, 범위의 포트를 모두 쓰고 있으면 null
+     */
+    public synchronized String lease(Long teamSeq) {
+        load();
+        lastUsedAt.put(teamSeq, System.currentTimeMillis());
+        Integer port = leases.get(teamSeq);
+        if (port != null) {
+            return String.valueOf(port);
+        }
+        port = take();
+        if (port == null) {
+            exhausted.incrementAndGet();
+            return null;
+        }
+        leases.put(teamSeq, port);
+        leased.incrementAndGet();
+        savePort(teamSeq, String.valueOf(port));
+        return String.valueOf(port);
+    }
+
+    /**
+     * 삭제된 팀의 포트를 반납하는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     */
+    public synchronized void release(Long teamSeq) {
+        lastUsedAt.remove(teamSeq);
+        Integer port = leases.remove(teamSeq);
+        if (port != null) {
+            giveBack(port);
+            released.incrementAndGet();
+        }
+    }
+
+    /**
+     * 삭제된 팀, 오래 실행하지 않았고 서버 컨테이너도 없는 팀의 포트를 회수하는 내부 로직
+     * 실행 시간 기록은 메모리에만 있으므로, 서버 시작 후 idleTimeout이 지나야 회수가 시작된다.
+     */
+    @Scheduled(initialDelayString = "${compile.port.reclaim-interval:3600000}",
+            fixedDelayString = "${compile.port.reclaim-interval:3600000}")
+    public void reclaim() {
+        Set<Long> running = runningTeams();
+        if (running == null) {
+            // 실행 중인 서버를 확인할 수 없으면 회수하지 않음
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Long> candidates = new ArrayList<>();
+        synchronized (this) {
+            if (!loaded) {
+                return;
+            }
+            for (Map.Entry<Long, Integer> lease : leases.entrySet()) {
+                Long teamSeq = lease.getKey();
+                if (running.contains(teamSeq)) {
+                    lastUsedAt.put(teamSeq, now);
+                    continue;
+                }
+                long last = lastUsedAt.getOrDefault(teamSeq, now);
+                if (idleTimeout > 0 && now - last > idleTimeout) {
+                    candidates.add(teamSeq);
+                }
+            }
+        }
+        // 삭제된 팀도 함께 확인할 수 있도록 leases 전체를 대상으로 존재 여부 확인
+        List<Long> all;
+        synchronized (this) {
+            all = new ArrayList<>(leases.keySet());
+        }
+        Set<Long> existing = new HashSet<>();
+        for (TeamEntity team : teamRepository.findAllById(all)) {
+            existing.add(team.getTeamSeq());
+        }
+        for (Long teamSeq : all) {
+            if (!existing.contains(teamSeq)) {
+                reclaimLease(teamSeq, false);
+            }
+        }
+        for (Long teamSeq : candidates) {
+            if (existing.contains(teamSeq)) {
+                reclaimLease(teamSeq, true);
+            }
+        }
+    }
+
+    /**
+     * 범위 크기, 할당 중인 포트 수, 남은 포트 수와 할당, 반납, 회수, 부족 횟수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("capacity", capacity);
+        res.put("leases", leases.size());
+        res.put("free", freeSize);
+        res.put("leased", leased.get());
+        res.put("released", released.get());
+        res.put("reclaimed", reclaimed.get());
+        res.put("exhausted", exhausted.get());
+        return res;
+    }
+
+    /**
+     * 오래 쓰지 않은 팀의 포트를 회수하는 내부 로직 (그 사이 다시 실행했다면 회수하지 않음)
+     */
+    private void reclaimLease(Long teamSeq, boolean checkIdle) {
+        synchronized (this) {
+            long last = lastUsedAt.getOrDefault(teamSeq, 0L);
+            if (checkIdle && System.currentTimeMillis() - last <= idleTimeout) {
+                return;
+            }
+            Integer port = leases.remove(teamSeq);
+            lastUsedAt.remove(teamSeq);
+            if (port == null) {
+                return;
+            }
+            giveBack(port);
+            reclaimed.incrementAndGet();
+        }
+        if (checkIdle) {
+            savePort(teamSeq, NO_PORT);
+        }
+    }
+
+    /**
+     * 서버 컨테이너가 실행 중인 팀 목록을 구하는 내부 로직 (crowstudio_{teamName}_{teamSeq})
+     *
+     * @return 팀 sequence 목록, Docker Engine에 연결할 수 없으면 null
+     */
+    private Set<Long> runningTeams() {
+        Set<Long> running = new HashSet<>();
+        try {
+            for (ContainerSummaryDto container : dockerEngineClient.listContainers("crowstudio_", false)) {
+                String name = container.name();
+                try {
+                    running.add(Long.valueOf(name.substring(name.lastIndexOf('_') + 1)));
+                } catch (NumberFormatException e) {
+                    // 팀 컨테이너가 아님
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return running;
+    }
+
+    /**
+     * 처음 사용할 때 DB에 저장된 팀 포트를 읽어 bitmap을 채우는 내부 로직
+     * 범위 밖의 포트(Docker가 배정했던 포트), 중복된 포트, 할당되지 않은 팀은 새 포트를 할당해 저장한다.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<TeamEntity> teams = teamRepository.findAll();
+        List<TeamEntity> reassign = new ArrayList<>();
+        for (TeamEntity team : teams) {
+            int port = parsePort(team.getTeamPort());
+            if (NO_PORT.equals(team.getTeamPort())) {
+                // 회수된 팀은 다음 실행 때 할당
+                continue;
+            }
+            if (!inRange(port) || isUsed(port - rangeStart)) {
+                reassign.add(team);
+                continue;
+            }
+            setUsed(port - rangeStart, true);
+            leases.put(team.getTeamSeq(), port);
+            lastUsedAt.put(team.getTeamSeq(), now);
+        }
+        // 낮은 포트부터 나눠주도록 높은 포트부터 쌓음
+        for (int offset = capacity - 1; offset >= 0; offset--) {
+            if (!isUsed(offset)) {
+                free[freeSize++] = offset;
+            }
+        }
+        loaded = true;
+        List<TeamEntity> changed = new ArrayList<>();
+        for (TeamEntity team : reassign) {
+            Integer port = take();
+            if (port == null) {
+                break;
+            }
+            leases.put(team.getTeamSeq(), port);
+            lastUsedAt.put(team.getTeamSeq(), now);
+            team.setTeamPort(String.valueOf(port));
+            changed.add(team);
+        }
+        if (!changed.isEmpty()) {
+            teamRepository.saveAll(changed);
+        }
+    }
+
+    /**
+     * 빈 포트 하나를 꺼내는 내부 로직
+     *
+     * @return 포트 번호, 없으면 null
+     */
+    private Integer take() {
+        if (freeSize == 0) {
+            return null;
+        }
+        int offset = free[--freeSize];
+        setUsed(offset, true);
+        return rangeStart + offset;
+    }
+
+    private void giveBack(int port) {
+        int offset = port - rangeStart;
+        if (!inRange(port) || !isUsed(offset)) {
+            return;
+        }
+        setUsed(offset, false);
+        free[freeSize++] = offset;
+    }
+
+    private void savePort(Long teamSeq, String port) {
+        Optional<TeamEntity> team = teamRepository.findByTeamSeq(teamSeq);
+        if (team.isPresent() && !port.equals(team.get().getTeamPort())) {
+            team.get().setTeamPort(port);
+            teamRepository.save(team.get());
+        }
+    }
+
+    private boolean inRange(int port) {
+        return port >= rangeStart && port < rangeStart + capacity;
+    }
+
+    private boolean isUsed(int offset) {
+        return (used[offset >> 6] & (1L << (offset & 63))) != 0;
+    }
+
+    private void setUsed(int offset, boolean value) {
+        if (value) {
+            used[offset >> 6] |= 1L << (offset & 63);
+        } else {
+            used[offset >> 6] &= ~(1L << (offset & 63));
+        }
+    }
+
+    private static int parsePort(String port) {
+        try {
+            return port == null ? -1 : Integer.parseInt(port.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
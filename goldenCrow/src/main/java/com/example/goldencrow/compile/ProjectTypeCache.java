@@ -0,0 +1,241 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.file.FileChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.goldencrow.common.Constants.*;
+
+/**
+ * 프로젝트별로 판별한 프로젝트 타입을 보관하는 캐시
+ * <p>
+ * 컴파일마다 프로젝트 전체를 읽지 않도록 판별 결과를 프로젝트 디렉토리 단위로 보관하고,
+ * FileService 등에서 발생한 FileChangedEvent가 프로젝트 안의 경로를 가리키면 해당 결과를 버린다.
+ * 판별할 때는 .py 파일만 한 줄씩 읽어 표식을 찾는 즉시 멈추며,
+ * 가상환경, .git 같은 디렉토리와 바이너리 파일, 크기 제한을 넘는 파일은 건너뛴다.
+ */
+@Component
+public class ProjectTypeCache {
+    private static final String FLASK = "import Flask";
+    private static final String FASTAPI = "import FastAPI";
+    private static final String DJANGO = "os.environ.setdefault('DJANGO_SETTINGS_MODULE'";
+    private static final int SNIFF_BYTES = 8192;
+    private static final Set<String> SKIP_DIRS = new HashSet<>(Arrays.asList(
+            ".git", "__pycache__", "node_modules", "venv", ".venv", "env", "site-packages", ".idea", ".vscode"));
+
+    /**
+     * 이 크기를 넘는 파일은 읽지 않음 (byte)
+     */
+    @Value("${compile.type-scan.max-file-bytes:1048576}")
+    private long maxFileBytes;
+
+    /**
+     * 프로젝트 디렉토리(/로 끝나는 절대경로)별 판별 결과
+     */
+    private final Map<String, Detection> detections = new ConcurrentHashMap<>();
+    /**
+     * 판별 도중 무효화가 일어났는지 확인하기 위한 세대 번호
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong scannedFiles = new AtomicLong();
+    private final AtomicLong skippedFiles = new AtomicLong();
+
+    /**
+     * 프로젝트 타입을 캐시에서 찾고, 없으면 판별해 보관하는 내부 로직
+     *
+     * @param projectPath 프로젝트 디렉토리의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/)
+     * @return 판별 결과, 디렉토리가 없으면 null
+     */
+    public Detection detect(String projectPath) {
+        String key = projectPath.endsWith("/") ? projectPath : projectPath + "/";
+        Detection cached = detections.get(key);
+        if (cached != null && (cached.path == null || new File(cached.path).isFile())) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        long started = generation.get();
+        File dir = new File(key);
+        if (!dir.isDirectory()) {
+            return null;
+        }
+        Detection detected = scan(dir);
+        // 판별하는 동안 파일이 바뀌었다면 결과는 돌려주되 보관하지 않음
+        if (generation.get() == started) {
+            detections.put(key, detected);
+        }
+        return detected;
+    }
+
+    /**
+     * 파일 변경 이벤트를 받아 해당 경로를 포함하는 프로젝트의 판별 결과를 버리는 내부 로직
+     *
+     * @param event 파일 변경 이벤트
+     */
+    @EventListener
+    public void onFileChanged(FileChangedEvent event) {
+        String path = event.getPath();
+        if (path == null) {
+            return;
+        }
+        String changed = path.startsWith("/") ? path : BASE_URL + path;
+        String changedDir = changed.endsWith("/") ? changed : changed + "/";
+        generation.incrementAndGet();
+        // 프로젝트 안의 파일이 바뀐 경우와 프로젝트를 감싸는 디렉토리가 바뀐 경우 모두 무효화
+        detections.keySet().removeIf(key -> {
+            boolean matched = changed.startsWith(key) || key.startsWith(changedDir);
+            if (matched) {
+                invalidations.incrementAndGet();
+            }
+            return matched;
+        });
+    }
+
+    /**
+     * 캐시 적중, 판별, 무효화 수와 읽은/건너뛴 파일 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("hits", hits.get());
+        res.put("misses", misses.get());
+        res.put("invalidations", invalidations.get());
+        res.put("projects", detections.size());
+        res.put("scannedFiles", scannedFiles.get());
+        res.put("skippedFiles", skippedFiles.get());
+        return res;
+    }
+
+    /**
+     * 프로젝트를 깊이 우선으로 훑어 첫 번째로 표식이 있는 파일을 찾는 내부 로직
+     * Django 프로젝트의 manage.py를 먼저 확인한다.
+     */
+    private Detection scan(File projectDir) {
+        File manage = new File(projectDir, "manage.py");
+        if (manage.isFile() && firstMarker(manage, false) == 2) {
+            return new Detection(2, manage.getPath());
+        }
+        Deque<File> stack = new ArrayDeque<>();
+        stack.push(projectDir);
+        while (!stack.isEmpty()) {
+            File[] files = stack.pop().listFiles();
+            if (files == null) {
+                continue;
+            }
+            Arrays.sort(files);
+            // 디렉토리는 뒤에서부터 쌓아야 이름 순서대로 꺼내진다
+            for (int i = files.length - 1; i >= 0; i--) {
+                File file = files[i];
+                if (file.isDirectory() && !SKIP_DIRS.contains(file.getName())) {
+                    stack.push(file);
+                }
+            }
+            for (File file : files) {
+                if (!file.isFile() || !file.getName().endsWith(".py")) {
+                    continue;
+                }
+                int type = firstMarker(file, true);
+                if (type != 0) {
+                    return new Detection(type, file.getPath());
+                }
+            }
+        }
+        return new Detection(1, null);
+    }
+
+    /**
+     * 파일을 한 줄씩 읽어 프로젝트 타입 표식을 찾는 내부 로직
+     * FastAPI 표식을 찾으면 바로 멈추고, Flask/Django 표식을 찾으면 같은 파일에 FastAPI가 있는지 끝까지 확인한다.
+     *
+     * @param file       읽을 파일
+     * @param limitSize  크기 제한을 적용할지 여부
+     * @return 4: FastAPI, 3: Flask, 2: Django, 0: 표식 없음
+     */
+    private int firstMarker(File file, boolean limitSize) {
+        if (limitSize && file.length() > maxFileBytes) {
+            skippedFiles.incrementAndGet();
+            return 0;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), SNIFF_BYTES)) {
+            if (isBinary(in)) {
+                skippedFiles.incrementAndGet();
+                return 0;
+            }
+            scannedFiles.incrementAndGet();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            int found = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(FASTAPI)) {
+                    return 4;
+                } else if (found == 0 && line.contains(FLASK)) {
+                    found = 3;
+                } else if (found == 0 && line.contains(DJANGO)) {
+                    found = 2;
+                }
+            }
+            return found;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 파일 앞부분에 NUL 문자가 있으면 바이너리로 판단하는 내부 로직 (스트림 위치는 되돌림)
+     */
+    private boolean isBinary(InputStream in) throws IOException {
+        in.mark(SNIFF_BYTES);
+        byte[] head = new byte[SNIFF_BYTES];
+        int length = 0;
+        int read;
+        while (length < head.length && (read = in.read(head, length, head.length - length)) != -1) {
+            length += read;
+        }
+        in.reset();
+        for (int i = 0; i < length; i++) {
+            if (head[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 프로젝트 타입 판별 결과
+     */
+    public static class Detection {
+        private final int type;
+        private final String path;
+
+        Detection(int type, String path) {
+            this.type = type;
+            this.path = path;
+        }
+
+        /**
+         * @return 1: pure Python, 2: Django, 3: Flask, 4: FastAPI
+         */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * @return 실행할 파일의 절대경로, pure Python이면 null (요청한 파일을 실행)
+         */
+        public String getPath() {
+            return path;
+        }
+    }
+}
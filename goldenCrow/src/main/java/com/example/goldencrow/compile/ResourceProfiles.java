@@ -0,0 +1,186 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.docker.dto.HostConfigDto;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 컴파일 실행에 적용할 자원 제한(메모리, CPU, 프로세스 수, 실행 시간)을 정하는 Component
+ * <p>
+ * 실행 종류별 기본값은 compile.profile.{run|unlogin|server|build}.* 로,
+ * 팀별 값은 compile.profile.team.{teamSeq}.{run|server}.* 로 설정하며, 설정하지 않은 항목은 기본값을 따른다.
+ * 항목 : memory-mb, cpus, pids, wall-seconds(0이면 제한 없음), cpu-seconds(0이면 제한 없음)
+ */
+@Component
+public class ResourceProfiles {
+    private static final String PREFIX = "compile.profile.";
+
+    private final Environment environment;
+    private final Profile run;
+    private final Profile unlogin;
+    private final Profile server;
+    private final Profile build;
+    private final Map<String, Profile> teamProfiles = new ConcurrentHashMap<>();
+
+    /**
+     * ResourceProfiles 생성자
+     *
+     * @param environment 자원 제한 설정값(compile.profile.*)을 읽을 Environment
+     */
+    public ResourceProfiles(Environment environment) {
+        this.environment = environment;
+        this.run = read(PREFIX + "run.", new Profile(512, 1.0, 128, 30, 10));
+        this.unlogin = read(PREFIX + "unlogin.", run);
+        this.server = read(PREFIX + "server.", new Profile(1024, 1.0, 256, 0, 0));
+        this.build = read(PREFIX + "build.", new Profile(1024, 1.0, 256, 600, 0));
+    }
+
+    /**
+     * pure Python 파일 실행에 적용할 자원 제한을 반환하는 내부 로직
+     *
+     * @param teamSeq 실행하는 팀의 sequence (null이면 기본값)
+     * @return 자원 제한
+     */
+    public Profile run(String teamSeq) {
+        return teamSeq == null ? run : forTeam(teamSeq, "run", run);
+    }
+
+    /**
+     * 비로그인 사용자의 코드 실행에 적용할 자원 제한을 반환하는 내부 로직
+     *
+     * @return 자원 제한
+     */
+    public Profile unlogin() {
+        return unlogin;
+    }
+
+    /**
+     * Django, Flask, FastAPI 서버 실행에 적용할 자원 제한을 반환하는 내부 로직
+     *
+     * @param teamSeq 실행하는 팀의 sequence (null이면 기본값)
+     * @return 자원 제한
+     */
+    public Profile server(String teamSeq) {
+        return teamSeq == null ? server : forTeam(teamSeq, "server", server);
+    }
+
+    /**
+     * 이미지 빌드 전 wheel을 준비하는 컨테이너에 적용할 자원 제한을 반환하는 내부 로직
+     *
+     * @return 자원 제한
+     */
+    public Profile build() {
+        return build;
+    }
+
+    /**
+     * 프로젝트 타입에 맞는 자원 제한을 반환하는 내부 로직
+     *
+     * @param type    프로젝트 타입 (1: pure Python, 2: Django, 3: Flask, 4: FastAPI)
+     * @param teamSeq 실행하는 팀의 sequence (null이면 기본값)
+     * @return 자원 제한
+     */
+    public Profile forType(int type, String teamSeq) {
+        return type == 1 ? run(teamSeq) : server(teamSeq);
+    }
+
+    private Profile forTeam(String teamSeq, String kind, Profile base) {
+        return teamProfiles.computeIfAbsent(teamSeq + "." + kind,
+                key -> read(PREFIX + "team." + key + ".", base));
+    }
+
+    private Profile read(String prefix, Profile base) {
+        return new Profile(
+                environment.getProperty(prefix + "memory-mb", Long.class, base.memoryMb),
+                environment.getProperty(prefix + "cpus", Double.class, base.cpus),
+                environment.getProperty(prefix + "pids", Long.class, base.pids),
+                environment.getProperty(prefix + "wall-seconds", Integer.class, base.wallSeconds),
+                environment.getProperty(prefix + "cpu-seconds", Integer.class, base.cpuSeconds));
+    }
+
+    /**
+     * 실행 한 번에 적용할 자원 제한
+     */
+    public static class Profile {
+        private final long memoryMb;
+        private final double cpus;
+        private final long pids;
+        private final int wallSeconds;
+        private final int cpuSeconds;
+
+        /**
+         * Profile 생성자
+         *
+         * @param memoryMb    최대 메모리 (MB, swap 포함)
+         * @param cpus        최대 CPU 수 (0.5 = 코어 절반)
+         * @param pids        최대 프로세스 수
+         * @param wallSeconds 최대 실행 시간 (초, 0이면 제한 없음)
+         * @param cpuSeconds  최대 CPU 시간 (초, 0이면 제한 없음)
+         */
+        public Profile(long memoryMb, double cpus, long pids, int wallSeconds, int cpuSeconds) {
+            this.memoryMb = memoryMb;
+            this.cpus = cpus;
+            this.pids = pids;
+            this.wallSeconds = wallSeconds;
+            this.cpuSeconds = cpuSeconds;
+        }
+
+        public long getMemoryMb() {
+            return memoryMb;
+        }
+
+        public double getCpus() {
+            return cpus;
+        }
+
+        public long getPids() {
+            return pids;
+        }
+
+        public int getWallSeconds() {
+            return wallSeconds;
+        }
+
+        public int getCpuSeconds() {
+            return cpuSeconds;
+        }
+
+        /**
+         * 컨테이너 설정에 메모리, CPU, 프로세스 수 제한을 적용 (docker run --memory --cpus --pids-limit)
+         *
+         * @param spec 컨테이너 설정
+         * @return 같은 컨테이너 설정
+         */
+        public ContainerSpecDto applyTo(ContainerSpecDto spec) {
+            return spec.limit(memoryMb * 1024 * 1024, cpus, pids);
+        }
+
+        /**
+         * 실행 중인 컨테이너의 제한을 바꿀 때 보낼 설정 (docker update)
+         *
+         * @return 메모리, CPU, 프로세스 수만 담은 설정
+         */
+        public HostConfigDto toHostConfig() {
+            HostConfigDto hostConfig = new HostConfigDto();
+            hostConfig.setMemory(memoryMb * 1024 * 1024);
+            hostConfig.setMemorySwap(memoryMb * 1024 * 1024);
+            hostConfig.setNanoCpus((long) (cpus * 1_000_000_000L));
+            hostConfig.setPidsLimit(pids);
+            return hostConfig;
+        }
+
+        /**
+         * 컨테이너 단위 제한(메모리, CPU, 프로세스 수)이 같은지 확인하는 내부 로직
+         *
+         * @param other 비교할 자원 제한
+         * @return 같으면 true
+         */
+        public boolean sameLimits(Profile other) {
+            return memoryMb == other.memoryMb && Double.compare(cpus, other.cpus) == 0 && pids == other.pids;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerInspectDto;
+import com.example.goldencrow.compile.docker.dto.ContainerStatsDto;
+import com.example.goldencrow.compile.dto.RunResultDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 컴파일 실행 한 번이 사용한 자원(CPU 시간, 최대 메모리, 실행 시간)을 재고, 팀별로 모으는 Component
+ * <p>
+ * pure Python 실행은 컨테이너를 여러 번 재사용하거나 실행이 끝나면 컨테이너(cgroup)가 사라지므로,
+ * 실행한 프로세스를 기다린 쪽(WRAPPER, SandboxPool의 agent)이 커널의 자식 프로세스 사용량(rusage)을
+ * 출력 마지막에 실행마다 다른 표식과 함께 붙이고, Meter가 출력에서 이를 떼어 읽는다.
+ * 오래 실행되는 서버 컨테이너는 종료 직전에 Docker의 cgroup 통계(stats)로 잰다.
+ */
+@Component
+public class RunMeter {
+    public static final String UNLOGIN_OWNER = "unlogin";
+    private static final int TIMEOUT_EXIT = 124;
+
+    /**
+     * 실행할 파일을 자식 프로세스로 실행하고, 끝나면 사용량을 출력하는 python 스크립트
+     * argv : 표식, 최대 실행 시간(초, 0이면 제한 없음), 최대 CPU 시간(초, 0이면 제한 없음), 실행할 파일
+     */
+    public static final String WRAPPER = String.join("\n",
+            "import json, os, resource, signal, subprocess, sys, time",
+            "marker, wall, cpu, main = sys.argv[1], int(sys.argv[2]), int(sys.argv[3]), sys.argv[4]",
+            "start = time.time()",
+            "def limit():",
+            "    if cpu > 0:",
+            "        resource.setrlimit(resource.RLIMIT_CPU, (cpu, cpu))",
+            "p = subprocess.Popen([sys.executable, main], start_new_session=True, preexec_fn=limit)",
+            "try:",
+            "    p.wait(timeout=wall if wall > 0 else None)",
+            "    code = p.returncode",
+            "except subprocess.TimeoutExpired:",
+            "    code = " + TIMEOUT_EXIT,
+            "    sys.stderr.write('\\ntime limit exceeded (%ss)\\n' % wall)",
+            "finally:",
+            "    try:",
+            "        os.killpg(p.pid, signal.SIGKILL)",
+            "    except OSError:",
+            "        pass",
+            "    p.wait()",
+            "u = resource.getrusage(resource.RUSAGE_CHILDREN)",
+            "sys.stderr.flush()",
+            "os.write(1, (marker + json.dumps({'cpu': u.ru_utime + u.ru_stime, 'rss': u.ru_maxrss,",
+            "                                  'wall': time.time() - start}) + '\\n').encode())",
+            "os._exit(code if code >= 0 else 128 - code)");
+
+    /**
+     * 실행 결과로 모을 최대 출력 크기 (byte)
+     */
+    @Value("${compile.docker.max-output:1048576}")
+    private int maxOutput;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, OwnerUsage> owners = new ConcurrentHashMap<>();
+
+    /**
+     * 실행 한 번을 잴 Meter를 만드는 내부 로직
+     *
+     * @return 새 Meter
+     */
+    public Meter meter() {
+        return new Meter("\u001ecrow-meter-" + UUID.randomUUID().toString().replace("-", "") + ":");
+    }
+
+    /**
+     * 실행 중인 서버 컨테이너가 지금까지 사용한 자원을 cgroup 통계로 재는 내부 로직
+     *
+     * @param container 컨테이너 이름 또는 id
+     * @return 사용량, 컨테이너가 없거나 실행 중이 아니면 null
+     */
+    public Usage containerUsage(String container) {
+        try {
+            ContainerInspectDto inspect = dockerEngineClient.inspectContainer(container);
+            if (inspect == null || inspect.getState() == null || !inspect.getState().isRunning()) {
+                return null;
+            }
+            ContainerStatsDto stats = dockerEngineClient.stats(container);
+            if (stats == null) {
+                return null;
+            }
+            long wallMillis = -1;
+            try {
+                wallMillis = System.currentTimeMillis() - Instant.parse(inspect.getState().getStartedAt()).toEpochMilli();
+            } catch (DateTimeParseException | NullPointerException e) {
+                // 시작 시간을 알 수 없으면 실행 시간은 기록하지 않음
+            }
+            long peakKb = stats.peakMemoryBytes() / 1024;
+            return new Usage(stats.cpuNanos() / 1e9, peakKb > 0 ? peakKb : -1, wallMillis, false);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 실행 한 번의 사용량을 팀(혹은 비로그인 사용자) 합계에 더하는 내부 로직
+     *
+     * @param owner 팀 sequence 혹은 UNLOGIN_OWNER
+     * @param usage 사용량 (null이면 무시)
+     */
+    public void record(String owner, Usage usage) {
+        if (owner == null || usage == null) {
+            return;
+        }
+        owners.computeIfAbsent(owner, key -> new OwnerUsage()).add(usage);
+    }
+
+    /**
+     * 팀의 누적 사용량을 반환하는 내부 로직
+     *
+     * @param owner 팀 sequence 혹은 UNLOGIN_OWNER
+     * @return 실행 수, 누적 CPU 시간(초), 누적 실행 시간(ms), 최대 메모리(KB), 시간 초과 수 (기록이 없으면 모두 0)
+     */
+    public Map<String, Object> usage(String owner) {
+        OwnerUsage usage = owners.get(owner);
+        return usage == null ? new OwnerUsage().toMap() : usage.toMap();
+    }
+
+    /**
+     * 전체 누적 사용량과 기록된 팀 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        OwnerUsage total = new OwnerUsage();
+        for (OwnerUsage usage : owners.values()) {
+            total.merge(usage);
+        }
+        Map<String, Object> res = total.toMap();
+        res.put("owners", owners.size());
+        return res;
+    }
+
+    /**
+     * 실행 한 번의 자원 사용량
+     */
+    public static class Usage {
+        private final double cpuSeconds;
+        private final long peakRssKb;
+        private final long wallMillis;
+        private final boolean timedOut;
+
+        /**
+         * Usage 생성자
+         *
+         * @param cpuSeconds CPU 시간 (초, 알 수 없으면 -1)
+         * @param peakRssKb  최대 메모리 (KB, 알 수 없으면 -1)
+         * @param wallMillis 실행 시간 (ms, 알 수 없으면 -1)
+         * @param timedOut   실행 시간 제한을 넘었는지 여부
+         */
+        public Usage(double cpuSeconds, long peakRssKb, long wallMillis, boolean timedOut) {
+            this.cpuSeconds = cpuSeconds;
+            this.peakRssKb = peakRssKb;
+            this.wallMillis = wallMillis;
+            this.timedOut = timedOut;
+        }
+
+        public double getCpuSeconds() {
+            return cpuSeconds;
+        }
+
+        public long getPeakRssKb() {
+            return peakRssKb;
+        }
+
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * 컴파일 결과에 사용량을 담는 내부 로직 (알 수 없는 값은 담지 않음)
+         *
+         * @param serviceRes 컴파일 결과
+         */
+        public void putTo(Map<String, String> serviceRes) {
+            for (Map.Entry<String, Object> entry : toMap().entrySet()) {
+                serviceRes.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+
+        /**
+         * @return "cpuSeconds", "peakRssKb", "wallMillis", "timedOut"을 담은 Map (알 수 없는 값은 제외)
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> res = new HashMap<>();
+            if (cpuSeconds >= 0) {
+                res.put("cpuSeconds", Math.round(cpuSeconds * 1000) / 1000.0);
+            }
+            if (peakRssKb >= 0) {
+                res.put("peakRssKb", peakRssKb);
+            }
+            if (wallMillis >= 0) {
+                res.put("wallMillis", wallMillis);
+            }
+            res.put("timedOut", timedOut);
+            return res;
+        }
+    }
+
+    /**
+     * 출력 끝에 붙은 사용량을 떼어 읽는 Meter
+     * 출력은 그대로 흘려보내되, 표식의 앞부분과 같은 끝부분만 다음 frame이 올 때까지 잠시 잡아 둔다.
+     */
+    public class Meter {
+        private final String marker;
+        private final byte[] markerBytes;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+        private boolean found = false;
+        private int exitCode = -1;
+        private long startedAt;
+        private long finishedAt;
+
+        Meter(String marker) {
+            this.marker = marker;
+            this.markerBytes = marker.getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return 사용량 앞에 붙을 표식 (WRAPPER, agent에 넘길 값)
+         */
+        public String getMarker() {
+            return marker;
+        }
+
+        /**
+         * 실행을 감싸 출력에서 사용량을 떼어 내는 내부 로직
+         *
+         * @param source 실행할 컨테이너 혹은 exec
+         * @return 사용량을 뗀 출력을 흘려보내는 실행
+         */
+        public RunStreamService.RunSource wrap(RunStreamService.RunSource source) {
+            return new RunStreamService.RunSource() {
+                @Override
+                public int run(DockerEngineClient.FrameConsumer consumer) throws IOException {
+                    return Meter.this.run(source, consumer);
+                }
+
+                @Override
+                public Map<String, Object> usage() {
+                    return Meter.this.usage().toMap();
+                }
+            };
+        }
+
+        /**
+         * 실행하고 사용량을 뗀 출력을 consumer로 흘려보내는 내부 로직
+         *
+         * @param source   실행할 컨테이너 혹은 exec
+         * @param consumer 출력을 받을 consumer
+         * @return 종료 코드 (consumer가 중단했으면 -1)
+         * @throws IOException 실행 실패, 제한 시간 초과
+         */
+        public int run(RunStreamService.RunSource source, DockerEngineClient.FrameConsumer consumer)
+                throws IOException {
+            startedAt = System.currentTimeMillis();
+            try {
+                exitCode = source.run((stream, data, length) -> accept(stream, data, length, consumer));
+                if (pending.size() > 0) {
+                    byte[] rest = pending.toByteArray();
+                    pending.reset();
+                    consumer.accept(DockerEngineClient.STDOUT, rest, rest.length);
+                }
+                return exitCode;
+            } finally {
+                finishedAt = System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * 실행하고 사용량을 뗀 출력을 한 번 읽으면서 경로를 지우고 traceback을 찾는 내부 로직
+         *
+         * @param source     실행할 컨테이너 혹은 exec
+         * @param hiddenPath 출력에서 지울 서버 경로
+         * @return 종료 코드, 출력, traceback, 실행 시간, 자원 사용량을 담은 결과
+         */
+        public RunResultDto scan(RunStreamService.RunSource source, String hiddenPath) {
+            RunOutput output = new RunOutput(maxOutput, hiddenPath);
+            RunResultDto result;
+            try {
+                int code = run(source, output);
+                result = output.finish(code, code == TIMEOUT_EXIT, finishedAt - startedAt);
+            } catch (SocketTimeoutException e) {
+                result = output.finish(-1, true, finishedAt - startedAt);
+            } catch (IOException e) {
+                result = RunOutput.failed(e.getMessage());
+            }
+            result.setUsage(usage().toMap());
+            return result;
+        }
+
+        /**
+         * 실행이 끝난 뒤 사용량을 반환하는 내부 로직
+         * 출력에 사용량이 없으면 (강제 종료 등) 서버에서 잰 실행 시간만 담는다.
+         *
+         * @return 사용량
+         */
+        public Usage usage() {
+            boolean timedOut = exitCode == TIMEOUT_EXIT;
+            if (found) {
+                try {
+                    JsonNode node = objectMapper.readTree(trailer.toByteArray());
+                    return new Usage(node.path("cpu").asDouble(-1), node.path("rss").asLong(-1),
+                            Math.round(node.path("wall").asDouble(-1) * 1000), timedOut);
+                } catch (IOException e) {
+                    // 사용량이 잘린 경우 실행 시간만 기록
+                }
+            }
+            return new Usage(-1, -1, startedAt == 0 ? -1 : finishedAt - startedAt, timedOut);
+        }
+
+        private boolean accept(int stream, byte[] data, int length, DockerEngineClient.FrameConsumer consumer) {
+            if (stream != DockerEngineClient.STDOUT) {
+                return consumer.accept(stream, data, length);
+            }
+            if (found) {
+                trailer.write(data, 0, length);
+                return true;
+            }
+            byte[] buf = data;
+            int size = length;
+            if (pending.size() > 0) {
+                pending.write(data, 0, length);
+                buf = pending.toByteArray();
+                size = buf.length;
+                pending.reset();
+            }
+            int at = indexOf(buf, size);
+            if (at >= 0) {
+                found = true;
+                trailer.write(buf, at + markerBytes.length, size - at - markerBytes.length);
+                return at == 0 || consumer.accept(stream, buf, at);
+            }
+            // 표식이 frame 경계에 걸쳐 있을 수 있으므로 표식의 앞부분과 같은 끝부분은 잡아 둠
+            int keep = partialSuffix(buf, size);
+            pending.write(buf, size - keep, keep);
+            return size == keep || consumer.accept(stream, buf, size - keep);
+        }
+
+        private int indexOf(byte[] buf, int size) {
+            outer:
+            for (int i = 0; i + markerBytes.length <= size; i++) {
+                for (int j = 0; j < markerBytes.length; j++) {
+                    if (buf[i + j] != markerBytes[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        private int partialSuffix(byte[] buf, int size) {
+            for (int keep = Math.min(size, markerBytes.length - 1); keep > 0; keep--) {
+                boolean match = true;
+                for (int j = 0; j < keep; j++) {
+                    if (buf[size - keep + j] != markerBytes[j]) {
+                        match = false;
+                        break;
+                    }
+                }
+                if (match) {
+                    return keep;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 팀(혹은 비로그인 사용자)별 누적 사용량
+     */
+    private static class OwnerUsage {
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong cpuMicros = new AtomicLong();
+        private final AtomicLong wallMillis = new AtomicLong();
+        private final AtomicLong peakRssKb = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        void add(Usage usage) {
+            runs.incrementAndGet();
+            if (usage.getCpuSeconds() > 0) {
+                cpuMicros.addAndGet(Math.round(usage.getCpuSeconds() * 1_000_000));
+            }
+            if (usage.getWallMillis() > 0) {
+                wallMillis.addAndGet(usage.getWallMillis());
+            }
+            peakRssKb.accumulateAndGet(usage.getPeakRssKb(), Math::max);
+            if (usage.isTimedOut()) {
+                timeouts.incrementAndGet();
+            }
+        }
+
+        void merge(OwnerUsage other) {
+            runs.addAndGet(other.runs.get());
+            cpuMicros.addAndGet(other.cpuMicros.get());
+            wallMillis.addAndGet(other.wallMillis.get());
+            peakRssKb.accumulateAndGet(other.peakRssKb.get(), Math::max);
+            timeouts.addAndGet(other.timeouts.get());
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> res = new HashMap<>();
+            res.put("runs", runs.get());
+            res.put("cpuSeconds", cpuMicros.get() / 1_000_000.0);
+            res.put("wallMillis", wallMillis.get());
+            res.put("peakRssKb", peakRssKb.get());
+            res.put("timeouts", timeouts.get());
+            return res;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.dto.RunResultDto;
+import com.example.goldencrow.compile.dto.TracebackDto;
+import com.example.goldencrow.compile.dto.TracebackFrameDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.goldencrow.common.Constants.*;
+
+/**
+ * 실행 출력을 한 번 읽으면서 서버 경로를 지우고, 제한 크기까지 모으고, Python traceback을 찾는 consumer
+ * <p>
+ * 출력을 모두 모은 뒤 replace와 정규식을 반복하는 대신 줄 단위로 한 번만 처리하므로,
+ * 출력이 수 MB여도 제한 크기의 출력과 한 줄, traceback frame 몇 개만 메모리에 둔다.
+ * 제한을 넘은 출력은 버리지만 traceback은 끝까지 찾는다.
+ */
+public class RunOutput implements DockerEngineClient.FrameConsumer {
+    private static final int MAX_LINE = 8192;
+    private static final int MAX_FRAMES = 64;
+    private static final String TRACEBACK_HEADER = "Traceback (most recent call last):";
+    private static final Pattern FRAME = Pattern.compile("^\\s*File \"(.+)\", line (\\d+)(?:, in (.+))?$");
+    private static final Pattern EXCEPTION = Pattern.compile("^([A-Za-z_][\\w.]*)(?::\\s?(.*))?$");
+
+    private final int limit;
+    private final String hiddenPath;
+    private final StringBuilder output = new StringBuilder();
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private boolean truncated = false;
+
+    private final Deque<TracebackFrameDto> frames = new ArrayDeque<>();
+    private boolean inTraceback = false;
+    private int omittedFrames = 0;
+    private TracebackDto traceback;
+
+    /**
+     * RunOutput 생성자
+     *
+     * @param limit      모을 최대 출력 길이 (글자 수)
+     * @param hiddenPath 출력에서 지울 서버 경로 (없으면 null)
+     */
+    public RunOutput(int limit, String hiddenPath) {
+        this.limit = limit;
+        this.hiddenPath = hiddenPath == null || hiddenPath.isEmpty() ? null : hiddenPath;
+    }
+
+    @Override
+    public boolean accept(int stream, byte[] data, int length) {
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            line.write(data, start, i - start);
+            completeLine(true);
+            start = i + 1;
+        }
+        line.write(data, start, length - start);
+        if (line.size() >= MAX_LINE) {
+            // 줄바꿈 없이 긴 출력은 traceback으로 보지 않고 그대로 내보냄
+            flushPartialLine();
+        }
+        return true;
+    }
+
+    /**
+     * 실행이 끝난 뒤 남은 출력을 처리하고 결과를 만드는 내부 로직
+     *
+     * @param exitCode  종료 코드
+     * @param timedOut  실행 시간 제한을 넘었는지 여부
+     * @param runMillis 실행 시간 (ms)
+     * @return 출력, 잘림 여부, traceback, 실행 시간을 담은 결과 (result는 SUCCESS)
+     */
+    public RunResultDto finish(int exitCode, boolean timedOut, long runMillis) {
+        if (line.size() > 0) {
+            completeLine(false);
+        }
+        if (inTraceback) {
+            // 예외 이름이 나오기 전에 출력이 끝남 (강제 종료 등)
+            closeTraceback(null, null);
+        }
+        RunResultDto result = RunResultDto.of(SUCCESS);
+        result.setExitCode(exitCode);
+        result.setOutput(output.toString());
+        result.setTruncated(truncated);
+        result.setTimedOut(timedOut);
+        result.setTraceback(traceback);
+        Map<String, Long> timing = new HashMap<>();
+        timing.put("runMillis", runMillis);
+        result.setTiming(timing);
+        return result;
+    }
+
+    /**
+     * 실행하지 못한 결과를 만드는 내부 로직 (기존 응답과 같이 result는 SUCCESS, 이유는 response)
+     *
+     * @param error 실행하지 못한 이유
+     * @return 실행 결과
+     */
+    public static RunResultDto failed(String error) {
+        RunResultDto result = RunResultDto.of(SUCCESS);
+        result.setExitCode(-1);
+        result.setResponse(error == null ? "" : error);
+        return result;
+    }
+
+    private void completeLine(boolean newline) {
+        String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        line.reset();
+        if (hiddenPath != null) {
+            text = text.replace(hiddenPath, "");
+        }
+        append(newline ? text + "\n" : text);
+        parse(text.endsWith("\r") ? text.substring(0, text.length() - 1) : text);
+    }
+
+    /**
+     * 한 줄이 너무 길면 UTF-8 글자가 나뉘지 않는 위치까지 내보내는 내부 로직
+     */
+    private void flushPartialLine() {
+        byte[] bytes = line.toByteArray();
+        int cut = bytes.length;
+        while (cut > 0 && (bytes[cut - 1] & 0xC0) == 0x80) {
+            cut--;
+        }
+        if (cut > 0 && (bytes[cut - 1] & 0x80) != 0) {
+            // 여러 byte 글자의 첫 byte는 다음 조각으로 넘김
+            cut--;
+        }
+        if (cut == 0) {
+            cut = bytes.length;
+        }
+        String text = new String(bytes, 0, cut, StandardCharsets.UTF_8);
+        line.reset();
+        line.write(bytes, cut, bytes.length - cut);
+        append(hiddenPath == null ? text : text.replace(hiddenPath, ""));
+        inTraceback = false;
+        frames.clear();
+    }
+
+    private void append(String text) {
+        int room = limit - output.length();
+        if (room <= 0) {
+            truncated = truncated || !text.isEmpty();
+            return;
+        }
+        if (text.length() > room) {
+            output.append(text, 0, room);
+            truncated = true;
+            return;
+        }
+        output.append(text);
+    }
+
+    /**
+     * 한 줄을 traceback 형식에 맞춰 읽는 내부 로직
+     * <pre>
+     * Traceback (most recent call last):
+     *   File "teamName/main.py", line 3, in &lt;module&gt;
+     *     print(1 / 0)
+     * ZeroDivisionError: division by zero
+     * </pre>
+     * SyntaxError처럼 "Traceback" 줄 없이 "  File" 줄부터 시작하는 경우도 처리하며,
+     * 연결된 예외(During handling ...)가 있으면 마지막 traceback을 남긴다.
+     */
+    private void parse(String text) {
+        if (text.startsWith(TRACEBACK_HEADER)) {
+            startTraceback();
+            return;
+        }
+        Matcher frame = FRAME.matcher(text);
+        if (frame.matches() && (inTraceback || text.startsWith("  File "))) {
+            if (!inTraceback) {
+                startTraceback();
+            }
+            addFrame(frame.group(1), Integer.parseInt(frame.group(2)), frame.group(3));
+            return;
+        }
+        if (!inTraceback) {
+            return;
+        }
+        if (text.startsWith(" ") || text.startsWith("\t")) {
+            // frame 아래의 코드 줄 (^ 표시, 반복 생략 안내는 무시)
+            TracebackFrameDto last = frames.peekLast();
+            String code = text.trim();
+            if (last != null && last.getCode() == null && !code.isEmpty() && code.replaceAll("[\\^~ ]", "").length() > 0
+                    && !code.startsWith("[Previous line repeated")) {
+                last.setCode(code);
+            }
+            return;
+        }
+        Matcher exception = EXCEPTION.matcher(text);
+        if (exception.matches()) {
+            closeTraceback(exception.group(1), exception.group(2));
+        } else {
+            // traceback 형식이 아닌 출력이 섞이면 버림
+            inTraceback = false;
+            frames.clear();
+        }
+    }
+
+    private void startTraceback() {
+        inTraceback = true;
+        frames.clear();
+        omittedFrames = 0;
+    }
+
+    private void addFrame(String file, int lineNumber, String function) {
+        TracebackFrameDto frame = new TracebackFrameDto();
+        frame.setFile(file);
+        frame.setLine(lineNumber);
+        frame.setFunction(function);
+        frame.setProject(!file.startsWith("/") && !file.startsWith("<"));
+        if (frames.size() >= MAX_FRAMES) {
+            frames.pollFirst();
+            omittedFrames++;
+        }
+        frames.addLast(frame);
+    }
+
+    private void closeTraceback(String type, String message) {
+        inTraceback = false;
+        if (frames.isEmpty() && type == null) {
+            return;
+        }
+        TracebackDto closed = new TracebackDto();
+        closed.setType(type);
+        closed.setMessage(message == null || message.isEmpty() ? null : message);
+        closed.setFrames(new ArrayList<>(frames));
+        closed.setOmittedFrames(omittedFrames);
+        traceback = closed;
+        frames.clear();
+    }
+}
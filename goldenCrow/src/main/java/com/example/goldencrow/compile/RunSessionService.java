@@ -0,0 +1,440 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import com.example.goldencrow.team.repository.TeamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.goldencrow.common.Constants.*;
+
+/**
+ * pure Python 파일을 대화형으로 실행하는 세션을 관리하는 Service
+ * <p>
+ * 세션을 열면 팀 디렉토리를 연결한 컨테이너(crowsession_{teamSeq})를 한 번 띄워 두고,
+ * 실행할 때마다 그 안에서 stdin을 연결한 exec로 파일을 실행한다.
+ * input은 이미지나 명령어에 넣지 않고 WebSocket 메시지(/code/session/{sessionId})로 받아 실행 중인 프로그램의 stdin에 바로 쓰며,
+ * 출력은 스트리밍 실행과 같은 프레임으로 /topic/session/{sessionId}에 전송한다.
+ * 세션 Id를 아는 사용자만 입력을 보낼 수 있으므로, 세션 Id는 세션을 연 사용자에게만 알려준다.
+ */
+@Service
+public class RunSessionService {
+    public static final String SESSION_PREFIX = "crowsession_";
+    public static final String SESSION_TOPIC = "/topic/session/";
+
+    /**
+     * 실행하지 않는 세션을 닫기까지의 시간 (ms)
+     */
+    @Value("${compile.session.idle-timeout:600000}")
+    private long idleTimeout;
+
+    /**
+     * 대화형 실행 한 번의 최대 실행 시간 (초), 입력을 기다리는 시간도 포함
+     */
+    @Value("${compile.session.wall-seconds:300}")
+    private int wallSeconds;
+
+    /**
+     * 한 번에 보낼 수 있는 최대 입력 크기 (byte)
+     */
+    @Value("${compile.session.max-input:65536}")
+    private int maxInput;
+
+    /**
+     * 동시에 열 수 있는 최대 세션 수
+     */
+    @Value("${compile.session.max-sessions:32}")
+    private int maxSessions;
+
+    /**
+     * 세션에서 동시에 실행할 수 있는 최대 수 (일반 실행의 CompileAdmission과 따로 셈)
+     */
+    @Value("${compile.session.max-running:8}")
+    private int maxRunning;
+
+    /**
+     * 실행할 자리가 없을 때 다시 시도하기까지 알려줄 시간 (초)
+     */
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ResourceProfiles resourceProfiles;
+
+    @Autowired
+    private CompileService compileService;
+
+    @Autowired
+    private RunStreamService runStreamService;
+
+    @Autowired
+    private RunMeter runMeter;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, RunSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> teamSessions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger runningCount = new AtomicInteger();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong inputs = new AtomicLong();
+    private final AtomicLong inputBytes = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * 대화형 실행 세션을 여는 내부 로직
+     * 팀에 이미 열린 세션이 있으면 닫고 새로 연다.
+     *
+     * @param filePath 실행할 파일의 절대경로 (/home/ubuntu/crow_data/teamSeq/teamName/main.py)
+     * @return 세션을 열면 "sessionId", 출력을 받을 "topic", 입력을 보낼 "destination" 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> openSessionService(String filePath) {
+        Map<String, String> serviceRes = new HashMap<>();
+        String[] pathList = filePath.split("/");
+        String teamSeq = pathList[4];
+        String teamName = pathList[5];
+        if (!teamRepository.findByTeamSeq(Long.valueOf(teamSeq)).isPresent()) {
+            serviceRes.put("result", NO_SUCH);
+            return serviceRes;
+        }
+        String previous = teamSessions.get(teamSeq);
+        if (previous != null) {
+            closeSessionService(previous);
+        }
+        if (sessions.size() >= maxSessions) {
+            serviceRes.put("result", BUSY);
+            serviceRes.put("retryAfter", String.valueOf(idleTimeout / 1000));
+            return serviceRes;
+        }
+
+        String projectPath = BASE_URL + teamSeq;
+        String container = SESSION_PREFIX + teamSeq;
+        try {
+            String image = imageCache.resolve(1, new File(projectPath + "/" + teamName));
+            ContainerSpecDto spec = new ContainerSpecDto(image, "sleep", "infinity").bind(projectPath, projectPath);
+            dockerEngineClient.removeContainer(container, true);
+            dockerEngineClient.createContainer(container, resourceProfiles.run(teamSeq).applyTo(spec));
+            dockerEngineClient.startContainer(container);
+        } catch (IOException e) {
+            serviceRes.put("result", UNKNOWN);
+            serviceRes.put("response", e.getMessage());
+            return serviceRes;
+        }
+
+        RunSession session = new RunSession(UUID.randomUUID().toString(), teamSeq, container, filePath);
+        sessions.put(session.id, session);
+        teamSessions.put(teamSeq, session.id);
+        opened.incrementAndGet();
+
+        serviceRes.put("result", SUCCESS);
+        serviceRes.put("sessionId", session.id);
+        serviceRes.put("topic", SESSION_TOPIC + session.id);
+        serviceRes.put("destination", "/code/session/" + session.id);
+        return serviceRes;
+    }
+
+    /**
+     * 세션의 컨테이너에서 파일을 한 번 실행하는 내부 로직
+     * 팀 디렉토리를 연결해 두었으므로 저장한 코드가 바로 실행되고, 실행하는 동안 입력을 보낼 수 있다.
+     * 세션 실행은 입력을 기다리며 오래 이어질 수 있으므로 CompileAdmission의 자리를 쓰지 않고,
+     * 세션을 열 때 띄운 컨테이너 안에서 max-running개까지만 동시에 실행한다.
+     *
+     * @param sessionId 세션 Id
+     * @return 실행을 시작하면 SUCCESS, 이미 실행 중이면 DUPLICATE, 자리가 없으면 BUSY와 "retryAfter"(초) 반환
+     */
+    public Map<String, String> runSessionService(String sessionId) {
+        Map<String, String> serviceRes = new HashMap<>();
+        RunSession session = sessions.get(sessionId);
+        if (session == null) {
+            serviceRes.put("result", NO_SUCH);
+            return serviceRes;
+        }
+        // 실행을 준비하는 동안 잠그지 않도록 자리만 먼저 표시 (닫기, 중단은 기다리지 않음)
+        synchronized (session) {
+            if (session.running != null || session.starting) {
+                serviceRes.put("result", DUPLICATE);
+                return serviceRes;
+            }
+            session.starting = true;
+        }
+        try {
+            if (runningCount.incrementAndGet() > maxRunning) {
+                runningCount.decrementAndGet();
+                serviceRes.put("result", BUSY);
+                serviceRes.put("retryAfter", String.valueOf(RETRY_AFTER_SECONDS));
+                return serviceRes;
+            }
+
+            ResourceProfiles.Profile profile = resourceProfiles.run(session.teamSeq);
+            RunMeter.Meter meter = runMeter.meter();
+            String[] command = {"python3", "-c", RunMeter.WRAPPER, meter.getMarker(),
+                    String.valueOf(wallSeconds), String.valueOf(profile.getCpuSeconds()), session.filePath};
+            DockerEngineClient.ExecAttachment attachment;
+            try {
+                // 입력을 기다리는 프롬프트가 바로 보이도록 출력을 버퍼링하지 않음
+                attachment = dockerEngineClient.execAttach(session.container, command,
+                        new String[]{"PYTHONUNBUFFERED=1"}, null);
+            } catch (IOException e) {
+                runningCount.decrementAndGet();
+                serviceRes.put("result", UNKNOWN);
+                serviceRes.put("response", e.getMessage());
+                return serviceRes;
+            }
+            synchronized (session) {
+                if (sessions.get(sessionId) != session) {
+                    // 준비하는 사이 세션이 닫힘
+                    attachment.close();
+                    runningCount.decrementAndGet();
+                    serviceRes.put("result", NO_SUCH);
+                    return serviceRes;
+                }
+                session.running = attachment;
+                session.touch();
+            }
+
+            boolean started = runStreamService.stream(SESSION_TOPIC + sessionId, meter.wrap(attachment::read),
+                    BASE_URL, () -> kill(session), () -> {
+                        attachment.close();
+                        synchronized (session) {
+                            session.running = null;
+                            session.touch();
+                        }
+                        runMeter.record(session.teamSeq, meter.usage());
+                        runningCount.decrementAndGet();
+                    });
+            if (!started) {
+                serviceRes.put("result", UNKNOWN);
+                return serviceRes;
+            }
+        } finally {
+            synchronized (session) {
+                session.starting = false;
+            }
+        }
+        runs.incrementAndGet();
+        serviceRes.put("result", SUCCESS);
+        serviceRes.put("topic", SESSION_TOPIC + sessionId);
+        return serviceRes;
+    }
+
+    /**
+     * WebSocket으로 받은 메시지를 실행 중인 프로그램에 전달하는 내부 로직
+     * 메시지 : {"type": "stdin", "data": 입력} | {"type": "eof"} | {"type": "kill"}
+     * 처리하지 못하면 세션 topic으로 {"type": "error", "result": result}를 보낸다.
+     *
+     * @param sessionId 세션 Id
+     * @param message   "type", "data"를 key로 가지는 Map<String, String>
+     * @return 성패에 따른 result 반환
+     */
+    public Map<String, String> messageService(String sessionId, Map<String, String> message) {
+        Map<String, String> serviceRes = new HashMap<>();
+        String type = message == null ? null : message.get("type");
+        String result;
+        if ("stdin".equals(type)) {
+            result = input(sessionId, message.get("data"));
+        } else if ("eof".equals(type)) {
+            result = eof(sessionId);
+        } else if ("kill".equals(type)) {
+            RunSession session = sessions.get(sessionId);
+            result = session == null ? NO_SUCH : SUCCESS;
+            if (session != null) {
+                kill(session);
+            }
+        } else {
+            result = BAD_REQ;
+        }
+        if (!SUCCESS.equals(result)) {
+            Map<String, Object> frame = new HashMap<>();
+            frame.put("type", "error");
+            frame.put("result", result);
+            messagingTemplate.convertAndSend(SESSION_TOPIC + sessionId, frame);
+        }
+        serviceRes.put("result", result);
+        return serviceRes;
+    }
+
+    /**
+     * 세션을 닫고 컨테이너를 삭제하는 내부 로직
+     *
+     * @param sessionId 세션 Id
+     * @return 성패에 따른 result 반환
+     */
+    public Map<String, String> closeSessionService(String sessionId) {
+        Map<String, String> serviceRes = new HashMap<>();
+        RunSession session = sessions.remove(sessionId);
+        if (session == null) {
+            serviceRes.put("result", NO_SUCH);
+            return serviceRes;
+        }
+        teamSessions.remove(session.teamSeq, sessionId);
+        synchronized (session) {
+            if (session.running != null) {
+                session.running.close();
+            }
+        }
+        compileService.removeContainerQuietly(session.container);
+        serviceRes.put("result", SUCCESS);
+        return serviceRes;
+    }
+
+    /**
+     * 오래 실행하지 않은 세션을 닫고, 서버 재시작 등으로 주인이 없어진 세션 컨테이너를 삭제하는 내부 로직
+     */
+    @Scheduled(initialDelayString = "${compile.session.sweep-interval:60000}",
+            fixedDelayString = "${compile.session.sweep-interval:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (RunSession session : new ArrayList<>(sessions.values())) {
+            if (session.running == null && now - session.lastActiveAt > idleTimeout) {
+                expired.incrementAndGet();
+                closeSessionService(session.id);
+            }
+        }
+        List<ContainerSummaryDto> containers;
+        try {
+            containers = dockerEngineClient.listContainers(SESSION_PREFIX, true);
+        } catch (IOException e) {
+            return;
+        }
+        for (ContainerSummaryDto container : containers) {
+            String teamSeq = container.name().substring(SESSION_PREFIX.length());
+            if (!teamSessions.containsKey(teamSeq)) {
+                compileService.removeContainerQuietly(container.getId());
+            }
+        }
+    }
+
+    /**
+     * 열린 세션 수와 실행, 입력 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        int running = 0;
+        for (RunSession session : sessions.values()) {
+            if (session.running != null) {
+                running++;
+            }
+        }
+        Map<String, Object> res = new HashMap<>();
+        res.put("open", sessions.size());
+        res.put("running", running);
+        res.put("opened", opened.get());
+        res.put("runs", runs.get());
+        res.put("inputs", inputs.get());
+        res.put("inputBytes", inputBytes.get());
+        res.put("expired", expired.get());
+        return res;
+    }
+
+    /**
+     * 서버 종료 시 열린 세션의 컨테이너를 삭제하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (String sessionId : new ArrayList<>(sessions.keySet())) {
+            closeSessionService(sessionId);
+        }
+    }
+
+    private String input(String sessionId, String data) {
+        RunSession session = sessions.get(sessionId);
+        if (session == null || data == null) {
+            return session == null ? NO_SUCH : BAD_REQ;
+        }
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxInput) {
+            return BAD_REQ;
+        }
+        DockerEngineClient.ExecAttachment running = session.running;
+        if (running == null) {
+            return NO_SUCH;
+        }
+        try {
+            running.write(bytes);
+        } catch (IOException e) {
+            // 프로그램이 이미 끝났거나 stdin을 닫음
+            return WRONG;
+        }
+        session.touch();
+        inputs.incrementAndGet();
+        inputBytes.addAndGet(bytes.length);
+        return SUCCESS;
+    }
+
+    private String eof(String sessionId) {
+        RunSession session = sessions.get(sessionId);
+        DockerEngineClient.ExecAttachment running = session == null ? null : session.running;
+        if (running == null) {
+            return NO_SUCH;
+        }
+        try {
+            running.closeInput();
+        } catch (IOException e) {
+            return WRONG;
+        }
+        return SUCCESS;
+    }
+
+    /**
+     * 실행 중인 프로그램을 강제로 끝내는 내부 로직
+     * exec는 따로 멈출 수 없으므로 컨테이너를 바로 다시 시작해 안의 프로세스를 모두 끝낸다. (세션은 유지)
+     */
+    private void kill(RunSession session) {
+        if (session.running == null) {
+            return;
+        }
+        try {
+            dockerEngineClient.restartContainer(session.container, 0);
+        } catch (IOException e) {
+            // 컨테이너가 이미 없으면 실행도 끝난 상태
+        }
+    }
+
+    /**
+     * 열린 대화형 실행 세션
+     */
+    private static class RunSession {
+        private final String id;
+        private final String teamSeq;
+        private final String container;
+        private final String filePath;
+        private volatile DockerEngineClient.ExecAttachment running;
+        private boolean starting;
+        private volatile long lastActiveAt = System.currentTimeMillis();
+
+        private RunSession(String id, String teamSeq, String container, String filePath) {
+            this.id = id;
+            this.teamSeq = teamSeq;
+            this.container = container;
+            this.filePath = filePath;
+        }
+
+        private void touch() {
+            lastActiveAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.goldencrow.compile;
+
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+/**
+ * 대화형 실행 세션의 입력을 WebSocket으로 받는 Controller
+ *
+ * @url /code/session/{sessionId}
+ */
+@Controller
+public class RunSessionSocketController {
+    private final RunSessionService runSessionService;
+
+    /**
+     * RunSessionSocketController 생성자
+     *
+     * @param runSessionService 대화형 실행 세션을 관리하는 Service
+     */
+    public RunSessionSocketController(RunSessionService runSessionService) {
+        this.runSessionService = runSessionService;
+    }
+
+    /**
+     * 실행 중인 프로그램에 입력을 보내거나, stdin을 닫거나, 실행을 중단
+     * 처리 결과는 실패한 경우에만 /topic/session/{sessionId}로 전송된다.
+     *
+     * @param sessionId 세션 Id
+     * @param body      "type"(stdin, eof, kill), "data"를 key로 가지는 Map<String, String>
+     */
+    @MessageMapping("/session/{sessionId}")
+    public void sessionMessage(@DestinationVariable String sessionId, Map<String, String> body) {
+        runSessionService.messageService(sessionId, body);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 실행 중인 컨테이너의 stdout/stderr를 STOMP topic으로 흘려보내는 Service
+ * <p>
+ * 출력은 줄 단위로 모아 chunk 프레임으로 전송하고, 실행이 끝나면 exit 프레임을 전송한다.
+ * 프레임 : {"type": "stdout" | "stderr" | "exit", "seq": 순번, "data": 출력, "exitCode": 종료코드, "truncated": 잘림 여부,
+ * "usage": 자원 사용량 (잴 수 있는 실행만)}
+ */
+@Service
+public class RunStreamService {
+    public static final String RUN_TOPIC = "/topic/run/";
+    private static final int CHUNK_SIZE = 4096;
+    private static final String[] TYPES = {"stdout", "stderr"};
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * 한 번의 실행에서 전송할 수 있는 최대 출력 크기 (byte), 넘으면 실행을 중단
+     */
+    @Value("${compile.stream.max-output:1048576}")
+    private long maxOutput;
+
+    /**
+     * 전송을 기다리는 프레임 수, 가득 차면 출력을 읽는 쪽이 대기
+     */
+    @Value("${compile.stream.buffer-frames:64}")
+    private int bufferFrames;
+
+    private final ThreadPoolExecutor runExecutor;
+    private final ExecutorService readerExecutor = Executors.newCachedThreadPool();
+
+    /**
+     * RunStreamService 생성자
+     *
+     * @param messagingTemplate STOMP 메시지를 전송하는 template
+     * @param maxRuns           동시에 스트리밍할 수 있는 실행 수
+     * @param maxWaiting        대기할 수 있는 실행 수
+     */
+    public RunStreamService(SimpMessagingTemplate messagingTemplate,
+                            @Value("${compile.stream.max-runs:8}") int maxRuns,
+                            @Value("${compile.stream.max-waiting:32}") int maxWaiting) {
+        this.messagingTemplate = messagingTemplate;
+        this.runExecutor = new ThreadPoolExecutor(maxRuns, maxRuns, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxWaiting));
+    }
+
+    /**
+     * 출력을 흘려보낼 실행 (컨테이너 실행, exec 등)
+     */
+    public interface RunSource {
+        /**
+         * 실행 출력을 consumer로 전달하고, 끝나면 종료 코드를 반환 (끝날 때까지 대기)
+         *
+         * @param consumer 출력 frame을 받을 consumer (false를 반환하면 읽기를 중단)
+         * @return 종료 코드 (중단된 경우 -1)
+         * @throws IOException 실행 실패, 제한 시간 초과
+         */
+        int run(DockerEngineClient.FrameConsumer consumer) throws IOException;
+
+        /**
+         * 실행이 끝난 뒤 자원 사용량을 반환 (RunMeter.Usage.toMap() 형식)
+         *
+         * @return 사용량, 잴 수 없는 실행이면 null
+         */
+        default Map<String, Object> usage() {
+            return null;
+        }
+    }
+
+    /**
+     * 실행을 비동기로 시작하고 출력을 topic으로 전송하는 내부 로직
+     *
+     * @param topic      출력을 전송할 topic (/topic/run/{teamSeq})
+     * @param source     실행할 컨테이너 혹은 exec
+     * @param hiddenPath 출력에서 지울 서버 경로 (없으면 null)
+     * @param onCancel   출력 제한을 넘어 실행을 중단할 때 수행할 로직 (컨테이너 삭제 등)
+     * @param onFinish   실행이 끝난 뒤 수행할 정리 로직
+     * @return 실행 등록 성공 여부 (대기열이 가득 차면 false)
+     */
+    public boolean stream(String topic, RunSource source, String hiddenPath, Runnable onCancel, Runnable onFinish) {
+        try {
+            runExecutor.execute(() -> {
+                try {
+                    run(topic, source, hiddenPath, onCancel);
+                } finally {
+                    if (onFinish != null) {
+                        onFinish.run();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (onFinish != null) {
+                onFinish.run();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 실행 출력을 읽는 쪽과 프레임을 순서대로 전송하는 쪽을 나눠 처리하는 내부 로직
+     */
+    private void run(String topic, RunSource source, String hiddenPath, Runnable onCancel) {
+        BlockingQueue<Map<String, Object>> frames = new ArrayBlockingQueue<>(bufferFrames);
+        AtomicLong written = new AtomicLong();
+        AtomicBoolean truncated = new AtomicBoolean(false);
+        AtomicInteger exitCode = new AtomicInteger(-1);
+        Runnable cancel = () -> {
+            if (truncated.compareAndSet(false, true) && onCancel != null) {
+                onCancel.run();
+            }
+        };
+        Future<?> reader = readerExecutor.submit(() -> read(source, hiddenPath, frames, written, cancel, exitCode));
+
+        long seq = 0;
+        try {
+            while (true) {
+                Map<String, Object> frame = frames.take();
+                if (frame.isEmpty()) {
+                    // 출력이 끝났다는 표시
+                    break;
+                }
+                frame.put("seq", seq++);
+                messagingTemplate.convertAndSend(topic, frame);
+            }
+            sendExit(topic, seq, exitCode.get(), truncated.get(), source.usage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.cancel(true);
+            cancel.run();
+            sendExit(topic, seq, -1, truncated.get(), null);
+        }
+    }
+
+    /**
+     * 실행 출력을 줄 단위로 모아 chunk 프레임으로 만드는 내부 로직
+     * 한 frame에 들어온 줄은 CHUNK_SIZE까지 한 프레임으로 묶고, 끝나지 않은 줄은 다음 frame과 이어 붙인다.
+     */
+    private void read(RunSource source, String hiddenPath, BlockingQueue<Map<String, Object>> frames,
+                      AtomicLong written, Runnable cancel, AtomicInteger exitCode) {
+        ByteArrayOutputStream[] pending = {new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+        DockerEngineClient.FrameConsumer consumer = (stream, data, length) -> {
+            int index = stream == DockerEngineClient.STDERR ? 1 : 0;
+            ByteArrayOutputStream partial = pending[index];
+            int lineStart = 0;
+            StringBuilder chunk = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                if (data[i] != '\n') {
+                    continue;
+                }
+                partial.write(data, lineStart, i + 1 - lineStart);
+                lineStart = i + 1;
+                chunk.append(line(partial, hiddenPath));
+                if (chunk.length() >= CHUNK_SIZE) {
+                    if (!offer(chunk, TYPES[index], frames, written, cancel)) {
+                        return false;
+                    }
+                    chunk.setLength(0);
+                }
+            }
+            partial.write(data, lineStart, length - lineStart);
+            return chunk.length() == 0 || offer(chunk, TYPES[index], frames, written, cancel);
+        };
+        try {
+            exitCode.set(source.run(consumer));
+            for (int i = 0; i < pending.length; i++) {
+                if (pending[i].size() > 0 && !truncated(written)) {
+                    offer(new StringBuilder(line(pending[i], hiddenPath)), TYPES[i], frames, written, cancel);
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            // 제한 시간 동안 출력이 없으면 실행을 중단
+            cancel.run();
+        } catch (IOException e) {
+            // 컨테이너가 강제로 삭제되면 연결이 끊긴다
+        } finally {
+            putQuietly(frames, new HashMap<>());
+        }
+    }
+
+    /**
+     * 모아둔 한 줄을 문자열로 꺼내고 서버 경로를 지우는 내부 로직
+     */
+    private String line(ByteArrayOutputStream partial, String hiddenPath) {
+        String line = new String(partial.toByteArray(), StandardCharsets.UTF_8);
+        partial.reset();
+        return hiddenPath == null ? line : line.replace(hiddenPath, "");
+    }
+
+    private boolean truncated(AtomicLong written) {
+        return written.get() > maxOutput;
+    }
+
+    /**
+     * 출력 제한을 확인하고 chunk 프레임을 대기열에 넣는 내부 로직
+     *
+     * @return 계속 읽어도 되는지 여부
+     */
+    private boolean offer(StringBuilder chunk, String type, BlockingQueue<Map<String, Object>> frames,
+                          AtomicLong written, Runnable cancel) {
+        String data = chunk.toString();
+        long size = data.getBytes(StandardCharsets.UTF_8).length;
+        long total = written.addAndGet(size);
+        boolean over = total > maxOutput;
+        if (over) {
+            long remain = Math.max(0, maxOutput - (total - size));
+            data = data.substring(0, (int) Math.min(data.length(), remain));
+        }
+        if (!data.isEmpty()) {
+            Map<String, Object> frame = new HashMap<>();
+            frame.put("type", type);
+            frame.put("data", data);
+            putQuietly(frames, frame);
+        }
+        if (over) {
+            cancel.run();
+            return false;
+        }
+        return true;
+    }
+
+    private void putQuietly(BlockingQueue<Map<String, Object>> frames, Map<String, Object> frame) {
+        try {
+            frames.put(frame);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendExit(String topic, long seq, int exitCode, boolean truncated, Map<String, Object> usage) {
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("type", "exit");
+        frame.put("seq", seq);
+        frame.put("exitCode", exitCode);
+        frame.put("truncated", truncated);
+        if (usage != null) {
+            frame.put("usage", usage);
+        }
+        messagingTemplate.convertAndSend(topic, frame);
+    }
+
+    /**
+     * 서버 종료 시 스트리밍 중인 실행을 정리하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        readerExecutor.shutdownNow();
+    }
+}
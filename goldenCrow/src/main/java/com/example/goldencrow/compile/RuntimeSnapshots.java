@@ -0,0 +1,277 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerConfigDto;
+import com.example.goldencrow.compile.docker.dto.ContainerInspectDto;
+import com.example.goldencrow.compile.docker.dto.ImageInspectDto;
+import com.example.goldencrow.file.FileChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.goldencrow.common.Constants.*;
+
+/**
+ * Django, FastAPI 서버의 준비된 실행 환경을 팀별로 저장해 두고 다시 쓰는 Component
+ * <p>
+ * 서버가 뜬 컨테이너를 docker commit으로 팀별 이미지(crowsnap:team-{teamSeq})에 저장하고,
+ * 이미지에는 만들 때의 의존성 이미지 이름(requirements.txt 내용으로 정해짐)을 label로 남긴다.
+ * 다음 실행에서는 코드만 바뀌었다면 기존 컨테이너를 다시 시작(docker restart)하고,
+ * 컨테이너가 정리되었다면 저장한 이미지로 바로 컨테이너를 만든다.
+ * 의존성 파일이 바뀌면 label이 달라지므로 저장한 이미지는 버리고 다시 만든다.
+ */
+@Component
+public class RuntimeSnapshots {
+    public static final String SNAPSHOT_REPOSITORY = "crowsnap";
+    private static final String DEPS_LABEL = "crow.deps";
+    private static final String NONE = "";
+
+    /**
+     * 실행 환경 저장 사용 여부
+     */
+    @Value("${compile.snapshot.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 서버를 띄운 뒤 저장하기까지 기다리는 시간 (ms)
+     */
+    @Value("${compile.snapshot.settle:3000}")
+    private long settle;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    /**
+     * 팀별 저장된 이미지의 의존성 이미지 이름 (NONE이면 저장된 이미지 없음)
+     */
+    private final Map<Long, String> snapshots = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService committer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "runtime-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong restarts = new AtomicLong();
+    private final AtomicLong checkpoints = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 실행 환경을 저장하는 프로젝트 타입인지 확인하는 내부 로직
+     *
+     * @param type 프로젝트 타입
+     * @return Django, FastAPI이고 사용 설정이 켜져 있으면 true
+     */
+    public boolean supports(int type) {
+        return enabled && (type == 2 || type == 4);
+    }
+
+    /**
+     * 팀의 저장된 이미지 이름
+     *
+     * @param teamSeq 팀의 sequence
+     * @return crowsnap:team-{teamSeq}
+     */
+    public static String imageName(Long teamSeq) {
+        return SNAPSHOT_REPOSITORY + ":team-" + teamSeq;
+    }
+
+    /**
+     * 지금 의존성으로 쓸 수 있는 저장된 이미지를 찾는 내부 로직
+     *
+     * @param teamSeq 팀의 sequence
+     * @param depsTag 지금 의존성의 이미지 이름 (ImageCache.tagFor)
+     * @return 저장된 이미지 이름, 없거나 의존성이 바뀌었으면 null
+     */
+    public String image(Long teamSeq, String depsTag) {
+        String saved = snapshots.get(teamSeq);
+        if (saved == null) {
+            saved = load(teamSeq);
+        }
+        if (depsTag.equals(saved)) {
+            hits.incrementAndGet();
+            return imageName(teamSeq);
+        }
+        if (!NONE.equals(saved)) {
+            invalidate(teamSeq);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 지금 의존성 이미지 혹은 저장된 이미지와 같은 명령어로 만든 팀 컨테이너가 남아 있으면
+     * 컨테이너를 그대로 두고 서버만 다시 시작하는 내부 로직
+     * 코드는 서버 디렉토리를 연결해 쓰므로 다시 시작하면 바뀐 코드로 뜬다.
+     *
+     * @param container 팀 컨테이너 이름
+     * @param depsTag   지금 의존성의 이미지 이름
+     * @param snapshot  쓸 수 있는 저장된 이미지 이름 (없으면 null)
+     * @param cmd       지금 실행에 쓸 명령어
+     * @param workDir   지금 실행에 쓸 작업 디렉토리
+     * @return 다시 시작했으면 true, 새로 만들어야 하면 false
+     */
+    public boolean restart(String container, String depsTag, String snapshot, String[] cmd, String workDir) {
+        try {
+            ContainerInspectDto inspect = dockerEngineClient.inspectContainer(container);
+            if (inspect == null || inspect.getConfig() == null) {
+                return false;
+            }
+            ContainerConfigDto config = inspect.getConfig();
+            boolean sameImage = depsTag.equals(config.getImage())
+                    || (snapshot != null && snapshot.equals(config.getImage()));
+            if (!sameImage || !Arrays.asList(cmd).equals(config.getCmd())
+                    || !workDir.equals(config.getWorkingDir())) {
+                return false;
+            }
+            if (!dockerEngineClient.restartContainer(container, 1)) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        restarts.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 서버가 뜬 팀 컨테이너를 잠시 뒤 이미지로 저장하는 내부 로직 (의존성별로 한 번만 저장)
+     * 저장은 별도 스레드에서 하나씩 처리되므로 실행 응답을 늦추지 않는다.
+     *
+     * @param teamSeq   팀의 sequence
+     * @param container 팀 컨테이너 이름
+     * @param depsTag   컨테이너를 만든 의존성 이미지 이름
+     */
+    public void checkpoint(Long teamSeq, String container, String depsTag) {
+        if (!enabled || depsTag.equals(snapshots.get(teamSeq)) || !pending.add(teamSeq)) {
+            return;
+        }
+        committer.execute(() -> {
+            try {
+                Thread.sleep(settle);
+                ContainerInspectDto inspect = dockerEngineClient.inspectContainer(container);
+                // 그 사이 멈췄거나 다른 이미지로 다시 만들어진 경우 저장하지 않음
+                if (inspect == null || inspect.getState() == null || !inspect.getState().isRunning()
+                        || inspect.getConfig() == null || !depsTag.equals(inspect.getConfig().getImage())) {
+                    return;
+                }
+                Map<String, String> labels = new HashMap<>();
+                labels.put(DEPS_LABEL, depsTag);
+                dockerEngineClient.commitContainer(container, imageName(teamSeq), labels);
+                snapshots.put(teamSeq, depsTag);
+                checkpoints.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // 저장하지 못하면 다음 실행에서 의존성을 다시 설치하고 다시 저장함
+            } finally {
+                pending.remove(teamSeq);
+            }
+        });
+    }
+
+    /**
+     * 팀의 저장된 이미지를 버리는 내부 로직
+     * 사용 중인 컨테이너가 있어 바로 지우지 못한 이미지는 다음 저장 때 tag가 옮겨가고 정리 작업에서 삭제된다.
+     *
+     * @param teamSeq 팀의 sequence
+     */
+    public void invalidate(Long teamSeq) {
+        String saved = snapshots.put(teamSeq, NONE);
+        if (NONE.equals(saved)) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        committer.execute(() -> {
+            try {
+                dockerEngineClient.removeImage(imageName(teamSeq), false);
+            } catch (IOException e) {
+                // 정리 작업에서 다시 삭제
+            }
+        });
+    }
+
+    /**
+     * 의존성 파일이 바뀌었거나, git pull, 폴더 삭제, 이름 변경이 있으면 팀의 저장된 이미지를 버리는 내부 로직
+     *
+     * @param event 파일 변경 이벤트
+     */
+    @EventListener
+    public void onFileChanged(FileChangedEvent event) {
+        String path = event.getPath();
+        if (path == null) {
+            return;
+        }
+        String changed = path.startsWith("/") ? path : BASE_URL + path;
+        if (!changed.startsWith(BASE_URL)) {
+            return;
+        }
+        String[] parts = changed.substring(BASE_URL.length()).split("/");
+        String name = parts[parts.length - 1];
+        boolean directory = !name.contains(".");
+        boolean dependencyChanged = ImageCache.isDependencyFile(name)
+                || event.getKind() == FileChangedEvent.Kind.SYNC
+                || (directory && (event.getKind() == FileChangedEvent.Kind.DELETE
+                || event.getKind() == FileChangedEvent.Kind.RENAME));
+        if (!dependencyChanged) {
+            return;
+        }
+        try {
+            invalidate(Long.valueOf(parts[0]));
+        } catch (NumberFormatException e) {
+            // 팀 디렉토리가 아님
+        }
+    }
+
+    /**
+     * 저장된 이미지 사용, 재시작, 저장, 무효화 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("enabled", enabled);
+        res.put("hits", hits.get());
+        res.put("misses", misses.get());
+        res.put("restarts", restarts.get());
+        res.put("checkpoints", checkpoints.get());
+        res.put("invalidations", invalidations.get());
+        return res;
+    }
+
+    /**
+     * 서버 종료 시 저장 스레드를 정리하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        committer.shutdownNow();
+    }
+
+    /**
+     * Docker에 남아 있는 팀의 저장된 이미지를 확인하는 내부 로직 (서버 재시작 후 처음 한 번)
+     */
+    private String load(Long teamSeq) {
+        String saved = NONE;
+        try {
+            ImageInspectDto inspect = dockerEngineClient.inspectImage(imageName(teamSeq));
+            if (inspect != null && inspect.getConfig() != null && inspect.getConfig().getLabels() != null) {
+                saved = inspect.getConfig().getLabels().getOrDefault(DEPS_LABEL, NONE);
+            }
+        } catch (IOException e) {
+            return NONE;
+        }
+        snapshots.putIfAbsent(teamSeq, saved);
+        return snapshots.get(teamSeq);
+    }
+}
@@ -0,0 +1,620 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.TarArchiver;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import com.example.goldencrow.compile.dto.RunResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * pure Python 코드를 실행하는 격리된 sandbox 컨테이너 Pool
+ * <p>
+ * 네트워크가 없고 루트 파일시스템이 읽기 전용인 컨테이너를 미리 띄워 두고,
+ * 실행할 때마다 컨테이너 안의 agent(python3 -c)에 stdin으로 실행 정보, 코드(혹은 프로젝트 tar), input을 보낸다.
+ * agent는 메모리 디스크(/sandbox)에 코드를 풀고, CPU 시간, 메모리, 파일 크기를 제한한 자식 프로세스로 실행한 뒤
+ * 출력과 종료 코드를 그대로 돌려준다. 이미지 빌드나 컨테이너 생성 없이 exec 한 번으로 실행된다.
+ * 실행 제한은 요청마다 ResourceProfiles의 값을 따르고, 사용량은 출력 끝에 붙여 RunMeter로 읽는다.
+ * 실행이 끝난 컨테이너는 남은 프로세스와 파일을 백그라운드에서 정리한 뒤 Pool로 돌아간다.
+ * 다른 팀이 이어서 쓰므로, 실행한 코드가 쓸 수 있는 곳(/sandbox, /dev/shm, /dev/mqueue, System V IPC)은 모두 정리 대상이며
+ * 컨테이너마다 IPC namespace를 따로 두고 /dev/shm도 크기가 제한된 메모리 디스크로 연결한다.
+ * <p>
+ * sandbox에는 네트워크가 없으므로 compile.sandbox.network 로 네트워크를 쓰는 코드를 어떻게 실행할지 정한다.
+ * route(기본값)는 네트워크 모듈을 import 하는 코드를 sandbox에서 실행하지 않고 null을 반환해,
+ * 호출한 쪽이 네트워크가 연결된 ContainerPool 혹은 새 컨테이너로 실행하게 한다.
+ * none은 모든 pure Python 코드를 네트워크 없이 sandbox에서 실행한다.
+ * import 검사는 코드의 import 문만 보므로 __import__, subprocess 등으로 여는 연결은 route에서도 막힌다.
+ */
+@Component
+public class SandboxPool {
+    public static final String SANDBOX_PREFIX = "crowsandbox_";
+    private static final String SANDBOX_ROOT = "/sandbox";
+    private static final String SANDBOX_USER = "nobody";
+    /**
+     * sandbox의 /dev/shm 크기 (multiprocessing의 semaphore, 공유 메모리용)
+     */
+    private static final long SHM_BYTES = 16L * 1024 * 1024;
+    private static final int TIMEOUT_EXIT = 124;
+    /**
+     * 네트워크 연결에 쓰는 모듈 (표준 라이브러리와 자주 쓰는 client 패키지)
+     */
+    private static final String NETWORK_MODULES = "(?:socket|ssl|urllib|urllib3|http|ftplib|smtplib|poplib|imaplib"
+            + "|telnetlib|xmlrpc|socketserver|requests|httpx|aiohttp|websocket|websockets|paramiko|pymongo"
+            + "|pymysql|psycopg2|redis|boto3|grpc)\\b";
+    /**
+     * 네트워크 모듈을 import 하는 줄 (import a, socket 처럼 여러 모듈을 한 줄에 쓴 경우 포함)
+     */
+    private static final Pattern NETWORK_IMPORT = Pattern.compile(
+            "^\\s*(?:from\\s+" + NETWORK_MODULES + "|import\\s+(?:[\\w.]+(?:\\s+as\\s+\\w+)?\\s*,\\s*)*"
+                    + NETWORK_MODULES + ")", Pattern.MULTILINE);
+
+    /**
+     * 컨테이너 안에서 실행 정보를 받아 코드를 실행하는 agent
+     * stdin: JSON 헤더 한 줄, 헤더의 code(혹은 tar) 길이만큼의 내용, 나머지는 프로그램의 input
+     */
+    private static final String AGENT = String.join("\n",
+            "import io, json, os, resource, shutil, signal, subprocess, sys, tarfile, time",
+            "src = sys.stdin.buffer",
+            "h = json.loads(src.readline())",
+            "work = h['dir']",
+            "code = 1",
+            "start = time.time()",
+            "os.makedirs(work, 0o700)",
+            "try:",
+            "    if 'tar' in h:",
+            "        with tarfile.open(fileobj=io.BytesIO(src.read(h['tar'])), mode='r:') as t:",
+            "            safe = [m for m in t.getmembers() if (m.isfile() or m.isdir())",
+            "                    and not m.name.startswith('/') and '..' not in m.name.split('/')]",
+            "            kw = {'filter': 'data'} if hasattr(tarfile, 'data_filter') else {}",
+            "            t.extractall(work, safe, **kw)",
+            "    main = os.path.join(work, h['main'])",
+            "    if 'code' in h:",
+            "        os.makedirs(os.path.dirname(main), exist_ok=True)",
+            "        with open(main, 'wb') as f:",
+            "            f.write(src.read(h['code']))",
+            "    data = src.read()",
+            "    def limit():",
+            "        os.setsid()",
+            "        for r, v in ((resource.RLIMIT_CPU, h['cpu']), (resource.RLIMIT_AS, h['memory']),",
+            "                     (resource.RLIMIT_FSIZE, h['fsize']), (resource.RLIMIT_NOFILE, 256)):",
+            "            if v > 0:",
+            "                resource.setrlimit(r, (v, v))",
+            "    start = time.time()",
+            "    p = subprocess.Popen([sys.executable, '-u', main], cwd=os.path.dirname(main),",
+            "                         stdin=subprocess.PIPE, preexec_fn=limit)",
+            "    try:",
+            "        p.communicate(data, timeout=h['wall'] or None)",
+            "        code = p.returncode",
+            "    except subprocess.TimeoutExpired:",
+            "        code = " + TIMEOUT_EXIT,
+            "        sys.stderr.write('\\ntime limit exceeded (%ss)\\n' % h['wall'])",
+            "    finally:",
+            "        try:",
+            "            os.killpg(p.pid, signal.SIGKILL)",
+            "        except OSError:",
+            "            pass",
+            "        p.wait()",
+            "finally:",
+            "    shutil.rmtree(work, ignore_errors=True)",
+            "sys.stdout.flush()",
+            "sys.stderr.flush()",
+            "u = resource.getrusage(resource.RUSAGE_CHILDREN)",
+            "os.write(1, (h['meter'] + json.dumps({'cpu': u.ru_utime + u.ru_stime, 'rss': u.ru_maxrss,",
+            "                                      'wall': time.time() - start}) + '\\n').encode())",
+            "os._exit(code if code >= 0 else 128 - code)");
+
+    /**
+     * 항상 띄워둘 sandbox 컨테이너 수 (0이면 사용하지 않음)
+     */
+    @Value("${compile.sandbox.size:4}")
+    private int size;
+
+    /**
+     * 컨테이너 하나로 실행할 최대 횟수, 넘으면 새 컨테이너로 교체
+     */
+    @Value("${compile.sandbox.max-runs:200}")
+    private int maxRuns;
+
+    /**
+     * 한 번에 보낼 수 있는 코드, 프로젝트의 최대 크기 (byte), 넘으면 ContainerPool로 실행
+     */
+    @Value("${compile.sandbox.max-upload-bytes:8388608}")
+    private int maxUploadBytes;
+
+    /**
+     * 실행 결과로 모을 최대 출력 크기 (byte)
+     */
+    @Value("${compile.docker.max-output:1048576}")
+    private int maxOutput;
+
+    /**
+     * 네트워크를 쓰는 코드의 실행 방식 (route: sandbox 밖에서 실행, none: 네트워크 없이 sandbox에서 실행)
+     */
+    @Value("${compile.sandbox.network:route}")
+    private String networkPolicy;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ResourceProfiles resourceProfiles;
+
+    @Autowired
+    private RunMeter runMeter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService cleaner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sandbox-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Deque<PooledContainer> idle = new ArrayDeque<>();
+    private final Map<String, Integer> runCounts = new HashMap<>();
+    private int total = 0;
+    private volatile boolean initialized = false;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong unavailable = new AtomicLong();
+    private final AtomicLong networkRouted = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+
+    /**
+     * 코드 문자열 하나를 실행할 준비를 하는 내부 로직
+     *
+     * @param dirName  sandbox 안에서 코드를 둘 디렉토리 이름
+     * @param fileName 코드 파일 이름
+     * @param code     실행할 코드
+     * @param input    input값 (없으면 빈 문자열)
+     * @param profile  실행에 적용할 자원 제한
+     * @return 실행 준비가 된 SandboxRun, 대기 중인 sandbox가 없거나 네트워크를 쓰는 코드면 null
+     */
+    public SandboxRun snippet(String dirName, String fileName, String code, String input,
+                              ResourceProfiles.Profile profile) {
+        byte[] payload = code.getBytes(StandardCharsets.UTF_8);
+        if (payload.length > maxUploadBytes) {
+            return null;
+        }
+        if (routesNetwork() && usesNetwork(code)) {
+            networkRouted.incrementAndGet();
+            return null;
+        }
+        return prepare(dirName + "/" + fileName, "code", payload, input, profile);
+    }
+
+    /**
+     * 프로젝트 디렉토리를 통째로 보내 그 안의 파일을 실행할 준비를 하는 내부 로직
+     *
+     * @param projectDir 보낼 디렉토리
+     * @param prefix     sandbox 안에서 디렉토리 내용이 위치할 경로
+     * @param mainPath   sandbox 안에서 실행할 파일 경로 (prefix 포함)
+     * @param input      input값 (없으면 빈 문자열)
+     * @param profile    실행에 적용할 자원 제한
+     * @return 실행 준비가 된 SandboxRun, 대기 중인 sandbox가 없거나 프로젝트가 너무 크거나 네트워크를 쓰면 null
+     */
+    public SandboxRun project(File projectDir, String prefix, String mainPath, String input,
+                              ResourceProfiles.Profile profile) {
+        if (size <= 0 || !projectDir.isDirectory() || !fits(profile)) {
+            return null;
+        }
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        try {
+            TarArchiver.write(projectDir, prefix, new LimitedOutputStream(tar, maxUploadBytes));
+            // 크기 제한 안의 프로젝트만 검사
+            if (routesNetwork() && usesNetwork(projectDir)) {
+                networkRouted.incrementAndGet();
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return prepare(mainPath, "tar", tar.toByteArray(), input, profile);
+    }
+
+    /**
+     * 주기적으로 대기 컨테이너 수를 채우는 내부 로직
+     */
+    @Scheduled(initialDelayString = "${compile.pool.warmup-delay:10000}",
+            fixedDelayString = "${compile.pool.maintain-interval:30000}")
+    public void maintain() {
+        if (size <= 0) {
+            return;
+        }
+        if (!initialized) {
+            // 이전 실행에서 남은 sandbox 정리
+            try {
+                for (ContainerSummaryDto leftover : dockerEngineClient.listContainers(SANDBOX_PREFIX, true)) {
+                    removeContainer(leftover.getId());
+                }
+                initialized = true;
+            } catch (IOException e) {
+                return;
+            }
+        }
+        int lack;
+        synchronized (this) {
+            lack = size - total;
+            total += Math.max(0, lack);
+        }
+        for (int i = 0; i < lack; i++) {
+            PooledContainer container = createContainer();
+            synchronized (this) {
+                if (container == null) {
+                    total--;
+                } else {
+                    idle.addLast(container);
+                }
+            }
+        }
+    }
+
+    /**
+     * 서버 종료 시 모든 sandbox를 삭제하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+        List<PooledContainer> all;
+        synchronized (this) {
+            all = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledContainer container : all) {
+            removeContainer(container.getName());
+        }
+    }
+
+    /**
+     * 실행 수, sandbox가 없어 다른 방식으로 실행한 수, 교체 수, 평균 실행 시간을 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        long count = runs.get();
+        res.put("runs", count);
+        res.put("unavailable", unavailable.get());
+        res.put("networkRouted", networkRouted.get());
+        res.put("networkPolicy", networkPolicy);
+        res.put("recycled", recycled.get());
+        res.put("timeouts", timeouts.get());
+        res.put("avgRunMillis", count == 0 ? 0 : totalRunMillis.get() / count);
+        synchronized (this) {
+            res.put("idle", idle.size());
+            res.put("total", total);
+        }
+        return res;
+    }
+
+    private boolean routesNetwork() {
+        return !"none".equalsIgnoreCase(networkPolicy);
+    }
+
+    /**
+     * 코드가 네트워크 모듈을 import 하는지 확인하는 내부 로직
+     *
+     * @param code 파이썬 코드
+     * @return 네트워크 모듈을 import 하면 true
+     */
+    static boolean usesNetwork(String code) {
+        return NETWORK_IMPORT.matcher(code).find();
+    }
+
+    /**
+     * 프로젝트의 파이썬 파일 중 네트워크 모듈을 import 하는 파일이 있는지 확인하는 내부 로직
+     *
+     * @param projectDir 프로젝트 디렉토리
+     * @return 하나라도 import 하면 true
+     * @throws IOException 파일을 읽을 수 없는 경우
+     */
+    static boolean usesNetwork(File projectDir) throws IOException {
+        File[] children = projectDir.listFiles();
+        if (children == null) {
+            return false;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (usesNetwork(child)) {
+                    return true;
+                }
+            } else if (child.getName().endsWith(".py")
+                    && usesNetwork(new String(Files.readAllBytes(child.toPath()), StandardCharsets.UTF_8))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * sandbox 컨테이너의 제한 안에서 실행할 수 있는 자원 제한인지 확인하는 내부 로직
+     * 컨테이너 제한보다 큰 값을 쓰는 팀은 해당 값으로 만든 컨테이너에서 실행한다.
+     */
+    private boolean fits(ResourceProfiles.Profile profile) {
+        ResourceProfiles.Profile limit = containerProfile();
+        return profile.getMemoryMb() + 128 <= limit.getMemoryMb() && profile.getCpus() <= limit.getCpus()
+                && profile.getPids() <= limit.getPids();
+    }
+
+    /**
+     * sandbox 컨테이너에 적용할 제한 (기본 실행 제한과 비로그인 실행 제한 중 큰 값, 메모리는 agent 몫 128MB 추가)
+     */
+    private ResourceProfiles.Profile containerProfile() {
+        ResourceProfiles.Profile run = resourceProfiles.run(null);
+        ResourceProfiles.Profile unlogin = resourceProfiles.unlogin();
+        return new ResourceProfiles.Profile(Math.max(run.getMemoryMb(), unlogin.getMemoryMb()) + 128,
+                Math.max(run.getCpus(), unlogin.getCpus()), Math.max(run.getPids(), unlogin.getPids()), 0, 0);
+    }
+
+    /**
+     * 대기 중인 sandbox를 빌려 실행 정보를 만드는 내부 로직
+     */
+    private SandboxRun prepare(String mainPath, String kind, byte[] payload, String input,
+                               ResourceProfiles.Profile profile) {
+        if (!fits(profile)) {
+            unavailable.incrementAndGet();
+            return null;
+        }
+        PooledContainer container;
+        synchronized (this) {
+            container = idle.pollFirst();
+        }
+        if (container == null) {
+            unavailable.incrementAndGet();
+            return null;
+        }
+        String workDir = SANDBOX_ROOT + "/" + UUID.randomUUID().toString().substring(0, 8);
+        RunMeter.Meter meter = runMeter.meter();
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("dir", workDir);
+        header.put("main", mainPath);
+        header.put(kind, payload.length);
+        header.put("wall", profile.getWallSeconds());
+        header.put("cpu", profile.getCpuSeconds());
+        header.put("memory", profile.getMemoryMb() * 1024 * 1024);
+        header.put("fsize", maxUploadBytes);
+        header.put("meter", meter.getMarker());
+        byte[] headerLine;
+        try {
+            headerLine = (objectMapper.writeValueAsString(header) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            giveBack(container, true);
+            return null;
+        }
+        // echo "$input" | python3 과 같도록 input이 있으면 줄바꿈을 붙임
+        byte[] stdin = input.isEmpty() ? new byte[0] : (input + "\n").getBytes(StandardCharsets.UTF_8);
+        return new SandboxRun(container, workDir, meter, out -> {
+            out.write(headerLine);
+            out.write(payload);
+            out.write(stdin);
+        });
+    }
+
+    /**
+     * 실행이 끝난 sandbox를 정리해 Pool로 돌려보내거나, 교체하는 내부 로직
+     */
+    private void giveBack(PooledContainer container, boolean healthy) {
+        int count;
+        synchronized (this) {
+            count = runCounts.merge(container.getName(), 1, Integer::sum);
+        }
+        if (!healthy || count >= maxRuns) {
+            recycled.incrementAndGet();
+            destroy(container);
+            return;
+        }
+        cleaner.execute(() -> {
+            // 실행한 코드가 남긴 프로세스, 파일, 공유 메모리, 메시지 큐 정리 (PID 1인 sleep과 자기 자신은 제외됨)
+            String[] cleanCmd = {"sh", "-c", "kill -9 -1 2>/dev/null; rm -rf " + SANDBOX_ROOT + "/* "
+                    + SANDBOX_ROOT + "/.[!.]* /dev/shm/* /dev/shm/.[!.]* /dev/mqueue/* 2>/dev/null;"
+                    + " ipcrm -a 2>/dev/null; true"};
+            if (!dockerEngineClient.exec(container.getName(), cleanCmd, null, null).isSuccess()) {
+                recycled.incrementAndGet();
+                destroy(container);
+                return;
+            }
+            container.giveBack();
+            synchronized (this) {
+                idle.addFirst(container);
+            }
+        });
+    }
+
+    /**
+     * 새 sandbox 컨테이너를 띄우는 내부 로직
+     *
+     * @return 생성된 컨테이너, 실패 시 null
+     */
+    private PooledContainer createContainer() {
+        String image;
+        try {
+            image = imageCache.resolve(1, null);
+        } catch (IOException e) {
+            return null;
+        }
+        String name = SANDBOX_PREFIX + UUID.randomUUID().toString().substring(0, 8);
+        ContainerSpecDto spec = containerProfile().applyTo(new ContainerSpecDto(image, "sleep", "infinity")
+                .isolate(SANDBOX_USER, SANDBOX_ROOT, 64L * 1024 * 1024)
+                .privateIpc(SHM_BYTES));
+        spec.setEnv(Arrays.asList("HOME=" + SANDBOX_ROOT, "PYTHONDONTWRITEBYTECODE=1"));
+        try {
+            dockerEngineClient.createContainer(name, spec);
+            dockerEngineClient.startContainer(name);
+        } catch (IOException e) {
+            removeContainer(name);
+            return null;
+        }
+        return new PooledContainer(name, 1, null);
+    }
+
+    private void destroy(PooledContainer container) {
+        removeContainer(container.getName());
+        synchronized (this) {
+            runCounts.remove(container.getName());
+            total = Math.max(0, total - 1);
+        }
+    }
+
+    private void removeContainer(String container) {
+        try {
+            dockerEngineClient.removeContainer(container, true);
+        } catch (IOException e) {
+            // 다음 정리 주기에 다시 시도
+        }
+    }
+
+    /**
+     * sandbox 하나를 빌려 한 번 실행하는 작업
+     * 실행하지 않고 버릴 때는 close()로 sandbox를 돌려준다.
+     */
+    public class SandboxRun implements RunStreamService.RunSource, AutoCloseable {
+        private final PooledContainer container;
+        private final String workDir;
+        private final RunMeter.Meter meter;
+        private final DockerEngineClient.InputWriter stdin;
+        private final AtomicBoolean used = new AtomicBoolean(false);
+
+        SandboxRun(PooledContainer container, String workDir, RunMeter.Meter meter,
+                   DockerEngineClient.InputWriter stdin) {
+            this.container = container;
+            this.workDir = workDir;
+            this.meter = meter;
+            this.stdin = stdin;
+        }
+
+        /**
+         * @return sandbox 안에서 코드가 풀리는 디렉토리 (출력에서 지울 경로)
+         */
+        public String getWorkDir() {
+            return workDir;
+        }
+
+        /**
+         * 코드를 실행하고 출력을 흘려보내는 내부 로직
+         *
+         * @param consumer 출력을 받을 consumer
+         * @return 종료 코드 (consumer가 중단했으면 -1, 시간 초과는 124)
+         * @throws IOException 실행 실패
+         */
+        @Override
+        public int run(DockerEngineClient.FrameConsumer consumer) throws IOException {
+            if (!used.compareAndSet(false, true)) {
+                throw new IllegalStateException("sandbox run already used");
+            }
+            long startedAt = System.currentTimeMillis();
+            boolean healthy = false;
+            try {
+                int exitCode = meter.run(out -> dockerEngineClient.execWithInput(container.getName(),
+                        new String[]{"python3", "-I", "-c", AGENT}, null, SANDBOX_ROOT, stdin, out), consumer);
+                // 출력을 끝까지 읽지 못했다면 코드가 아직 실행 중일 수 있으므로 교체
+                healthy = exitCode != -1;
+                if (exitCode == TIMEOUT_EXIT) {
+                    timeouts.incrementAndGet();
+                }
+                return exitCode;
+            } finally {
+                runs.incrementAndGet();
+                totalRunMillis.addAndGet(System.currentTimeMillis() - startedAt);
+                giveBack(container, healthy);
+            }
+        }
+
+        /**
+         * @return 실행이 끝난 뒤의 자원 사용량
+         */
+        public RunMeter.Usage getUsage() {
+            return meter.usage();
+        }
+
+        @Override
+        public Map<String, Object> usage() {
+            return meter.usage().toMap();
+        }
+
+        /**
+         * 코드를 실행하고 출력을 한 번 읽으면서 경로를 지우고 traceback을 찾는 내부 로직
+         *
+         * @param hiddenPath 출력에서 지울 sandbox 안의 경로
+         * @return 종료 코드, 출력, traceback, 실행 시간, 자원 사용량을 담은 결과
+         */
+        public RunResultDto scan(String hiddenPath) {
+            long startedAt = System.currentTimeMillis();
+            RunOutput output = new RunOutput(maxOutput, hiddenPath);
+            RunResultDto result;
+            try {
+                int exitCode = run(output);
+                result = output.finish(exitCode, exitCode == TIMEOUT_EXIT, System.currentTimeMillis() - startedAt);
+            } catch (SocketTimeoutException e) {
+                result = output.finish(-1, true, System.currentTimeMillis() - startedAt);
+            } catch (IOException e) {
+                result = RunOutput.failed(e.getMessage());
+            }
+            result.setUsage(meter.usage().toMap());
+            return result;
+        }
+
+        /**
+         * 실행하지 않은 sandbox를 돌려주는 내부 로직 (실행했다면 아무것도 하지 않음)
+         */
+        @Override
+        public void close() {
+            if (used.compareAndSet(false, true)) {
+                container.giveBack();
+                synchronized (SandboxPool.this) {
+                    idle.addFirst(container);
+                }
+            }
+        }
+    }
+
+    /**
+     * 정해진 크기를 넘으면 예외를 던지는 스트림
+     */
+    private static class LimitedOutputStream extends FilterOutputStream {
+        private final long limit;
+        private long written = 0;
+
+        LimitedOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            check(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) throws IOException {
+            check(len);
+            out.write(buf, off, len);
+        }
+
+        private void check(int length) throws IOException {
+            written += length;
+            if (written > limit) {
+                throw new IOException("upload limit exceeded");
+            }
+        }
+    }
+}
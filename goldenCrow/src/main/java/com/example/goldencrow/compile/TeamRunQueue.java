@@ -0,0 +1,262 @@
+package com.example.goldencrow.compile;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * 팀별로 컴파일 요청을 하나씩 순서대로 처리하는 대기열
+ * <p>
+ * 같은 팀의 실행은 같은 컨테이너 이름을 쓰므로 동시에 진행되면 정지, 삭제, 생성이 섞인다.
+ * 팀마다 한 번에 하나의 작업만 실행하고, 실행 중에 들어온 같은 요청(종류, 파일, input이 모두 같은 요청)은 하나로 합쳐
+ * 한 번만 실행한 뒤 그 결과를 기다리던 모든 요청에 돌려준다.
+ * 다른 파일이나 다른 input의 요청은 합치지 않으므로, 팀원의 요청이 다른 팀원의 결과를 받는 일은 없다.
+ * 별도의 스레드 없이, 차례가 온 묶음을 기다리던 요청 스레드 중 하나가 직접 실행한다.
+ * 팀마다 기다릴 수 있는 묶음 수와 시작을 기다리는 시간을 제한해, 한 팀의 요청이 몰리거나 실행이 멈춰도
+ * 요청 스레드가 계속 묶여 있지 않고 다시 시도할 시각(초)과 함께 거절된다.
+ */
+@Component
+public class TeamRunQueue {
+
+    private final int maxPending;
+    private final long maxWaitMillis;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+
+    /**
+     * TeamRunQueue 생성자
+     *
+     * @param maxPending    팀마다 시작을 기다릴 수 있는 최대 묶음 수 (합쳐진 요청은 세지 않음)
+     * @param maxWaitMillis 묶음이 시작되기를 기다릴 수 있는 최대 시간 (ms)
+     */
+    public TeamRunQueue(@Value("${compile.queue.max-pending:4}") int maxPending,
+                        @Value("${compile.queue.max-wait-ms:30000}") long maxWaitMillis) {
+        this.maxPending = Math.max(1, maxPending);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * 합칠 수 있는 요청인지 구분하는 key를 만드는 내부 로직
+     *
+     * @param kind  작업 종류 ex. run, stream, stop
+     * @param parts 결과에 영향을 주는 값 (파일 경로, input 등, null은 빈 값으로 취급)
+     * @return 종류와 모든 값이 같을 때만 같은 key
+     */
+    public static String key(String kind, String... parts) {
+        StringBuilder sb = new StringBuilder(kind);
+        for (String part : parts) {
+            // 구분자 없이 이어 붙이면 ("ab", "c")와 ("a", "bc")가 같은 key가 됨
+            String value = part == null ? "" : part;
+            sb.append('\0').append(value.length()).append(':').append(value);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 팀의 대기열에 작업을 넣고, 결과가 나올 때까지 기다리는 내부 로직
+     * 대기열이 가득 찼거나, 제한 시간 안에 차례가 오지 않았거나, 기다리는 중 interrupt되면 busy의 결과를 반환한다.
+     *
+     * @param teamSeq 작업을 요청한 팀의 sequence
+     * @param key     요청 key (key()로 만든 값, 같은 key의 대기 중인 요청끼리만 합쳐짐)
+     * @param task    실행할 작업
+     * @param busy    거절된 요청의 결과를 다시 시도할 시각(초)으로 만드는 함수
+     * @param <T>     작업 결과 타입
+     * @return 작업 결과 (합쳐진 경우 먼저 들어온 같은 요청의 결과)
+     */
+    public <T> T submit(String teamSeq, String key, Supplier<T> task, LongFunction<T> busy) {
+        submitted.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        Lane lane = lanes.compute(teamSeq, (team, existing) -> {
+            Lane value = existing == null ? new Lane() : existing;
+            value.users++;
+            return value;
+        });
+        try {
+            Batch batch = null;
+            long retryAfter = 0;
+            synchronized (lane) {
+                Batch last = lane.pending.peekLast();
+                if (last != null && last.key.equals(key)) {
+                    // 아직 시작하지 않은 같은 요청이 있으면 그 결과를 함께 받음
+                    batch = last;
+                    coalesced.incrementAndGet();
+                } else if (lane.pending.size() < maxPending) {
+                    batch = new Batch(key, task);
+                    lane.pending.addLast(batch);
+                } else {
+                    rejected.incrementAndGet();
+                    retryAfter = retryAfterSeconds(lane);
+                }
+                if (batch != null) {
+                    batch.waiters++;
+                }
+            }
+            if (batch == null) {
+                return busy.apply(retryAfter);
+            }
+            if (!await(lane, batch, deadline)) {
+                synchronized (lane) {
+                    retryAfter = retryAfterSeconds(lane);
+                }
+                return busy.apply(retryAfter);
+            }
+            @SuppressWarnings("unchecked")
+            T result = (T) batch.result.join();
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        } finally {
+            lanes.computeIfPresent(teamSeq, (team, existing) -> --existing.users == 0 ? null : existing);
+        }
+    }
+
+    /**
+     * 묶음의 결과가 나올 때까지 기다리고, 차례가 오면 직접 실행하는 내부 로직
+     * 시작 전에는 deadline까지만 기다리며, 시작된 묶음은 작업 자체의 실행 시간 제한으로 끝난다.
+     *
+     * @return 결과가 나왔으면 true, 시간 초과나 interrupt로 대기를 그만뒀으면 false
+     */
+    private boolean await(Lane lane, Batch batch, long deadline) {
+        Supplier<?> task = null;
+        synchronized (lane) {
+            try {
+                while (!batch.started) {
+                    if (!lane.running && lane.pending.peekFirst() == batch) {
+                        // 차례가 온 묶음은 기다리던 요청 중 먼저 깨어난 요청이 실행
+                        lane.pending.pollFirst();
+                        lane.running = true;
+                        batch.started = true;
+                        task = batch.task;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timedOut.incrementAndGet();
+                        leave(lane, batch);
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lane, remaining);
+                }
+                while (task == null && !batch.result.isDone()) {
+                    lane.wait();
+                }
+            } catch (InterruptedException e) {
+                leave(lane, batch);
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (task != null) {
+            run(lane, batch, task);
+        }
+        return true;
+    }
+
+    /**
+     * 묶음의 작업을 실행하는 내부 로직
+     * 작업이 Error를 던져도 결과를 완료해, 결과를 기다리는 요청이 멈추지 않도록 한다.
+     */
+    private void run(Lane lane, Batch batch, Supplier<?> task) {
+        long start = System.nanoTime();
+        try {
+            batch.result.complete(task.get());
+            executed.incrementAndGet();
+        } catch (Throwable e) {
+            batch.result.completeExceptionally(e);
+        } finally {
+            finished.incrementAndGet();
+            totalRunMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            synchronized (lane) {
+                lane.running = false;
+                lane.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 묶음을 기다리던 요청이 빠지는 내부 로직, 아무도 기다리지 않는 시작 전 묶음은 대기열에서 뺀다
+     */
+    private void leave(Lane lane, Batch batch) {
+        batch.waiters--;
+        if (!batch.started && batch.waiters == 0) {
+            lane.pending.remove(batch);
+            // 이 묶음이 빠지면서 다음 묶음의 차례가 되었을 수 있다
+            lane.notifyAll();
+        }
+    }
+
+    /**
+     * 평균 실행 시간과 팀의 대기 묶음 수로 다시 시도할 시각(초)을 계산하는 내부 로직
+     */
+    private long retryAfterSeconds(Lane lane) {
+        long count = finished.get();
+        long averageMillis = count == 0 ? 1000 : totalRunMillis.get() / count;
+        long estimate = averageMillis * (lane.pending.size() + (lane.running ? 1 : 0));
+        return Math.max(1, (estimate + 999) / 1000);
+    }
+
+    /**
+     * 요청 수, 합쳐진 요청 수, 실제 실행 수, 대기 중인 팀 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("submitted", submitted.get());
+        res.put("coalesced", coalesced.get());
+        res.put("executed", executed.get());
+        res.put("rejected", rejected.get());
+        res.put("timedOut", timedOut.get());
+        res.put("activeTeams", lanes.size());
+        return res;
+    }
+
+    /**
+     * 한 팀의 대기열
+     */
+    private static class Lane {
+        private final Deque<Batch> pending = new ArrayDeque<>();
+        private boolean running = false;
+        private int users = 0;
+    }
+
+    /**
+     * 하나로 합쳐진 요청 묶음, 결과는 묶음의 모든 요청이 함께 받는다
+     */
+    private static class Batch {
+        private final String key;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final Supplier<?> task;
+        private int waiters = 0;
+        private boolean started = false;
+
+        Batch(String key, Supplier<?> task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+}
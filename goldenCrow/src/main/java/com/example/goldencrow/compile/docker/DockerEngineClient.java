@@ -0,0 +1,1023 @@
+package com.example.goldencrow.compile.docker;
+
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.compile.docker.dto.ContainerConfigDto;
+import com.example.goldencrow.compile.docker.dto.ContainerInspectDto;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.docker.dto.ContainerStatsDto;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import com.example.goldencrow.compile.docker.dto.ExecInspectDto;
+import com.example.goldencrow.compile.docker.dto.HostConfigDto;
+import com.example.goldencrow.compile.docker.dto.ImageInspectDto;
+import com.example.goldencrow.compile.docker.dto.ImageSummaryDto;
+import com.example.goldencrow.compile.docker.dto.PortBindingDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * docker CLI를 fork 하지 않고 Docker Engine API를 직접 호출하는 클라이언트
+ * <p>
+ * JDK 8에는 Unix domain socket이 없으므로 /var/run/docker.sock 대신
+ * compile.docker.host, compile.docker.port 로 지정한 TCP 주소로 접속한다.
+ * 기본값은 dockerd --tlsverify -H tcp://127.0.0.1:2376 에 TLS로 접속하는 것이며,
+ * compile.docker.tls=false 로 평문 TCP를 쓰는 것은 loopback 주소에만 허용한다. (DockerTls 참고)
+ */
+@Component
+public class DockerEngineClient {
+
+    /**
+     * 출력 frame의 stream 종류
+     */
+    public static final int STDOUT = 1;
+    public static final int STDERR = 2;
+
+    private final DockerHttpClient http;
+    private final String apiPrefix;
+    private final int readTimeout;
+    private final int runTimeout;
+    private final int maxOutput;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong latencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    /**
+     * DockerEngineClient 생성자
+     *
+     * @param host           Docker Engine 주소
+     * @param port           Docker Engine 포트
+     * @param apiVersion     사용할 API 버전
+     * @param connectTimeout 연결 제한 시간 (ms)
+     * @param readTimeout    일반 API 응답 제한 시간 (ms)
+     * @param runTimeout     build, 실행 출력 등 오래 걸리는 API의 제한 시간 (ms)
+     * @param maxIdle        Pool에 보관할 최대 유휴 연결 수
+     * @param maxIdleMillis  유휴 연결을 재사용할 수 있는 최대 시간 (ms)
+     * @param maxOutput      실행 결과로 모을 최대 출력 크기 (byte)
+     * @param tls            TLS 사용 여부 (false는 loopback 주소에만 허용)
+     * @param keyStore       client 인증서와 개인 키가 든 PKCS12 파일
+     * @param keyStorePass   keyStore 비밀번호
+     * @param trustStore     Docker Engine 인증서를 발급한 CA가 든 PKCS12 파일 (없으면 JVM 기본 CA)
+     * @param trustStorePass trustStore 비밀번호
+     */
+    @Autowired
+    public DockerEngineClient(@Value("${compile.docker.host:127.0.0.1}") String host,
+                              @Value("${compile.docker.port:2376}") int port,
+                              @Value("${compile.docker.api-version:v1.41}") String apiVersion,
+                              @Value("${compile.docker.connect-timeout:3000}") int connectTimeout,
+                              @Value("${compile.docker.read-timeout:60000}") int readTimeout,
+                              @Value("${compile.docker.run-timeout:300000}") int runTimeout,
+                              @Value("${compile.docker.max-idle:16}") int maxIdle,
+                              @Value("${compile.docker.max-idle-ms:5000}") long maxIdleMillis,
+                              @Value("${compile.docker.max-output:1048576}") int maxOutput,
+                              @Value("${compile.docker.tls:true}") boolean tls,
+                              @Value("${compile.docker.tls-key-store:}") String keyStore,
+                              @Value("${compile.docker.tls-key-store-password:}") String keyStorePass,
+                              @Value("${compile.docker.tls-trust-store:}") String trustStore,
+                              @Value("${compile.docker.tls-trust-store-password:}") String trustStorePass) {
+        this.http = new DockerHttpClient(host, port, connectTimeout, maxIdle, maxIdleMillis,
+                DockerTls.socketFactory(tls, host, keyStore, keyStorePass, trustStore, trustStorePass));
+        this.apiPrefix = "/" + apiVersion;
+        this.readTimeout = readTimeout;
+        this.runTimeout = runTimeout;
+        this.maxOutput = maxOutput;
+    }
+
+    /**
+     * loopback 주소의 Docker Engine에 평문 TCP로 접속하는 DockerEngineClient 생성자 (benchmark, 테스트용)
+     *
+     * @param host           Docker Engine 주소 (loopback)
+     * @param port           Docker Engine 포트
+     * @param apiVersion     사용할 API 버전
+     * @param connectTimeout 연결 제한 시간 (ms)
+     * @param readTimeout    일반 API 응답 제한 시간 (ms)
+     * @param runTimeout     build, 실행 출력 등 오래 걸리는 API의 제한 시간 (ms)
+     * @param maxIdle        Pool에 보관할 최대 유휴 연결 수
+     * @param maxIdleMillis  유휴 연결을 재사용할 수 있는 최대 시간 (ms)
+     * @param maxOutput      실행 결과로 모을 최대 출력 크기 (byte)
+     */
+    public DockerEngineClient(String host, int port, String apiVersion, int connectTimeout, int readTimeout,
+                              int runTimeout, int maxIdle, long maxIdleMillis, int maxOutput) {
+        this(host, port, apiVersion, connectTimeout, readTimeout, runTimeout, maxIdle, maxIdleMillis, maxOutput,
+                false, null, null, null, null);
+    }
+
+    /**
+     * exec의 stdin에 내용을 쓰는 인터페이스
+     */
+    public interface InputWriter {
+        /**
+         * @param out exec의 stdin
+         * @throws IOException 쓰기 실패
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 컨테이너 출력 frame을 받는 인터페이스
+     */
+    public interface FrameConsumer {
+        /**
+         * @param stream STDOUT 또는 STDERR
+         * @param data   출력 내용 (length 까지만 유효)
+         * @param length 출력 길이
+         * @return 계속 읽으려면 true, 중단하려면 false
+         */
+        boolean accept(int stream, byte[] data, int length);
+    }
+
+    /**
+     * 디렉토리를 build context로 이미지를 빌드하는 내부 로직 (docker build -t tag .)
+     *
+     * @param tag     이미지 이름
+     * @param context build context 디렉토리 (Dockerfile 포함)
+     * @return build 로그
+     * @throws IOException build 실패
+     */
+    public String buildImage(String tag, File context) throws IOException {
+        String path = "/build?t=" + encode(tag) + "&rm=1&forcerm=1";
+        DockerResponse response = call("POST", path, "application/x-tar", null,
+                out -> TarArchiver.write(context, "", out), runTimeout);
+        try {
+            response.expectSuccess();
+            return readProgress(response);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * 이미지를 내려받는 내부 로직 (docker pull)
+     *
+     * @param image 이미지 이름 (tag 포함 가능)
+     * @throws IOException pull 실패
+     */
+    public void pullImage(String image) throws IOException {
+        String name = image;
+        String tag = "latest";
+        int colon = image.lastIndexOf(':');
+        if (colon > image.lastIndexOf('/')) {
+            name = image.substring(0, colon);
+            tag = image.substring(colon + 1);
+        }
+        DockerResponse response = call("POST", "/images/create?fromImage=" + encode(name) + "&tag=" + encode(tag),
+                null, null, null, runTimeout);
+        try {
+            response.expectSuccess();
+            readProgress(response);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * 컨테이너를 생성하는 내부 로직 (이미지가 없으면 pull 후 다시 시도)
+     *
+     * @param name 컨테이너 이름
+     * @param spec 컨테이너 설정
+     * @return 컨테이너 id
+     * @throws IOException 생성 실패 (이름 중복 시 status 409)
+     */
+    public String createContainer(String name, ContainerSpecDto spec) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(spec);
+        String path = "/containers/create?name=" + encode(name);
+        try {
+            return createContainer(path, body);
+        } catch (DockerException e) {
+            if (!e.isNotFound()) {
+                throw e;
+            }
+            pullImage(spec.getImage());
+            return createContainer(path, body);
+        }
+    }
+
+    private String createContainer(String path, byte[] body) throws IOException {
+        try (DockerResponse response = call("POST", path, "application/json", body, null, readTimeout)) {
+            response.expectSuccess();
+            return objectMapper.readTree(response.readText()).path("Id").asText();
+        }
+    }
+
+    /**
+     * 컨테이너를 실행하는 내부 로직 (이미 실행 중이면 무시)
+     *
+     * @param id 컨테이너 id 또는 이름
+     * @throws IOException 실행 실패
+     */
+    public void startContainer(String id) throws IOException {
+        try (DockerResponse response = call("POST", "/containers/" + encode(id) + "/start",
+                null, null, null, readTimeout)) {
+            response.expectSuccess();
+        }
+    }
+
+    /**
+     * 컨테이너를 다시 시작하는 내부 로직 (docker restart)
+     * 컨테이너와 파일 시스템은 그대로 두고 실행 중인 프로세스만 새로 띄운다.
+     *
+     * @param id             컨테이너 id 또는 이름
+     * @param timeoutSeconds 강제 종료 전 기다릴 시간 (초)
+     * @return 컨테이너가 있었으면 true
+     * @throws IOException 재시작 실패
+     */
+    public boolean restartContainer(String id, int timeoutSeconds) throws IOException {
+        try (DockerResponse response = call("POST", "/containers/" + encode(id) + "/restart?t=" + timeoutSeconds,
+                null, null, null, readTimeout + timeoutSeconds * 1000)) {
+            if (response.getStatus() == 404) {
+                response.readText();
+                return false;
+            }
+            response.expectSuccess();
+            return true;
+        }
+    }
+
+    /**
+     * 컨테이너의 현재 파일 시스템을 이미지로 저장하는 내부 로직 (docker commit)
+     *
+     * @param id     컨테이너 id 또는 이름
+     * @param image  저장할 이미지 이름 (repository:tag)
+     * @param labels 이미지에 붙일 label
+     * @return 만들어진 이미지 id
+     * @throws IOException 저장 실패
+     */
+    public String commitContainer(String id, String image, Map<String, String> labels) throws IOException {
+        int colon = image.lastIndexOf(':');
+        String path = "/commit?container=" + encode(id) + "&repo=" + encode(image.substring(0, colon))
+                + "&tag=" + encode(image.substring(colon + 1)) + "&pause=true";
+        ContainerConfigDto config = new ContainerConfigDto();
+        config.setLabels(labels);
+        byte[] body = objectMapper.writeValueAsBytes(config);
+        try (DockerResponse response = call("POST", path, "application/json", body, null, runTimeout)) {
+            response.expectSuccess();
+            return objectMapper.readTree(response.readText()).path("Id").asText();
+        }
+    }
+
+    /**
+     * 컨테이너 상세 정보를 조회하는 내부 로직
+     *
+     * @param id 컨테이너 id 또는 이름
+     * @return 컨테이너 정보 (없으면 null)
+     * @throws IOException 조회 실패
+     */
+    public ContainerInspectDto inspectContainer(String id) throws IOException {
+        try (DockerResponse response = call("GET", "/containers/" + encode(id) + "/json",
+                null, null, null, readTimeout)) {
+            if (response.getStatus() == 404) {
+                response.readText();
+                return null;
+            }
+            response.expectSuccess();
+            return objectMapper.readValue(response.readText(), ContainerInspectDto.class);
+        }
+    }
+
+    /**
+     * 컨테이너의 현재 자원 사용량을 한 번 조회하는 내부 로직 (docker stats --no-stream)
+     *
+     * @param id 컨테이너 id 또는 이름
+     * @return 자원 사용량 (없으면 null)
+     * @throws IOException 조회 실패
+     */
+    public ContainerStatsDto stats(String id) throws IOException {
+        try (DockerResponse response = call("GET", "/containers/" + encode(id) + "/stats?stream=false&one-shot=true",
+                null, null, null, readTimeout)) {
+            if (response.getStatus() == 404) {
+                response.readText();
+                return null;
+            }
+            response.expectSuccess();
+            return objectMapper.readValue(response.readText(), ContainerStatsDto.class);
+        }
+    }
+
+    /**
+     * 실행 중인 컨테이너의 자원 제한을 바꾸는 내부 로직 (docker update)
+     *
+     * @param id        컨테이너 id 또는 이름
+     * @param resources 바꿀 제한 (Memory, MemorySwap, NanoCpus, PidsLimit)
+     * @throws IOException 변경 실패
+     */
+    public void updateContainer(String id, HostConfigDto resources) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(resources);
+        try (DockerResponse response = call("POST", "/containers/" + encode(id) + "/update",
+                "application/json", body, null, readTimeout)) {
+            response.expectSuccess();
+            response.readText();
+        }
+    }
+
+    /**
+     * 컨테이너 포트가 연결된 서버 포트를 조회하는 내부 로직 (docker port)
+     *
+     * @param id         컨테이너 id 또는 이름
+     * @param insidePort 컨테이너 안의 포트 (null이면 처음 연결된 포트)
+     * @return 서버 포트 (컨테이너나 연결된 포트가 없으면 null)
+     * @throws IOException 조회 실패
+     */
+    public String hostPort(String id, String insidePort) throws IOException {
+        ContainerInspectDto inspect = inspectContainer(id);
+        if (inspect == null || inspect.getNetworkSettings() == null
+                || inspect.getNetworkSettings().getPorts() == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<PortBindingDto>> entry : inspect.getNetworkSettings().getPorts().entrySet()) {
+            if (insidePort != null && !entry.getKey().equals(insidePort + "/tcp")) {
+                continue;
+            }
+            if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0).getHostPort();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 컨테이너를 정지하는 내부 로직 (docker stop)
+     *
+     * @param id             컨테이너 id 또는 이름
+     * @param timeoutSeconds 강제 종료 전 기다릴 시간 (초)
+     * @return 컨테이너가 있었으면 true
+     * @throws IOException 정지 실패
+     */
+    public boolean stopContainer(String id, int timeoutSeconds) throws IOException {
+        try (DockerResponse response = call("POST", "/containers/" + encode(id) + "/stop?t=" + timeoutSeconds,
+                null, null, null, readTimeout + timeoutSeconds * 1000)) {
+            if (response.getStatus() == 404) {
+                response.readText();
+                return false;
+            }
+            response.expectSuccess();
+            return true;
+        }
+    }
+
+    /**
+     * 컨테이너를 삭제하는 내부 로직 (docker rm)
+     *
+     * @param id    컨테이너 id 또는 이름
+     * @param force 실행 중이어도 삭제할지 여부
+     * @return 컨테이너가 있었으면 true
+     * @throws IOException 삭제 실패
+     */
+    public boolean removeContainer(String id, boolean force) throws IOException {
+        try (DockerResponse response = call("DELETE", "/containers/" + encode(id) + "?v=1&force=" + force,
+                null, null, null, readTimeout)) {
+            if (response.getStatus() == 404) {
+                response.readText();
+                return false;
+            }
+            response.expectSuccess();
+            return true;
+        }
+    }
+
+    /**
+     * 이미지를 삭제하는 내부 로직 (docker rmi)
+     *
+     * @param image 이미지 이름 또는 id
+     * @param force 강제 삭제 여부
+     * @return 삭제되었으면 true (없거나 사용 중이면 false)
+     * @throws IOException 삭제 실패
+     */
+    public boolean removeImage(String image, boolean force) throws IOException {
+        try (DockerResponse response = call("DELETE", "/images/" + encode(image) + "?force=" + force,
+                null, null, null, readTimeout)) {
+            if (response.getStatus() == 404 || response.getStatus() == 409) {
+                response.readText();
+                return false;
+            }
+            response.expectSuccess();
+            response.readText();
+            return true;
+        }
+    }
+
+    /**
+     * 이름이 prefix로 시작하는 컨테이너 목록을 조회하는 내부 로직 (docker ps)
+     *
+     * @param prefix 컨테이너 이름 prefix (null이면 전체)
+     * @param all    정지된 컨테이너도 포함할지 여부
+     * @return 컨테이너 목록
+     * @throws IOException 조회 실패
+     */
+    public List<ContainerSummaryDto> listContainers(String prefix, boolean all) throws IOException {
+        String path = "/containers/json?all=" + all;
+        if (prefix != null) {
+            path += "&filters=" + encode("{\"name\":[\"" + prefix + "\"]}");
+        }
+        try (DockerResponse response = call("GET", path, null, null, null, readTimeout)) {
+            response.expectSuccess();
+            ContainerSummaryDto[] containers = objectMapper.readValue(response.readText(),
+                    ContainerSummaryDto[].class);
+            List<ContainerSummaryDto> res = new ArrayList<>();
+            for (ContainerSummaryDto container : containers) {
+                // name filter는 부분 일치이므로 prefix를 다시 확인
+                if (prefix == null || container.name().startsWith(prefix)) {
+                    res.add(container);
+                }
+            }
+            return res;
+        }
+    }
+
+    /**
+     * 이미지 상세 정보를 조회하는 내부 로직
+     *
+     * @param image 이미지 이름 또는 id
+     * @return 이미지 정보 (없으면 null)
+     * @throws IOException 조회 실패
+     */
+    public ImageInspectDto inspectImage(String image) throws IOException {
+        try (DockerResponse response = call("GET", "/images/" + encode(image) + "/json",
+                null, null, null, readTimeout)) {
+            if (response.getStatus() == 404) {
+                response.readText();
+                return null;
+            }
+            response.expectSuccess();
+            return objectMapper.readValue(response.readText(), ImageInspectDto.class);
+        }
+    }
+
+    /**
+     * 이미지 목록을 조회하는 내부 로직 (docker images reference)
+     *
+     * @param reference 이미지 이름 (null이면 전체)
+     * @return 이미지 목록
+     * @throws IOException 조회 실패
+     */
+    public List<ImageSummaryDto> listImages(String reference) throws IOException {
+        String path = "/images/json";
+        if (reference != null) {
+            path += "?filters=" + encode("{\"reference\":[\"" + reference + "\"]}");
+        }
+        try (DockerResponse response = call("GET", path, null, null, null, readTimeout)) {
+            response.expectSuccess();
+            return Arrays.asList(objectMapper.readValue(response.readText(), ImageSummaryDto[].class));
+        }
+    }
+
+    /**
+     * 사용하지 않는 이미지를 삭제하는 내부 로직 (docker image prune -f)
+     *
+     * @param danglingOnly tag가 없는 이미지만 삭제할지 여부 (false면 docker image prune -a -f)
+     * @return 확보한 용량 (byte)
+     * @throws IOException 삭제 실패
+     */
+    public long pruneImages(boolean danglingOnly) throws IOException {
+        String path = "/images/prune?filters=" + encode("{\"dangling\":[\"" + danglingOnly + "\"]}");
+        try (DockerResponse response = call("POST", path, null, null, null, runTimeout)) {
+            response.expectSuccess();
+            return objectMapper.readTree(response.readText()).path("SpaceReclaimed").asLong();
+        }
+    }
+
+    /**
+     * 컨테이너가 종료될 때까지 기다리는 내부 로직 (docker wait)
+     *
+     * @param id 컨테이너 id 또는 이름
+     * @return 종료 코드
+     * @throws IOException 대기 실패, 제한 시간 초과
+     */
+    public int waitContainer(String id) throws IOException {
+        try (DockerResponse response = call("POST", "/containers/" + encode(id) + "/wait",
+                null, null, null, runTimeout)) {
+            response.expectSuccess();
+            return objectMapper.readTree(response.readText()).path("StatusCode").asInt(-1);
+        }
+    }
+
+    /**
+     * 컨테이너 출력을 frame 단위로 읽는 내부 로직 (docker logs)
+     *
+     * @param id       컨테이너 id 또는 이름
+     * @param follow   컨테이너가 끝날 때까지 계속 읽을지 여부
+     * @param consumer 출력을 받을 consumer
+     * @return 출력을 끝까지 읽었으면 true, consumer가 중단했으면 false
+     * @throws IOException 조회 실패, 제한 시간 초과
+     */
+    public boolean logs(String id, boolean follow, FrameConsumer consumer) throws IOException {
+        String path = "/containers/" + encode(id) + "/logs?stdout=1&stderr=1&follow=" + (follow ? 1 : 0);
+        try (DockerResponse response = call("GET", path, null, null, null, runTimeout)) {
+            response.expectSuccess();
+            return readFrames(response.getBody(), consumer);
+        }
+    }
+
+    /**
+     * 실행 중인 컨테이너의 출력을 끝까지 받아 종료 코드와 함께 반환하는 내부 로직
+     *
+     * @param id       컨테이너 id 또는 이름
+     * @param consumer 출력을 받을 consumer
+     * @return 종료 코드 (consumer가 중단했으면 -1)
+     * @throws IOException 조회 실패, 제한 시간 초과
+     */
+    public int streamContainer(String id, FrameConsumer consumer) throws IOException {
+        if (!logs(id, true, consumer)) {
+            return -1;
+        }
+        return waitContainer(id);
+    }
+
+    /**
+     * 실행 중인 컨테이너의 출력을 모두 모아 반환하는 내부 로직 (docker logs -f)
+     *
+     * @param id 컨테이너 id 또는 이름
+     * @return 실행 결과 (stdout, stderr 합침)
+     */
+    public ProcessResult containerOutput(String id) {
+        long startedAt = System.currentTimeMillis();
+        OutputBuffer buffer = new OutputBuffer(maxOutput);
+        try {
+            int exitCode = streamContainer(id, buffer);
+            return new ProcessResult(exitCode, buffer.text(), buffer.truncated, false, null, 0,
+                    System.currentTimeMillis() - startedAt);
+        } catch (SocketTimeoutException e) {
+            return new ProcessResult(-1, buffer.text(), buffer.truncated, true, null, 0,
+                    System.currentTimeMillis() - startedAt);
+        } catch (IOException e) {
+            return ProcessResult.failed(e.getMessage() == null ? "" : e.getMessage());
+        }
+    }
+
+    /**
+     * 실행 중인 컨테이너 안에서 실행할 exec를 만드는 내부 로직
+     *
+     * @param id      컨테이너 id 또는 이름
+     * @param cmd     명령어
+     * @param env     환경 변수 (KEY=VALUE, 없으면 null)
+     * @param workDir 명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @param attach  출력을 받을지 여부
+     * @return exec id
+     * @throws IOException 생성 실패
+     */
+    public String execCreate(String id, String[] cmd, String[] env, String workDir, boolean attach)
+            throws IOException {
+        return execCreate(id, cmd, env, workDir, attach, false);
+    }
+
+    /**
+     * 실행 중인 컨테이너 안에서 실행할 exec를 만드는 내부 로직
+     *
+     * @param id          컨테이너 id 또는 이름
+     * @param cmd         명령어
+     * @param env         환경 변수 (KEY=VALUE, 없으면 null)
+     * @param workDir     명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @param attach      출력을 받을지 여부
+     * @param attachStdin stdin을 연결할지 여부
+     * @return exec id
+     * @throws IOException 생성 실패
+     */
+    public String execCreate(String id, String[] cmd, String[] env, String workDir, boolean attach,
+                             boolean attachStdin) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("Cmd", Arrays.asList(cmd));
+        body.put("AttachStdin", attachStdin);
+        body.put("AttachStdout", attach);
+        body.put("AttachStderr", attach);
+        if (env != null) {
+            body.put("Env", Arrays.asList(env));
+        }
+        if (workDir != null) {
+            body.put("WorkingDir", workDir);
+        }
+        try (DockerResponse response = call("POST", "/containers/" + encode(id) + "/exec", "application/json",
+                objectMapper.writeValueAsBytes(body), null, readTimeout)) {
+            response.expectSuccess();
+            return objectMapper.readTree(response.readText()).path("Id").asText();
+        }
+    }
+
+    /**
+     * exec를 실행하고 출력을 frame 단위로 읽는 내부 로직
+     *
+     * @param execId   exec id
+     * @param consumer 출력을 받을 consumer
+     * @return 출력을 끝까지 읽었으면 true, consumer가 중단했으면 false
+     * @throws IOException 실행 실패, 제한 시간 초과
+     */
+    public boolean execStart(String execId, FrameConsumer consumer) throws IOException {
+        try (DockerResponse response = call("POST", "/exec/" + encode(execId) + "/start", "application/json",
+                "{\"Detach\":false,\"Tty\":false}".getBytes(StandardCharsets.UTF_8), null, runTimeout)) {
+            response.expectSuccess();
+            return readFrames(response.getBody(), consumer);
+        }
+    }
+
+    /**
+     * exec 상태를 조회하는 내부 로직
+     *
+     * @param execId exec id
+     * @return exec 상태
+     * @throws IOException 조회 실패
+     */
+    public ExecInspectDto inspectExec(String execId) throws IOException {
+        try (DockerResponse response = call("GET", "/exec/" + encode(execId) + "/json",
+                null, null, null, readTimeout)) {
+            response.expectSuccess();
+            return objectMapper.readValue(response.readText(), ExecInspectDto.class);
+        }
+    }
+
+    /**
+     * 컨테이너 안에서 명령어를 실행하고 출력을 흘려보내는 내부 로직 (docker exec)
+     *
+     * @param id       컨테이너 id 또는 이름
+     * @param cmd      명령어
+     * @param env      환경 변수 (없으면 null)
+     * @param workDir  명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @param consumer 출력을 받을 consumer
+     * @return 종료 코드 (consumer가 중단했으면 -1)
+     * @throws IOException 실행 실패, 제한 시간 초과
+     */
+    public int execStream(String id, String[] cmd, String[] env, String workDir, FrameConsumer consumer)
+            throws IOException {
+        String execId = execCreate(id, cmd, env, workDir, true);
+        if (!execStart(execId, consumer)) {
+            return -1;
+        }
+        Integer exitCode = inspectExec(execId).getExitCode();
+        return exitCode == null ? -1 : exitCode;
+    }
+
+    /**
+     * 컨테이너 안에서 명령어를 실행하며 stdin을 쓰고, 출력을 흘려보내는 내부 로직 (docker exec -i)
+     * stdin을 모두 쓴 뒤 쓰기 방향을 닫아 EOF를 알리고, 이후 출력을 끝까지 읽는다.
+     * 명령어가 stdin을 끝까지 읽기 전에 출력을 많이 쓰면 막힐 수 있으므로, stdin을 먼저 모두 읽는 명령어에 사용한다.
+     *
+     * @param id       컨테이너 id 또는 이름
+     * @param cmd      명령어
+     * @param env      환경 변수 (없으면 null)
+     * @param workDir  명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @param stdin    stdin에 쓸 내용
+     * @param consumer 출력을 받을 consumer
+     * @return 종료 코드 (consumer가 중단했으면 -1)
+     * @throws IOException 실행 실패, 제한 시간 초과
+     */
+    public int execWithInput(String id, String[] cmd, String[] env, String workDir, InputWriter stdin,
+                             FrameConsumer consumer) throws IOException {
+        String execId = execCreate(id, cmd, env, workDir, true, true);
+        DockerResponse response = call("POST", "/exec/" + encode(execId) + "/start", "application/json",
+                "{\"Detach\":false,\"Tty\":false}".getBytes(StandardCharsets.UTF_8), null, runTimeout, true);
+        try {
+            response.expectSuccess();
+            OutputStream out = new BufferedOutputStream(response.getUpgradedOutput(), 8192);
+            stdin.writeTo(out);
+            out.flush();
+            response.closeUpgradedOutput();
+            if (!readFrames(response.getBody(), consumer)) {
+                return -1;
+            }
+        } finally {
+            response.close();
+        }
+        Integer exitCode = inspectExec(execId).getExitCode();
+        return exitCode == null ? -1 : exitCode;
+    }
+
+    /**
+     * 컨테이너 안에서 명령어를 실행하고 stdin을 열어 둔 채 연결을 넘겨주는 내부 로직 (docker exec -i)
+     * execWithInput과 달리 stdin을 미리 정하지 않으므로, 출력을 읽는 중에도 다른 스레드에서 입력을 쓸 수 있다.
+     *
+     * @param id      컨테이너 id 또는 이름
+     * @param cmd     명령어
+     * @param env     환경 변수 (없으면 null)
+     * @param workDir 명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @return 입력을 쓰고 출력을 읽을 연결
+     * @throws IOException 실행 실패
+     */
+    public ExecAttachment execAttach(String id, String[] cmd, String[] env, String workDir) throws IOException {
+        String execId = execCreate(id, cmd, env, workDir, true, true);
+        DockerResponse response = call("POST", "/exec/" + encode(execId) + "/start", "application/json",
+                "{\"Detach\":false,\"Tty\":false}".getBytes(StandardCharsets.UTF_8), null, runTimeout, true);
+        try {
+            response.expectSuccess();
+            return new ExecAttachment(execId, response);
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    /**
+     * stdin이 연결된 exec
+     * 입력은 여러 스레드에서 쓸 수 있고, 출력은 read를 호출한 한 스레드에서 끝까지 읽는다.
+     */
+    public class ExecAttachment implements Closeable {
+        private final String execId;
+        private final DockerResponse response;
+        private final OutputStream stdin;
+        private volatile boolean inputClosed = false;
+
+        private ExecAttachment(String execId, DockerResponse response) throws IOException {
+            this.execId = execId;
+            this.response = response;
+            this.stdin = response.getUpgradedOutput();
+        }
+
+        /**
+         * stdin에 입력을 쓰는 내부 로직
+         *
+         * @param data 입력
+         * @throws IOException stdin이 닫혔거나 연결이 끊긴 경우
+         */
+        public synchronized void write(byte[] data) throws IOException {
+            if (inputClosed) {
+                throw new EOFException("stdin closed");
+            }
+            stdin.write(data);
+            stdin.flush();
+        }
+
+        /**
+         * stdin을 닫아 EOF를 알리는 내부 로직 (출력은 계속 읽을 수 있음)
+         *
+         * @throws IOException 연결이 끊긴 경우
+         */
+        public synchronized void closeInput() throws IOException {
+            if (inputClosed) {
+                return;
+            }
+            inputClosed = true;
+            response.closeUpgradedOutput();
+        }
+
+        /**
+         * 출력을 끝까지 읽고 종료 코드를 반환하는 내부 로직
+         *
+         * @param consumer 출력을 받을 consumer
+         * @return 종료 코드 (consumer가 중단했으면 -1)
+         * @throws IOException 연결이 끊긴 경우, 제한 시간 동안 출력이 없는 경우
+         */
+        public int read(FrameConsumer consumer) throws IOException {
+            try {
+                if (!readFrames(response.getBody(), consumer)) {
+                    return -1;
+                }
+            } finally {
+                close();
+            }
+            Integer exitCode = inspectExec(execId).getExitCode();
+            return exitCode == null ? -1 : exitCode;
+        }
+
+        /**
+         * 연결을 끊는 내부 로직 (명령어는 stdin EOF를 받지만 종료되지는 않음)
+         * 입력을 쓰는 중에 막혀 있어도 끊을 수 있도록 잠그지 않는다.
+         */
+        @Override
+        public void close() {
+            inputClosed = true;
+            response.close();
+        }
+    }
+
+    /**
+     * 컨테이너 안에서 명령어를 실행하고 출력을 모아 반환하는 내부 로직 (docker exec)
+     *
+     * @param id      컨테이너 id 또는 이름
+     * @param cmd     명령어
+     * @param env     환경 변수 (없으면 null)
+     * @param workDir 명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @return 실행 결과 (stdout, stderr 합침)
+     */
+    public ProcessResult exec(String id, String[] cmd, String[] env, String workDir) {
+        long startedAt = System.currentTimeMillis();
+        OutputBuffer buffer = new OutputBuffer(maxOutput);
+        try {
+            int exitCode = execStream(id, cmd, env, workDir, buffer);
+            return new ProcessResult(exitCode, buffer.text(), buffer.truncated, false, null, 0,
+                    System.currentTimeMillis() - startedAt);
+        } catch (SocketTimeoutException e) {
+            return new ProcessResult(-1, buffer.text(), buffer.truncated, true, null, 0,
+                    System.currentTimeMillis() - startedAt);
+        } catch (IOException e) {
+            return ProcessResult.failed(e.getMessage() == null ? "" : e.getMessage());
+        }
+    }
+
+    /**
+     * 컨테이너 안에서 명령어를 백그라운드로 실행하는 내부 로직 (docker exec -d)
+     *
+     * @param id      컨테이너 id 또는 이름
+     * @param cmd     명령어
+     * @param workDir 명령어를 실행할 디렉토리 (null이면 컨테이너 기본값)
+     * @throws IOException 실행 실패
+     */
+    public void execDetached(String id, String[] cmd, String workDir) throws IOException {
+        String execId = execCreate(id, cmd, null, workDir, false);
+        try (DockerResponse response = call("POST", "/exec/" + encode(execId) + "/start", "application/json",
+                "{\"Detach\":true,\"Tty\":false}".getBytes(StandardCharsets.UTF_8), null, readTimeout)) {
+            response.expectSuccess();
+            response.readText();
+        }
+    }
+
+    /**
+     * 서버 디렉토리를 컨테이너 안의 같은 경로로 복사하는 내부 로직 (docker cp dir/. container:path)
+     *
+     * @param id            컨테이너 id 또는 이름
+     * @param directory     복사할 서버 디렉토리
+     * @param containerPath 컨테이너 안의 경로 (없으면 만들어짐)
+     * @throws IOException 복사 실패
+     */
+    public void putArchive(String id, File directory, String containerPath) throws IOException {
+        try (DockerResponse response = call("PUT", "/containers/" + encode(id) + "/archive?path=%2F",
+                "application/x-tar", null, out -> TarArchiver.write(directory, containerPath, out), runTimeout)) {
+            response.expectSuccess();
+            response.readText();
+        }
+    }
+
+    /**
+     * 요청 수, 실패 수, 응답 지연 시간, 연결 재사용 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        long count = requests.get();
+        res.put("requests", count);
+        res.put("failed", failures.get());
+        res.put("avgLatencyMillis", count == 0 ? 0 : latencyMillis.get() / count);
+        res.put("maxLatencyMillis", maxLatencyMillis.get());
+        res.put("openedConnections", http.opened.get());
+        res.put("reusedConnections", http.reused.get());
+        res.put("staleConnections", http.stale.get());
+        res.put("idleConnections", http.idleConnections());
+        return res;
+    }
+
+    /**
+     * 서버 종료 시 Pool의 연결을 닫는 내부 로직
+     */
+    @PreDestroy
+    public void close() {
+        http.close();
+    }
+
+    /**
+     * 요청을 보내고 지표를 기록하는 내부 로직
+     */
+    private DockerResponse call(String method, String path, String contentType, byte[] body,
+                                DockerHttpClient.BodyWriter writer, int timeout) throws IOException {
+        return call(method, path, contentType, body, writer, timeout, false);
+    }
+
+    private DockerResponse call(String method, String path, String contentType, byte[] body,
+                                DockerHttpClient.BodyWriter writer, int timeout, boolean upgrade) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        requests.incrementAndGet();
+        try {
+            return http.execute(method, apiPrefix + path, contentType, body, writer, timeout, upgrade);
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            long latency = System.currentTimeMillis() - startedAt;
+            latencyMillis.addAndGet(latency);
+            maxLatencyMillis.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    /**
+     * build, pull 진행 상황(JSON 줄)을 끝까지 읽고, 에러가 있으면 예외를 던지는 내부 로직
+     */
+    private String readProgress(DockerResponse response) throws IOException {
+        StringBuilder log = new StringBuilder();
+        InputStream in = response.getBody();
+        String line;
+        while ((line = HttpStreams.readLine(in)) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            if (node.hasNonNull("error")) {
+                throw new DockerException(500, node.path("error").asText());
+            }
+            if (node.hasNonNull("stream") && log.length() < maxOutput) {
+                log.append(node.path("stream").asText());
+            }
+        }
+        return log.toString();
+    }
+
+    /**
+     * stdout, stderr가 섞인 스트림을 frame 단위로 나눠 전달하는 내부 로직
+     * frame은 8byte 헤더(stream 종류 1byte, 0 3byte, 길이 4byte) 뒤에 내용이 오는 형식
+     */
+    private static boolean readFrames(InputStream in, FrameConsumer consumer) throws IOException {
+        byte[] header = new byte[8];
+        byte[] payload = new byte[8192];
+        while (readFully(in, header, header.length)) {
+            int size = ((header[4] & 0xff) << 24) | ((header[5] & 0xff) << 16)
+                    | ((header[6] & 0xff) << 8) | (header[7] & 0xff);
+            if (payload.length < size) {
+                payload = new byte[size];
+            }
+            if (!readFully(in, payload, size)) {
+                throw new EOFException("unexpected end of frame");
+            }
+            if (!consumer.accept(header[0], payload, size)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * length 만큼 읽는 내부 로직
+     *
+     * @return 스트림이 처음부터 끝나 있었으면 false
+     */
+    private static boolean readFully(InputStream in, byte[] buf, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(buf, offset, length - offset);
+            if (read == -1) {
+                if (offset == 0) {
+                    return false;
+                }
+                throw new EOFException("unexpected end of frame");
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    /**
+     * 에러 응답 body에서 message를 꺼내는 내부 로직
+     */
+    static String errorMessage(String body) {
+        int start = body.indexOf("\"message\"");
+        if (start < 0) {
+            return body.trim();
+        }
+        try {
+            return new ObjectMapper().readTree(body).path("message").asText(body.trim());
+        } catch (IOException e) {
+            return body.trim();
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * stdout, stderr를 합쳐 제한 크기까지 모으는 consumer
+     * 제한을 넘은 출력은 버리되 끝까지 읽어 실행이 막히지 않도록 한다.
+     */
+    public static class OutputBuffer implements FrameConsumer {
+        private final int limit;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private boolean truncated = false;
+
+        public OutputBuffer(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean accept(int stream, byte[] data, int length) {
+            int room = limit - buffer.size();
+            if (room >= length) {
+                buffer.write(data, 0, length);
+            } else {
+                if (room > 0) {
+                    buffer.write(data, 0, room);
+                }
+                truncated = true;
+            }
+            return true;
+        }
+
+        public String text() {
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
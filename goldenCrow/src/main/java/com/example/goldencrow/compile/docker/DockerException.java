@@ -0,0 +1,44 @@
+package com.example.goldencrow.compile.docker;
+
+import java.io.IOException;
+
+/**
+ * Docker Engine API가 실패 응답(4xx, 5xx)을 보냈을 때의 예외
+ */
+public class DockerException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Docker Engine API의 HTTP 응답 코드
+     */
+    private final int status;
+
+    /**
+     * DockerException 생성자
+     *
+     * @param status  HTTP 응답 코드
+     * @param message Docker Engine이 보낸 에러 메시지
+     */
+    public DockerException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * 컨테이너, 이미지 등을 찾지 못한 경우인지 여부
+     */
+    public boolean isNotFound() {
+        return status == 404;
+    }
+
+    /**
+     * 이름 중복 등 현재 상태와 충돌한 경우인지 여부
+     */
+    public boolean isConflict() {
+        return status == 409;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.goldencrow.compile.docker;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Docker Engine API와 HTTP/1.1로 통신하는 클라이언트
+ * <p>
+ * 요청마다 연결을 새로 맺지 않도록 keep-alive 연결을 Pool에 보관해 재사용한다.
+ * body를 끝까지 읽은 연결만 Pool에 돌아가고, 스트리밍 도중 닫힌 연결은 버린다.
+ * 오래 쉰 연결은 Docker Engine이 닫았을 수 있으므로 꺼내지 않고 버리며,
+ * 요청을 다 보내기 전에 끊긴 연결만 새 연결로 다시 보낸다.
+ * 요청을 다 보낸 뒤의 실패는 다시 보내지 않는다. (POST는 Docker Engine이 이미 처리했을 수 있으므로)
+ * TLS 설정이 있으면 연결마다 TLS를 올리고 Docker Engine 인증서의 주소를 확인한다.
+ */
+class DockerHttpClient {
+
+    private final String host;
+    private final int port;
+    private final int connectTimeout;
+    private final int maxIdle;
+    private final long maxIdleMillis;
+    private final SSLSocketFactory tls;
+    private final ConcurrentLinkedDeque<IdleSocket> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    final AtomicLong opened = new AtomicLong();
+    final AtomicLong reused = new AtomicLong();
+    final AtomicLong stale = new AtomicLong();
+
+    /**
+     * DockerHttpClient 생성자
+     *
+     * @param host           Docker Engine 주소
+     * @param port           Docker Engine 포트
+     * @param connectTimeout 연결 제한 시간 (ms)
+     * @param maxIdle        Pool에 보관할 최대 유휴 연결 수
+     * @param maxIdleMillis  유휴 연결을 재사용할 수 있는 최대 시간 (ms, Docker Engine의 keep-alive 시간보다 짧게)
+     * @param tls            TLS 연결을 만들 factory (평문이면 null)
+     */
+    DockerHttpClient(String host, int port, int connectTimeout, int maxIdle, long maxIdleMillis,
+                     SSLSocketFactory tls) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeout = connectTimeout;
+        this.maxIdle = maxIdle;
+        this.maxIdleMillis = maxIdleMillis;
+        this.tls = tls;
+    }
+
+    /**
+     * 요청 body를 연결에 직접 쓰는 인터페이스 (tar 등 큰 body를 메모리에 올리지 않기 위해 사용)
+     */
+    interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 요청을 보내고 응답 헤더까지 읽는 내부 로직
+     * Pool에서 꺼낸 연결이 보내는 도중 끊기면 새 연결로 보낸다.
+     *
+     * @param method      HTTP method
+     * @param path        요청 경로 (query 포함)
+     * @param contentType body의 Content-Type (body가 없으면 null)
+     * @param body        고정 길이 body (없으면 null)
+     * @param writer      chunked로 보낼 body (없으면 null)
+     * @param readTimeout 응답 대기 제한 시간 (ms, 0이면 무제한)
+     * @return 응답 (호출한 쪽에서 반드시 close)
+     * @throws IOException 연결 실패, 응답 형식 오류
+     */
+    DockerResponse execute(String method, String path, String contentType, byte[] body, BodyWriter writer,
+                           int readTimeout) throws IOException {
+        return execute(method, path, contentType, body, writer, readTimeout, false);
+    }
+
+    /**
+     * 요청을 보내고 응답 헤더까지 읽는 내부 로직
+     * upgrade 요청은 101 응답 뒤 연결을 raw stream으로 넘겨받아 stdin을 쓸 수 있다 (exec attach).
+     *
+     * @param method      HTTP method
+     * @param path        요청 경로 (query 포함)
+     * @param contentType body의 Content-Type (body가 없으면 null)
+     * @param body        고정 길이 body (없으면 null)
+     * @param writer      chunked로 보낼 body (없으면 null)
+     * @param readTimeout 응답 대기 제한 시간 (ms, 0이면 무제한)
+     * @param upgrade     연결을 raw stream으로 전환할지 여부
+     * @return 응답 (호출한 쪽에서 반드시 close)
+     * @throws IOException 연결 실패, 응답 형식 오류
+     */
+    DockerResponse execute(String method, String path, String contentType, byte[] body, BodyWriter writer,
+                           int readTimeout, boolean upgrade) throws IOException {
+        IdleSocket pooled;
+        long now = System.currentTimeMillis();
+        while ((pooled = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            Socket socket = pooled.socket;
+            if (isStale(pooled, now)) {
+                stale.incrementAndGet();
+                closeQuietly(socket);
+                continue;
+            }
+            try {
+                DockerResponse response = exchange(socket, method, path, contentType, body, writer, readTimeout,
+                        upgrade);
+                reused.incrementAndGet();
+                return response;
+            } catch (StaleConnectionException e) {
+                // 요청을 다 보내기 전에 끊긴 연결이므로 새 연결로 다시 보냄
+                stale.incrementAndGet();
+                closeQuietly(socket);
+                break;
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(socket);
+                throw e;
+            }
+        }
+        Socket socket = connect();
+        try {
+            return exchange(socket, method, path, contentType, body, writer, readTimeout, upgrade);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * Pool에 있던 연결을 쓰지 않고 버려야 하는지 확인하는 내부 로직
+     * 소켓을 읽어 보지 않고, 쉰 시간과 이미 도착한 데이터만 본다. (유휴 연결에는 읽을 데이터가 없어야 함)
+     * 여기서 걸러지지 않은 끊긴 연결은 보내는 도중 StaleConnectionException으로 드러나 새 연결로 다시 보낸다.
+     *
+     * @param pooled 유휴 연결
+     * @param now    현재 시각 (ms)
+     * @return 쓸 수 없으면 true
+     */
+    private boolean isStale(IdleSocket pooled, long now) {
+        if (now - pooled.idleSince > maxIdleMillis || pooled.socket.isClosed()) {
+            return true;
+        }
+        try {
+            return pooled.socket.getInputStream().available() > 0;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 새 연결을 맺는 내부 로직
+     */
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(true);
+        socket.connect(new InetSocketAddress(host, port), connectTimeout);
+        if (tls != null) {
+            try {
+                SSLSocket secure = (SSLSocket) tls.createSocket(socket, host, port, true);
+                SSLParameters parameters = secure.getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                secure.setSSLParameters(parameters);
+                secure.setSoTimeout(connectTimeout);
+                secure.startHandshake();
+                socket = secure;
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(socket);
+                throw e;
+            }
+        }
+        opened.incrementAndGet();
+        return socket;
+    }
+
+    /**
+     * 하나의 연결 위에서 요청을 쓰고 응답 헤더를 읽는 내부 로직
+     */
+    private DockerResponse exchange(Socket socket, String method, String path, String contentType, byte[] body,
+                                    BodyWriter writer, int readTimeout, boolean upgrade) throws IOException {
+        boolean flushed = false;
+        try {
+            socket.setSoTimeout(readTimeout);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+            StringBuilder head = new StringBuilder();
+            head.append(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+            head.append("Host: docker\r\n");
+            if (upgrade) {
+                head.append("Connection: Upgrade\r\n");
+                head.append("Upgrade: tcp\r\n");
+            }
+            if (contentType != null) {
+                head.append("Content-Type: ").append(contentType).append("\r\n");
+            }
+            if (writer != null) {
+                head.append("Transfer-Encoding: chunked\r\n");
+            } else if (body != null) {
+                head.append("Content-Length: ").append(body.length).append("\r\n");
+            } else if ("POST".equals(method) || "PUT".equals(method)) {
+                head.append("Content-Length: 0\r\n");
+            }
+            head.append("\r\n");
+            out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+            if (writer != null) {
+                HttpStreams.ChunkedOutputStream chunked = new HttpStreams.ChunkedOutputStream(out);
+                writer.writeTo(chunked);
+                chunked.finish();
+            } else if (body != null) {
+                out.write(body);
+            }
+            out.flush();
+            flushed = true;
+            return readResponse(socket, method, upgrade);
+        } catch (SocketException e) {
+            if (flushed) {
+                throw e;
+            }
+            // Pool에 있던 연결을 Docker Engine이 먼저 닫아 요청을 다 보내지 못한 경우
+            throw new StaleConnectionException(e);
+        }
+    }
+
+    /**
+     * 상태 줄과 헤더를 읽고, body 길이 방식에 맞는 스트림을 붙이는 내부 로직
+     */
+    private DockerResponse readResponse(Socket socket, String method, boolean upgrade) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream(), 8192);
+        String statusLine = HttpStreams.readLine(in);
+        if (statusLine == null) {
+            // 요청은 이미 보냈으므로 다시 보내지 않음
+            throw new EOFException("connection closed before response");
+        }
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("malformed status line: " + statusLine);
+        }
+        int status = Integer.parseInt(parts[1]);
+
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = HttpStreams.readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+        }
+
+        boolean keepAlive = !"close".equalsIgnoreCase(headers.get("connection"));
+        InputStream body;
+        boolean reusable = keepAlive;
+        if (status == 101 || (upgrade && status / 100 == 2)) {
+            // hijack 된 연결은 이후 raw stream으로만 사용
+            body = in;
+            reusable = false;
+        } else if ("HEAD".equals(method) || status == 204 || status == 304) {
+            body = new HttpStreams.FixedLengthInputStream(in, 0);
+        } else if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            body = new HttpStreams.ChunkedInputStream(in);
+        } else if (headers.containsKey("content-length")) {
+            body = new HttpStreams.FixedLengthInputStream(in, Long.parseLong(headers.get("content-length")));
+        } else {
+            body = in;
+            reusable = false;
+        }
+        return new DockerResponse(status, headers, body, socket, this, reusable);
+    }
+
+    /**
+     * 응답이 끝난 연결을 Pool에 돌려주거나 닫는 내부 로직
+     *
+     * @param socket   연결
+     * @param reusable body를 끝까지 읽어 재사용 가능한지 여부
+     */
+    void releaseSocket(Socket socket, boolean reusable) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+        if (reusable && !socket.isClosed()) {
+            if (idleCount.incrementAndGet() <= maxIdle) {
+                idle.offerFirst(new IdleSocket(socket, now));
+                return;
+            }
+            idleCount.decrementAndGet();
+        }
+        closeQuietly(socket);
+    }
+
+    /**
+     * 가장 오래 쉰 연결부터 maxIdleMillis를 넘긴 연결을 닫는 내부 로직
+     * 최근에 돌려받은 연결을 앞에 넣으므로 오래된 연결은 뒤쪽에 모인다.
+     */
+    private void evictExpired(long now) {
+        IdleSocket oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.idleSince > maxIdleMillis) {
+            if (idle.removeLastOccurrence(oldest)) {
+                idleCount.decrementAndGet();
+                closeQuietly(oldest.socket);
+            }
+        }
+    }
+
+    /**
+     * 현재 Pool에 보관 중인 유휴 연결 수
+     */
+    int idleConnections() {
+        return Math.max(idleCount.get(), 0);
+    }
+
+    /**
+     * Pool의 모든 연결을 닫는 내부 로직
+     */
+    void close() {
+        IdleSocket pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            closeQuietly(pooled.socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 이미 끊긴 연결
+        }
+    }
+
+    /**
+     * Pool에 보관 중인 연결과 돌려받은 시각
+     */
+    private static class IdleSocket {
+        private final Socket socket;
+        private final long idleSince;
+
+        IdleSocket(Socket socket, long idleSince) {
+            this.socket = socket;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Pool에서 꺼낸 연결이 이미 끊겨 있어 다시 보내야 하는 경우
+     */
+    private static class StaleConnectionException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        StaleConnectionException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
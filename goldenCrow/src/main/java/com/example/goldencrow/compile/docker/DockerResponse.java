@@ -0,0 +1,119 @@
+package com.example.goldencrow.compile.docker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Docker Engine API의 HTTP 응답
+ * <p>
+ * body를 끝까지 읽고 닫으면 연결은 DockerHttpClient의 Pool로 돌아가고,
+ * 중간에 닫으면 연결을 끊는다.
+ */
+public class DockerResponse implements Closeable {
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private final Socket socket;
+    private final DockerHttpClient client;
+    private final boolean reusable;
+    private boolean closed = false;
+
+    DockerResponse(int status, Map<String, String> headers, InputStream body, Socket socket,
+                   DockerHttpClient client, boolean reusable) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.socket = socket;
+        this.client = client;
+        this.reusable = reusable;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * 응답 헤더 조회 (헤더 이름은 소문자)
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    /**
+     * 응답 body 스트림 (스트리밍 응답에서 사용)
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * 응답 body를 모두 읽어 문자열로 반환하는 내부 로직
+     *
+     * @return 응답 body
+     * @throws IOException 연결이 끊긴 경우
+     */
+    public String readText() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = body.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 응답 코드가 101, 2xx, 304가 아니면 DockerException을 던지는 내부 로직
+     *
+     * @throws IOException 실패 응답인 경우
+     */
+    public void expectSuccess() throws IOException {
+        if (status == 101 || (status >= 200 && status < 300) || status == 304) {
+            return;
+        }
+        String message = readText();
+        close();
+        throw new DockerException(status, DockerEngineClient.errorMessage(message));
+    }
+
+    /**
+     * raw stream으로 전환된 연결에 쓰는 스트림 (exec의 stdin)
+     *
+     * @return 연결의 출력 스트림
+     * @throws IOException 연결이 끊긴 경우
+     */
+    OutputStream getUpgradedOutput() throws IOException {
+        return socket.getOutputStream();
+    }
+
+    /**
+     * raw stream으로 전환된 연결의 쓰기 방향만 닫아 stdin EOF를 알리는 내부 로직
+     *
+     * @throws IOException 연결이 끊긴 경우
+     */
+    void closeUpgradedOutput() throws IOException {
+        socket.shutdownOutput();
+    }
+
+    /**
+     * 응답을 닫고, body를 끝까지 읽었다면 연결을 Pool에 돌려주는 내부 로직
+     * 스트리밍 도중에 닫으면 연결을 끊어 Docker Engine 쪽 스트림도 함께 끝낸다.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean finished = reusable && body instanceof HttpStreams.BodyStream
+                && ((HttpStreams.BodyStream) body).isFinished();
+        client.releaseSocket(socket, finished);
+    }
+}
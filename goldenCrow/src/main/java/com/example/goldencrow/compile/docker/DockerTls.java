@@ -0,0 +1,88 @@
+package com.example.goldencrow.compile.docker;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Docker Engine TCP 연결에 쓸 TLS 설정을 만드는 클래스
+ * <p>
+ * Docker Engine API는 컨테이너를 만들고 host 디렉토리를 mount 할 수 있어 root 권한과 같으므로,
+ * 평문 TCP는 loopback 주소에만 허용하고 그 외에는 dockerd --tlsverify 로 연 포트(2376)에 TLS로 접속한다.
+ * 인증서는 PKCS12 파일로 받는다. (openssl pkcs12 -export -in cert.pem -inkey key.pem -certfile ca.pem)
+ * exec의 stdin EOF를 쓰기 방향만 닫아 알리므로 half-close를 지원하는 TLS 1.3만 사용한다.
+ */
+final class DockerTls {
+
+    private static final String PROTOCOL = "TLSv1.3";
+
+    private DockerTls() {
+    }
+
+    /**
+     * 설정에 맞는 SSLSocketFactory를 만드는 내부 로직
+     *
+     * @param enabled            TLS 사용 여부
+     * @param host               Docker Engine 주소
+     * @param keyStore           client 인증서와 개인 키가 든 PKCS12 파일 (없으면 client 인증서 없이 접속)
+     * @param keyStorePassword   keyStore 비밀번호
+     * @param trustStore         Docker Engine 인증서를 발급한 CA가 든 PKCS12 파일 (없으면 JVM 기본 CA)
+     * @param trustStorePassword trustStore 비밀번호
+     * @return TLS를 쓰지 않으면 null
+     * @throws IllegalStateException loopback이 아닌 주소에 평문으로 접속하려는 경우, 인증서를 읽을 수 없는 경우
+     */
+    static SSLSocketFactory socketFactory(boolean enabled, String host, String keyStore, String keyStorePassword,
+                                          String trustStore, String trustStorePassword) {
+        if (!enabled) {
+            if (!isLoopback(host)) {
+                throw new IllegalStateException("plain TCP to the Docker Engine is only allowed on loopback: " + host);
+            }
+            return null;
+        }
+        try {
+            KeyManagerFactory keyManagers = null;
+            if (keyStore != null && !keyStore.isEmpty()) {
+                keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+                keyManagers.init(load(keyStore, keyStorePassword), password(keyStorePassword));
+            }
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trustStore != null && !trustStore.isEmpty()
+                    ? load(trustStore, trustStorePassword) : null);
+            SSLContext context = SSLContext.getInstance(PROTOCOL);
+            context.init(keyManagers == null ? null : keyManagers.getKeyManagers(),
+                    trustManagers.getTrustManagers(), null);
+            return context.getSocketFactory();
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("cannot set up TLS for the Docker Engine", e);
+        }
+    }
+
+    private static KeyStore load(String path, String password) throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(path)) {
+            store.load(in, password(password));
+        }
+        return store;
+    }
+
+    private static char[] password(String password) {
+        return password == null ? new char[0] : password.toCharArray();
+    }
+
+    private static boolean isLoopback(String host) {
+        try {
+            return InetAddress.getByName(host).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
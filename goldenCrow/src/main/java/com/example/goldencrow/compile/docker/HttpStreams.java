@@ -0,0 +1,218 @@
+package com.example.goldencrow.compile.docker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HTTP/1.1 body를 길이 방식(Content-Length, chunked)에 맞게 읽고 쓰는 스트림 모음
+ * Docker Engine API 클라이언트와 미리보기 프록시가 keep-alive 연결에서 응답 경계를 구분하는 데 사용한다.
+ */
+public final class HttpStreams {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private HttpStreams() {
+    }
+
+    /**
+     * CRLF로 끝나는 한 줄을 읽는 내부 로직
+     *
+     * @return 한 줄 (연결이 끝났으면 null)
+     */
+    public static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : line.toString("US-ASCII");
+    }
+
+    /**
+     * 끝까지 읽었는지 알 수 있는 body 스트림 (끝까지 읽은 연결만 재사용)
+     */
+    public interface BodyStream {
+        boolean isFinished();
+    }
+
+    /**
+     * Content-Length 만큼만 읽는 스트림
+     */
+    public static class FixedLengthInputStream extends InputStream implements BodyStream {
+        private final InputStream in;
+        private long remaining;
+
+        public FixedLengthInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return remaining <= 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException("unexpected end of body");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(buf, off, (int) Math.min(len, remaining));
+            if (read == -1) {
+                throw new EOFException("unexpected end of body");
+            }
+            remaining -= read;
+            return read;
+        }
+    }
+
+    /**
+     * Transfer-Encoding: chunked 응답을 읽는 스트림
+     */
+    public static class ChunkedInputStream extends InputStream implements BodyStream {
+        private final InputStream in;
+        private long remaining = 0;
+        private boolean finished = false;
+
+        public ChunkedInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        private boolean nextChunk() throws IOException {
+            if (finished) {
+                return false;
+            }
+            if (remaining == 0) {
+                String size = readLine(in);
+                if (size != null && size.isEmpty()) {
+                    // 이전 chunk 끝의 CRLF
+                    size = readLine(in);
+                }
+                if (size == null) {
+                    throw new EOFException("unexpected end of chunked body");
+                }
+                int extension = size.indexOf(';');
+                remaining = Long.parseLong((extension >= 0 ? size.substring(0, extension) : size).trim(), 16);
+                if (remaining == 0) {
+                    // trailer 헤더를 빈 줄까지 읽고 끝냄
+                    String trailer;
+                    while ((trailer = readLine(in)) != null && !trailer.isEmpty()) {
+                        // trailer는 사용하지 않음
+                    }
+                    finished = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException("unexpected end of chunked body");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int read = in.read(buf, off, (int) Math.min(len, remaining));
+            if (read == -1) {
+                throw new EOFException("unexpected end of chunked body");
+            }
+            remaining -= read;
+            return read;
+        }
+    }
+
+    /**
+     * Transfer-Encoding: chunked 요청 body를 쓰는 스트림
+     */
+    public static class ChunkedOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[32 * 1024];
+        private int count = 0;
+
+        public ChunkedOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int size = Math.min(len, buffer.length - count);
+                System.arraycopy(buf, off, buffer, count, size);
+                count += size;
+                off += size;
+                len -= size;
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            out.write(Integer.toHexString(count).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+            out.write(buffer, 0, count);
+            out.write(CRLF);
+            count = 0;
+        }
+
+        public void finish() throws IOException {
+            flushChunk();
+            out.write('0');
+            out.write(CRLF);
+            out.write(CRLF);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.goldencrow.compile.docker;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * 디렉토리를 tar 형식으로 스트림에 바로 쓰는 유틸
+ * <p>
+ * Docker Engine API의 build context, archive 업로드에 사용한다.
+ * 100byte를 넘는 경로는 GNU long name 헤더로 기록하고, 심볼릭 링크는 건너뛴다.
+ */
+public final class TarArchiver {
+
+    private static final int BLOCK = 512;
+    private static final String LONG_LINK = "././@LongLink";
+
+    private TarArchiver() {
+    }
+
+    /**
+     * 디렉토리 안의 파일을 tar로 쓰는 내부 로직
+     *
+     * @param directory 묶을 디렉토리
+     * @param prefix    tar 안에서 디렉토리 내용이 위치할 경로 (비어있으면 최상위)
+     * @param out       tar를 쓸 스트림
+     * @throws IOException 파일을 읽을 수 없는 경우
+     */
+    public static void write(File directory, String prefix, OutputStream out) throws IOException {
+        String base = prefix == null || prefix.isEmpty() ? "" : trimSlashes(prefix) + "/";
+        if (!base.isEmpty()) {
+            // 상위 디렉토리부터 차례로 기록해야 압축 해제 시 경로가 만들어진다
+            String[] parts = base.split("/");
+            StringBuilder path = new StringBuilder();
+            for (String part : parts) {
+                path.append(part).append('/');
+                writeHeader(out, path.toString(), 0, '5', 0755, directory.lastModified());
+            }
+        }
+        writeDirectory(directory, base, out);
+        out.write(new byte[BLOCK * 2]);
+    }
+
+    /**
+     * 하위 파일과 디렉토리를 재귀적으로 기록하는 내부 로직
+     */
+    private static void writeDirectory(File directory, String base, OutputStream out) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        for (File file : files) {
+            if (Files.isSymbolicLink(file.toPath())) {
+                continue;
+            }
+            String name = base + file.getName();
+            if (file.isDirectory()) {
+                writeHeader(out, name + "/", 0, '5', 0755, file.lastModified());
+                writeDirectory(file, name + "/", out);
+            } else if (file.isFile()) {
+                long size = file.length();
+                writeHeader(out, name, size, '0', file.canExecute() ? 0755 : 0644, file.lastModified());
+                long written = 0;
+                try (InputStream in = new FileInputStream(file)) {
+                    int read;
+                    while (written < size && (read = in.read(buffer, 0, (int) Math.min(buffer.length, size - written))) != -1) {
+                        out.write(buffer, 0, read);
+                        written += read;
+                    }
+                }
+                // 읽는 도중 파일이 줄어들었다면 헤더에 적은 크기만큼 채운다
+                while (written < size) {
+                    int pad = (int) Math.min(buffer.length, size - written);
+                    out.write(new byte[pad]);
+                    written += pad;
+                }
+                pad(out, size);
+            }
+        }
+    }
+
+    /**
+     * tar 헤더 블록을 쓰는 내부 로직
+     */
+    private static void writeHeader(OutputStream out, String name, long size, char type, int mode,
+                                    long modified) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 100) {
+            byte[] longName = new byte[nameBytes.length + 1];
+            System.arraycopy(nameBytes, 0, longName, 0, nameBytes.length);
+            writeHeader(out, LONG_LINK, longName.length, 'L', 0644, 0);
+            out.write(longName);
+            pad(out, longName.length);
+        }
+
+        byte[] header = new byte[BLOCK];
+        System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, 100));
+        octal(header, 100, 8, mode);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, modified / 1000);
+        header[156] = (byte) type;
+        byte[] magic = "ustar  ".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(magic, 0, header, 257, magic.length);
+
+        // checksum은 checksum 칸을 공백으로 채운 상태에서 계산
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(header, 148, 7, checksum);
+        header[155] = ' ';
+        out.write(header);
+    }
+
+    /**
+     * 숫자를 0으로 채운 8진수 문자열로 기록하는 내부 로직
+     */
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String text = Long.toOctalString(value);
+        int digits = length - 1;
+        StringBuilder padded = new StringBuilder();
+        for (int i = text.length(); i < digits; i++) {
+            padded.append('0');
+        }
+        padded.append(text);
+        byte[] bytes = padded.toString().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, digits));
+        header[offset + digits] = 0;
+    }
+
+    /**
+     * 파일 내용 뒤를 512byte 단위로 채우는 내부 로직
+     */
+    private static void pad(OutputStream out, long size) throws IOException {
+        int remainder = (int) (size % BLOCK);
+        if (remainder != 0) {
+            out.write(new byte[BLOCK - remainder]);
+        }
+    }
+
+    private static String trimSlashes(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(start, end);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컨테이너, 이미지의 실행 설정 DTO (inspect의 Config, docker commit 요청 body)
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContainerConfigDto {
+    @JsonProperty("Image")
+    private String image;
+    @JsonProperty("Cmd")
+    private List<String> cmd;
+    @JsonProperty("WorkingDir")
+    private String workingDir;
+    @JsonProperty("Labels")
+    private Map<String, String> labels;
+}
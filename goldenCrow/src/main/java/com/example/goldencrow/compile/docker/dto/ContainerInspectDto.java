@@ -0,0 +1,25 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * 컨테이너 상세 정보 DTO (GET /containers/{id}/json)
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContainerInspectDto {
+    @JsonProperty("Id")
+    private String id;
+    @JsonProperty("Name")
+    private String name;
+    @JsonProperty("Image")
+    private String image;
+    @JsonProperty("State")
+    private ContainerStateDto state;
+    @JsonProperty("NetworkSettings")
+    private NetworkSettingsDto networkSettings;
+    @JsonProperty("Config")
+    private ContainerConfigDto config;
+}
@@ -0,0 +1,165 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.*;
+
+/**
+ * 컨테이너 생성 요청 DTO (POST /containers/create)
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ContainerSpecDto {
+    @JsonProperty("Image")
+    private String image;
+    @JsonProperty("Cmd")
+    private List<String> cmd;
+    @JsonProperty("Env")
+    private List<String> env;
+    @JsonProperty("WorkingDir")
+    private String workingDir;
+    @JsonProperty("User")
+    private String user;
+    @JsonProperty("ExposedPorts")
+    private Map<String, Object> exposedPorts;
+    @JsonProperty("HostConfig")
+    private HostConfigDto hostConfig = new HostConfigDto();
+
+    /**
+     * 빈 ContainerSpecDto 생성자
+     */
+    public ContainerSpecDto() {
+    }
+
+    /**
+     * ContainerSpecDto 생성자
+     *
+     * @param image 컨테이너를 만들 이미지
+     * @param cmd   실행할 명령어 (null이면 이미지의 CMD)
+     */
+    public ContainerSpecDto(String image, String... cmd) {
+        this.image = image;
+        if (cmd != null && cmd.length > 0) {
+            this.cmd = Arrays.asList(cmd);
+        }
+    }
+
+    /**
+     * 서버 디렉토리를 컨테이너에 연결 (docker run -v)
+     *
+     * @param hostPath      서버 경로
+     * @param containerPath 컨테이너 안의 경로
+     * @return 자기 자신
+     */
+    public ContainerSpecDto bind(String hostPath, String containerPath) {
+        if (hostConfig.getBinds() == null) {
+            hostConfig.setBinds(new ArrayList<>());
+        }
+        hostConfig.getBinds().add(hostPath + ":" + containerPath);
+        return this;
+    }
+
+    /**
+     * 서버 디렉토리를 컨테이너에 읽기 전용으로 연결 (docker run -v ...:ro)
+     *
+     * @param hostPath      서버 경로
+     * @param containerPath 컨테이너 안의 경로
+     * @return 자기 자신
+     */
+    public ContainerSpecDto bindReadOnly(String hostPath, String containerPath) {
+        return bind(hostPath, containerPath + ":ro");
+    }
+
+    /**
+     * 컨테이너 포트를 서버 포트에 연결 (docker run -p)
+     *
+     * @param insidePort 컨테이너 안의 포트
+     * @param hostPort   서버 포트 (빈 문자열이면 Docker가 임의로 배정)
+     * @return 자기 자신
+     */
+    public ContainerSpecDto publish(String insidePort, String hostPort) {
+        String key = insidePort + "/tcp";
+        if (exposedPorts == null) {
+            exposedPorts = new HashMap<>();
+        }
+        exposedPorts.put(key, new HashMap<>());
+        if (hostConfig.getPortBindings() == null) {
+            hostConfig.setPortBindings(new HashMap<>());
+        }
+        hostConfig.getPortBindings().put(key, Collections.singletonList(new PortBindingDto(hostPort)));
+        return this;
+    }
+
+    /**
+     * 컨테이너가 쓸 수 있는 자원을 제한 (docker run --memory --memory-swap --cpus --pids-limit)
+     *
+     * @param memoryBytes 최대 메모리 (byte, swap 포함)
+     * @param cpus        최대 CPU 수 (0.5 = 코어 절반)
+     * @param pidsLimit   최대 프로세스 수
+     * @return 자기 자신
+     */
+    public ContainerSpecDto limit(long memoryBytes, double cpus, long pidsLimit) {
+        hostConfig.setMemory(memoryBytes);
+        hostConfig.setMemorySwap(memoryBytes);
+        hostConfig.setNanoCpus((long) (cpus * 1_000_000_000L));
+        hostConfig.setPidsLimit(pidsLimit);
+        return this;
+    }
+
+    /**
+     * 네트워크, 권한, 쓰기를 막고 지정한 경로만 메모리 디스크로 쓸 수 있게 격리
+     * (docker run --network none --read-only --tmpfs --cap-drop ALL --security-opt no-new-privileges --user)
+     *
+     * @param user       실행할 사용자
+     * @param tmpfsPath  쓰기를 허용할 경로
+     * @param tmpfsBytes 쓰기를 허용할 경로의 최대 크기 (byte)
+     * @return 자기 자신
+     */
+    public ContainerSpecDto isolate(String user, String tmpfsPath, long tmpfsBytes) {
+        this.user = user;
+        hostConfig.setNetworkMode("none");
+        hostConfig.setReadonlyRootfs(true);
+        tmpfs(tmpfsPath, tmpfsBytes);
+        hostConfig.setCapDrop(Collections.singletonList("ALL"));
+        hostConfig.setSecurityOpt(Collections.singletonList("no-new-privileges"));
+        return this;
+    }
+
+    /**
+     * 지정한 경로를 크기가 제한된 메모리 디스크로 연결 (docker run --tmpfs)
+     *
+     * @param path  연결할 경로
+     * @param bytes 최대 크기 (byte)
+     * @return 자기 자신
+     */
+    public ContainerSpecDto tmpfs(String path, long bytes) {
+        if (hostConfig.getTmpfs() == null) {
+            hostConfig.setTmpfs(new HashMap<>());
+        }
+        hostConfig.getTmpfs().put(path, "rw,nosuid,nodev,noexec,size=" + bytes + ",mode=1777");
+        return this;
+    }
+
+    /**
+     * 공유 메모리를 다른 컨테이너와 나누지 않고, /dev/shm을 크기가 제한된 메모리 디스크로 연결 (docker run --ipc private --tmpfs /dev/shm)
+     *
+     * @param shmBytes /dev/shm의 최대 크기 (byte)
+     * @return 자기 자신
+     */
+    public ContainerSpecDto privateIpc(long shmBytes) {
+        hostConfig.setIpcMode("private");
+        return tmpfs("/dev/shm", shmBytes);
+    }
+
+    /**
+     * 이미지에 EXPOSE 된 포트를 모두 임의의 서버 포트에 연결 (docker run -P)
+     *
+     * @return 자기 자신
+     */
+    public ContainerSpecDto publishAll() {
+        hostConfig.setPublishAllPorts(true);
+        return this;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * 컨테이너 실행 상태 DTO
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContainerStateDto {
+    @JsonProperty("Status")
+    private String status;
+    @JsonProperty("Running")
+    private boolean running;
+    @JsonProperty("ExitCode")
+    private int exitCode;
+    @JsonProperty("OOMKilled")
+    private boolean oomKilled;
+    @JsonProperty("StartedAt")
+    private String startedAt;
+    @JsonProperty("FinishedAt")
+    private String finishedAt;
+}
@@ -0,0 +1,94 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 컨테이너 자원 사용량 DTO (GET /containers/{id}/stats, cgroup 통계)
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContainerStatsDto {
+    @JsonProperty("cpu_stats")
+    private CpuStats cpuStats;
+    @JsonProperty("memory_stats")
+    private MemoryStats memoryStats;
+    @JsonProperty("networks")
+    private Map<String, NetworkStats> networks;
+
+    /**
+     * 컨테이너가 사용한 CPU 시간 (ns, 알 수 없으면 0)
+     *
+     * @return 누적 CPU 시간
+     */
+    public long cpuNanos() {
+        if (cpuStats == null || cpuStats.getCpuUsage() == null) {
+            return 0;
+        }
+        return cpuStats.getCpuUsage().getTotalUsage();
+    }
+
+    /**
+     * 컨테이너의 최대 메모리 사용량 (byte)
+     * cgroup v2에서는 최대값을 제공하지 않으므로 현재 사용량을 반환한다.
+     *
+     * @return 메모리 사용량 (알 수 없으면 0)
+     */
+    public long peakMemoryBytes() {
+        if (memoryStats == null) {
+            return 0;
+        }
+        return memoryStats.getMaxUsage() > 0 ? memoryStats.getMaxUsage() : memoryStats.getUsage();
+    }
+
+    /**
+     * 컨테이너의 모든 네트워크 인터페이스가 주고받은 누적 byte 수
+     *
+     * @return 수신 + 송신 byte (알 수 없으면 0)
+     */
+    public long networkBytes() {
+        if (networks == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (NetworkStats network : networks.values()) {
+            bytes += network.getRxBytes() + network.getTxBytes();
+        }
+        return bytes;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CpuStats {
+        @JsonProperty("cpu_usage")
+        private CpuUsage cpuUsage;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CpuUsage {
+        @JsonProperty("total_usage")
+        private long totalUsage;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MemoryStats {
+        @JsonProperty("usage")
+        private long usage;
+        @JsonProperty("max_usage")
+        private long maxUsage;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class NetworkStats {
+        @JsonProperty("rx_bytes")
+        private long rxBytes;
+        @JsonProperty("tx_bytes")
+        private long txBytes;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 컨테이너 목록의 항목 DTO (GET /containers/json)
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContainerSummaryDto {
+    @JsonProperty("Id")
+    private String id;
+    @JsonProperty("Names")
+    private List<String> names;
+    @JsonProperty("Image")
+    private String image;
+    @JsonProperty("State")
+    private String state;
+    @JsonProperty("Created")
+    private long created;
+
+    /**
+     * 앞의 '/'를 뗀 컨테이너 이름
+     *
+     * @return 컨테이너 이름 (없으면 id)
+     */
+    public String name() {
+        if (names == null || names.isEmpty()) {
+            return id;
+        }
+        String name = names.get(0);
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * exec 실행 상태 DTO (GET /exec/{id}/json)
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExecInspectDto {
+    @JsonProperty("ID")
+    private String id;
+    @JsonProperty("Running")
+    private boolean running;
+    @JsonProperty("ExitCode")
+    private Integer exitCode;
+}
@@ -0,0 +1,42 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컨테이너 생성 시 서버 쪽 설정 DTO (docker run의 -v, -p, -P, 자원 제한과 격리 옵션)
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HostConfigDto {
+    @JsonProperty("Binds")
+    private List<String> binds;
+    @JsonProperty("PortBindings")
+    private Map<String, List<PortBindingDto>> portBindings;
+    @JsonProperty("PublishAllPorts")
+    private Boolean publishAllPorts;
+    @JsonProperty("NetworkMode")
+    private String networkMode;
+    @JsonProperty("Memory")
+    private Long memory;
+    @JsonProperty("MemorySwap")
+    private Long memorySwap;
+    @JsonProperty("NanoCpus")
+    private Long nanoCpus;
+    @JsonProperty("PidsLimit")
+    private Long pidsLimit;
+    @JsonProperty("ReadonlyRootfs")
+    private Boolean readonlyRootfs;
+    @JsonProperty("Tmpfs")
+    private Map<String, String> tmpfs;
+    @JsonProperty("IpcMode")
+    private String ipcMode;
+    @JsonProperty("CapDrop")
+    private List<String> capDrop;
+    @JsonProperty("SecurityOpt")
+    private List<String> securityOpt;
+}
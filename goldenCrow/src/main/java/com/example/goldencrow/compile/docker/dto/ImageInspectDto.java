@@ -0,0 +1,23 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 이미지 상세 정보 DTO (GET /images/{name}/json)
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImageInspectDto {
+    @JsonProperty("Id")
+    private String id;
+    @JsonProperty("RepoTags")
+    private List<String> repoTags;
+    @JsonProperty("Size")
+    private long size;
+    @JsonProperty("Config")
+    private ContainerConfigDto config;
+}
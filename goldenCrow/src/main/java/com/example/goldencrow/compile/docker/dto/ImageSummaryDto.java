@@ -0,0 +1,28 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 이미지 목록의 항목 DTO (GET /images/json)
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImageSummaryDto {
+    @JsonProperty("Id")
+    private String id;
+    @JsonProperty("RepoTags")
+    private List<String> repoTags;
+    @JsonProperty("Size")
+    private long size;
+    /**
+     * 다른 이미지와 함께 쓰는 layer의 크기 (Docker가 계산하지 않았으면 -1)
+     */
+    @JsonProperty("SharedSize")
+    private long sharedSize = -1;
+    @JsonProperty("Created")
+    private long created;
+}
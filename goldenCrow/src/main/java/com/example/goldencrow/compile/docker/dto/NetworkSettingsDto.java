@@ -0,0 +1,20 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컨테이너 네트워크 정보 DTO
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NetworkSettingsDto {
+    @JsonProperty("IPAddress")
+    private String ipAddress;
+    @JsonProperty("Ports")
+    private Map<String, List<PortBindingDto>> ports;
+}
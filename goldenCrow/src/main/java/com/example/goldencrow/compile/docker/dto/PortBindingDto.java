@@ -0,0 +1,32 @@
+package com.example.goldencrow.compile.docker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * 컨테이너 포트가 연결된 서버 포트 DTO
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PortBindingDto {
+    @JsonProperty("HostIp")
+    private String hostIp;
+    @JsonProperty("HostPort")
+    private String hostPort;
+
+    /**
+     * 빈 PortBindingDto 생성자
+     */
+    public PortBindingDto() {
+    }
+
+    /**
+     * PortBindingDto 생성자
+     *
+     * @param hostPort 연결할 서버 포트 (빈 문자열이면 Docker가 임의로 배정)
+     */
+    public PortBindingDto(String hostPort) {
+        this.hostPort = hostPort;
+    }
+}
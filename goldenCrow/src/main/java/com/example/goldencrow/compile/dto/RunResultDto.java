@@ -0,0 +1,111 @@
+package com.example.goldencrow.compile.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 실행 한 번의 결과를 담는 DTO
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RunResultDto {
+
+    /**
+     * 성패에 따른 result
+     */
+    private String result;
+
+    /**
+     * 출력 대신 돌려줄 내용 (서버 주소, 실행하지 못한 이유)
+     */
+    private String response;
+
+    /**
+     * 종료 코드 (실행하지 못했거나 끝까지 기다리지 못했으면 -1)
+     */
+    private Integer exitCode;
+
+    /**
+     * stdout, stderr를 합친 출력 (서버 경로를 뺀 내용, 제한 크기까지만 저장)
+     */
+    private String output;
+
+    /**
+     * 출력이 제한을 넘어 잘렸는지 여부
+     */
+    private Boolean truncated;
+
+    /**
+     * 실행 시간 제한을 넘었는지 여부
+     */
+    private Boolean timedOut;
+
+    /**
+     * 단계별 시간 (ms)
+     * "queueMillis"(대기열), "prepareMillis"(실행 준비), "runMillis"(실행), "totalMillis"(전체)
+     */
+    private Map<String, Long> timing;
+
+    /**
+     * 자원 사용량
+     * "cpuSeconds", "peakRssKb", "wallMillis", "timedOut"
+     */
+    private Map<String, Object> usage;
+
+    /**
+     * 출력에서 찾은 마지막 traceback (없으면 null)
+     */
+    private TracebackDto traceback;
+
+    /**
+     * 혼잡으로 거절되었을 때 다시 시도할 때까지의 시간 (초)
+     */
+    private Long retryAfter;
+
+    /**
+     * result만 담은 결과를 만드는 내부 로직
+     *
+     * @param result 성패에 따른 result
+     * @return 실행 결과
+     */
+    public static RunResultDto of(String result) {
+        RunResultDto runResult = new RunResultDto();
+        runResult.setResult(result);
+        return runResult;
+    }
+
+    /**
+     * 기존 컴파일 API의 응답 형식으로 바꾸는 내부 로직
+     *
+     * @return "result", "response"(출력 혹은 response)와 종료 코드, 잘림 여부, 자원 사용량을 담은 Map
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> res = new HashMap<>();
+        res.put("result", result);
+        String body = response != null ? response : output;
+        if (body != null) {
+            res.put("response", body);
+        }
+        if (exitCode != null) {
+            res.put("exitCode", String.valueOf(exitCode));
+        }
+        if (truncated != null) {
+            res.put("truncated", String.valueOf(truncated));
+        }
+        if (retryAfter != null) {
+            res.put("retryAfter", String.valueOf(retryAfter));
+        }
+        if (usage != null) {
+            for (Map.Entry<String, Object> entry : usage.entrySet()) {
+                res.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        return res;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.goldencrow.compile.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 실행 출력에서 찾은 마지막 Python traceback을 담는 DTO
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TracebackDto {
+
+    /**
+     * 예외 이름
+     * EX. ValueError, SyntaxError, KeyboardInterrupt
+     */
+    private String type;
+
+    /**
+     * 예외 메시지 (없으면 null)
+     */
+    private String message;
+
+    /**
+     * 호출 순서대로 정렬된 frame (가장 마지막이 예외가 난 위치)
+     */
+    private List<TracebackFrameDto> frames = new ArrayList<>();
+
+    /**
+     * 너무 깊어 생략한 앞쪽 frame 수
+     */
+    private int omittedFrames;
+
+}
@@ -0,0 +1,40 @@
+package com.example.goldencrow.compile.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Python traceback의 한 frame을 담는 DTO
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TracebackFrameDto {
+
+    /**
+     * 파일 경로 (프로젝트 파일이면 서버 경로를 뺀 상대 경로)
+     */
+    private String file;
+
+    /**
+     * 줄 번호
+     */
+    private int line;
+
+    /**
+     * 함수 이름 (모듈 최상위면 "<module>")
+     */
+    private String function;
+
+    /**
+     * 해당 줄의 코드 (출력되지 않았으면 null)
+     */
+    private String code;
+
+    /**
+     * 사용자의 프로젝트 파일인지 여부 (라이브러리, 내장 모듈이면 false)
+     */
+    private boolean project;
+
+}
@@ -0,0 +1,66 @@
+package com.example.goldencrow.compile.preview;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * {teamSeq}.{미리보기 도메인} 으로 들어온 요청을 팀 서버(Django, Flask, FastAPI)로 전달하는 Filter
+ * <p>
+ * 팀 서버는 팀마다 서비스와 다른 origin에서 열리므로, 팀 서버의 script가 서비스 화면의 localStorage(access-token)나
+ * 다른 팀의 미리보기에 접근할 수 없다. 팀 서버는 origin의 루트에서 동작하므로 경로나 redirect를 바꾸지 않는다.
+ * 미리보기 도메인의 요청은 Controller까지 가지 않으므로 JwtInterceptor와 서비스 API에 닿지 않는다.
+ * 미리보기 도메인의 wildcard DNS(*.{미리보기 도메인})와 인증서는 서버 앞단에서 준비해야 한다.
+ */
+@Component
+public class PreviewFilter extends OncePerRequestFilter {
+    private static final Pattern TEAM_SEQ = Pattern.compile("[1-9]\\d{0,17}");
+
+    private final PreviewService previewService;
+    private final boolean enabled;
+    private final String suffix;
+
+    /**
+     * PreviewFilter 생성자
+     *
+     * @param previewService 팀 서버로 요청을 전달하는 Service
+     * @param enabled        미리보기 사용 여부
+     * @param domain         팀 번호를 앞에 붙여 팀 서버를 열 미리보기 도메인
+     */
+    public PreviewFilter(PreviewService previewService,
+                         @Value("${compile.preview.enabled:false}") boolean enabled,
+                         @Value("${compile.preview.domain:preview.k7d207.p.ssafy.io}") String domain) {
+        this.previewService = previewService;
+        this.enabled = enabled;
+        this.suffix = "." + domain.toLowerCase();
+    }
+
+    /**
+     * 미리보기 도메인의 요청이면 팀 서버로 전달하고, 아니면 다음 Filter로 넘기는 내부 로직
+     *
+     * @status 팀 서버의 응답 코드, 404(팀 없음), 502(서버 응답 없음), 503(서버가 실행 중이 아님, 혼잡)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String host = request.getServerName() == null ? "" : request.getServerName().toLowerCase();
+        if (!enabled || !host.endsWith(suffix)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String label = host.substring(0, host.length() - suffix.length());
+        if (!TEAM_SEQ.matcher(label).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "no such team");
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        previewService.proxy(Long.valueOf(label), path.isEmpty() ? "/" : path, request, response);
+    }
+}
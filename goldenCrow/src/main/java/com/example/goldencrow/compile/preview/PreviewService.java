@@ -0,0 +1,431 @@
+package com.example.goldencrow.compile.preview;
+
+import com.example.goldencrow.compile.CompileService;
+import com.example.goldencrow.compile.ContainerPool;
+import com.example.goldencrow.compile.ContainerReaper;
+import com.example.goldencrow.compile.PooledContainer;
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerInspectDto;
+import com.example.goldencrow.team.entity.TeamEntity;
+import com.example.goldencrow.team.repository.TeamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 미리보기 도메인({teamSeq}.{미리보기 도메인})의 요청을 팀의 Django, Flask, FastAPI 서버 컨테이너로 전달하는 Service
+ * <p>
+ * 팀마다 서버 포트를 외부에 열지 않고, Docker bridge network의 컨테이너 주소로 직접 요청을 보낸다.
+ * 요청 스레드는 servlet async로 바로 반납하고, 전달은 크기가 정해진 작업 스레드에서 keep-alive 연결로 처리하며
+ * 요청과 응답 body는 모으지 않고 흘려보낸다.
+ * 미리보기 요청은 인증 없이 들어오므로 서버를 띄우지 않고, 팀원이 실행해 둔 서버로만 전달한다.
+ * <p>
+ * 팀 서버는 팀마다 별도 origin의 루트에서 열리므로 요청 경로와 응답의 Location은 바꾸지 않고 그대로 전달한다.
+ * 팀 서버는 사용자가 올린 코드이므로 믿지 않고, 사용자의 인증 정보(Authorization, 서비스 세션 cookie)는 넘기지 않으며
+ * 팀 서버가 서비스 세션 cookie를 덮어쓰지 못하게 한다.
+ */
+@Service
+public class PreviewService {
+
+    /**
+     * 다음 서버로 전달하지 않는 연결 단위 헤더 (RFC 7230 6.1)
+     */
+    private static final Set<String> HOP_BY_HOP = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+            "te", "trailer", "transfer-encoding", "upgrade", "content-length", "expect"));
+
+    private final long asyncTimeout;
+    private final long routeTtl;
+    private final String dockerHost;
+    private final String sessionCookie;
+    private final UpstreamClient client;
+    private final ThreadPoolExecutor workers;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
+    @Autowired
+    private ContainerPool containerPool;
+
+    @Autowired
+    private ContainerReaper containerReaper;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private CompileService compileService;
+
+    private final Map<Long, Route> routes = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong notRunning = new AtomicLong();
+
+    /**
+     * PreviewService 생성자
+     *
+     * @param workers        요청을 전달할 작업 스레드 수
+     * @param queueSize      작업 스레드를 기다릴 수 있는 최대 요청 수
+     * @param asyncTimeout   요청 하나의 최대 처리 시간 (ms)
+     * @param connectTimeout 컨테이너 연결 제한 시간 (ms)
+     * @param readTimeout    컨테이너 응답 대기 제한 시간 (ms)
+     * @param maxIdle        컨테이너마다 보관할 최대 유휴 연결 수
+     * @param keepAlive      유휴 연결을 재사용할 최대 시간 (ms)
+     * @param routeTtl       컨테이너 주소를 다시 확인하기까지의 시간 (ms)
+     * @param dockerHost     bridge network 주소가 없을 때 연결할 Docker 호스트 주소
+     * @param sessionCookie  팀 서버로 넘기지 않을 서비스 세션 cookie 이름
+     */
+    public PreviewService(@Value("${compile.preview.workers:32}") int workers,
+                          @Value("${compile.preview.queue-size:256}") int queueSize,
+                          @Value("${compile.preview.timeout:120000}") long asyncTimeout,
+                          @Value("${compile.preview.connect-timeout:1000}") int connectTimeout,
+                          @Value("${compile.preview.read-timeout:60000}") int readTimeout,
+                          @Value("${compile.preview.max-idle:8}") int maxIdle,
+                          @Value("${compile.preview.keep-alive:4000}") long keepAlive,
+                          @Value("${compile.preview.route-ttl:5000}") long routeTtl,
+                          @Value("${compile.docker.host:127.0.0.1}") String dockerHost,
+                          @Value("${server.servlet.session.cookie.name:JSESSIONID}") String sessionCookie) {
+        this.asyncTimeout = asyncTimeout;
+        this.routeTtl = routeTtl;
+        this.dockerHost = dockerHost;
+        this.sessionCookie = sessionCookie;
+        this.client = new UpstreamClient(connectTimeout, readTimeout, maxIdle, keepAlive);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "preview-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 요청을 비동기로 전환하고 팀 서버로 전달하는 내부 로직
+     *
+     * @param teamSeq  팀의 sequence
+     * @param path     팀 서버에 보낼 경로
+     * @param request  브라우저의 요청
+     * @param response 브라우저로 보낼 응답
+     */
+    public void proxy(Long teamSeq, String path, HttpServletRequest request, HttpServletResponse response) {
+        requests.incrementAndGet();
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(asyncTimeout);
+        try {
+            workers.execute(() -> {
+                try {
+                    forward(teamSeq, path, request, response);
+                } finally {
+                    try {
+                        async.complete();
+                    } catch (IllegalStateException e) {
+                        // 제한 시간이 지나 이미 끝난 요청
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "preview is busy");
+            async.complete();
+        }
+    }
+
+    /**
+     * 전달 요청, 실패, 거절 수와 실행 중인 서버가 없던 수, 연결 Pool 지표를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("requests", requests.get());
+        res.put("failures", failures.get());
+        res.put("rejected", rejected.get());
+        res.put("notRunning", notRunning.get());
+        res.put("active", workers.getActiveCount());
+        res.put("queued", workers.getQueue().size());
+        res.put("routes", routes.size());
+        res.put("opened", client.opened.get());
+        res.put("reused", client.reused.get());
+        res.put("retried", client.retried.get());
+        res.put("idleConnections", client.idleConnections());
+        return res;
+    }
+
+    /**
+     * 서버 종료 시 작업 스레드와 연결을 정리하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        client.close();
+    }
+
+    /**
+     * 팀 서버로 요청을 보내고 응답을 그대로 돌려주는 내부 로직
+     * 서버가 재시작되어 주소가 바뀐 경우 주소를 다시 확인해 한 번 더 보낸다.
+     */
+    private void forward(Long teamSeq, String path, HttpServletRequest request, HttpServletResponse response) {
+        Route route = route(teamSeq);
+        if (route == null) {
+            notRunning.incrementAndGet();
+            boolean exists = teamRepository.findByTeamSeq(teamSeq).isPresent();
+            sendError(response, exists ? HttpServletResponse.SC_SERVICE_UNAVAILABLE : HttpServletResponse.SC_NOT_FOUND,
+                    exists ? "preview server is not running" : "no such team");
+            return;
+        }
+        containerReaper.touch(teamSeq);
+
+        String target = path + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        List<String[]> headers = requestHeaders(request);
+        long contentLength = requestLength(request);
+        UpstreamClient.Response upstream;
+        try {
+            InputStream body = contentLength == 0 ? null : request.getInputStream();
+            try {
+                upstream = client.execute(route.host, route.port, request.getMethod(), target, headers,
+                        contentLength, body);
+            } catch (ConnectException e) {
+                // 연결 전이므로 body를 읽지 않았음, 주소를 다시 확인해 재시도
+                routes.remove(teamSeq);
+                client.evict(route.host, route.port);
+                route = route(teamSeq);
+                if (route == null) {
+                    throw e;
+                }
+                upstream = client.execute(route.host, route.port, request.getMethod(), target, headers,
+                        contentLength, body);
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            sendError(response, HttpServletResponse.SC_BAD_GATEWAY, "preview server did not respond");
+            return;
+        }
+
+        try {
+            response.setStatus(upstream.getStatus());
+            for (String[] header : upstream.getHeaders()) {
+                String name = header[0].toLowerCase();
+                if (name.equals("content-length")) {
+                    response.setContentLengthLong(Long.parseLong(header[1]));
+                } else if (name.equals("set-cookie") && isSessionCookie(header[1])) {
+                    // 팀 서버가 서비스 세션 cookie를 심거나 지우지 못하게 함
+                    continue;
+                } else if (!HOP_BY_HOP.contains(name)) {
+                    response.addHeader(header[0], header[1]);
+                }
+            }
+            InputStream in = upstream.getBody();
+            OutputStream out = response.getOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                out.write(buf, 0, read);
+                if (in.available() == 0) {
+                    // 스트리밍 응답(SSE 등)이 바로 전달되도록 읽을 것이 없으면 내보냄
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException | NumberFormatException e) {
+            // 브라우저가 연결을 끊었거나 서버 응답이 끊김, 연결은 재사용하지 않음
+            failures.incrementAndGet();
+        } finally {
+            upstream.close();
+        }
+    }
+
+    /**
+     * 팀 서버의 주소를 찾는 내부 로직 (최근에 찾은 주소는 routeTtl 동안 재사용)
+     *
+     * @param teamSeq 팀의 sequence
+     * @return 팀 서버 주소, 실행 중인 서버가 없으면 null
+     */
+    private Route route(Long teamSeq) {
+        Route cached = routes.get(teamSeq);
+        if (cached != null && System.currentTimeMillis() - cached.resolvedAt < routeTtl) {
+            return cached;
+        }
+        Route route = resolve(teamSeq);
+        if (route == null) {
+            routes.remove(teamSeq);
+        } else {
+            routes.put(teamSeq, route);
+        }
+        return route;
+    }
+
+    /**
+     * 실행 중인 팀 서버 컨테이너의 주소를 찾는 내부 로직
+     * Pool에서 빌린 컨테이너를 먼저 확인하고, 없으면 팀 이름으로 만든 컨테이너를 확인한다.
+     *
+     * @param teamSeq 팀의 sequence
+     * @return 팀 서버 주소, 실행 중인 서버가 없으면 null
+     */
+    private Route resolve(Long teamSeq) {
+        for (PooledContainer pooled : containerPool.leasedBy(teamSeq)) {
+            if (pooled.getType() != 1) {
+                return locate(pooled.getName(), ContainerPool.insidePort(pooled.getType()));
+            }
+        }
+        Optional<TeamEntity> team = teamRepository.findByTeamSeq(teamSeq);
+        if (!team.isPresent()) {
+            return null;
+        }
+        int type = projectType(teamSeq, team.get());
+        if (type < 2) {
+            return null;
+        }
+        String container = "crowstudio_" + team.get().getTeamName().toLowerCase().replaceAll(" ", "") + "_" + teamSeq;
+        return locate(container, ContainerPool.insidePort(type));
+    }
+
+    /**
+     * 컨테이너의 bridge network 주소를 찾는 내부 로직 (없으면 외부에 연 포트로 연결)
+     *
+     * @param container  컨테이너 이름
+     * @param insidePort 컨테이너 안의 서버 포트
+     * @return 서버 주소, 컨테이너가 실행 중이 아니면 null
+     */
+    private Route locate(String container, String insidePort) {
+        try {
+            ContainerInspectDto inspect = dockerEngineClient.inspectContainer(container);
+            if (inspect == null || inspect.getState() == null || !inspect.getState().isRunning()) {
+                return null;
+            }
+            String ip = inspect.getNetworkSettings() == null ? null : inspect.getNetworkSettings().getIpAddress();
+            if (ip != null && !ip.isEmpty()) {
+                return new Route(ip, Integer.parseInt(insidePort));
+            }
+            String hostPort = dockerEngineClient.hostPort(container, insidePort);
+            return hostPort == null ? null : new Route(dockerHost, Integer.parseInt(hostPort));
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private int projectType(Long teamSeq, TeamEntity team) {
+        try {
+            return Integer.parseInt(compileService.findProjectTypeService(teamSeq + "/" + team.getTeamName())
+                    .get("type"));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 브라우저의 요청 헤더 중 다음 서버로 보낼 헤더를 고르고, 전달 정보(X-Forwarded-*)를 붙이는 내부 로직
+     * Host는 브라우저가 보낸 값을 그대로 전달해 ALLOWED_HOSTS 등의 검사가 기존과 같게 동작하도록 한다.
+     * Authorization은 넘기지 않고, Cookie는 서비스 세션 cookie를 뺀 팀 서버의 cookie만 넘긴다.
+     */
+    private List<String[]> requestHeaders(HttpServletRequest request) {
+        List<String[]> headers = new ArrayList<>();
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            String lower = name.toLowerCase();
+            if (HOP_BY_HOP.contains(lower) || lower.equals("authorization")) {
+                continue;
+            }
+            Enumeration<String> values = request.getHeaders(name);
+            while (values.hasMoreElements()) {
+                String value = values.nextElement();
+                if (lower.equals("cookie")) {
+                    value = withoutSessionCookie(value);
+                    if (value.isEmpty()) {
+                        continue;
+                    }
+                }
+                headers.add(new String[]{name, value});
+            }
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        headers.removeIf(header -> header[0].equalsIgnoreCase("x-forwarded-for"));
+        headers.add(new String[]{"X-Forwarded-For",
+                forwardedFor == null ? request.getRemoteAddr() : forwardedFor + ", " + request.getRemoteAddr()});
+        if (request.getHeader("X-Forwarded-Proto") == null) {
+            headers.add(new String[]{"X-Forwarded-Proto", request.getScheme()});
+        }
+        return headers;
+    }
+
+    /**
+     * Cookie 헤더 값에서 서비스 세션 cookie를 빼는 내부 로직
+     *
+     * @param cookie 브라우저가 보낸 Cookie 헤더 값 ("a=1; b=2")
+     * @return 남은 cookie들, 없으면 빈 문자열
+     */
+    private String withoutSessionCookie(String cookie) {
+        StringBuilder kept = new StringBuilder();
+        for (String pair : cookie.split(";")) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty() || isSessionCookie(trimmed)) {
+                continue;
+            }
+            if (kept.length() > 0) {
+                kept.append("; ");
+            }
+            kept.append(trimmed);
+        }
+        return kept.toString();
+    }
+
+    /**
+     * "이름=값..." 형태의 cookie가 서비스 세션 cookie인지 확인하는 내부 로직
+     */
+    private boolean isSessionCookie(String cookie) {
+        int equals = cookie.indexOf('=');
+        String name = (equals < 0 ? cookie : cookie.substring(0, equals)).trim();
+        return name.equalsIgnoreCase(sessionCookie);
+    }
+
+    /**
+     * 요청 body 길이 (0이면 body 없음, -1이면 길이를 모르는 chunked body)
+     */
+    private static long requestLength(HttpServletRequest request) {
+        long length = request.getContentLengthLong();
+        if (length >= 0) {
+            return length;
+        }
+        return request.getHeader("Transfer-Encoding") != null ? -1 : 0;
+    }
+
+    private static void sendError(HttpServletResponse response, int status, String message) {
+        try {
+            if (!response.isCommitted()) {
+                response.sendError(status, message);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // 브라우저가 이미 연결을 끊음
+        }
+    }
+
+    /**
+     * 팀 서버 주소와 확인한 시각
+     */
+    private static class Route {
+        private final String host;
+        private final int port;
+        private final long resolvedAt = System.currentTimeMillis();
+
+        private Route(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.goldencrow.compile.preview;
+
+import com.example.goldencrow.compile.docker.HttpStreams;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 팀 서버 컨테이너와 HTTP/1.1로 통신하는 클라이언트
+ * <p>
+ * 컨테이너(host:port)마다 keep-alive 연결을 Pool에 보관해 재사용하고, 요청과 응답 body는 메모리에 모으지 않고 흘려보낸다.
+ * 개발 서버는 유휴 연결을 몇 초 뒤 닫으므로 keepAlive보다 오래 쉰 연결은 버린다.
+ */
+class UpstreamClient {
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxIdle;
+    private final long keepAlive;
+    private final Map<String, ConcurrentLinkedDeque<IdleSocket>> idle = new ConcurrentHashMap<>();
+
+    final AtomicLong opened = new AtomicLong();
+    final AtomicLong reused = new AtomicLong();
+    final AtomicLong retried = new AtomicLong();
+
+    /**
+     * UpstreamClient 생성자
+     *
+     * @param connectTimeout 연결 제한 시간 (ms)
+     * @param readTimeout    응답 대기 제한 시간 (ms)
+     * @param maxIdle        컨테이너마다 보관할 최대 유휴 연결 수
+     * @param keepAlive      유휴 연결을 재사용할 최대 시간 (ms)
+     */
+    UpstreamClient(int connectTimeout, int readTimeout, int maxIdle, long keepAlive) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxIdle = maxIdle;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * 요청을 보내고 응답 헤더까지 읽는 내부 로직
+     * Pool에서 꺼낸 연결이 이미 끊겨 있었고 요청 body를 아직 읽지 않았다면 새 연결로 한 번 더 보낸다.
+     *
+     * @param host          컨테이너 주소
+     * @param port          컨테이너 서버 포트
+     * @param method        HTTP method
+     * @param target        요청 경로 (query 포함)
+     * @param headers       전달할 요청 헤더 (이름, 값)
+     * @param contentLength 요청 body 길이 (0이면 body 없음, -1이면 chunked로 전송)
+     * @param body          요청 body (없으면 null)
+     * @return 응답 (호출한 쪽에서 반드시 close)
+     * @throws IOException 연결 실패, 응답 형식 오류
+     */
+    Response execute(String host, int port, String method, String target, List<String[]> headers,
+                     long contentLength, InputStream body) throws IOException {
+        String route = host + ":" + port;
+        CountingInputStream counted = new CountingInputStream(body);
+        Socket socket = pollIdle(route);
+        if (socket != null) {
+            try {
+                Response response = exchange(route, socket, method, target, headers, contentLength, counted);
+                reused.incrementAndGet();
+                return response;
+            } catch (StaleConnectionException e) {
+                closeQuietly(socket);
+                if (counted.count > 0) {
+                    throw e;
+                }
+                retried.incrementAndGet();
+            }
+        }
+        socket = connect(host, port);
+        try {
+            return exchange(route, socket, method, target, headers, contentLength, counted);
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * 컨테이너가 바뀌었거나 멈춘 경우 보관 중인 연결을 닫는 내부 로직
+     *
+     * @param host 컨테이너 주소
+     * @param port 컨테이너 서버 포트
+     */
+    void evict(String host, int port) {
+        ConcurrentLinkedDeque<IdleSocket> sockets = idle.remove(host + ":" + port);
+        if (sockets == null) {
+            return;
+        }
+        IdleSocket socket;
+        while ((socket = sockets.pollFirst()) != null) {
+            closeQuietly(socket.socket);
+        }
+    }
+
+    /**
+     * 보관 중인 유휴 연결 수
+     */
+    int idleConnections() {
+        int count = 0;
+        for (ConcurrentLinkedDeque<IdleSocket> sockets : idle.values()) {
+            count += sockets.size();
+        }
+        return count;
+    }
+
+    /**
+     * 모든 유휴 연결을 닫는 내부 로직
+     */
+    void close() {
+        for (String route : new ArrayList<>(idle.keySet())) {
+            ConcurrentLinkedDeque<IdleSocket> sockets = idle.remove(route);
+            IdleSocket socket;
+            while (sockets != null && (socket = sockets.pollFirst()) != null) {
+                closeQuietly(socket.socket);
+            }
+        }
+    }
+
+    /**
+     * keepAlive 안에 반납된 연결을 꺼내는 내부 로직 (오래된 연결은 닫음)
+     */
+    private Socket pollIdle(String route) {
+        ConcurrentLinkedDeque<IdleSocket> sockets = idle.get(route);
+        if (sockets == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        IdleSocket socket;
+        while ((socket = sockets.pollFirst()) != null) {
+            if (now - socket.releasedAt <= keepAlive && !socket.socket.isClosed()) {
+                return socket.socket;
+            }
+            closeQuietly(socket.socket);
+        }
+        return null;
+    }
+
+    private Socket connect(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), connectTimeout);
+        opened.incrementAndGet();
+        return socket;
+    }
+
+    /**
+     * 하나의 연결 위에서 요청 헤더와 body를 쓰고 응답 헤더를 읽는 내부 로직
+     */
+    private Response exchange(String route, Socket socket, String method, String target, List<String[]> headers,
+                              long contentLength, InputStream body) throws IOException {
+        try {
+            socket.setSoTimeout(readTimeout);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+            StringBuilder head = new StringBuilder();
+            head.append(method).append(' ').append(target).append(" HTTP/1.1\r\n");
+            for (String[] header : headers) {
+                head.append(header[0]).append(": ").append(header[1]).append("\r\n");
+            }
+            if (contentLength < 0) {
+                head.append("Transfer-Encoding: chunked\r\n");
+            } else if (contentLength > 0 || "POST".equals(method) || "PUT".equals(method)) {
+                head.append("Content-Length: ").append(contentLength).append("\r\n");
+            }
+            head.append("\r\n");
+            out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+            if (contentLength < 0) {
+                HttpStreams.ChunkedOutputStream chunked = new HttpStreams.ChunkedOutputStream(out);
+                copy(body, chunked, Long.MAX_VALUE);
+                chunked.finish();
+            } else if (contentLength > 0) {
+                copy(body, out, contentLength);
+            }
+            out.flush();
+            return readResponse(route, socket, method);
+        } catch (StaleConnectionException e) {
+            throw e;
+        } catch (SocketException e) {
+            // Pool에 있던 연결을 서버가 먼저 닫은 경우
+            throw new StaleConnectionException(e);
+        }
+    }
+
+    /**
+     * 상태 줄과 헤더를 읽고, body 길이 방식에 맞는 스트림을 붙이는 내부 로직
+     * 100 Continue 같은 중간 응답은 건너뛴다.
+     */
+    private Response readResponse(String route, Socket socket, String method) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream(), 8192);
+        while (true) {
+            String statusLine = HttpStreams.readLine(in);
+            if (statusLine == null) {
+                throw new StaleConnectionException(new EOFException("connection closed before response"));
+            }
+            String[] parts = statusLine.split(" ", 3);
+            if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+                throw new IOException("malformed status line: " + statusLine);
+            }
+            int status = Integer.parseInt(parts[1]);
+
+            List<String[]> headers = new ArrayList<>();
+            String connection = null;
+            String transferEncoding = null;
+            String contentLength = null;
+            String line;
+            while ((line = HttpStreams.readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                String name = line.substring(0, colon).trim();
+                String value = line.substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("connection")) {
+                    connection = value;
+                } else if (name.equalsIgnoreCase("transfer-encoding")) {
+                    transferEncoding = value;
+                } else if (name.equalsIgnoreCase("content-length")) {
+                    contentLength = value;
+                }
+                headers.add(new String[]{name, value});
+            }
+            if (status / 100 == 1) {
+                continue;
+            }
+
+            boolean reusable = !"close".equalsIgnoreCase(connection) && !parts[0].equals("HTTP/1.0");
+            InputStream body;
+            if ("HEAD".equals(method) || status == 204 || status == 304) {
+                body = new HttpStreams.FixedLengthInputStream(in, 0);
+            } else if ("chunked".equalsIgnoreCase(transferEncoding)) {
+                body = new HttpStreams.ChunkedInputStream(in);
+            } else if (contentLength != null) {
+                body = new HttpStreams.FixedLengthInputStream(in, Long.parseLong(contentLength));
+            } else {
+                // 연결이 닫힐 때까지가 body
+                body = in;
+                reusable = false;
+            }
+            return new Response(status, headers, body, route, socket, reusable);
+        }
+    }
+
+    /**
+     * 응답이 끝난 연결을 Pool에 돌려주거나 닫는 내부 로직
+     */
+    private void release(String route, Socket socket, boolean reusable) {
+        if (reusable && !socket.isClosed()) {
+            ConcurrentLinkedDeque<IdleSocket> sockets = idle.computeIfAbsent(route,
+                    key -> new ConcurrentLinkedDeque<>());
+            if (sockets.size() < maxIdle) {
+                sockets.offerFirst(new IdleSocket(socket));
+                return;
+            }
+        }
+        closeQuietly(socket);
+    }
+
+    private static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buf = new byte[8192];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buf, 0, (int) Math.min(buf.length, remaining));
+            if (read == -1) {
+                if (length == Long.MAX_VALUE) {
+                    return;
+                }
+                throw new EOFException("request body ended early");
+            }
+            out.write(buf, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 이미 끊긴 연결
+        }
+    }
+
+    /**
+     * 팀 서버의 HTTP 응답
+     * body를 끝까지 읽고 닫으면 연결은 Pool로 돌아가고, 중간에 닫으면 연결을 끊는다.
+     */
+    class Response implements Closeable {
+        private final int status;
+        private final List<String[]> headers;
+        private final InputStream body;
+        private final String route;
+        private final Socket socket;
+        private final boolean reusable;
+        private boolean closed = false;
+
+        private Response(int status, List<String[]> headers, InputStream body, String route, Socket socket,
+                         boolean reusable) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.route = route;
+            this.socket = socket;
+            this.reusable = reusable;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        /**
+         * 응답 헤더 목록 (이름, 값), 같은 이름의 헤더가 여러 번 올 수 있다
+         */
+        List<String[]> getHeaders() {
+            return headers;
+        }
+
+        InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            boolean finished = reusable && body instanceof HttpStreams.BodyStream
+                    && ((HttpStreams.BodyStream) body).isFinished();
+            release(route, socket, finished);
+        }
+    }
+
+    /**
+     * Pool에 보관 중인 연결과 반납 시각
+     */
+    private static class IdleSocket {
+        private final Socket socket;
+        private final long releasedAt = System.currentTimeMillis();
+
+        private IdleSocket(Socket socket) {
+            this.socket = socket;
+        }
+    }
+
+    /**
+     * 요청 body를 얼마나 읽었는지 세는 스트림 (읽기 시작한 요청은 다시 보낼 수 없음)
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int read = super.read(buf, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Pool에서 꺼낸 연결이 이미 끊겨 있어 다시 보내야 하는 경우
+     */
+    private static class StaleConnectionException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        StaleConnectionException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -20,14 +20,17 @@ import static com.example.goldencrow.common.Constants.*;
 public class EditorController {
 
     public EditorService editorService;
+    private final LintPushService lintPushService;
 
     /**
      * EditorController 생성자
      *
-     * @param editorService editor 관련 로직을 관리하는 Service
+     * @param editorService   editor 관련 로직을 관리하는 Service
+     * @param lintPushService 린트 결과를 WebSocket으로 보내는 Service
      */
-    public EditorController(EditorService editorService) {
+    public EditorController(EditorService editorService, LintPushService lintPushService) {
         this.editorService = editorService;
+        this.lintPushService = lintPushService;
     }
 
     /**
@@ -58,6 +61,33 @@ public class EditorController {
 
     }
 
+    /**
+     * 코드 포맷팅 API (결과 조회를 따로 하지 않음)
+     * access token 필요
+     *
+     * @param language 해당 파일의 언어 종류 ex. python, text
+     * @param req      "text" 을 key로 가지는 Map<String, String>
+     * @return 포맷팅한 결과 코드, 성패에 따른 result 반환
+     * @status 200, 400, 401
+     */
+    @PostMapping("/format/inline/{language}")
+    public ResponseEntity<Map<String, String>> inlineFormatPost(@PathVariable String language,
+                                                                @RequestBody Map<String, String> req) {
+        if (req.containsKey("text")) {
+            String code = req.get("text");
+            Map<String, String> res = editorService.formatCodeService(language, code);
+            if (res.get("result").equals(SUCCESS)) {
+                return new ResponseEntity<>(res, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+        } else {
+            Map<String, String> res = new HashMap<>();
+            res.put("result", BAD_REQ);
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * 포맷팅 결과 조회 API
      * access token 필요
@@ -119,4 +149,56 @@ public class EditorController {
             return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
         }
     }
+
+    /**
+     * 바뀐 줄 범위가 속한 함수, 클래스만 다시 린트하는 API
+     * 바뀌지 않은 블록은 이전에 린트한 결과를 다시 사용한다.
+     * access token 필요
+     *
+     * @param language 해당 파일의 언어 종류 ex. python
+     * @param req      "text", "startLine", "endLine"(바뀐 줄 범위, 생략 가능)을 key로 가진 Map<String, String>
+     * @return 줄 번호, 열, 메시지 Id를 담은 diagnostics, 다시 린트한 블록 수, 성패에 따른 result 반환
+     * @status 200, 400, 401, 404
+     */
+    @PostMapping("/lint/incremental/{language}")
+    public ResponseEntity<Map<String, Object>> incrementalLintPost(@PathVariable String language,
+                                                                   @RequestBody Map<String, String> req) {
+        Map<String, Object> res;
+        try {
+            if (!req.containsKey("text")) {
+                throw new IllegalArgumentException();
+            }
+            String code = req.get("text");
+            int startLine = Integer.parseInt(req.getOrDefault("startLine", "0"));
+            int endLine = Integer.parseInt(req.getOrDefault("endLine", String.valueOf(startLine)));
+            res = editorService.lintIncrementalService(language, code, startLine, endLine);
+        } catch (IllegalArgumentException e) {
+            res = new HashMap<>();
+            res.put("result", BAD_REQ);
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+        String result = (String) res.get("result");
+        switch (result) {
+            case SUCCESS:
+                return new ResponseEntity<>(res, HttpStatus.OK);
+            case NO_SUCH:
+                return new ResponseEntity<>(res, HttpStatus.NOT_FOUND);
+            default:
+                return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 포맷팅, 린트 실행 지표 조회 API
+     * access token 필요
+     *
+     * @return 워커 수, 대기열 길이, 처리 수, batch 크기, 지연 시간, 캐시 적중 수, 린트 결과 전송 수 반환
+     * @status 200, 401
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> editorMetricsGet() {
+        Map<String, Object> res = editorService.metricsService();
+        res.put("push", lintPushService.metrics());
+        return new ResponseEntity<>(res, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,161 @@
+package com.example.goldencrow.editor;
+
+import com.example.goldencrow.common.ProcessResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 같은 코드의 포맷팅, 린트 결과를 다시 계산하지 않도록 보관하는 LRU 캐시
+ * <p>
+ * 저장, 포커스, 팀원 입장 때마다 같은 내용이 다시 요청되므로,
+ * (도구, 도구 버전, 설정, 코드)의 SHA-256 값을 key로 black의 출력과 pylint의 결과를 보관한다.
+ * 보관한 결과의 크기 합이 max-bytes를 넘거나 개수가 max-entries를 넘으면 가장 오래 쓰지 않은 결과부터 버린다.
+ */
+@Component
+public class EditorResultCache {
+    /**
+     * 결과 하나를 보관하는 데 드는 대략적인 고정 크기 (key, Map entry, 객체 header)
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final LinkedHashMap<String, ProcessResult> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * EditorResultCache 생성자
+     *
+     * @param enabled    캐시 사용 여부
+     * @param maxBytes   보관할 결과의 최대 크기 합 (byte)
+     * @param maxEntries 보관할 최대 결과 수
+     */
+    public EditorResultCache(@Value("${editor.cache.enabled:true}") boolean enabled,
+                             @Value("${editor.cache.max-bytes:33554432}") long maxBytes,
+                             @Value("${editor.cache.max-entries:4096}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 결과를 찾을 key를 만드는 내부 로직
+     *
+     * @param tool    black 또는 pylint
+     * @param version 도구 버전 (알 수 없으면 null)
+     * @param config  결과에 영향을 주는 설정 (명령어 인자 등)
+     * @param code    처리할 코드
+     * @return SHA-256 hex 문자열
+     */
+    public static String key(String tool, String version, String config, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{tool, version == null ? "" : version, config, code}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                // 구분자가 없으면 ("ab", "c")와 ("a", "bc")가 같은 key가 됨
+                digest.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 보관한 결과를 찾는 내부 로직
+     *
+     * @param key key()로 만든 key
+     * @return 보관한 결과, 없으면 null
+     */
+    public ProcessResult get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        ProcessResult result;
+        synchronized (this) {
+            result = entries.get(key);
+        }
+        if (result == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * 결과를 보관하는 내부 로직
+     * 실행하지 못했거나, 시간 초과, 출력이 잘린 결과는 다시 실행하면 달라질 수 있으므로 보관하지 않는다.
+     *
+     * @param key    key()로 만든 key
+     * @param result 실행 결과
+     */
+    public void put(String key, ProcessResult result) {
+        if (!enabled || !result.isStarted() || result.isTimedOut() || result.isTruncated()) {
+            return;
+        }
+        long size = sizeOf(result);
+        if (size > maxBytes) {
+            return;
+        }
+        // 다시 꺼낼 때는 기다리거나 실행한 시간이 없음
+        ProcessResult stored = new ProcessResult(result.getExitCode(), result.getOutput(), false, false,
+                null, 0, 0);
+        synchronized (this) {
+            ProcessResult previous = entries.put(key, stored);
+            if (previous != null) {
+                bytes -= sizeOf(previous);
+            }
+            bytes += size;
+            Iterator<ProcessResult> eldest = entries.values().iterator();
+            while ((bytes > maxBytes || entries.size() > maxEntries) && eldest.hasNext()) {
+                bytes -= sizeOf(eldest.next());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 보관한 결과 수, 크기, 적중 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public synchronized Map<String, Object> metrics() {
+        long hit = hits.get();
+        long total = hit + misses.get();
+        Map<String, Object> res = new HashMap<>();
+        res.put("enabled", enabled);
+        res.put("entries", entries.size());
+        res.put("bytes", bytes);
+        res.put("maxBytes", maxBytes);
+        res.put("maxEntries", maxEntries);
+        res.put("hits", hit);
+        res.put("misses", misses.get());
+        res.put("hitRate", total == 0 ? 0 : (double) hit / total);
+        res.put("evictions", evictions.get());
+        return res;
+    }
+
+    private static long sizeOf(ProcessResult result) {
+        return ENTRY_OVERHEAD + 2L * result.getOutput().length();
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.goldencrow.editor;
 
+import com.example.goldencrow.common.CommandClass;
+import com.example.goldencrow.common.ProcessExecutor;
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.editor.dto.LintDiagnosticDto;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -7,6 +11,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.example.goldencrow.common.Constants.*;
 
@@ -17,6 +24,40 @@ import static com.example.goldencrow.common.Constants.*;
 public class EditorService {
     public static final String PATH = BASE_URL + "temp/";
 
+    /**
+     * 마지막으로 만든 포맷팅 temp 파일 이름의 시간값 (같은 ms에 요청이 와도 이름이 겹치지 않도록 1씩 증가)
+     */
+    private static final AtomicLong LAST_FORMAT = new AtomicLong();
+
+    /**
+     * pylint 실행 인자
+     * missing-module-docstring, missing-final-newline 오류는 잡지 않고, 결과는 줄:열:Id:이름:내용 형식으로 출력
+     */
+    private static final String[] LINT_ARGS = {
+            "--disable=missing-module-docstring,missing-final-newline",
+            "--msg-template={line}:{column}:{msg_id}:{symbol}:{msg}",
+            "--score=n",
+            "--from-stdin", "lint.py"};
+    private static final Pattern DIAGNOSTIC = Pattern.compile("^(\\d+):(\\d+):([A-Z]\\d{4}):([\\w-]+):(.*)$");
+
+    private final ProcessExecutor processExecutor;
+    private final EditorWorkerPool editorWorkerPool;
+    private final EditorResultCache editorResultCache;
+
+    /**
+     * EditorService 생성자
+     *
+     * @param processExecutor   워커를 쓸 수 없을 때 black, pylint를 실행하는 공용 실행기
+     * @param editorWorkerPool  black, pylint를 import 해 둔 워커 프로세스 Pool
+     * @param editorResultCache 같은 코드의 포맷팅, 린트 결과를 보관하는 캐시
+     */
+    public EditorService(ProcessExecutor processExecutor, EditorWorkerPool editorWorkerPool,
+                         EditorResultCache editorResultCache) {
+        this.processExecutor = processExecutor;
+        this.editorWorkerPool = editorWorkerPool;
+        this.editorResultCache = editorResultCache;
+    }
+
     /**
      * 포맷팅을 처리하는 내부 로직
      *
@@ -25,7 +66,7 @@ public class EditorService {
      * @return 포맷팅 처리를 한 temp 파일의 제목, 성패에 따른 result 반환
      */
     public Map<String, String> formatService(String language, String code) {
-        long now = new Date().getTime();
+        long now = LAST_FORMAT.accumulateAndGet(new Date().getTime(), (last, time) -> Math.max(last + 1, time));
         Map<String, String> serviceRes = new HashMap<>();
         String type;
         // 해당 파일의 언어 확인
@@ -39,25 +80,25 @@ public class EditorService {
         }
 
         try {
+            // Black 작동 (같은 코드를 포맷팅한 적이 있으면 보관한 결과를 사용)
+            ProcessResult formatted = runToolOnCode("black", code, "-q", "-");
+            if (!formatted.isStarted()) {
+                serviceRes.put("result", UNKNOWN);
+                return serviceRes;
+            }
+
             // 현재 시간을 활용해 temp 파일명
             String name = "format" + now + type;
             // temp 파일 생성
             File file = new File(PATH + name);
             FileOutputStream ffw = new FileOutputStream(file);
             PrintWriter writer = new PrintWriter(ffw);
-            // temp 파일에 code를 입력
-            writer.print(code);
+            // temp 파일에 포맷팅한 code를 입력 (black이 코드를 읽지 못한 경우 원래 code)
+            writer.print(formatted.isSuccess() ? formatted.getOutput() : code);
 
             // FileWriter 닫기
             writer.flush();
             writer.close();
-
-            // ubuntu에서 포맷팅을 위해 black을 실행시키는 명령어
-            String command = "black " + PATH + name;
-
-            // Black 작동
-            Process p = Runtime.getRuntime().exec(command);
-            p.waitFor();
             serviceRes.put("result", SUCCESS);
             serviceRes.put("data", now + "");
         } catch (Exception e) {
@@ -113,66 +154,272 @@ public class EditorService {
         return serviceRes;
     }
 
+    /**
+     * 파일을 거치지 않고 코드를 바로 포맷팅하는 내부 로직
+     * formatService, formatReadService를 한 번의 요청으로 처리하며, black이 코드를 읽지 못하면 원래 코드를 반환한다.
+     *
+     * @param language 해당 파일의 언어 종류 ex. python, text
+     * @param code     해당 파일의 내용
+     * @return 포맷팅한 결과 코드, 성패에 따른 result 반환
+     */
+    public Map<String, String> formatCodeService(String language, String code) {
+        Map<String, String> serviceRes = new HashMap<>();
+        ProcessResult formatted = runToolOnCode("black", code, "-q", "-");
+        if (!formatted.isStarted()) {
+            serviceRes.put("result", UNKNOWN);
+            return serviceRes;
+        }
+        serviceRes.put("result", SUCCESS);
+        serviceRes.put("data", formatted.isSuccess() ? formatted.getOutput() : code);
+        return serviceRes;
+    }
+
     /**
      * 린트를 처리하는 내부 로직
+     * 코드는 파일로 쓰지 않고 pylint 워커에 바로 넘기므로 동시에 요청이 와도 서로의 코드를 덮어쓰지 않는다.
+     * index는 이전과 같이 맨 위에 pylint 설정 줄이 있는 것으로 본 줄 번호(실제 줄 번호 + 1)이고,
+     * diagnostics는 사용자의 코드 기준 줄 번호와 열, 메시지 Id를 담는다.
      *
      * @param language 해당 파일의 언어 종류 ex. python
      * @param code     해당 파일의 내용
-     * @return
+     * @return 린트한 결과를 해당 index와 관련 내용, diagnostics로 반환, 성패에 따른 result 반환
      */
     public Map<String, Object> lintService(String language, String code) {
         Map<String, Object> serviceRes = new HashMap<>();
-        String filePath;
-        if (language.equals("python")) {
-            try {
-                File file = new File(PATH + "lint.py");
-                FileOutputStream lfw = new FileOutputStream(file);
-                PrintWriter writer = new PrintWriter(lfw);
-                // missing-module-docstring, missing-final-newline 오류는 잡지 않도록 조정
-                writer.println("# pylint: disable=C0114, C0304");
-                // temp.py에 code를 입력
-                writer.print(code);
-
-                // FileWriter 닫기
-                writer.flush();
-                writer.close();
-
-                filePath = PATH + "lint.py";
-                String command = "pylint " + filePath;
-                // pylint를 활용해 lint 명령어 실행
-                Process process = Runtime.getRuntime().exec(command);
-                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                String line;
-                // 결과에서 index값을 저장할 indexList, 결과값을 저장할 responseList 저장
-                LinkedList<String> responseList = new LinkedList<>();
-                ArrayList<Integer> indexList = new ArrayList<>();
-                while ((line = reader.readLine()) != null) {
-                    if (line.contains("lint.py")) {
-                        String[] letters = line.split(":");
-                        int number = Integer.parseInt(letters[1]);
-                        indexList.add(number);
-                        responseList.add(letters[4].trim());
-                    }
-                }
-                reader.close();
-                serviceRes.put("data", responseList);
-                serviceRes.put("index", indexList);
-            } catch (Exception e) {
-                serviceRes.put("result", NO_SUCH);
-                return serviceRes;
-            }
-        } else {
+        if (!language.equals("python")) {
             serviceRes.put("result", WRONG);
             return serviceRes;
         }
+        ProcessResult linted = runToolOnCode("pylint", code, LINT_ARGS);
+        if (!linted.isStarted()) {
+            serviceRes.put("result", NO_SUCH);
+            return serviceRes;
+        }
+        List<LintDiagnosticDto> diagnostics = parseDiagnostics(linted.getOutput(), 0);
 
-        Path path = Paths.get(filePath);
-        try {
-            Files.deleteIfExists(path);
-            serviceRes.put("result", SUCCESS);
-        } catch (IOException ioe) {
-            serviceRes.put("result", UNKNOWN);
+        // 결과에서 index값을 저장할 indexList, 결과값을 저장할 responseList 저장
+        LinkedList<String> responseList = new LinkedList<>();
+        ArrayList<Integer> indexList = new ArrayList<>();
+        for (LintDiagnosticDto diagnostic : diagnostics) {
+            indexList.add(diagnostic.getLine() + 1);
+            responseList.add(diagnostic.getMessage() + " (" + diagnostic.getSymbol() + ")");
+        }
+        serviceRes.put("data", responseList);
+        serviceRes.put("index", indexList);
+        serviceRes.put("diagnostics", diagnostics);
+        serviceRes.put("result", SUCCESS);
+        return serviceRes;
+    }
+
+    /**
+     * 바뀐 줄 범위가 속한 블록만 다시 린트하는 내부 로직
+     * 코드를 최상위 블록(함수, 클래스 정의 / 그 외 모듈 코드)으로 나누고,
+     * 바뀐 범위와 겹치거나 이전 결과가 캐시에 없는 정의 블록만 원래 코드로, 나머지 정의 블록은 stub으로 바꾼 코드를 한 번 린트한다.
+     * 정의 블록의 결과는 (다른 블록의 선언부, 블록 코드)를 key로, 모듈 코드 블록의 결과는 (모든 블록의 stub, 블록 코드)를 key로 보관해 다시 쓴다.
+     * 블록으로 나눌 수 없거나 stub으로 바꾼 코드에서 문법 오류가 나면 전체를 린트한다.
+     *
+     * @param language  해당 파일의 언어 종류 ex. python
+     * @param code      해당 파일의 내용
+     * @param startLine 바뀐 범위의 시작 줄 번호 (1부터 시작, 0 이하면 캐시에 없는 블록만 다시 린트)
+     * @param endLine   바뀐 범위의 끝 줄 번호
+     * @return 줄, 열 순서로 정렬한 diagnostics, 전체 블록 수와 다시 린트한 블록 수, 성패에 따른 result 반환
+     */
+    public Map<String, Object> lintIncrementalService(String language, String code, int startLine, int endLine) {
+        Map<String, Object> serviceRes = new HashMap<>();
+        if (!language.equals("python")) {
+            serviceRes.put("result", WRONG);
+            return serviceRes;
         }
+        List<PythonBlock> blocks = PythonBlock.split(code);
+        List<LintDiagnosticDto> diagnostics = blocks == null ? null : lintBlocks(blocks, startLine, endLine, serviceRes);
+        if (diagnostics == null) {
+            ProcessResult linted = runToolOnCode("pylint", code, LINT_ARGS);
+            if (!linted.isStarted()) {
+                serviceRes.put("result", NO_SUCH);
+                return serviceRes;
+            }
+            diagnostics = parseDiagnostics(linted.getOutput(), 0);
+            serviceRes.put("blocks", 1);
+            serviceRes.put("relinted", 1);
+        }
+        diagnostics.sort(Comparator.comparingInt(LintDiagnosticDto::getLine)
+                .thenComparingInt(LintDiagnosticDto::getColumn));
+        serviceRes.put("diagnostics", diagnostics);
+        serviceRes.put("result", SUCCESS);
         return serviceRes;
     }
+
+    /**
+     * 포맷팅, 린트 워커 Pool과 명령어 실행기의 지표를 반환하는 내부 로직
+     *
+     * @return "workers", "cache", "process"를 key로 가지는 지표 Map
+     */
+    public Map<String, Object> metricsService() {
+        Map<String, Object> serviceRes = new HashMap<>();
+        serviceRes.put("workers", editorWorkerPool.metrics());
+        serviceRes.put("cache", editorResultCache.metrics());
+        serviceRes.put("process", processExecutor.metrics().get(CommandClass.LINT.getKey()));
+        return serviceRes;
+    }
+
+    /**
+     * black, pylint에 코드를 stdin으로 넘겨 실행하는 내부 로직 (워커를 쓸 수 없으면 명령어로 실행)
+     * 출력이 곧 결과(포맷팅한 코드, 린트 결과)이므로 stderr는 합치지 않는다.
+     * 같은 도구, 버전, 인자, 코드로 실행한 결과가 캐시에 있으면 프로세스를 거치지 않고 바로 반환한다.
+     *
+     * @param tool black 또는 pylint
+     * @param code 처리할 코드
+     * @param args 명령어로 실행할 때의 인자 (마지막 인자는 stdin 표시, pylint는 결과에 표시될 파일 이름)
+     * @return 실행 결과 (black은 포맷팅한 코드, pylint는 린트 결과가 출력)
+     */
+    private ProcessResult runToolOnCode(String tool, String code, String... args) {
+        // 워커를 아직 띄우지 않아 버전을 모르면 설치된 명령어의 결과로 취급
+        String version = editorWorkerPool.version(tool);
+        String key = EditorResultCache.key(tool, version == null ? "cli" : version, String.join(" ", args), code);
+        ProcessResult cached = editorResultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 워커는 코드를 args 마지막 이름의 파일로 써서 검사하므로 stdin 표시는 넘기지 않음
+        List<String> workerArgs = new ArrayList<>(Arrays.asList(args));
+        workerArgs.remove("--from-stdin");
+        ProcessResult result = editorWorkerPool.runCode(tool, code, workerArgs.toArray(new String[0]));
+        if (EditorWorkerPool.UNAVAILABLE.equals(result.getError())) {
+            String[] command = new String[args.length + 1];
+            command[0] = tool;
+            System.arraycopy(args, 0, command, 1, args.length);
+            result = processExecutor.submit(CommandClass.LINT, command, null, false, code).join();
+        }
+        editorResultCache.put(key, result);
+        return result;
+    }
+
+    /**
+     * 블록 단위로 린트하고 결과를 보관하는 내부 로직
+     *
+     * @param blocks     코드를 나눈 블록
+     * @param startLine  바뀐 범위의 시작 줄 번호
+     * @param endLine    바뀐 범위의 끝 줄 번호
+     * @param serviceRes 블록 수와 다시 린트한 블록 수를 넣을 응답 Map
+     * @return 모든 블록의 diagnostics, 린트를 실행하지 못했거나 stub에서 문법 오류가 나면 null
+     */
+    private List<LintDiagnosticDto> lintBlocks(List<PythonBlock> blocks, int startLine, int endLine,
+                                               Map<String, Object> serviceRes) {
+        String version = editorWorkerPool.version("pylint");
+        String config = String.join(" ", LINT_ARGS);
+        StringBuilder headers = new StringBuilder();
+        StringBuilder stubs = new StringBuilder();
+        for (PythonBlock block : blocks) {
+            headers.append(block.getHeader()).append('\0');
+            for (String line : block.getStubLines()) {
+                if (!line.trim().isEmpty()) {
+                    stubs.append(line).append('\n');
+                }
+            }
+        }
+        // 블록마다 전체 선언부를 다시 hash 하지 않도록 context를 먼저 hash
+        String definitionContext = EditorResultCache.key("pylint-definitions", version, config, headers.toString());
+        String moduleContext = EditorResultCache.key("pylint-module", version, config, stubs.toString());
+
+        int size = blocks.size();
+        String[] keys = new String[size];
+        List<List<LintDiagnosticDto>> found = new ArrayList<>();
+        boolean[] affected = new boolean[size];
+        int relinted = 0;
+        for (int i = 0; i < size; i++) {
+            PythonBlock block = blocks.get(i);
+            // 정의 블록은 위치와 관계없이 같은 코드면 같은 결과, 모듈 코드 블록은 몇 번째 블록인지까지 구분
+            keys[i] = block.isDefinition()
+                    ? EditorResultCache.key("pylint-block", definitionContext, "", block.getText())
+                    : EditorResultCache.key("pylint-block", moduleContext, String.valueOf(i), block.getText());
+            ProcessResult cached = block.overlaps(startLine, endLine) ? null : editorResultCache.get(keys[i]);
+            found.add(cached == null ? null : parseDiagnostics(cached.getOutput(), block.getStart() - 1));
+            if (cached == null && block.isDefinition()) {
+                affected[i] = true;
+                relinted++;
+            }
+        }
+
+        boolean moduleMissed = false;
+        for (int i = 0; i < size; i++) {
+            moduleMissed |= !blocks.get(i).isDefinition() && found.get(i) == null;
+        }
+        if (relinted > 0 || moduleMissed) {
+            // 모듈 코드 블록의 결과는 정의 블록 본문에도 영향을 받으므로 린트를 하면 함께 갱신
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                PythonBlock block = blocks.get(i);
+                lines.addAll(affected[i] ? block.getLines() : block.getStubLines());
+            }
+            ProcessResult linted = runToolOnCode("pylint", String.join("\n", lines), LINT_ARGS);
+            if (!linted.isStarted()) {
+                return null;
+            }
+            List<LintDiagnosticDto> all = parseDiagnostics(linted.getOutput(), 0);
+            for (LintDiagnosticDto diagnostic : all) {
+                if (diagnostic.getSymbol().equals("syntax-error")) {
+                    return null;
+                }
+            }
+
+            int b = 0;
+            for (int i = 0; i < size; i++) {
+                PythonBlock block = blocks.get(i);
+                if (!affected[i] && block.isDefinition()) {
+                    continue;
+                }
+                List<LintDiagnosticDto> own = new ArrayList<>();
+                StringBuilder relative = new StringBuilder();
+                for (LintDiagnosticDto diagnostic : all) {
+                    if (diagnostic.getLine() >= block.getStart() && diagnostic.getLine() <= block.getEnd()) {
+                        own.add(diagnostic);
+                        relative.append(diagnostic.getLine() - block.getStart() + 1).append(':')
+                                .append(diagnostic.getColumn()).append(':')
+                                .append(diagnostic.getMsgId()).append(':')
+                                .append(diagnostic.getSymbol()).append(':')
+                                .append(diagnostic.getMessage()).append('\n');
+                    }
+                }
+                found.set(i, own);
+                editorResultCache.put(keys[i], new ProcessResult(0, relative.toString(), false, false, null, 0, 0));
+                if (!block.isDefinition()) {
+                    b++;
+                }
+            }
+            relinted += b;
+        }
+
+        List<LintDiagnosticDto> diagnostics = new ArrayList<>();
+        for (List<LintDiagnosticDto> own : found) {
+            diagnostics.addAll(own);
+        }
+        serviceRes.put("blocks", size);
+        serviceRes.put("relinted", relinted);
+        return diagnostics;
+    }
+
+    /**
+     * pylint 출력에서 줄:열:Id:이름:내용 형식의 줄을 읽는 내부 로직
+     *
+     * @param output pylint 출력
+     * @param offset 줄 번호에 더할 값
+     * @return 출력 순서대로 읽은 diagnostics
+     */
+    private List<LintDiagnosticDto> parseDiagnostics(String output, int offset) {
+        List<LintDiagnosticDto> diagnostics = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            Matcher matcher = DIAGNOSTIC.matcher(line.trim());
+            if (matcher.matches()) {
+                LintDiagnosticDto diagnostic = new LintDiagnosticDto();
+                diagnostic.setLine(Integer.parseInt(matcher.group(1)) + offset);
+                diagnostic.setColumn(Integer.parseInt(matcher.group(2)));
+                diagnostic.setMsgId(matcher.group(3));
+                diagnostic.setSymbol(matcher.group(4));
+                diagnostic.setMessage(matcher.group(5).trim());
+                diagnostics.add(diagnostic);
+            }
+        }
+        return diagnostics;
+    }
 }
@@ -0,0 +1,506 @@
+package com.example.goldencrow.editor;
+
+import com.example.goldencrow.common.ProcessResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * black, pylint를 import 해 둔 python 프로세스를 띄워 두고 포맷팅, 린트 요청을 나눠 처리하는 Pool
+ * <p>
+ * 요청마다 black, pylint를 새로 실행하면 python 시작과 모듈 import에 매번 1~2초가 걸리므로,
+ * 워커 프로세스(python3 -c WORKER)를 미리 띄워 두고 stdin/stdout으로 JSON 한 줄씩 주고받는다.
+ * 대기열에 쌓인 요청은 워커마다 batch-size개까지 묶어 한 번에 보내고, 요청마다 제한 시간을 둔다.
+ * 워커를 띄울 수 없으면(black, pylint 미설치 등) UNAVAILABLE을 반환하고, 호출한 쪽은 기존처럼 명령어를 실행한다.
+ */
+@Component
+public class EditorWorkerPool {
+    public static final String UNAVAILABLE = "UNAVAILABLE";
+
+    /**
+     * 워커 프로세스에서 실행하는 python 스크립트
+     * 시작하면 {"ready": true, "black": 버전, "pylint": 버전}을 출력하고,
+     * 요청 한 줄([{"tool": "black" | "pylint", "args": [...], "code": 코드, "timeout": 초}, ...])마다
+     * 결과 한 줄([{"code": 종료 코드, "output": 출력, "timedOut": 시간 초과 여부, "millis": 실행 시간}, ...])을 출력한다.
+     * code가 있으면 파일 대신 코드를 처리한다. black은 포맷팅한 코드를 출력으로 돌려주고,
+     * pylint는 요청마다 메모리 디스크(/dev/shm)에 따로 만든 디렉토리의 args 마지막 이름으로 코드를 써서 검사한 뒤 지운다.
+     * 도구가 stdout에 쓰는 내용이 응답에 섞이지 않도록 응답은 복사해 둔 fd로만 쓴다.
+     */
+    static final String WORKER = String.join("\n",
+            "import inspect, io, json, os, shutil, signal, sys, tempfile, time",
+            "out = os.fdopen(os.dup(1), 'w', encoding='utf-8')",
+            "os.dup2(2, 1)",
+            "sys.stdout = sys.stderr",
+            "def reply(value):",
+            "    out.write(json.dumps(value) + '\\n')",
+            "    out.flush()",
+            "try:",
+            "    import astroid, black, pylint",
+            "    from pylint.lint import Run",
+            "    from pylint.reporters.text import TextReporter",
+            "except Exception as e:",
+            "    reply({'ready': False, 'error': str(e)})",
+            "    sys.exit(1)",
+            "class Timeout(BaseException):",
+            "    pass",
+            "def alarm(signum, frame):",
+            "    raise Timeout()",
+            "signal.signal(signal.SIGALRM, alarm)",
+            "EXIT = 'exit' if 'exit' in inspect.signature(Run.__init__).parameters else 'do_exit'",
+            "TMP = tempfile.mkdtemp(prefix='crow-editor-', dir='/dev/shm' if os.path.isdir('/dev/shm') else None)",
+            "def run_black(args, code=None):",
+            "    if code is not None:",
+            "        try:",
+            "            return 0, black.format_file_contents(code, fast=False, mode=black.Mode())",
+            "        except black.NothingChanged:",
+            "            return 0, code",
+            "    path = args[-1]",
+            "    with open(path, encoding='utf-8') as f:",
+            "        src = f.read()",
+            "    try:",
+            "        dst = black.format_file_contents(src, fast=False, mode=black.Mode())",
+            "    except black.NothingChanged:",
+            "        return 0, 'unchanged ' + path + '\\n'",
+            "    with open(path, 'w', encoding='utf-8') as f:",
+            "        f.write(dst)",
+            "    return 0, 'reformatted ' + path + '\\n'",
+            "def run_pylint(args, code=None):",
+            "    args = list(args)",
+            "    work = None",
+            "    if code is not None:",
+            "        work = tempfile.mkdtemp(dir=TMP)",
+            "        args[-1] = os.path.join(work, os.path.basename(args[-1]))",
+            "        with open(args[-1], 'w', encoding='utf-8') as f:",
+            "            f.write(code)",
+            "    target = os.path.abspath(args[-1])",
+            "    cache = astroid.MANAGER.astroid_cache",
+            "    for name, module in list(cache.items()):",
+            "        file = getattr(module, 'file', None) or ''",
+            "        if file == target or file.startswith(TMP):",
+            "            del cache[name]",
+            "    buf = io.StringIO()",
+            "    try:",
+            "        run = Run(args, reporter=TextReporter(buf), **{EXIT: False})",
+            "    finally:",
+            "        if work:",
+            "            shutil.rmtree(work, ignore_errors=True)",
+            "    return run.linter.msg_status, buf.getvalue()",
+            "TOOLS = {'black': run_black, 'pylint': run_pylint}",
+            "reply({'ready': True, 'black': black.__version__, 'pylint': pylint.__version__})",
+            "while True:",
+            "    line = sys.stdin.buffer.readline()",
+            "    if not line:",
+            "        break",
+            "    results = []",
+            "    for req in json.loads(line.decode('utf-8')):",
+            "        start = time.time()",
+            "        res = {'code': 0, 'output': '', 'timedOut': False}",
+            "        try:",
+            "            signal.setitimer(signal.ITIMER_REAL, req.get('timeout', 10))",
+            "            res['code'], res['output'] = TOOLS[req['tool']](req['args'], req.get('code'))",
+            "        except Timeout:",
+            "            res['code'], res['timedOut'] = -1, True",
+            "        except SystemExit as e:",
+            "            res['code'] = e.code if isinstance(e.code, int) else 1",
+            "        except Exception as e:",
+            "            res['code'], res['output'] = 123, 'error: %s\\n' % e",
+            "        finally:",
+            "            signal.setitimer(signal.ITIMER_REAL, 0)",
+            "        res['millis'] = int((time.time() - start) * 1000)",
+            "        results.append(res)",
+            "    reply(results)",
+            "shutil.rmtree(TMP, ignore_errors=True)");
+
+    private final String python;
+    private final int batchSize;
+    private final long timeout;
+    private final int maxRequests;
+    private final long retryInterval;
+    private final BlockingQueue<Job> queue;
+    private final List<Worker> workers = new ArrayList<>();
+    private final ExecutorService readers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "editor-worker-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile long unavailableUntil = 0;
+    private volatile Map<String, String> versions = Collections.emptyMap();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong starts = new AtomicLong();
+    private final AtomicLong waitMillis = new AtomicLong();
+    private final AtomicLong runMillis = new AtomicLong();
+
+    /**
+     * EditorWorkerPool 생성자
+     *
+     * @param python        워커를 실행할 python (black, pylint가 설치된 환경)
+     * @param size          워커 프로세스 수 (0이면 사용하지 않음)
+     * @param queueSize     대기할 수 있는 요청 수, 넘으면 바로 거절
+     * @param batchSize     워커에 한 번에 보낼 최대 요청 수
+     * @param timeout       요청 하나의 제한 시간 (ms)
+     * @param maxRequests   워커 하나가 처리한 뒤 새로 띄울 요청 수 (메모리 누수 방지)
+     * @param retryInterval 워커를 띄우지 못한 뒤 다시 시도하기까지의 시간 (ms)
+     */
+    public EditorWorkerPool(@Value("${editor.worker.python:python3}") String python,
+                            @Value("${editor.worker.size:2}") int size,
+                            @Value("${editor.worker.queue:64}") int queueSize,
+                            @Value("${editor.worker.batch-size:8}") int batchSize,
+                            @Value("${editor.worker.timeout:10000}") long timeout,
+                            @Value("${editor.worker.max-requests:500}") int maxRequests,
+                            @Value("${editor.worker.retry-interval:60000}") long retryInterval) {
+        this.python = python;
+        this.batchSize = Math.max(1, batchSize);
+        this.timeout = timeout;
+        this.maxRequests = maxRequests;
+        this.retryInterval = retryInterval;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        for (int i = 0; i < size; i++) {
+            Worker worker = new Worker();
+            Thread thread = new Thread(worker, "editor-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * 워커로 처리할 수 있는 상태인지 확인하는 내부 로직
+     *
+     * @return 워커가 있고, 최근에 띄우기를 실패하지 않았으면 true
+     */
+    public boolean isAvailable() {
+        return !workers.isEmpty() && System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    /**
+     * 워커가 import 한 도구의 버전을 반환하는 내부 로직
+     *
+     * @param tool black 또는 pylint
+     * @return 버전 문자열, 워커를 띄운 적이 없으면 null
+     */
+    public String version(String tool) {
+        return versions.get(tool);
+    }
+
+    /**
+     * 요청을 대기열에 넣는 내부 로직
+     *
+     * @param tool black 또는 pylint
+     * @param args 명령어 인자 (마지막 인자가 대상 파일)
+     * @return 실행 결과를 담은 CompletableFuture (대기열이 가득 차면 REJECTED, 워커를 쓸 수 없으면 UNAVAILABLE 결과)
+     */
+    public CompletableFuture<ProcessResult> submit(String tool, String... args) {
+        return submitCode(tool, null, args);
+    }
+
+    /**
+     * 파일 대신 코드를 처리하는 요청을 대기열에 넣는 내부 로직
+     * black은 포맷팅한 코드를 출력으로, pylint는 args 마지막 이름의 파일로 검사한 결과를 출력으로 돌려준다.
+     *
+     * @param tool black 또는 pylint
+     * @param code 처리할 코드 (null이면 파일 처리)
+     * @param args 명령어 인자 (pylint는 마지막 인자가 결과에 표시될 파일 이름)
+     * @return 실행 결과를 담은 CompletableFuture (대기열이 가득 차면 REJECTED, 워커를 쓸 수 없으면 UNAVAILABLE 결과)
+     */
+    public CompletableFuture<ProcessResult> submitCode(String tool, String code, String... args) {
+        if (!isAvailable()) {
+            return CompletableFuture.completedFuture(ProcessResult.failed(UNAVAILABLE));
+        }
+        Job job = new Job(tool, code, args);
+        if (!queue.offer(job)) {
+            rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(ProcessResult.failed(ProcessResult.REJECTED));
+        }
+        return job.future;
+    }
+
+    /**
+     * 요청을 처리하고 끝날 때까지 기다리는 내부 로직
+     *
+     * @param tool black 또는 pylint
+     * @param args 명령어 인자 (마지막 인자가 대상 파일)
+     * @return 실행 결과
+     */
+    public ProcessResult run(String tool, String... args) {
+        return submit(tool, args).join();
+    }
+
+    /**
+     * 코드를 처리하고 끝날 때까지 기다리는 내부 로직
+     *
+     * @param tool black 또는 pylint
+     * @param code 처리할 코드
+     * @param args 명령어 인자 (pylint는 마지막 인자가 결과에 표시될 파일 이름)
+     * @return 실행 결과
+     */
+    public ProcessResult runCode(String tool, String code, String... args) {
+        return submitCode(tool, code, args).join();
+    }
+
+    /**
+     * 워커 수, 대기열 길이, 처리 수, batch 크기, 지연 시간을 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        int alive = 0;
+        for (Worker worker : workers) {
+            if (worker.process != null && worker.process.isAlive()) {
+                alive++;
+            }
+        }
+        long done = completed.get();
+        long batchCount = batches.get();
+        Map<String, Object> res = new HashMap<>();
+        res.put("available", isAvailable());
+        res.put("workers", workers.size());
+        res.put("alive", alive);
+        res.put("queued", queue.size());
+        res.put("completed", done);
+        res.put("rejected", rejected.get());
+        res.put("timedOut", timedOut.get());
+        res.put("failed", failed.get());
+        res.put("starts", starts.get());
+        res.put("batches", batchCount);
+        res.put("avgBatch", batchCount == 0 ? 0 : (double) done / batchCount);
+        res.put("avgWaitMillis", done == 0 ? 0 : waitMillis.get() / done);
+        res.put("avgRunMillis", done == 0 ? 0 : runMillis.get() / done);
+        res.put("versions", versions);
+        return res;
+    }
+
+    /**
+     * 서버 종료 시 워커 프로세스를 정리하는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Worker worker : workers) {
+            worker.stopped = true;
+            worker.retire();
+        }
+        Job job;
+        while ((job = queue.poll()) != null) {
+            job.future.complete(ProcessResult.failed(UNAVAILABLE));
+        }
+        readers.shutdownNow();
+    }
+
+    /**
+     * 대기 중인 요청
+     */
+    private static class Job {
+        private final String tool;
+        private final String code;
+        private final String[] args;
+        private final long queuedAt = System.currentTimeMillis();
+        private final CompletableFuture<ProcessResult> future = new CompletableFuture<>();
+
+        private Job(String tool, String code, String[] args) {
+            this.tool = tool;
+            this.code = code;
+            this.args = args;
+        }
+    }
+
+    /**
+     * 워커 프로세스 하나를 맡아 대기열의 요청을 묶어 보내고 결과를 나눠주는 Runnable
+     */
+    private class Worker implements Runnable {
+        private volatile Process process;
+        private volatile boolean stopped = false;
+        private Writer stdin;
+        private BufferedReader stdout;
+        private int handled = 0;
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                List<Job> batch = new ArrayList<>();
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                handle(batch);
+            }
+        }
+
+        private void handle(List<Job> batch) {
+            long now = System.currentTimeMillis();
+            List<Job> live = new ArrayList<>();
+            for (Job job : batch) {
+                if (now - job.queuedAt > timeout) {
+                    // 대기열에서 제한 시간을 넘긴 요청은 실행하지 않음
+                    timedOut.incrementAndGet();
+                    job.future.complete(new ProcessResult(-1, "", false, true, null, now - job.queuedAt, 0));
+                } else {
+                    live.add(job);
+                }
+            }
+            if (live.isEmpty()) {
+                return;
+            }
+            if (!ensureStarted()) {
+                for (Job job : live) {
+                    job.future.complete(ProcessResult.failed(UNAVAILABLE));
+                }
+                return;
+            }
+
+            List<Map<String, Object>> requests = new ArrayList<>();
+            for (Job job : live) {
+                Map<String, Object> request = new HashMap<>();
+                request.put("tool", job.tool);
+                request.put("args", Arrays.asList(job.args));
+                if (job.code != null) {
+                    request.put("code", job.code);
+                }
+                request.put("timeout", timeout / 1000.0);
+                requests.add(request);
+            }
+            long sentAt = System.currentTimeMillis();
+            JsonNode results;
+            try {
+                stdin.write(objectMapper.writeValueAsString(requests));
+                stdin.write('\n');
+                stdin.flush();
+                // 워커가 요청마다 제한 시간을 지키므로, 응답이 그보다 늦으면 워커가 멈춘 것으로 봄
+                String line = readLine(timeout * live.size() + 2000);
+                results = line == null ? null : objectMapper.readTree(line);
+            } catch (IOException | TimeoutException e) {
+                results = null;
+            }
+            if (results == null || !results.isArray() || results.size() != live.size()) {
+                destroy();
+                failed.addAndGet(live.size());
+                for (Job job : live) {
+                    job.future.complete(new ProcessResult(-1, "", false, true, null, sentAt - job.queuedAt,
+                            System.currentTimeMillis() - sentAt));
+                }
+                return;
+            }
+
+            batches.incrementAndGet();
+            for (int i = 0; i < live.size(); i++) {
+                Job job = live.get(i);
+                JsonNode result = results.get(i);
+                boolean jobTimedOut = result.path("timedOut").asBoolean(false);
+                long millis = result.path("millis").asLong(0);
+                long wait = sentAt - job.queuedAt;
+                completed.incrementAndGet();
+                waitMillis.addAndGet(wait);
+                runMillis.addAndGet(millis);
+                if (jobTimedOut) {
+                    timedOut.incrementAndGet();
+                }
+                job.future.complete(new ProcessResult(result.path("code").asInt(-1),
+                        result.path("output").asText(""), false, jobTimedOut, null, wait, millis));
+            }
+            handled += live.size();
+            if (handled >= maxRequests) {
+                retire();
+            }
+        }
+
+        /**
+         * 워커 프로세스가 없으면 띄우고 준비될 때까지 기다리는 내부 로직
+         *
+         * @return 워커를 쓸 수 있으면 true
+         */
+        private boolean ensureStarted() {
+            if (process != null && process.isAlive()) {
+                return true;
+            }
+            destroy();
+            if (!isAvailable()) {
+                return false;
+            }
+            try {
+                ProcessBuilder builder = new ProcessBuilder(python, "-c", WORKER);
+                builder.redirectError(ProcessBuilder.Redirect.to(new File("/dev/null")));
+                process = builder.start();
+                starts.incrementAndGet();
+                stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+                stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                // 모듈 import는 처음 한 번만 하므로 넉넉히 기다림
+                String line = readLine(Math.max(timeout, 30000));
+                JsonNode ready = line == null ? null : objectMapper.readTree(line);
+                if (ready != null && ready.path("ready").asBoolean(false)) {
+                    Map<String, String> found = new HashMap<>();
+                    found.put("black", ready.path("black").asText());
+                    found.put("pylint", ready.path("pylint").asText());
+                    versions = found;
+                    handled = 0;
+                    return true;
+                }
+                // ready가 아니면 black, pylint를 불러오지 못한 경우이므로 아래에서 정리하고 잠시 뒤 다시 시도
+            } catch (IOException | TimeoutException e) {
+                // 워커가 뜨지 않았으면 아래에서 정리하고 잠시 뒤 다시 시도
+            }
+            destroy();
+            unavailableUntil = System.currentTimeMillis() + retryInterval;
+            return false;
+        }
+
+        /**
+         * 제한 시간 안에 워커의 응답 한 줄을 읽는 내부 로직
+         */
+        private String readLine(long millis) throws IOException, TimeoutException {
+            BufferedReader reader = stdout;
+            Future<String> line = readers.submit(reader::readLine);
+            try {
+                return line.get(millis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("interrupted");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            } finally {
+                // 제한 시간을 넘기면 워커를 종료하므로 읽던 스레드도 스트림이 닫히며 끝난다
+                line.cancel(true);
+            }
+        }
+
+        /**
+         * stdin을 닫아 워커가 임시 디렉토리를 지우고 끝나도록 한 뒤, 끝나지 않으면 종료하는 내부 로직
+         */
+        private void retire() {
+            Process current = process;
+            if (current == null) {
+                return;
+            }
+            try {
+                current.getOutputStream().close();
+                current.waitFor(1, TimeUnit.SECONDS);
+            } catch (IOException e) {
+                // 이미 끝난 워커
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            destroy();
+        }
+
+        private void destroy() {
+            Process current = process;
+            process = null;
+            if (current != null) {
+                current.destroyForcibly();
+            }
+        }
+    }
+}
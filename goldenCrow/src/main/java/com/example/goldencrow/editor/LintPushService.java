@@ -0,0 +1,271 @@
+package com.example.goldencrow.editor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.goldencrow.common.Constants.*;
+
+/**
+ * 편집 중인 파일의 린트 결과를 WebSocket으로 보내는 Service
+ * <p>
+ * 팀원이 /code/lint/{teamSeq}로 편집 내용을 보내면 파일마다 마지막 내용만 남겨 두었다가,
+ * 입력이 quiet-period 동안 없거나 첫 입력 후 max-delay가 지나면 한 번만 린트하고 /topic/lint/{teamSeq}/{filePath}를 구독한 모두에게 보낸다.
+ * 같은 파일을 N명이 편집해도 조용한 구간마다 린트는 한 번이며, 린트는 바뀐 블록만 다시 검사하는 lintIncrementalService로 처리한다.
+ * 결과에는 편집 순서대로 증가하는 version이 들어 있고, 늦게 끝난 이전 version의 결과는 보내지 않는다.
+ */
+@Service
+public class LintPushService {
+    public static final String LINT_TOPIC = "/topic/lint/";
+
+    private final EditorService editorService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long quietPeriod;
+    private final long maxDelay;
+    private final long idleTimeout;
+    private final int maxCode;
+    private final int maxChannels;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    private final AtomicLong edits = new AtomicLong();
+    private final AtomicLong lints = new AtomicLong();
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+
+    /**
+     * LintPushService 생성자
+     *
+     * @param editorService     린트를 처리하는 Service
+     * @param messagingTemplate 결과를 보낼 STOMP 메시지 전송 객체
+     * @param quietPeriod       마지막 입력 후 린트하기까지 기다리는 시간 (ms)
+     * @param maxDelay          입력이 계속되어도 첫 입력 후 린트하기까지의 최대 시간 (ms)
+     * @param idleTimeout       입력이 없는 파일의 마지막 결과를 지우기까지의 시간 (ms)
+     * @param maxCode           받을 수 있는 최대 코드 길이
+     * @param maxChannels       동시에 린트 결과를 보내는 최대 파일 수
+     * @param threads           린트를 실행하는 thread 수
+     */
+    public LintPushService(EditorService editorService, SimpMessagingTemplate messagingTemplate,
+                           @Value("${editor.push.quiet-period:700}") long quietPeriod,
+                           @Value("${editor.push.max-delay:3000}") long maxDelay,
+                           @Value("${editor.push.idle-timeout:600000}") long idleTimeout,
+                           @Value("${editor.push.max-code:1048576}") int maxCode,
+                           @Value("${editor.push.max-channels:256}") int maxChannels,
+                           @Value("${editor.push.threads:2}") int threads) {
+        this.editorService = editorService;
+        this.messagingTemplate = messagingTemplate;
+        this.quietPeriod = quietPeriod;
+        this.maxDelay = maxDelay;
+        this.idleTimeout = idleTimeout;
+        this.maxCode = maxCode;
+        this.maxChannels = maxChannels;
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "editor-lint-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 파일의 린트 결과를 보낼 topic을 만드는 내부 로직
+     *
+     * @param teamSeq  팀 Sequence
+     * @param filePath 파일 경로
+     * @return /topic/lint/{teamSeq}/{filePath} (filePath 앞의 /는 뺌)
+     */
+    public static String topic(Long teamSeq, String filePath) {
+        return LINT_TOPIC + teamSeq + "/" + filePath.replaceAll("^/+", "");
+    }
+
+    /**
+     * 편집 내용을 받거나 마지막 결과를 다시 보내는 내부 로직
+     * 처리하지 못한 경우 result만 담아 해당 topic으로 보낸다.
+     *
+     * @param teamSeq 팀 Sequence
+     * @param body    "type"(edit, sync), "filePath", "text", "language", "startLine", "endLine"을 key로 가지는 Map
+     */
+    public void messageService(Long teamSeq, Map<String, String> body) {
+        String filePath = body.get("filePath");
+        if (filePath == null || filePath.isEmpty()) {
+            return;
+        }
+        String topic = topic(teamSeq, filePath);
+        String type = body.getOrDefault("type", "edit");
+
+        if (type.equals("sync")) {
+            // 새로 구독한 팀원에게 마지막 결과를 보냄 (같은 version이 다시 가므로 다른 팀원은 무시하면 됨)
+            Channel channel = channels.get(topic);
+            Map<String, Object> last = channel == null ? null : channel.last;
+            if (last != null) {
+                messagingTemplate.convertAndSend(topic, last);
+            }
+            return;
+        }
+
+        String code = body.get("text");
+        if (!type.equals("edit") || code == null || code.length() > maxCode) {
+            fail(topic, BAD_REQ);
+            return;
+        }
+        if (!channels.containsKey(topic) && channels.size() >= maxChannels) {
+            fail(topic, BUSY);
+            return;
+        }
+        int startLine;
+        int endLine;
+        try {
+            startLine = Integer.parseInt(body.getOrDefault("startLine", "0"));
+            endLine = Integer.parseInt(body.getOrDefault("endLine", String.valueOf(startLine)));
+        } catch (NumberFormatException e) {
+            startLine = 0;
+            endLine = 0;
+        }
+
+        edits.incrementAndGet();
+        Channel channel = channels.computeIfAbsent(topic, key -> new Channel(key, filePath));
+        synchronized (channel) {
+            long now = System.currentTimeMillis();
+            if (channel.code == null) {
+                channel.firstEdit = now;
+                channel.startLine = startLine;
+                channel.endLine = endLine;
+            } else if (startLine <= 0 || channel.startLine <= 0) {
+                // 범위를 모르는 편집이 섞이면 캐시에 없는 블록만 다시 린트
+                channel.startLine = 0;
+                channel.endLine = 0;
+            } else {
+                channel.startLine = Math.min(channel.startLine, startLine);
+                channel.endLine = Math.max(channel.endLine, endLine);
+            }
+            channel.code = code;
+            channel.language = body.getOrDefault("language", "python");
+            channel.version++;
+            channel.touched = now;
+
+            if (channel.timer != null) {
+                channel.timer.cancel(false);
+            }
+            long delay = Math.max(0, Math.min(quietPeriod, channel.firstEdit + maxDelay - now));
+            channel.timer = scheduler.schedule(() -> lint(channel), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 모아 둔 마지막 편집 내용을 린트하고 구독자에게 보내는 내부 로직
+     *
+     * @param channel 파일의 편집 상태
+     */
+    private void lint(Channel channel) {
+        String code;
+        String language;
+        int startLine;
+        int endLine;
+        long version;
+        synchronized (channel) {
+            if (channel.code == null) {
+                return;
+            }
+            code = channel.code;
+            language = channel.language;
+            startLine = channel.startLine;
+            endLine = channel.endLine;
+            version = channel.version;
+            channel.code = null;
+            channel.timer = null;
+        }
+
+        lints.incrementAndGet();
+        Map<String, Object> res;
+        try {
+            res = editorService.lintIncrementalService(language, code, startLine, endLine);
+        } catch (Exception e) {
+            res = new HashMap<>();
+            res.put("result", UNKNOWN);
+        }
+        res.put("filePath", channel.filePath);
+        res.put("version", version);
+
+        synchronized (channel) {
+            if (version < channel.published) {
+                superseded.incrementAndGet();
+                return;
+            }
+            channel.published = version;
+            channel.last = res;
+        }
+        messagingTemplate.convertAndSend(channel.topic, res);
+        broadcasts.incrementAndGet();
+    }
+
+    private void fail(String topic, String result) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("result", result);
+        messagingTemplate.convertAndSend(topic, res);
+    }
+
+    /**
+     * 오래 편집하지 않은 파일의 상태를 지우는 내부 로직
+     */
+    @Scheduled(initialDelayString = "${editor.push.sweep-interval:60000}",
+            fixedDelayString = "${editor.push.sweep-interval:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        channels.values().removeIf(channel -> {
+            synchronized (channel) {
+                return channel.code == null && now - channel.touched > idleTimeout;
+            }
+        });
+    }
+
+    /**
+     * 편집 수, 린트 수, 보낸 결과 수를 반환하는 내부 로직
+     * 편집 수와 린트 수의 차이가 조용한 구간으로 묶여 린트하지 않은 편집 수이다.
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("channels", channels.size());
+        res.put("edits", edits.get());
+        res.put("lints", lints.get());
+        res.put("coalesced", edits.get() - lints.get());
+        res.put("broadcasts", broadcasts.get());
+        res.put("superseded", superseded.get());
+        return res;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 파일 하나의 편집, 린트 상태
+     */
+    private static class Channel {
+        private final String topic;
+        private final String filePath;
+        private String code;
+        private String language;
+        private int startLine;
+        private int endLine;
+        private long firstEdit;
+        private long touched;
+        private long version;
+        private long published;
+        private volatile Map<String, Object> last;
+        private ScheduledFuture<?> timer;
+
+        private Channel(String topic, String filePath) {
+            this.topic = topic;
+            this.filePath = filePath;
+        }
+    }
+}
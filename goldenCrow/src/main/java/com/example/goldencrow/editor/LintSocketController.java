@@ -0,0 +1,38 @@
+package com.example.goldencrow.editor;
+
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+/**
+ * 편집 내용을 WebSocket으로 받아 린트 결과를 구독자에게 보내는 Controller
+ *
+ * @url /code/lint/{teamSeq}
+ */
+@Controller
+public class LintSocketController {
+    private final LintPushService lintPushService;
+
+    /**
+     * LintSocketController 생성자
+     *
+     * @param lintPushService 린트 결과를 WebSocket으로 보내는 Service
+     */
+    public LintSocketController(LintPushService lintPushService) {
+        this.lintPushService = lintPushService;
+    }
+
+    /**
+     * 편집 내용을 보내거나 마지막 린트 결과를 다시 요청
+     * 린트 결과는 /topic/lint/{teamSeq}/{filePath}로 전송된다.
+     *
+     * @param teamSeq 팀 Sequence
+     * @param body    "type"(edit, sync), "filePath", "text", "language", "startLine", "endLine"을 key로 가지는 Map<String, String>
+     */
+    @MessageMapping("/lint/{teamSeq}")
+    public void lintMessage(@DestinationVariable Long teamSeq, Map<String, String> body) {
+        lintPushService.messageService(teamSeq, body);
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.goldencrow.editor;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Python 코드를 최상위 블록 단위로 나눈 한 블록
+ * <p>
+ * 블록은 함수, 클래스 정의(decorator 포함)와 그 사이의 모듈 코드(import, 전역 변수, if __name__ == ... 등)로 나뉜다.
+ * 부분 린트에서는 바뀌지 않은 정의 블록을 stub으로 바꿔 검사하므로, 정의 블록은 원래 줄과 같은 줄 수의 stub을 함께 가진다.
+ * stub은 def, class 선언부와 클래스 본문의 문장은 그대로 두고, 함수 본문을 본문에서 참조한 이름을 넘기는 return 한 줄로 바꾼 것이다.
+ * 참조한 이름을 남겨 두므로 import, 전역 변수의 사용 여부(unused-import 등)는 전체를 검사한 것과 같게 나온다.
+ */
+public class PythonBlock {
+    /**
+     * 함수 본문 대신 호출하는 이름, 정의되어 있지 않으므로 pylint는 결과를 추론하지 않는다.
+     */
+    static final String STUB = "__crow_stub__";
+
+    private static final Pattern HEADER = Pattern.compile("^(?:async\\s+def|def|class)\\b");
+    private static final Pattern STRING_PREFIX = Pattern.compile("(?i)[rbuf]|rb|br|rf|fr");
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "False", "None", "True", "and", "as", "assert", "async", "await", "break", "class", "continue",
+            "def", "del", "elif", "else", "except", "finally", "for", "from", "global", "if", "import", "in",
+            "is", "lambda", "nonlocal", "not", "or", "pass", "raise", "return", "try", "while", "with", "yield"));
+
+    private final boolean definition;
+    private final int start;
+    private final List<String> lines = new ArrayList<>();
+    private String[] stub;
+    private String header;
+
+    private PythonBlock(boolean definition, int start) {
+        this.definition = definition;
+        this.start = start;
+    }
+
+    /**
+     * 함수, 클래스 정의 블록인지 여부 (false면 모듈 코드 블록)
+     */
+    public boolean isDefinition() {
+        return definition;
+    }
+
+    /**
+     * 블록의 첫 줄 번호 (1부터 시작)
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * 블록의 마지막 줄 번호
+     */
+    public int getEnd() {
+        return start + lines.size() - 1;
+    }
+
+    /**
+     * 블록의 원래 줄
+     */
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * 함수 본문을 stub으로 바꾼 줄 (원래 줄과 줄 수가 같음, 모듈 코드 블록이면 원래 줄)
+     */
+    public List<String> getStubLines() {
+        return definition ? Arrays.asList(stub) : lines;
+    }
+
+    /**
+     * 블록의 원래 코드
+     */
+    public String getText() {
+        return String.join("\n", lines);
+    }
+
+    /**
+     * 참조한 이름과 빈 줄을 뺀 선언부 (다른 블록의 검사 결과에 영향을 주는 부분)
+     * 모듈 코드 블록이면 원래 코드
+     */
+    public String getHeader() {
+        return definition ? header : getText();
+    }
+
+    /**
+     * 블록 범위가 주어진 줄 범위와 겹치는지 확인하는 내부 로직
+     *
+     * @param from 시작 줄 번호
+     * @param to   끝 줄 번호
+     * @return 겹치면 true
+     */
+    public boolean overlaps(int from, int to) {
+        return from <= getEnd() && to >= start;
+    }
+
+    /**
+     * 코드를 최상위 블록으로 나누는 내부 로직
+     *
+     * @param code Python 코드
+     * @return 줄 순서대로 나눈 블록, 괄호나 문자열이 닫히지 않아 나눌 수 없으면 null
+     */
+    public static List<PythonBlock> split(String code) {
+        String[] source = code.split("\n", -1);
+        Line[] info = scan(source);
+        if (info == null) {
+            return null;
+        }
+
+        List<PythonBlock> blocks = new ArrayList<>();
+        PythonBlock current = null;
+        boolean decoratorsOnly = false;
+        for (int i = 0; i < source.length; i++) {
+            Line line = info[i];
+            if (!line.continued && line.code && line.indent == 0) {
+                String text = source[i];
+                if (text.startsWith("@") || HEADER.matcher(text).find()) {
+                    // decorator 바로 뒤의 def, class는 같은 블록
+                    if (current == null || !current.definition || !decoratorsOnly) {
+                        current = new PythonBlock(true, i + 1);
+                        blocks.add(current);
+                    }
+                    decoratorsOnly = text.startsWith("@");
+                } else if (current == null || current.definition) {
+                    current = new PythonBlock(false, i + 1);
+                    blocks.add(current);
+                }
+            } else if (current == null) {
+                current = new PythonBlock(false, i + 1);
+                blocks.add(current);
+            }
+            current.lines.add(source[i]);
+        }
+
+        for (PythonBlock block : blocks) {
+            if (block.definition) {
+                block.stub(Arrays.copyOfRange(info, block.start - 1, block.getEnd()));
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * 정의 블록의 stub과 선언부를 만드는 내부 로직
+     *
+     * @param info 블록 각 줄의 분석 결과
+     */
+    private void stub(Line[] info) {
+        int size = lines.size();
+        stub = new String[size];
+        String[] bare = new String[size];
+        // 열려 있는 def, class의 {들여쓰기, def 여부}
+        Deque<int[]> frames = new ArrayDeque<>();
+        Set<String> names = new LinkedHashSet<>();
+        int stubAt = -1;
+
+        int k = 0;
+        while (k < size) {
+            Line line = info[k];
+            if (!line.code || line.continued) {
+                stub[k] = "";
+                bare[k] = "";
+                k++;
+                continue;
+            }
+            int end = k + 1;
+            while (end < size && info[end].continued) {
+                end++;
+            }
+            while (!frames.isEmpty() && frames.peek()[0] >= line.indent) {
+                if (frames.pop()[1] == 1) {
+                    stubAt = flush(stubAt, names, bare);
+                }
+            }
+
+            if (!frames.isEmpty() && frames.peek()[1] == 1) {
+                // 함수 본문은 첫 문장 자리에 return 한 줄만 남김
+                if (stubAt < 0) {
+                    stubAt = k;
+                }
+                for (int m = k; m < end; m++) {
+                    names.addAll(info[m].names);
+                    if (m != stubAt) {
+                        stub[m] = "";
+                        bare[m] = "";
+                    }
+                }
+            } else {
+                for (int m = k; m < end; m++) {
+                    stub[m] = lines.get(m);
+                    bare[m] = lines.get(m);
+                }
+                String text = lines.get(k).trim();
+                if (HEADER.matcher(text).find() && info[end - 1].last == ':') {
+                    frames.push(new int[]{line.indent, text.startsWith("class") ? 0 : 1});
+                }
+            }
+            k = end;
+        }
+        flush(stubAt, names, bare);
+
+        StringBuilder sb = new StringBuilder();
+        for (String line : bare) {
+            if (!line.isEmpty()) {
+                sb.append(line).append('\n');
+            }
+        }
+        header = sb.toString();
+    }
+
+    private int flush(int stubAt, Set<String> names, String[] bare) {
+        if (stubAt >= 0) {
+            String line = lines.get(stubAt);
+            String indent = line.substring(0, line.length() - line.replaceAll("^\\s+", "").length());
+            stub[stubAt] = indent + "return " + STUB + "(" + String.join(", ", names) + ")";
+            bare[stubAt] = indent + "return " + STUB + "()";
+        }
+        names.clear();
+        return -1;
+    }
+
+    /**
+     * 줄마다 이전 줄에서 이어지는지, 코드가 있는지, 들여쓰기, 마지막 문자, 참조한 이름을 분석하는 내부 로직
+     * 문자열과 주석 안의 내용은 코드로 보지 않는다. (f-string 중괄호 안의 식에 나온 이름은 참조한 이름으로 봄)
+     *
+     * @param source 코드의 각 줄
+     * @return 각 줄의 분석 결과, 파일 끝에서 괄호나 문자열이 닫히지 않았으면 null
+     */
+    private static Line[] scan(String[] source) {
+        Line[] info = new Line[source.length];
+        int depth = 0;
+        char quote = 0;
+        boolean triple = false;
+        boolean format = false;
+        // f-string의 열린 중괄호 수와 형식 지정(:>10, !r)이 시작된 중괄호 깊이 (0이면 식 안)
+        int field = 0;
+        int spec = 0;
+        boolean joined = false;
+
+        for (int i = 0; i < source.length; i++) {
+            String s = source[i];
+            int n = s.length();
+            Line line = new Line();
+            line.continued = depth > 0 || quote != 0 || joined;
+            while (line.indent < n && (s.charAt(line.indent) == ' ' || s.charAt(line.indent) == '\t')) {
+                line.indent++;
+            }
+            joined = false;
+            boolean prefixFormat = false;
+            char prev = 0;
+            int j = 0;
+            while (j < n) {
+                char c = s.charAt(j);
+                if (quote != 0) {
+                    if (c == '\\') {
+                        j += 2;
+                    } else if (c == quote && (!triple || s.startsWith(repeat(quote), j))) {
+                        j += triple ? 3 : 1;
+                        quote = 0;
+                        prev = c;
+                        line.last = c;
+                    } else if (format && c == '{') {
+                        if (field == 0 && s.startsWith("{{", j)) {
+                            // {{ 는 중괄호 글자
+                            j += 2;
+                        } else {
+                            field++;
+                            prev = c;
+                            j++;
+                        }
+                    } else if (format && c == '}') {
+                        if (field == spec) {
+                            spec = 0;
+                        }
+                        if (field > 0) {
+                            field--;
+                        }
+                        prev = c;
+                        j++;
+                    } else if (format && field > spec && (c == ':' || (c == '!' && !s.startsWith("!=", j)))) {
+                        spec = field;
+                        prev = c;
+                        j++;
+                    } else if (format && field > spec && (c == '\'' || c == '"')) {
+                        // 식 안의 다른 따옴표 문자열은 이름이 아님
+                        int close = s.indexOf(c, j + 1);
+                        j = close < 0 ? n : close + 1;
+                        prev = c;
+                    } else if (format && field > spec && Character.isJavaIdentifierStart(c)) {
+                        int k = identifierEnd(s, j);
+                        addName(line, s.substring(j, k), prev);
+                        prev = 'a';
+                        j = k;
+                    } else {
+                        prev = c;
+                        j++;
+                    }
+                    continue;
+                }
+                if (c == '#') {
+                    break;
+                }
+                if (c == '\\' && j == n - 1) {
+                    joined = true;
+                    break;
+                }
+                if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                    j++;
+                    continue;
+                }
+                line.code = true;
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                    triple = s.startsWith(repeat(c), j);
+                    format = prefixFormat;
+                    prefixFormat = false;
+                    field = 0;
+                    spec = 0;
+                    j += triple ? 3 : 1;
+                    continue;
+                }
+                if (Character.isJavaIdentifierStart(c) && c != '$') {
+                    int k = identifierEnd(s, j);
+                    String word = s.substring(j, k);
+                    if (k < n && (s.charAt(k) == '\'' || s.charAt(k) == '"') && STRING_PREFIX.matcher(word).matches()) {
+                        prefixFormat = word.toLowerCase().contains("f");
+                    } else {
+                        addName(line, word, prev);
+                        prev = 'a';
+                        line.last = 'a';
+                    }
+                    j = k;
+                    continue;
+                }
+                if (Character.isDigit(c)) {
+                    while (j < n && (Character.isLetterOrDigit(s.charAt(j)) || s.charAt(j) == '_' || s.charAt(j) == '.')) {
+                        j++;
+                    }
+                    prev = '0';
+                    line.last = '0';
+                    continue;
+                }
+                if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if ((c == ')' || c == ']' || c == '}') && depth > 0) {
+                    depth--;
+                }
+                prev = c;
+                line.last = c;
+                j++;
+            }
+            // 한 줄 문자열은 줄 끝의 \ 로만 이어짐 (닫히지 않은 문자열은 그 줄에서 끝난 것으로 봄)
+            if (quote != 0 && !triple && j <= n) {
+                quote = 0;
+            }
+            info[i] = line;
+        }
+        return depth > 0 || quote != 0 ? null : info;
+    }
+
+    private static void addName(Line line, String word, char prev) {
+        if (prev != '.' && !KEYWORDS.contains(word)) {
+            line.names.add(word);
+        }
+    }
+
+    private static int identifierEnd(String s, int from) {
+        int k = from + 1;
+        while (k < s.length() && Character.isJavaIdentifierPart(s.charAt(k)) && s.charAt(k) != '$') {
+            k++;
+        }
+        return k;
+    }
+
+    private static String repeat(char c) {
+        return new String(new char[]{c, c, c});
+    }
+
+    /**
+     * 한 줄의 분석 결과
+     */
+    private static class Line {
+        private boolean continued;
+        private boolean code;
+        private int indent;
+        private char last;
+        private final List<String> names = new ArrayList<>();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.goldencrow.editor.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * pylint 검사 결과 한 건을 담는 DTO
+ */
+@Data
+@NoArgsConstructor
+public class LintDiagnosticDto {
+
+    /**
+     * 줄 번호 (1부터 시작, 사용자의 코드 기준)
+     */
+    private int line;
+
+    /**
+     * 열 번호 (0부터 시작)
+     */
+    private int column;
+
+    /**
+     * 메시지 Id ex. C0301
+     */
+    private String msgId;
+
+    /**
+     * 메시지 이름 ex. line-too-long
+     */
+    private String symbol;
+
+    /**
+     * 메시지 내용
+     */
+    private String message;
+
+}
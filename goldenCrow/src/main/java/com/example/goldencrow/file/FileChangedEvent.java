@@ -0,0 +1,41 @@
+package com.example.goldencrow.file;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 서버의 프로젝트 파일(폴더)이 생성, 저장, 삭제, 이름 변경되었음을 알리는 이벤트
+ * 프로젝트 내용으로 계산해 둔 값(프로젝트 타입 등)을 무효화할 때 사용한다.
+ * 저장은 내용을 다 쓴 뒤에 발생하며, 이름 변경은 이전 경로와 새 경로로 한 번씩 발생한다.
+ */
+public class FileChangedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 변경 종류
+     */
+    public enum Kind {CREATE, SAVE, DELETE, RENAME, SYNC}
+
+    private final String path;
+    private final Kind kind;
+
+    /**
+     * FileChangedEvent 생성자
+     *
+     * @param source 이벤트를 발생시킨 객체
+     * @param path   변경된 파일(폴더)의 절대경로
+     * @param kind   변경 종류
+     */
+    public FileChangedEvent(Object source, String path, Kind kind) {
+        super(source);
+        this.path = path;
+        this.kind = kind;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
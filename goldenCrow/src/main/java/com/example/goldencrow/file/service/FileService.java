@@ -1,11 +1,16 @@
 package com.example.goldencrow.file.service;
 
+import com.example.goldencrow.common.CommandClass;
+import com.example.goldencrow.common.ProcessExecutor;
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.file.FileChangedEvent;
 import com.example.goldencrow.file.FileEntity;
 import com.example.goldencrow.file.FileRepository;
 import com.example.goldencrow.file.dto.FileCreateDto;
 import com.example.goldencrow.file.dto.FileCreateRequestDto;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -28,6 +33,12 @@ public class FileService {
     @Autowired
     private FileRepository fileRepository;
 
+    @Autowired
+    private ProcessExecutor processExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 파일(폴더) 생성 내부 로직
      *
@@ -61,6 +72,7 @@ public class FileService {
         if (makeNewFileRes.equals(SUCCESS)) {
             FileCreateDto newFileCreateDto = new FileCreateDto(fileCreateRequestDto.getFileTitle(), newFilePath, teamSeq);
             insertFileService(newFileCreateDto);
+            eventPublisher.publishEvent(new FileChangedEvent(this, newFilePath, FileChangedEvent.Kind.CREATE));
             serviceRes.put("result", SUCCESS);
             serviceRes.put("filePath", newFilePath);
             return serviceRes;
@@ -132,6 +144,7 @@ public class FileService {
             serviceRes.put("result", fileDelete);
             return serviceRes;
         }
+        eventPublisher.publishEvent(new FileChangedEvent(this, filePath, FileChangedEvent.Kind.DELETE));
         // DB에서 파일 삭제 로직 수행
         fileRepository.delete(file.get());
         serviceRes.put("result", SUCCESS);
@@ -149,14 +162,12 @@ public class FileService {
         Path path = Paths.get(filePath);
         // 디렉토리인 경우
         if (type == 1) {
-            ProcessBuilder pb = new ProcessBuilder();
             // 디렉토리 삭제 명령어
-            pb.command("rm", "-r", filePath);
+            String[] pb = {"rm", "-r", filePath};
             // 명령어 수행 로직
-            try {
-                pb.start();
-            } catch (IOException e) {
-                return e.getMessage();
+            ProcessResult deleted = processExecutor.run(CommandClass.SYSTEM, pb, null, true);
+            if (!deleted.isStarted()) {
+                return deleted.getError();
             }
             // 파일인 경우
         } else {
@@ -205,6 +216,8 @@ public class FileService {
         } catch (IOException e) {
             serviceRes.put("result", UNKNOWN);
         }
+        // 쓰기가 끝난 뒤 알려야 이벤트를 받아 다시 읽는 쪽(프로젝트 타입 판별 등)이 새 내용을 읽음 (실패해도 기존 파일은 지워졌음)
+        eventPublisher.publishEvent(new FileChangedEvent(this, filePath, FileChangedEvent.Kind.SAVE));
         return serviceRes;
     }
 
@@ -239,6 +252,9 @@ public class FileService {
 
         // 파일명 변경
         if (targetFile.renameTo(reNameFile)) {
+            // 이전 이름과 새 이름 모두 알림 (requirements.txt로 바꾸거나 다른 이름으로 바꾼 경우 모두 반영)
+            eventPublisher.publishEvent(new FileChangedEvent(this, filePath, FileChangedEvent.Kind.RENAME));
+            eventPublisher.publishEvent(new FileChangedEvent(this, renameFilePath, FileChangedEvent.Kind.RENAME));
             serviceRes.put("result", SUCCESS);
         } else {
             serviceRes.put("result", UNKNOWN);
@@ -1,10 +1,15 @@
 package com.example.goldencrow.file.service;
 
+import com.example.goldencrow.common.CommandClass;
+import com.example.goldencrow.common.ProcessExecutor;
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.file.FileChangedEvent;
 import com.example.goldencrow.file.FileEntity;
 import com.example.goldencrow.file.FileRepository;
 
 import com.example.goldencrow.file.dto.FileCreateDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 
 import org.springframework.stereotype.Service;
 
@@ -22,16 +27,23 @@ public class ProjectService {
     private final FileService fileService;
     @Autowired
     private final FileRepository fileRepository;
+    private final ProcessExecutor processExecutor;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * ProjectService 생성자
      *
-     * @param fileService    file 관련 로직을 처리하는 Service
-     * @param fileRepository file 관련 Repository
+     * @param fileService     file 관련 로직을 처리하는 Service
+     * @param fileRepository  file 관련 Repository
+     * @param processExecutor 서버 명령어를 실행하는 공용 실행기
+     * @param eventPublisher  파일 변경 이벤트를 발행하는 publisher
      */
-    public ProjectService(FileService fileService, FileRepository fileRepository) {
+    public ProjectService(FileService fileService, FileRepository fileRepository, ProcessExecutor processExecutor,
+                          ApplicationEventPublisher eventPublisher) {
         this.fileService = fileService;
         this.fileRepository = fileRepository;
+        this.processExecutor = processExecutor;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -166,31 +178,19 @@ public class ProjectService {
             serviceRes.put("result", DUPLICATE);
             return serviceRes;
         }
+        // 같은 팀 경로에 남아있던 판별 결과 등을 무효화
+        eventPublisher.publishEvent(new FileChangedEvent(this, teamFile, FileChangedEvent.Kind.CREATE));
 
         // 기본 프로젝트 구성, 기본 파일 생성
         if (type == 2) {
-            ProcessBuilder djangoStarter = new ProcessBuilder();
-            djangoStarter.command("django-admin", "startproject", projectName);
-            djangoStarter.directory(new File(teamFile));
-            StringBuilder sb = new StringBuilder();
-            try {
-                String read;
-                Process p = djangoStarter.start();
-                BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-                while ((read = br.readLine()) != null) {
-                    sb.append(read);
-                }
-                p.waitFor();
-            } catch (IOException e) {
-                serviceRes.put("result", UNKNOWN);
-                return serviceRes;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            String[] djangoStarter = {"django-admin", "startproject", projectName};
+            ProcessResult started = processExecutor.run(CommandClass.SYSTEM, djangoStarter, new File(teamFile), true);
+            if (!started.isStarted()) {
                 serviceRes.put("result", UNKNOWN);
                 return serviceRes;
             }
 
-            String message = sb.toString();
+            String message = started.getOutput();
 
             if (message.contains("CommandError")) {
                 serviceRes.put("result",WRONG);
@@ -301,17 +301,14 @@ public class ProjectService {
         Map<String, String> serviceRes = new HashMap<>();
         // 삭제 로직 수행
         try {
-            ProcessBuilder deleter = new ProcessBuilder();
             for (Long seq : teamSeqList) {
                 // 서버에서 프로젝트 삭제
-                deleter.command("rm", "-r", String.valueOf(seq));
-                deleter.directory(new File(BASE_URL));
-                try {
-                    deleter.start();
-                } catch (IOException e) {
+                String[] deleter = {"rm", "-r", String.valueOf(seq)};
+                if (!processExecutor.run(CommandClass.SYSTEM, deleter, new File(BASE_URL), true).isStarted()) {
                     serviceRes.put("result", UNKNOWN);
                     return serviceRes;
                 }
+                eventPublisher.publishEvent(new FileChangedEvent(this, BASE_URL + seq, FileChangedEvent.Kind.DELETE));
                 // DB에서 프로젝트 삭제
                 String pjtDeleted = pjtFileDeleteService(seq);
                 if (!pjtDeleted.equals(SUCCESS)) {
@@ -344,7 +341,7 @@ public class ProjectService {
 
     /**
      * Django project의 settings.py에서
-     * ALLOWED_HOSTS에 서버 주소를 넣어 배포가 가능하게 하는 내부 로직
+     * ALLOWED_HOSTS에 서버 주소와 미리보기 도메인을 넣어 배포가 가능하게 하는 내부 로직
      *
      * @param filePath 파일의 경로 (파일 이름까지 포함)
      * @return 성패에 따른 result string 반환
@@ -361,7 +358,7 @@ public class ProjectService {
             while ((line = br.readLine()) != null) {
                 if (line.contains("ALLOWED_HOSTS = []")) {
                     line = line.replace("ALLOWED_HOSTS = []",
-                            "ALLOWED_HOSTS = [\"k7d207.p.ssafy.io\"]");
+                            "ALLOWED_HOSTS = [\"k7d207.p.ssafy.io\", \".preview.k7d207.p.ssafy.io\"]");
                 }
                 bw.write(line + "\n");
             }
@@ -373,11 +370,8 @@ public class ProjectService {
         String newPath = filePath.replace(oldFileName, "");
 
         // tmpFileName을 'settings.py'로 변경하는 명령어
-        ProcessBuilder pro = new ProcessBuilder("mv", tmpFileName, oldFileName);
-        pro.directory(new File(newPath));
-        try {
-            pro.start();
-        } catch (IOException e) {
+        String[] pro = {"mv", tmpFileName, oldFileName};
+        if (!processExecutor.run(CommandClass.SYSTEM, pro, new File(newPath), true).isSuccess()) {
             return UNKNOWN;
         }
         return SUCCESS;
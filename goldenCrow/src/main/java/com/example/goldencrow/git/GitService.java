@@ -1,5 +1,9 @@
 package com.example.goldencrow.git;
 
+import com.example.goldencrow.common.CommandClass;
+import com.example.goldencrow.common.ProcessExecutor;
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.file.FileChangedEvent;
 import com.example.goldencrow.file.FileEntity;
 import com.example.goldencrow.file.FileRepository;
 import com.example.goldencrow.file.service.ProjectService;
@@ -9,6 +13,7 @@ import com.example.goldencrow.user.UserEntity;
 
 import com.example.goldencrow.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -24,7 +29,9 @@ public class GitService {
 
     private final ProjectService projectService;
 
-    private ProcessBuilder command;
+    @Autowired
+    private ProcessExecutor processExecutor;
+
     @Autowired
     private TeamRepository teamRepository;
 
@@ -34,6 +41,9 @@ public class GitService {
     @Autowired
     private FileRepository fileRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
 
     /**
      * Git Service 생성자
@@ -125,8 +135,8 @@ public class GitService {
             return serviceRes;
         }
 
-        // 명령어 실행 시키기 위한 ProcessBuilder
-        ProcessBuilder command = new ProcessBuilder("git", "clone", url);
+        // 실행할 명령어
+        String[] command = {"git", "clone", url};
 
         // 팀 시퀀스 디렉토리 만들기
         String teamFolder = String.valueOf(teamSeq);
@@ -147,14 +157,8 @@ public class GitService {
         File newProjectFolder = new File(pjt);
 
         // 프로젝트 디렉토리에서 명령어 실행
-        command.directory(new File(pjt));
-        try {
-            command.start().waitFor();
-        } catch (IOException e) {
-            serviceRes.put("result", WRONG);
-            return serviceRes;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        ProcessResult cloned = processExecutor.run(CommandClass.GIT, command, new File(pjt), true);
+        if (!cloned.isStarted() || cloned.isTimedOut()) {
             serviceRes.put("result", WRONG);
             return serviceRes;
         }
@@ -176,6 +180,7 @@ public class GitService {
         }
 
         projectService.saveFilesInDIrService(pjt + "/", teamSeq);
+        eventPublisher.publishEvent(new FileChangedEvent(this, pjt, FileChangedEvent.Kind.SYNC));
         serviceRes.put("result", SUCCESS);
         return serviceRes;
 
@@ -196,18 +201,17 @@ public class GitService {
         String leaderEmail = leader.getUserId();
         String leaderName = leader.getUserNickname();
 
-        // git config에 등록하기 위해 ProcessBuilder 사용
-        ProcessBuilder configEmail = new ProcessBuilder("git", "config", "user.email", leaderEmail);
-        ProcessBuilder configName = new ProcessBuilder("git", "config", "user.name", leaderName);
-
-        configEmail.directory(file);
-        configName.directory(file);
+        // git config에 등록하는 명령어
+        String[] configEmail = {"git", "config", "user.email", leaderEmail};
+        String[] configName = {"git", "config", "user.name", leaderName};
 
-        try {
-            configEmail.start();
-            configName.start();
-        } catch (IOException e) {
-            return e.getMessage();
+        ProcessResult emailRes = processExecutor.run(CommandClass.GIT, configEmail, file, true);
+        if (!emailRes.isStarted()) {
+            return emailRes.getError();
+        }
+        ProcessResult nameRes = processExecutor.run(CommandClass.GIT, configName, file, true);
+        if (!nameRes.isStarted()) {
+            return nameRes.getError();
         }
         return SUCCESS;
     }
@@ -228,32 +232,24 @@ public class GitService {
 
         serviceRes.put("message", "");
 
-        ProcessBuilder command = new ProcessBuilder();
+        String[] command;
         // switch할 branch의 종류로 명령어 저장
         if (type == 1) {
-            command.command("git", "switch", branchName);
+            command = new String[]{"git", "switch", branchName};
         } else {
-            command.command("git", "switch", "-c", branchName);
+            command = new String[]{"git", "switch", "-c", branchName};
         }
-        // 명령어를 실행할 파일 설정
-        command.directory(targetFile);
-        // 명령어 수행 후 결과값을 저장하기 위한 StringBuilder
-        StringBuilder msg = new StringBuilder();
 
         // 명령어 수행 로직
-        try {
-            String result;
-            Process p = command.start();
-            BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            while ((result = br.readLine()) != null) {
-                msg.append(result).append("\n");
-            }
-        } catch (IOException e) {
+        ProcessResult switched = processExecutor.run(CommandClass.GIT, command, targetFile, false);
+        if (!switched.isStarted()) {
             serviceRes.put("result", NO_SUCH);
             return serviceRes;
         }
 
-        String message = msg.toString();
+        // 브랜치가 바뀌면 작업 트리의 파일도 바뀜
+        eventPublisher.publishEvent(new FileChangedEvent(this, gitPath, FileChangedEvent.Kind.SYNC));
+        String message = switched.getOutput();
         serviceRes.put("result", SUCCESS);
         // 성공 여부 판단
         serviceRes.put("message", message);
@@ -268,40 +264,24 @@ public class GitService {
      * @return 성패에 따른 String 반환
      */
     public Map<String, String> gitAddService(String gitPath, String filePath) {
-        ProcessBuilder command = new ProcessBuilder();
+        String[] command;
         Map<String, String> serviceRes = new HashMap<>();
         serviceRes.put("addMessage", "");
         // filePath를 입력했으면 filePath 사용 / add할 파일을 특정하지 않았으면 "."
         if (filePath.equals("all")) {
-            command.command("git", "add", ".");
+            command = new String[]{"git", "add", "."};
         } else {
-            command.command("git", "add", filePath);
+            command = new String[]{"git", "add", filePath};
         }
-        // 명령어를 수행할 path 등록
-        command.directory(new File(gitPath));
 
-        // 명령어 수행 후 결과값을 저장하기 위한 StringBuilder
-        StringBuilder msg = new StringBuilder();
-
-        // 명령어 수행 로직
-        try {
-            Process p = command.start();
-            String forPrint;
-            BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            while ((forPrint = br.readLine()) != null) {
-                msg.append(forPrint);
-                msg.append("\n");
-            }
-            p.waitFor();
-            serviceRes.put("addMessage", msg.toString());
-        } catch (IOException e) {
-            serviceRes.put("result",NO_SUCH);
-            return serviceRes;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            serviceRes.put("result",UNKNOWN);
+        // 명령어 수행 로직 (명령어를 수행할 path 등록)
+        ProcessResult added = processExecutor.run(CommandClass.GIT, command, new File(gitPath), false);
+        if (!added.isStarted()) {
+            serviceRes.put("result", NO_SUCH);
             return serviceRes;
         }
+        String msg = added.getOutput();
+        serviceRes.put("addMessage", msg);
         // 성공 여부 판단
         if (msg.length() == 0) {
             serviceRes.put("result",SUCCESS);
@@ -334,34 +314,15 @@ public class GitService {
         }
 
         // git commit을 수행할 명령어
-        ProcessBuilder command = new ProcessBuilder("git", "commit", "-m", message);
-        // 명령어를 수행할 path 등록
-        command.directory(new File(gitPath));
+        String[] command = {"git", "commit", "-m", message};
 
-        // 명령어 수행 후 결과값을 저장하기 위한 StringBuilder
-        StringBuilder msg = new StringBuilder();
-        msg.append("Success");
-        msg.append("\n");
-
-        // 명령어 수행 로직
-        try {
-            Process p = command.start();
-            String forPrint;
-            BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            while ((forPrint = br.readLine()) != null) {
-                msg.append(forPrint);
-                msg.append("\n");
-            }
-            serviceRes.put("commitMessage", msg.toString());
-            p.waitFor();
-        } catch (IOException e) {
+        // 명령어 수행 로직 (명령어를 수행할 path 등록)
+        ProcessResult committed = processExecutor.run(CommandClass.GIT, command, new File(gitPath), false);
+        if (!committed.isStarted()) {
             serviceRes.put("result", NO_SUCH);
             return serviceRes;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            serviceRes.put("result", UNKNOWN);
-            return serviceRes;
         }
+        serviceRes.put("commitMessage", "Success\n" + committed.getOutput());
 
         // 성공 여부 판단
         serviceRes.put("result", SUCCESS);
@@ -422,29 +383,14 @@ public class GitService {
         }
 
         // Git Push 명령어
-        ProcessBuilder command = new ProcessBuilder("git", "push", "origin", branchName);
-        command.redirectErrorStream(true);
-        // 명령어를 수행할 프로젝트 경로 설정
-        command.directory(new File(gitPath));
-        // 명령어 수행 후 결과값을 저장하기 위한 StringBuilder
-        StringBuilder msg = new StringBuilder();
-        // 명령어 수행 로직
-        try {
-            String read;
-            Process p = command.start();
-            BufferedReader result = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            while ((read = result.readLine()) != null) {
-                msg.append(read).append("\n");
-            }
-            p.waitFor();
-        } catch (IOException e) {
+        String[] command = {"git", "push", "origin", branchName};
+        // 명령어 수행 로직 (명령어를 수행할 프로젝트 경로 설정)
+        ProcessResult pushed = processExecutor.run(CommandClass.GIT, command, new File(gitPath), true);
+        if (!pushed.isStarted()) {
             serviceRes.put("result", NO_SUCH);
             return serviceRes;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            serviceRes.put("result",UNKNOWN);
-            return serviceRes;
         }
+        String msg = pushed.getOutput();
 
         // 경로 재설정 로직 수행
         boolean returnOld = setNewUrlService(gitUrl, gitPath);
@@ -455,7 +401,7 @@ public class GitService {
             serviceRes.put("result", UNKNOWN);
             return serviceRes;
         }
-        serviceRes.put("pushMessage",msg.toString());
+        serviceRes.put("pushMessage", msg);
 
         serviceRes.put("result", SUCCESS);
         return serviceRes;
@@ -470,36 +416,28 @@ public class GitService {
      */
     public List<String> getBranchService(Long teamSeq, int type) {
         List<String> branches = new ArrayList<>();
-        ProcessBuilder command = new ProcessBuilder();
+        String[] command;
 
         String gitPath = getGitPath(teamSeq);
 
         // 조회하려는 브랜치에 따라 명령어 저장
         if (type == 1) {
-            command.command("git", "branch");
+            command = new String[]{"git", "branch"};
         } else if (type == 2) {
-            command.command("git", "branch", "-r");
+            command = new String[]{"git", "branch", "-r"};
         } else {
             return null;
         }
 
-        // 명령어를 수행할 프로젝트의 경로 저장
-        command.directory(new File(gitPath));
-        String read;
-
-        // 명령어 수행 로직
-        try {
-            Process getBranch = command.start();
-            BufferedReader branch = new BufferedReader(new InputStreamReader(getBranch.getInputStream()));
-            while ((read = branch.readLine()) != null) {
+        // 명령어 수행 로직 (명령어를 수행할 프로젝트의 경로 저장)
+        ProcessResult getBranch = processExecutor.run(CommandClass.GIT, command, new File(gitPath), false);
+        if (!getBranch.isStarted()) {
+            return null;
+        }
+        for (String read : getBranch.getOutput().split("\n")) {
+            if (!read.trim().isEmpty()) {
                 branches.add(read.trim());
             }
-            getBranch.waitFor();
-        } catch (IOException e) {
-            return null;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return null;
         }
         return branches;
     }
@@ -512,21 +450,18 @@ public class GitService {
      */
     public String getRemoteUrlService(String gitPath) {
         // 현재 Git을 관리하는 Url을 받아오는 리눅스 명령어
-        command = new ProcessBuilder("git", "remote", "-vv");
-        command.directory(new File(gitPath));
+        String[] command = {"git", "remote", "-vv"};
         String returnUrl = null;
 
-        try {
-            // 리눅스 명령어 결과값을 받아오는 로직
-            Process p = command.start();
-            BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            String reader = null;
-
-            while ((reader = br.readLine()) != null) {
+        // 리눅스 명령어 결과값을 받아오는 로직
+        ProcessResult remote = processExecutor.run(CommandClass.GIT, command, new File(gitPath), false);
+        if (!remote.isStarted()) {
+            return NO_SUCH;
+        }
+        for (String reader : remote.getOutput().split("\n")) {
+            if (!reader.isEmpty()) {
                 returnUrl = reader;
             }
-        } catch (IOException e) {
-            return NO_SUCH;
         }
 
         if (returnUrl == null) {
@@ -576,16 +511,9 @@ public class GitService {
      */
     public Boolean setNewUrlService(String newUrl, String gitPath) {
         // 받은 Url로  Git Info Url을 변경
-        command.command("git", "remote", "set-url", "origin", newUrl);
-        command.directory(new File(gitPath));
+        String[] command = {"git", "remote", "set-url", "origin", newUrl};
 
-        try {
-            command.start();
-        } catch (IOException e) {
-
-            return false;
-        }
-        return true;
+        return processExecutor.run(CommandClass.GIT, command, new File(gitPath), true).isStarted();
     }
 
     /**
@@ -660,24 +588,15 @@ public class GitService {
         }
 
         // pull을 수행하는 명령어
-        ProcessBuilder pb = new ProcessBuilder("git", "pull", "origin", brachName);
-        // 명령어를 수행할 path 등록
-        pb.directory(new File(gitPath));
-        // 명령어 수행 후 결과값을 저장하기 위한 StringBuilder
-        StringBuilder msg = new StringBuilder();
-        // 명령어 수행 로직
-        try {
-            String result;
-            Process p = pb.start();
-            BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            while ((result = br.readLine()) != null) {
-                msg.append(result);
-                msg.append("\n");
-            }
-        } catch (IOException e) {
+        String[] pb = {"git", "pull", "origin", brachName};
+        // 명령어 수행 로직 (명령어를 수행할 path 등록)
+        ProcessResult pulled = processExecutor.run(CommandClass.GIT, pb, new File(gitPath), false);
+        if (!pulled.isStarted()) {
             serviceRes.put("result", NO_SUCH);
             return serviceRes;
         }
+        eventPublisher.publishEvent(new FileChangedEvent(this, gitPath, FileChangedEvent.Kind.SYNC));
+        String msg = pulled.getOutput();
 
         String result = reUrlService(gitUrl, gitPath);
 
@@ -1,6 +1,6 @@
 package com.example.goldencrow.team;
 
-import com.example.goldencrow.compile.CompileService;
+import com.example.goldencrow.compile.PortAllocator;
 import com.example.goldencrow.file.service.ProjectService;
 import com.example.goldencrow.git.GitService;
 import com.example.goldencrow.team.dto.MemberDto;
@@ -31,7 +31,7 @@ public class TeamService {
 
     private final JwtService jwtService;
     private final ProjectService projectService;
-    private final CompileService compileService;
+    private final PortAllocator portAllocator;
     private final GitService gitService;
 
 
@@ -43,18 +43,18 @@ public class TeamService {
      * @param memberRepository Member table에 접속하는 repository
      * @param jwtService       jwt를 관리하는 service
      * @param projectService   project를 관리하는 service
-     * @param compileService   compile을 관리하는 service
+     * @param portAllocator    팀 서버 포트를 할당하는 component
      * @param gitService       git을 관리하는 service
      */
     public TeamService(UserRepository userRepository, TeamRepository teamRepository, MemberRepository memberRepository,
-                       JwtService jwtService, ProjectService projectService, CompileService compileService,
+                       JwtService jwtService, ProjectService projectService, PortAllocator portAllocator,
                        GitService gitService) {
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
         this.memberRepository = memberRepository;
         this.jwtService = jwtService;
         this.projectService = projectService;
-        this.compileService = compileService;
+        this.portAllocator = portAllocator;
         this.gitService = gitService;
     }
 
@@ -253,15 +253,17 @@ public class TeamService {
             Long teamSeq = teamEntity.getTeamSeq();
             System.out.println("말좀해봐뭐가문제야:"+teamEntity);
 
-            // 팀의 프로젝트에 대한 컨테이너 생성
-            Map<String, String> containerRes = compileService.containerCreateService(teamName, teamSeq);
-            if (!containerRes.get("result").equals(SUCCESS)) {
-                // 생성에 실패함
-                return containerRes;
+            // 팀의 프로젝트 서버가 사용할 포트 할당
+            String teamPort = portAllocator.lease(teamSeq);
+            if (teamPort == null) {
+                // 할당할 수 있는 포트가 없음
+                teamRepository.delete(teamEntity);
+                serviceRes.put("result", UNKNOWN);
+                return serviceRes;
 
             }
 
-            System.out.println("컨테이너 생성 성공");
+            System.out.println("포트 할당 성공");
 
             // git clone을 받아오는지, 새로 생성하는지 판별
             if (teamGit == null) {
@@ -286,6 +288,7 @@ public class TeamService {
                     // 미리 만들어두었던 팀을 삭제
                     // 팀 삭제와 함께 멤버도 자동으로 삭제됨
                     teamRepository.delete(teamEntity);
+                    portAllocator.release(teamSeq);
 
                     return projectCreateRes;
 
@@ -306,6 +309,7 @@ public class TeamService {
                     // 미리 만들어두었던 팀을 삭제
                     // 팀 삭제와 함께 멤버도 자동으로 삭제됨
                     teamRepository.delete(teamEntity);
+                    portAllocator.release(teamSeq);
 
                     return gitCloneRes;
 
@@ -315,7 +319,7 @@ public class TeamService {
 
             System.out.println("포트저장시작");
 
-            teamEntity.setTeamPort(containerRes.get("port"));
+            teamEntity.setTeamPort(teamPort);
             teamRepository.saveAndFlush(teamEntity);
 
             System.out.println("포트저장완료");
@@ -521,6 +525,7 @@ public class TeamService {
                 // 해당 팀에 연결된 멤버도 자동으로 삭제
                 TeamEntity teamEntity = teamEntityOptional.get();
                 teamRepository.delete(teamEntity);
+                portAllocator.release(teamSeq);
                 serviceRes.put("result", SUCCESS);
 
             } else {
@@ -58,7 +58,7 @@ public class TeamEntity {
         this.teamPort = String.valueOf(0);
         this.projectType = projectType;
 
-        // teamPort는 도커 파일 생성 이후 등록
+        // teamPort는 PortAllocator가 할당한 이후 등록 (0이면 미할당)
         // teamGit은 프로젝트 생성 시점에 등록
 
     }
@@ -1,6 +1,7 @@
 package com.example.goldencrow.unLogin;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -33,6 +34,8 @@ public class UnLoginController {
             String input = req.get("input");
             Map<String, String> res = unLoginService.unloginCompileService(sessionId, fileContent, input);
             switch (res.get("result")) {
+                case BUSY:
+                    return busyResponse(res);
                 case SUCCESS:
                     return new ResponseEntity<>(res, HttpStatus.OK);
                 case DUPLICATE:
@@ -48,4 +51,40 @@ public class UnLoginController {
 
 
     }
+
+    @PostMapping("/compile/stream")
+    public ResponseEntity<Map<String, String>> unloginCompileStreamPost(HttpServletRequest request, @RequestBody Map<String, String> req) {
+        String sessionId = request.getSession().getId();
+        if (req.containsKey("fileContent") && req.containsKey("input")) {
+            String fileContent = req.get("fileContent");
+            String input = req.get("input");
+            Map<String, String> res = unLoginService.unloginCompileStreamService(sessionId, fileContent, input);
+            switch (res.get("result")) {
+                case BUSY:
+                    return busyResponse(res);
+                case SUCCESS:
+                    return new ResponseEntity<>(res, HttpStatus.OK);
+                case DUPLICATE:
+                    return new ResponseEntity<>(res, HttpStatus.CONFLICT);
+                default:
+                    return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+        } else {
+            Map<String, String> res = new HashMap<>();
+            res.put("result", BAD_REQ);
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 입장이 거절된 요청에 Retry-After 헤더와 함께 429를 반환하는 내부 로직
+     *
+     * @param res BUSY와 "retryAfter"를 담은 결과
+     * @return 429 응답
+     */
+    private ResponseEntity<Map<String, String>> busyResponse(Map<String, String> res) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, res.get("retryAfter"));
+        return new ResponseEntity<>(res, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
 }
@@ -1,8 +1,15 @@
 package com.example.goldencrow.unLogin;
 
+import com.example.goldencrow.compile.CompileAdmission;
 import com.example.goldencrow.compile.CompileService;
-import com.example.goldencrow.file.service.FileService;
-import com.example.goldencrow.file.service.ProjectService;
+import com.example.goldencrow.compile.ImageCache;
+import com.example.goldencrow.compile.ResourceProfiles;
+import com.example.goldencrow.compile.RunMeter;
+import com.example.goldencrow.compile.RunStreamService;
+import com.example.goldencrow.compile.SandboxPool;
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import com.example.goldencrow.compile.dto.RunResultDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,125 +18,260 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 import static com.example.goldencrow.common.Constants.*;
 
 @Service
 public class UnLoginService {
 
+    @Autowired
+    private UnLoginRepository unLoginRepository;
+
+    @Autowired
+    private RunStreamService runStreamService;
+
+    @Autowired
+    private DockerEngineClient dockerEngineClient;
+
     @Autowired
     private CompileService compileService;
 
     @Autowired
-    private FileService fileService;
+    private ImageCache imageCache;
 
     @Autowired
-    private ProjectService projectService;
+    private CompileAdmission compileAdmission;
 
     @Autowired
-    private UnLoginRepository unLoginRepository;
+    private SandboxPool sandboxPool;
+
+    @Autowired
+    private UnLoginWorkspacePool workspacePool;
+
+    @Autowired
+    private ResourceProfiles resourceProfiles;
+
+    @Autowired
+    private RunMeter runMeter;
 
-    public String getSessionId() {
-        return "hello";
+    /**
+     * 실행 한 번을 구분하는 Id를 만드는 내부 로직
+     * topic, 컨테이너 이름, 파일 경로는 다른 사용자에게 보일 수 있으므로 세션 Id(JSESSIONID) 대신 임의의 값을 쓴다.
+     * 같은 세션에서 동시에 실행해도 겹치지 않는다.
+     *
+     * @return 실행 Id
+     */
+    public String newRunId() {
+        return UUID.randomUUID().toString().replace("-", "");
     }
 
+    /**
+     * 비로그인 사용자의 코드를 실행하고 출력을 반환하는 내부 로직
+     *
+     * @param sessionId   비로그인 사용자의 세션 Id
+     * @param fileContent 실행할 코드
+     * @param input       input값 (없으면 빈 문자열)
+     * @return 실행 성공 시 출력 결과 반환, 성패에 따른 result 반환
+     */
     public Map<String, String> unloginCompileService(String sessionId, String fileContent, String input) {
+        // 비로그인 요청은 로그인 사용자보다 뒤에, 정해진 비율의 자리 안에서만 실행
+        return compileService.admitService(sessionId, false,
+                () -> unloginRunService(fileContent, input));
+    }
+
+    /**
+     * 입장 제어를 통과한 비로그인 사용자의 코드를 실행하는 내부 로직
+     *
+     * @param fileContent 실행할 코드
+     * @param input       input값 (없으면 빈 문자열)
+     * @return 실행 성공 시 출력 결과 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> unloginRunService(String fileContent, String input) {
         Map<String, String> serviceRes = new HashMap<>();
-        System.out.println("sessionId : " + sessionId);
-        String SESSION_PATH = "/home/ubuntu/crow_data/UnLoginUser/" + sessionId;
+        String runId = newRunId();
 
-        // 세션 디렉토리 생성
-        String dirCreated = projectService.createDirService(BASE_URL + "UnLoginUser/", sessionId);
-        if (dirCreated.equals(DUPLICATE)) {
-            serviceRes.put("result", DUPLICATE);
-            return serviceRes;
+        // 대기 중인 sandbox가 있으면 파일을 만들지 않고 코드를 바로 보내 실행 (네트워크를 쓰는 코드는 컨테이너로 실행)
+        SandboxPool.SandboxRun sandboxRun = sandboxPool.snippet(runId, runId + ".py", fileContent, input,
+                resourceProfiles.unlogin());
+        if (sandboxRun != null) {
+            return compileService.sandboxCompileService(RunMeter.UNLOGIN_OWNER, sandboxRun, sandboxRun.getWorkDir());
         }
 
-        String filePath = SESSION_PATH + "/" + sessionId + ".py";
-
-        // 파일 내용 임시 저장 (/home/ubuntu/crow_data/UnLoginUser/{sessionId}/{sessionId}.py)
-        // 임시 파일 생성
-        File file = new File(filePath);
+        File workspace = workspacePool.lease();
+        String prepared = unloginPrepareService(runId, workspace, fileContent);
+        if (!prepared.equals(SUCCESS)) {
+            workspacePool.release(workspace);
+            serviceRes.put("result", prepared);
+            return serviceRes;
+        }
 
-        // 임시파일에 content 저장
-        try (FileWriter overWriteFile = new FileWriter(file, false)) {
-            overWriteFile.write(fileContent);
+        // 컨테이너명
+        String conAndImgName = "unlogin_" + runId;
+        // docker container run
+        RunMeter.Meter meter = runMeter.meter();
+        ContainerSpecDto spec = unloginSpec(runId, workspace, input, meter);
+        if (spec == null) {
+            unloginCleanService(conAndImgName, workspace);
+            serviceRes.put("result", UNKNOWN);
+            return serviceRes;
+        }
+        try {
+            dockerEngineClient.createContainer(conAndImgName, spec);
+            dockerEngineClient.startContainer(conAndImgName);
         } catch (IOException e) {
-            System.out.println("파일 내용 저장 에서 터짐");
+            unloginCleanService(conAndImgName, workspace);
             serviceRes.put("result", UNKNOWN);
             return serviceRes;
         }
+        // 출력값 반환 (출력을 한 번만 읽으며 경로를 지움)
+        RunResultDto result = meter.scan(
+                consumer -> dockerEngineClient.streamContainer(conAndImgName, consumer), BASE_URL + "UnLoginUser");
+        runMeter.record(RunMeter.UNLOGIN_OWNER, meter.usage());
+
+        unloginCleanService(conAndImgName, workspace);
+        return result.toMap();
 
-        String content;
-        if (input.isEmpty()) {
-            content = "FROM python:3.10\n" +
-                    "CMD [\"python3\", \"" + filePath + "\"]\n" +
-                    "EXPOSE 3000";
-        } else {
-            String inputString = "\"" + input + "\"";
-            content = "FROM python:3.10\n" +
-                    "CMD /bin/sh \n" +
-                    "CMD echo " + inputString +
-                    " | python3 " + filePath + "\n" +
-                    "EXPOSE 3000";
+    }
+
+    /**
+     * 비로그인 사용자의 코드를 실행하고 출력을 STOMP topic으로 흘려보내는 내부 로직
+     * 실행은 비동기로 진행되며, 출력은 /topic/run/unlogin/{runId}로 전송된다.
+     * runId는 실행마다 새로 만드는 임의의 값이므로 /topic/run/** 을 구독해도 다른 사용자의 세션 Id를 알 수 없다.
+     *
+     * @param sessionId   비로그인 사용자의 세션 Id
+     * @param fileContent 실행할 코드
+     * @param input       input값 (없으면 빈 문자열)
+     * @return 실행 등록 성공 시 구독할 topic 반환, 성패에 따른 result 반환
+     */
+    public Map<String, String> unloginCompileStreamService(String sessionId, String fileContent, String input) {
+        Map<String, String> serviceRes = new HashMap<>();
+
+        CompileAdmission.Permit permit = compileAdmission.acquire(sessionId, false);
+        if (!permit.isGranted()) {
+            return compileService.busyResult(permit);
+        }
+
+        String runId = newRunId();
+        String topic = RunStreamService.RUN_TOPIC + "unlogin/" + runId;
+        SandboxPool.SandboxRun sandboxRun = sandboxPool.snippet(runId, runId + ".py", fileContent, input,
+                resourceProfiles.unlogin());
+        if (sandboxRun != null) {
+            boolean started = runStreamService.stream(topic, sandboxRun, sandboxRun.getWorkDir(), null, () -> {
+                sandboxRun.close();
+                runMeter.record(RunMeter.UNLOGIN_OWNER, sandboxRun.getUsage());
+                permit.close();
+            });
+            serviceRes.put("result", started ? SUCCESS : UNKNOWN);
+            if (started) {
+                serviceRes.put("topic", topic);
+            }
+            return serviceRes;
         }
 
-        // Dockerfile 생성
-        File dockerFile = new File(SESSION_PATH + "/Dockerfile");
+        File workspace = workspacePool.lease();
+        String prepared = unloginPrepareService(runId, workspace, fileContent);
+        if (!prepared.equals(SUCCESS)) {
+            workspacePool.release(workspace);
+            permit.close();
+            serviceRes.put("result", prepared);
+            return serviceRes;
+        }
 
-        // Dockerfile에 content 저장
-        try (FileWriter overWriteFile = new FileWriter(dockerFile, false)) {
-            overWriteFile.write(content);
+        String conAndImgName = "unlogin_" + runId;
+        // 컨테이너를 만들어 두고, 실행과 함께 출력을 끝까지 따라가며 읽는다
+        RunMeter.Meter meter = runMeter.meter();
+        ContainerSpecDto spec = unloginSpec(runId, workspace, input, meter);
+        try {
+            if (spec == null) {
+                throw new IOException("image not ready");
+            }
+            dockerEngineClient.createContainer(conAndImgName, spec);
         } catch (IOException e) {
-            System.out.println("도커파일 생성에서 터짐");
+            unloginCleanService(conAndImgName, workspace);
+            permit.close();
             serviceRes.put("result", UNKNOWN);
             return serviceRes;
         }
-
-        // 컨테이너명
-        String conAndImgName = "unlogin_" + sessionId.toLowerCase();
-        System.out.println("unlogin conAndImgName: " + conAndImgName);
-        String[] imgCmd = {"docker", "build", "-t", conAndImgName, SESSION_PATH + "/"};
-        // docker image build
-        String imageBuild = compileService.resultStringService(imgCmd);
-        if (imageBuild.isEmpty()) {
+        RunStreamService.RunSource source = meter.wrap(consumer -> {
+            dockerEngineClient.startContainer(conAndImgName);
+            return dockerEngineClient.streamContainer(conAndImgName, consumer);
+        });
+        boolean started = runStreamService.stream(topic, source, BASE_URL + "UnLoginUser", null, () -> {
+            unloginCleanService(conAndImgName, workspace);
+            runMeter.record(RunMeter.UNLOGIN_OWNER, meter.usage());
+            permit.close();
+        });
+        if (!started) {
             serviceRes.put("result", UNKNOWN);
             return serviceRes;
         }
-        // docker container run
-        String[] containerCmd = {"docker", "run", "-d", "--name", conAndImgName, "-v",
-                SESSION_PATH + ":" + SESSION_PATH, "-P", conAndImgName};
-        String containerRun = compileService.resultStringService(containerCmd);
-        // 출력값 반환
-        String[] pythonCmd = {"docker", "logs", "-f", conAndImgName};
-        String pythonResponse = compileService.resultStringService(pythonCmd);
-        String pathUpdateRes = pythonResponse.replace(BASE_URL + "UnLoginUser", "");
-        System.out.println(pythonResponse);
         serviceRes.put("result", SUCCESS);
-        serviceRes.put("response", pathUpdateRes);
-
-        // 도커 컨테이너 멈추기
-        String[] containerStop = {"docker", "stop", conAndImgName};
-        String stopedCon = compileService.resultStringService(containerStop);
-        System.out.println("컨테이너 중지" + stopedCon);
-
-        // 컨테이너 삭제
-        String[] containerRm = {"docker", "rm", conAndImgName};
-        String removedCon = compileService.resultStringService(containerRm);
-        System.out.println("컨테이너 삭제" + removedCon);
-
-        // 도커 이미지 삭제
-        String[] imageRm = {"docker", "rmi", conAndImgName};
-        String rmImg = compileService.resultStringService(imageRm);
-        System.out.println("이미지 삭제" + rmImg);
+        serviceRes.put("topic", topic);
+        return serviceRes;
+    }
 
-        // 도커파일 삭제
-        fileService.serverFileDeleteService(2, SESSION_PATH + "/Dockerfile");
-        // 세션 디렉토리 삭제
-        fileService.serverFileDeleteService(1, SESSION_PATH);
+    /**
+     * 비로그인 사용자의 코드를 빌린 작업 디렉토리에 저장하는 내부 로직
+     *
+     * @param runId       실행 Id
+     * @param workspace   빌린 작업 디렉토리 (없으면 null)
+     * @param fileContent 실행할 코드
+     * @return 성패에 따른 result 반환
+     */
+    public String unloginPrepareService(String runId, File workspace, String fileContent) {
+        if (workspace == null) {
+            return UNKNOWN;
+        }
+        // 파일 내용 임시 저장 ({workspace}/{runId}.py, 컨테이너 안에서는 실행 경로로 보임)
+        File file = new File(workspace, runId + ".py");
+        try (FileWriter overWriteFile = new FileWriter(file, false)) {
+            overWriteFile.write(fileContent);
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+        return SUCCESS;
+    }
 
-        return serviceRes;
+    /**
+     * 비로그인 사용자 코드를 실행할 컨테이너 설정을 만드는 내부 로직
+     * 이미지는 ImageCache의 pure Python 이미지를 재사용하고, 작업 디렉토리를 컨테이너 안의 실행 경로에 연결한다.
+     *
+     * @param runId     실행 Id
+     * @param workspace 코드를 저장한 작업 디렉토리
+     * @param input     input값 (없으면 빈 문자열)
+     * @param meter     사용량을 잴 Meter
+     * @return 컨테이너 설정, 이미지 준비 실패 시 null
+     */
+    public ContainerSpecDto unloginSpec(String runId, File workspace, String input, RunMeter.Meter meter) {
+        String SESSION_PATH = "/home/ubuntu/crow_data/UnLoginUser/" + runId;
+        String filePath = SESSION_PATH + "/" + runId + ".py";
+        String image;
+        try {
+            image = imageCache.resolve(1, null);
+        } catch (IOException e) {
+            return null;
+        }
+        return compileService.runSpec(image, filePath, 1, input, resourceProfiles.unlogin(), meter)
+                .bind(workspace.getPath(), SESSION_PATH);
+    }
 
+    /**
+     * 비로그인 사용자의 컨테이너, 작업 디렉토리를 정리하는 내부 로직
+     * 정리는 요청 스레드가 아닌 작업 디렉토리 Pool의 정리 스레드에서 수행된다.
+     *
+     * @param conAndImgName 삭제할 컨테이너 이름
+     * @param workspace     반납할 작업 디렉토리
+     */
+    public void unloginCleanService(String conAndImgName, File workspace) {
+        // 컨테이너가 디렉토리를 쓰고 있으므로 컨테이너를 먼저 삭제한 뒤 디렉토리를 비운다
+        workspacePool.release(workspace, () -> {
+            try {
+                dockerEngineClient.removeContainer(conAndImgName, true);
+            } catch (IOException e) {
+                // ContainerReaper가 남은 컨테이너를 정리
+            }
+        });
     }
 
 }
@@ -0,0 +1,172 @@
+package com.example.goldencrow.unLogin;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 비로그인 실행에 쓰는 임시 작업 디렉토리 Pool
+ * <p>
+ * 실행마다 디스크에 디렉토리를 만들고 rm -r로 지우는 대신,
+ * 메모리 디스크(tmpfs, 기본 /dev/shm) 아래에 만들어 둔 디렉토리를 빌려주고,
+ * 반납된 디렉토리는 요청 스레드가 아닌 정리 스레드에서 비운 뒤 다시 Pool에 넣는다.
+ */
+@Component
+public class UnLoginWorkspacePool {
+
+    private final File root;
+    private final int maxIdle;
+
+    private final Deque<File> idle = new ArrayDeque<>();
+    private final ExecutorService cleaner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "unlogin-workspace-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong leased = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong cleaned = new AtomicLong();
+    private final AtomicLong cleanFailures = new AtomicLong();
+
+    /**
+     * UnLoginWorkspacePool 생성자
+     *
+     * @param root    작업 디렉토리를 만들 경로 (tmpfs 권장)
+     * @param maxIdle Pool에 보관할 최대 디렉토리 수, 넘는 디렉토리는 반납 시 삭제
+     */
+    public UnLoginWorkspacePool(@Value("${unlogin.workspace.root:/dev/shm/crow_unlogin}") String root,
+                                @Value("${unlogin.workspace.max-idle:16}") int maxIdle) {
+        this.root = new File(root);
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * 비어있는 작업 디렉토리를 빌리는 내부 로직
+     *
+     * @return 작업 디렉토리, 만들 수 없으면 null
+     */
+    public File lease() {
+        leased.incrementAndGet();
+        synchronized (idle) {
+            File workspace = idle.pollFirst();
+            if (workspace != null) {
+                reused.incrementAndGet();
+                return workspace;
+            }
+        }
+        File workspace = new File(root, "ws_" + UUID.randomUUID().toString().substring(0, 8));
+        if (!workspace.mkdirs()) {
+            return null;
+        }
+        return workspace;
+    }
+
+    /**
+     * 작업 디렉토리를 반납하는 내부 로직
+     * 디렉토리를 비우는 작업은 정리 스레드에서 수행되며, 비우지 못하면 Pool에 넣지 않는다.
+     *
+     * @param workspace 반납할 작업 디렉토리
+     */
+    public void release(File workspace) {
+        release(workspace, null);
+    }
+
+    /**
+     * 디렉토리를 쓰던 자원을 먼저 정리한 뒤 작업 디렉토리를 반납하는 내부 로직
+     *
+     * @param workspace   반납할 작업 디렉토리 (없으면 beforeClean만 수행)
+     * @param beforeClean 디렉토리를 비우기 전에 정리 스레드에서 수행할 로직 (컨테이너 삭제 등, 없으면 null)
+     */
+    public void release(File workspace, Runnable beforeClean) {
+        cleaner.execute(() -> {
+            if (beforeClean != null) {
+                beforeClean.run();
+            }
+            if (workspace == null) {
+                return;
+            }
+            boolean keep;
+            synchronized (idle) {
+                keep = idle.size() < maxIdle;
+            }
+            try {
+                clean(workspace.toPath(), !keep);
+                cleaned.incrementAndGet();
+            } catch (IOException e) {
+                cleanFailures.incrementAndGet();
+                return;
+            }
+            if (keep) {
+                synchronized (idle) {
+                    idle.addFirst(workspace);
+                }
+            }
+        });
+    }
+
+    /**
+     * 빌려준 수, 재사용한 수, 정리한 수, 대기 중인 디렉토리 수를 반환하는 내부 로직
+     *
+     * @return 지표 Map
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("leased", leased.get());
+        res.put("reused", reused.get());
+        res.put("cleaned", cleaned.get());
+        res.put("cleanFailures", cleanFailures.get());
+        synchronized (idle) {
+            res.put("idle", idle.size());
+        }
+        return res;
+    }
+
+    /**
+     * 서버 종료 시 정리 스레드를 멈추는 내부 로직
+     */
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdown();
+    }
+
+    /**
+     * 디렉토리 안의 파일을 모두 지우는 내부 로직 (removeSelf면 디렉토리까지 삭제)
+     */
+    private static void clean(Path workspace, boolean removeSelf) throws IOException {
+        if (!Files.isDirectory(workspace)) {
+            return;
+        }
+        Files.walkFileTree(workspace, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                if (removeSelf || !dir.equals(workspace)) {
+                    Files.delete(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.goldencrow.user.service;
 
 import com.example.goldencrow.common.CryptoUtil;
+import com.example.goldencrow.compile.PortAllocator;
 import com.example.goldencrow.file.service.ProjectService;
 import com.example.goldencrow.team.entity.MemberEntity;
 import com.example.goldencrow.team.entity.TeamEntity;
@@ -35,6 +36,7 @@ public class UserService {
 
     private final JwtService jwtService;
     private final ProjectService projectService;
+    private final PortAllocator portAllocator;
 
     /**
      * UserService 생성자
@@ -44,14 +46,16 @@ public class UserService {
      * @param memberRepository Member Table에 접속하는 repository
      * @param jwtService       jwt를 관리하는 service
      * @param projectService   project를 관리하는 service
+     * @param portAllocator    팀 서버 포트를 할당하는 component
      */
     public UserService(UserRepository userRepository, TeamRepository teamRepository, MemberRepository memberRepository,
-                       JwtService jwtService, ProjectService projectService) {
+                       JwtService jwtService, ProjectService projectService, PortAllocator portAllocator) {
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
         this.memberRepository = memberRepository;
         this.jwtService = jwtService;
         this.projectService = projectService;
+        this.portAllocator = portAllocator;
     }
 
     /**
@@ -524,6 +528,11 @@ public class UserService {
             // 멤버 테이블에서 사용자의 모든 멤버 컬럼이 삭제됨
             // 팀 테이블에서 사용자가 팀장인 모든 팀 컬럼이 삭제됨
 
+            // 삭제된 팀들의 서버 포트 반납
+            for (Long teamSeq : teamSeqList) {
+                portAllocator.release(teamSeq);
+            }
+
             // 위의 과정을 무사히 통과했으므로
             serviceRes.put("result", SUCCESS);
 
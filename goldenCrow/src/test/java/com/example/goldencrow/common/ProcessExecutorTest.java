@@ -0,0 +1,98 @@
+package com.example.goldencrow.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProcessExecutor가 stdin을 읽지 않는 프로세스도 제한 시간에 끝내고, 출력과 pump 스레드 수를 제한하는지 확인하는 테스트
+ * 실제 프로세스(sh, cat, sleep)를 실행한다.
+ */
+class ProcessExecutorTest {
+
+    private ProcessExecutor processExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (processExecutor != null) {
+            processExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void stdinIsDeliveredAndClosed() {
+        processExecutor = new ProcessExecutor(new MockEnvironment());
+
+        ProcessResult result = processExecutor.submit(CommandClass.SYSTEM, new String[]{"cat"}, null, true,
+                "print('hello')\n").join();
+
+        assertEquals(0, result.getExitCode());
+        assertEquals("print('hello')\n", result.getOutput());
+        assertFalse(result.isTimedOut());
+    }
+
+    @Test
+    void childThatNeverReadsStdinStillTimesOut() {
+        processExecutor = new ProcessExecutor(new MockEnvironment()
+                .withProperty("process.system.timeout", "300"));
+        // pipe buffer보다 큰 입력이라 받는 쪽이 읽지 않으면 쓰기가 막힘
+        char[] input = new char[1 << 20];
+        Arrays.fill(input, 'x');
+
+        long start = System.nanoTime();
+        ProcessResult result = processExecutor.submit(CommandClass.SYSTEM, new String[]{"sleep", "30"}, null, true,
+                new String(input)).join();
+
+        assertTrue(result.isTimedOut());
+        assertNotEquals(0, result.getExitCode());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+
+    @Test
+    void outputIsTruncatedAtMaxOutput() {
+        processExecutor = new ProcessExecutor(new MockEnvironment().withProperty("process.max-output", "10"));
+
+        ProcessResult result = processExecutor.run(CommandClass.SYSTEM,
+                new String[]{"sh", "-c", "printf 0123456789abcdef"});
+
+        assertEquals("0123456789", result.getOutput());
+        assertTrue(result.isTruncated());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runIsRejectedWhenPumpThreadsAreUsedUp() {
+        processExecutor = new ProcessExecutor(new MockEnvironment().withProperty("process.pump-threads", "1"));
+
+        CompletableFuture<ProcessResult> first = processExecutor.submit(CommandClass.SYSTEM,
+                new String[]{"sleep", "1"}, null, true);
+        awaitActivePump(1);
+        ProcessResult second = processExecutor.run(CommandClass.LINT, new String[]{"true"});
+
+        assertEquals(ProcessResult.REJECTED, second.getError());
+        assertEquals(0, first.join().getExitCode());
+        Map<String, Object> pump = (Map<String, Object>) processExecutor.metrics().get("pump");
+        assertEquals(1L, pump.get("rejected"));
+        assertEquals(1, pump.get("max"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void awaitActivePump(int count) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> pump = (Map<String, Object>) processExecutor.metrics().get("pump");
+            if ((Integer) pump.get("active") >= count) {
+                return;
+            }
+            Thread.yield();
+        }
+        fail("pump thread did not start");
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.dto.RunResultDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.goldencrow.common.Constants.BUSY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CompileAdmission이 자리를 공평하게 나누고, 비로그인 비율과 대기 시간 제한을 지키는지 확인하는 테스트
+ */
+class CompileAdmissionTest {
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(2000);
+        }
+    }
+
+    @Test
+    void teamWithFewerRunningJobsIsAdmittedFirst() throws InterruptedException {
+        CompileAdmission admission = admission(2, 50, 3, 20000);
+        CompileAdmission.Permit first = admission.acquire("1", true);
+        CompileAdmission.Permit second = admission.acquire("1", true);
+        BlockingQueue<String> order = new LinkedBlockingQueue<>();
+        BlockingQueue<CompileAdmission.Permit> permits = new LinkedBlockingQueue<>();
+
+        // 팀 1의 세 번째 요청이 팀 2보다 먼저 기다리기 시작함
+        waitInQueue(admission, "1", true, order, permits, 1);
+        waitInQueue(admission, "2", true, order, permits, 2);
+        first.close();
+        assertEquals("2", order.poll(2, TimeUnit.SECONDS));
+
+        second.close();
+        assertEquals("1", order.poll(2, TimeUnit.SECONDS));
+        closeAll(permits, 2);
+        assertEquals(0, admission.metrics().get("running"));
+    }
+
+    @Test
+    void loggedInRequestIsAdmittedBeforeEarlierUnloginRequest() throws InterruptedException {
+        CompileAdmission admission = admission(1, 100, 2, 20000);
+        CompileAdmission.Permit holder = admission.acquire("1", true);
+        BlockingQueue<String> order = new LinkedBlockingQueue<>();
+        BlockingQueue<CompileAdmission.Permit> permits = new LinkedBlockingQueue<>();
+
+        waitInQueue(admission, "session", false, order, permits, 1);
+        waitInQueue(admission, "2", true, order, permits, 2);
+        holder.close();
+        assertEquals("2", order.poll(2, TimeUnit.SECONDS));
+
+        permits.take().close();
+        assertEquals("session", order.poll(2, TimeUnit.SECONDS));
+        closeAll(permits, 1);
+    }
+
+    @Test
+    void unloginRequestsUseOnlyTheirShare() {
+        CompileAdmission admission = admission(4, 50, 2, 100);
+        CompileAdmission.Permit a = admission.acquire("a", false);
+        CompileAdmission.Permit b = admission.acquire("b", false);
+        assertTrue(a.isGranted());
+        assertTrue(b.isGranted());
+
+        CompileAdmission.Permit c = admission.acquire("c", false);
+        assertFalse(c.isGranted());
+        assertTrue(c.getRetryAfter() >= 1);
+
+        // 남은 자리는 로그인 요청이 바로 씀
+        CompileAdmission.Permit team = admission.acquire("1", true);
+        assertTrue(team.isGranted());
+        assertEquals(2, admission.metrics().get("unloginSlots"));
+        assertEquals(2, admission.metrics().get("runningUnlogin"));
+        assertEquals(1L, admission.metrics().get("timedOut"));
+
+        a.close();
+        b.close();
+        team.close();
+    }
+
+    @Test
+    void waitingRequestTimesOutAndLeavesTheQueue() {
+        CompileAdmission admission = admission(1, 100, 2, 100);
+        CompileAdmission.Permit holder = admission.acquire("1", true);
+
+        long start = System.nanoTime();
+        CompileAdmission.Permit late = admission.acquire("2", true);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(late.isGranted());
+        assertTrue(waited >= 90, "waited " + waited + "ms");
+        assertEquals(0, admission.metrics().get("queued"));
+        assertEquals(1L, admission.metrics().get("rejected"));
+
+        // 거절된 Permit은 자리를 돌려주지 않음
+        late.close();
+        assertEquals(1, admission.metrics().get("running"));
+        holder.close();
+        holder.close();
+        assertEquals(0, admission.metrics().get("running"));
+    }
+
+    @Test
+    void fullQueueIsRejectedImmediately() {
+        CompileAdmission admission = new CompileAdmission(1, 100000, 512, 100, 2, 0, 20000);
+        CompileAdmission.Permit holder = admission.acquire("1", true);
+
+        CompileAdmission.Permit rejected = admission.acquire("2", true);
+        assertFalse(rejected.isGranted());
+        assertEquals(0L, admission.metrics().get("timedOut"));
+        holder.close();
+    }
+
+    @Test
+    void precheckRejectsOnlyWhenQueueIsFull() {
+        CompileAdmission admission = new CompileAdmission(1, 100000, 512, 100, 2, 1, 20000);
+        assertEquals(0, admission.precheck("1", true));
+        CompileAdmission.Permit holder = admission.acquire("1", true);
+        // 자리는 없지만 대기열에 들어갈 수 있음
+        assertEquals(0, admission.precheck("2", true));
+
+        BlockingQueue<String> order = new LinkedBlockingQueue<>();
+        BlockingQueue<CompileAdmission.Permit> permits = new LinkedBlockingQueue<>();
+        waitInQueue(admission, "2", true, order, permits, 1);
+        assertTrue(admission.precheck("3", true) >= 1);
+        assertEquals(1L, admission.metrics().get("rejected"));
+        holder.close();
+    }
+
+    @Test
+    void runIsRejectedBeforeTeamQueueWhenAdmissionIsFull() throws InterruptedException {
+        CompileAdmission admission = new CompileAdmission(1, 100000, 512, 100, 2, 1, 20000);
+        TeamRunQueue queue = new TeamRunQueue(4, 20000);
+        CompileService compileService = new CompileService();
+        ReflectionTestUtils.setField(compileService, "compileAdmission", admission);
+        ReflectionTestUtils.setField(compileService, "teamRunQueue", queue);
+        CompileAdmission.Permit holder = admission.acquire("1", true);
+        BlockingQueue<String> order = new LinkedBlockingQueue<>();
+        BlockingQueue<CompileAdmission.Permit> permits = new LinkedBlockingQueue<>();
+        waitInQueue(admission, "2", true, order, permits, 1);
+
+        // 같은 팀의 요청이 몰려도 팀 대기열에서 기다리지 않고 바로 거절됨
+        for (int i = 0; i < 10; i++) {
+            Map<String, String> res = compileService.pyCompileService(2, "/home/ubuntu/crow_data/7/team/manage.py", "");
+            assertEquals(BUSY, res.get("result"));
+            assertTrue(Long.parseLong(res.get("retryAfter")) >= 1);
+            RunResultDto run = compileService.pyRunService(1, "/home/ubuntu/crow_data/7/team/main.py", "");
+            assertEquals(BUSY, run.getResult());
+        }
+        assertEquals(0L, queue.metrics().get("submitted"));
+
+        holder.close();
+        closeAll(permits, 1);
+    }
+
+    private static CompileAdmission admission(int slots, int unloginShare, int perTeam, long maxWaitMillis) {
+        return new CompileAdmission(slots, 100000, 512, unloginShare, perTeam, 32, maxWaitMillis);
+    }
+
+    /**
+     * 다른 thread에서 자리를 요청하고, 대기열 길이가 queued가 될 때까지 기다리는 내부 로직
+     */
+    private void waitInQueue(CompileAdmission admission, String owner, boolean loggedIn,
+                             BlockingQueue<String> order, BlockingQueue<CompileAdmission.Permit> permits, int queued) {
+        Thread thread = new Thread(() -> {
+            CompileAdmission.Permit permit = admission.acquire(owner, loggedIn);
+            if (permit.isGranted()) {
+                permits.add(permit);
+                order.add(owner);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!admission.metrics().get("queued").equals(queued) && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(queued, admission.metrics().get("queued"));
+    }
+
+    private static void closeAll(BlockingQueue<CompileAdmission.Permit> permits, int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            CompileAdmission.Permit permit = permits.poll(2, TimeUnit.SECONDS);
+            assertNotNull(permit);
+            permit.close();
+        }
+    }
+}
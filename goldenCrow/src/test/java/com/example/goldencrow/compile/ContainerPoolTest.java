@@ -0,0 +1,139 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ContainerPool이 팀 디렉토리를 연결한 컨테이너를 같은 팀에게만 다시 빌려주고,
+ * 반납할 때 프로세스만 정리하며 팀의 파일은 지우지 않는지 확인하는 테스트
+ * Docker Engine은 mock으로 대신한다.
+ */
+class ContainerPoolTest {
+
+    private static final String TEAM_1 = "/home/ubuntu/crow_data/1";
+    private static final String TEAM_2 = "/home/ubuntu/crow_data/2";
+
+    private DockerEngineClient dockerEngineClient;
+    private ContainerPool containerPool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dockerEngineClient = mock(DockerEngineClient.class);
+        when(dockerEngineClient.exec(anyString(), any(), any(), any()))
+                .thenReturn(new ProcessResult(0, "", false, false, null, 0, 0));
+        when(dockerEngineClient.hostPort(anyString(), anyString())).thenReturn("32768");
+        ImageCache imageCache = mock(ImageCache.class);
+        when(imageCache.resolve(anyInt(), isNull())).thenReturn("crowstudio/python");
+
+        containerPool = new ContainerPool();
+        ReflectionTestUtils.setField(containerPool, "minSize", 0);
+        ReflectionTestUtils.setField(containerPool, "maxSize", 2);
+        ReflectionTestUtils.setField(containerPool, "idleTimeout", 600000L);
+        ReflectionTestUtils.setField(containerPool, "dockerEngineClient", dockerEngineClient);
+        ReflectionTestUtils.setField(containerPool, "imageCache", imageCache);
+        ReflectionTestUtils.setField(containerPool, "resourceProfiles", new ResourceProfiles(new MockEnvironment()));
+    }
+
+    @Test
+    void teamDirectoryIsMountedNotCopied() throws IOException {
+        PooledContainer container = containerPool.lease(1, 1L, TEAM_1);
+
+        assertNotNull(container);
+        ArgumentCaptor<ContainerSpecDto> spec = ArgumentCaptor.forClass(ContainerSpecDto.class);
+        verify(dockerEngineClient).createContainer(eq(container.getName()), spec.capture());
+        assertEquals(Collections.singletonList(TEAM_1 + ":" + TEAM_1), spec.getValue().getHostConfig().getBinds());
+        verify(dockerEngineClient, never()).putArchive(anyString(), any(File.class), anyString());
+    }
+
+    @Test
+    void releaseKillsProcessesAndKeepsTeamFiles() {
+        PooledContainer container = containerPool.lease(1, 1L, TEAM_1);
+
+        assertTrue(containerPool.release(container));
+
+        ArgumentCaptor<String[]> cmd = ArgumentCaptor.forClass(String[].class);
+        verify(dockerEngineClient).exec(eq(container.getName()), cmd.capture(), isNull(), isNull());
+        String script = String.join(" ", cmd.getValue());
+        assertTrue(script.contains("kill -9 -1"));
+        assertFalse(script.contains("rm "));
+        assertFalse(script.contains(TEAM_1));
+    }
+
+    @Test
+    void sameTeamReusesItsContainer() throws IOException {
+        PooledContainer first = containerPool.lease(1, 1L, TEAM_1);
+        containerPool.release(first);
+
+        PooledContainer second = containerPool.lease(1, 1L, TEAM_1);
+
+        assertEquals(first.getName(), second.getName());
+        verify(dockerEngineClient, times(1)).createContainer(anyString(), any());
+        // 이미 반납한 handle로는 다시 빌려간 실행을 회수하지 않음
+        assertFalse(containerPool.release(first));
+        assertEquals(Collections.singletonList(second), containerPool.leasedBy(1L));
+    }
+
+    @Test
+    void otherTeamNeverGetsAnotherTeamsContainer() throws IOException {
+        PooledContainer first = containerPool.lease(1, 1L, TEAM_1);
+        containerPool.release(first);
+
+        PooledContainer other = containerPool.lease(1, 2L, TEAM_2);
+
+        assertNotEquals(first.getName(), other.getName());
+        assertEquals(2L, other.getTeamSeq());
+        assertEquals(TEAM_2, other.getProjectPath());
+        verify(dockerEngineClient, times(2)).createContainer(anyString(), any());
+        assertTrue(containerPool.leasedBy(1L).isEmpty());
+    }
+
+    @Test
+    void idleContainerOfOtherTeamIsReplacedWhenFull() throws IOException {
+        PooledContainer first = containerPool.lease(1, 1L, TEAM_1);
+        PooledContainer second = containerPool.lease(1, 2L, TEAM_2);
+        containerPool.release(first);
+
+        PooledContainer third = containerPool.lease(1, 3L, "/home/ubuntu/crow_data/3");
+
+        assertNotNull(third);
+        verify(dockerEngineClient).removeContainer(first.getName(), true);
+        // 빌려간 컨테이너는 지우지 않고, 자리가 없으면 빌려주지 않음
+        assertNull(containerPool.lease(1, 4L, "/home/ubuntu/crow_data/4"));
+        verify(dockerEngineClient, never()).removeContainer(eq(second.getName()), anyBoolean());
+    }
+
+    @Test
+    void serverContainerIsRemovedOnRelease() throws IOException {
+        PooledContainer server = containerPool.lease(3, 1L, TEAM_1);
+
+        assertTrue(containerPool.release(server));
+
+        verify(dockerEngineClient).removeContainer(server.getName(), true);
+        assertNotEquals(server.getName(), containerPool.lease(3, 1L, TEAM_1).getName());
+    }
+
+    @Test
+    void containerIsRemovedWhenCleanupFails() throws IOException {
+        PooledContainer container = containerPool.lease(1, 1L, TEAM_1);
+        when(dockerEngineClient.exec(anyString(), any(), any(), any())).thenReturn(ProcessResult.failed("gone"));
+
+        assertTrue(containerPool.release(container));
+
+        verify(dockerEngineClient).removeContainer(container.getName(), true);
+        assertNotEquals(container.getName(), containerPool.lease(1, 1L, TEAM_1).getName());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSummaryDto;
+import com.example.goldencrow.team.entity.TeamEntity;
+import com.example.goldencrow.team.repository.TeamRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PortAllocator가 DB의 포트를 읽어 정리하고, 포트를 나눠주고 회수하는지 확인하는 테스트
+ * TeamRepository는 Map에 저장하는 mock으로 대신한다.
+ */
+class PortAllocatorTest {
+
+    private final Map<Long, TeamEntity> teams = new LinkedHashMap<>();
+    private TeamRepository teamRepository;
+    private DockerEngineClient dockerEngineClient;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        teamRepository = mock(TeamRepository.class);
+        when(teamRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(teams.values()));
+        when(teamRepository.findByTeamSeq(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(teams.get(invocation.<Long>getArgument(0))));
+        when(teamRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<TeamEntity> found = new ArrayList<>();
+            for (Long teamSeq : (Iterable<Long>) invocation.getArgument(0)) {
+                if (teams.containsKey(teamSeq)) {
+                    found.add(teams.get(teamSeq));
+                }
+            }
+            return found;
+        });
+        dockerEngineClient = mock(DockerEngineClient.class);
+    }
+
+    @Test
+    void storedPortsAreLoadedAndInvalidOnesReassigned() {
+        team(1L, "20001");
+        // Docker가 배정했던 범위 밖의 포트
+        team(2L, "32770");
+        // 팀 1과 겹치는 포트
+        team(3L, "20001");
+        // 회수된 팀
+        team(4L, "0");
+        PortAllocator allocator = allocator(20000, 20004, 0);
+
+        assertEquals("20001", allocator.lease(1L));
+        assertEquals("20000", teams.get(2L).getTeamPort());
+        assertEquals("20002", teams.get(3L).getTeamPort());
+        verify(teamRepository).saveAll(Arrays.asList(teams.get(2L), teams.get(3L)));
+
+        assertEquals("20003", allocator.lease(4L));
+        verify(teamRepository).save(teams.get(4L));
+        assertEquals("20003", teams.get(4L).getTeamPort());
+        assertEquals(4, allocator.metrics().get("leases"));
+        assertEquals(1, allocator.metrics().get("free"));
+    }
+
+    @Test
+    void releasedPortIsReusedAfterExhaustion() {
+        team(1L, "0");
+        team(2L, "0");
+        team(3L, "0");
+        PortAllocator allocator = allocator(20000, 20001, 0);
+
+        assertEquals("20000", allocator.lease(1L));
+        assertEquals("20001", allocator.lease(2L));
+        assertNull(allocator.lease(3L));
+        assertEquals(1L, allocator.metrics().get("exhausted"));
+
+        allocator.release(1L);
+        assertEquals("20000", allocator.lease(3L));
+        assertEquals(1L, allocator.metrics().get("released"));
+    }
+
+    @Test
+    void idleAndDeletedTeamsAreReclaimed() throws IOException, InterruptedException {
+        team(1L, "20000");
+        team(2L, "20001");
+        team(3L, "20002");
+        PortAllocator allocator = allocator(20000, 20009, 1);
+        allocator.lease(1L);
+        // 팀 3이 삭제됨
+        teams.remove(3L);
+        ContainerSummaryDto server = new ContainerSummaryDto();
+        server.setNames(Collections.singletonList("/crowstudio_team_1"));
+        when(dockerEngineClient.listContainers("crowstudio_", false)).thenReturn(Collections.singletonList(server));
+        Thread.sleep(20);
+
+        allocator.reclaim();
+
+        assertEquals(1, allocator.metrics().get("leases"));
+        assertEquals(2L, allocator.metrics().get("reclaimed"));
+        // 오래 실행하지 않은 팀은 다음 실행 때 다시 할당받도록 표시
+        assertEquals("0", teams.get(2L).getTeamPort());
+        assertEquals("20000", allocator.lease(1L));
+        assertEquals("20001", allocator.lease(2L));
+    }
+
+    @Test
+    void portsAreNotReclaimedWhenDockerIsUnreachable() throws IOException, InterruptedException {
+        team(1L, "20000");
+        PortAllocator allocator = allocator(20000, 20009, 1);
+        allocator.lease(1L);
+        when(dockerEngineClient.listContainers("crowstudio_", false)).thenThrow(new IOException("down"));
+        Thread.sleep(20);
+
+        allocator.reclaim();
+
+        assertEquals(1, allocator.metrics().get("leases"));
+        assertEquals(0L, allocator.metrics().get("reclaimed"));
+    }
+
+    private PortAllocator allocator(int rangeStart, int rangeEnd, long idleTimeout) {
+        PortAllocator allocator = new PortAllocator(rangeStart, rangeEnd, idleTimeout);
+        ReflectionTestUtils.setField(allocator, "teamRepository", teamRepository);
+        ReflectionTestUtils.setField(allocator, "dockerEngineClient", dockerEngineClient);
+        return allocator;
+    }
+
+    private void team(Long teamSeq, String port) {
+        TeamEntity team = new TeamEntity();
+        team.setTeamSeq(teamSeq);
+        team.setTeamPort(port);
+        teams.put(teamSeq, team);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.dto.RunResultDto;
+import com.example.goldencrow.compile.dto.TracebackDto;
+import com.example.goldencrow.compile.dto.TracebackFrameDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RunOutput이 출력을 줄 단위로 나누고 traceback을 찾는지 확인하는 테스트
+ */
+class RunOutputTest {
+
+    private static final String HIDDEN = "/home/crow/teams/";
+
+    @Test
+    void tracebackIsParsedAndServerPathIsHidden() {
+        RunOutput output = new RunOutput(1000, HIDDEN);
+        feed(output, "start\n"
+                + "Traceback (most recent call last):\n"
+                + "  File \"/home/crow/teams/7/main.py\", line 3, in <module>\n"
+                + "    print(div(1, 0))\n"
+                + "  File \"/home/crow/teams/7/calc.py\", line 2, in div\n"
+                + "    return a / b\n"
+                + "           ~~^~~\n"
+                + "  File \"/usr/lib/python3.10/decimal.py\", line 9, in helper\n"
+                + "ZeroDivisionError: division by zero\n");
+        RunResultDto result = output.finish(1, false, 5);
+
+        assertFalse(result.getOutput().contains(HIDDEN));
+        assertFalse(result.getTruncated());
+        TracebackDto traceback = result.getTraceback();
+        assertEquals("ZeroDivisionError", traceback.getType());
+        assertEquals("division by zero", traceback.getMessage());
+        assertEquals(3, traceback.getFrames().size());
+
+        TracebackFrameDto first = traceback.getFrames().get(0);
+        assertEquals("7/main.py", first.getFile());
+        assertEquals(3, first.getLine());
+        assertEquals("<module>", first.getFunction());
+        assertEquals("print(div(1, 0))", first.getCode());
+        assertTrue(first.isProject());
+
+        TracebackFrameDto second = traceback.getFrames().get(1);
+        assertEquals("div", second.getFunction());
+        assertEquals("return a / b", second.getCode());
+
+        TracebackFrameDto library = traceback.getFrames().get(2);
+        assertFalse(library.isProject());
+        assertNull(library.getCode());
+    }
+
+    @Test
+    void chainedExceptionKeepsLastTraceback() {
+        RunOutput output = new RunOutput(1000, null);
+        feed(output, "Traceback (most recent call last):\n"
+                + "  File \"main.py\", line 2, in <module>\n"
+                + "    int(\"x\")\n"
+                + "ValueError: invalid literal for int() with base 10: 'x'\n"
+                + "\n"
+                + "During handling of the above exception, another exception occurred:\n"
+                + "\n"
+                + "Traceback (most recent call last):\n"
+                + "  File \"main.py\", line 4, in <module>\n"
+                + "    raise KeyError(\"y\")\n"
+                + "KeyError: 'y'\n");
+        TracebackDto traceback = output.finish(1, false, 0).getTraceback();
+
+        assertEquals("KeyError", traceback.getType());
+        assertEquals("'y'", traceback.getMessage());
+        assertEquals(1, traceback.getFrames().size());
+        assertEquals(4, traceback.getFrames().get(0).getLine());
+    }
+
+    @Test
+    void syntaxErrorWithoutTracebackHeaderIsParsed() {
+        RunOutput output = new RunOutput(1000, null);
+        feed(output, "  File \"main.py\", line 1\n"
+                + "    print(\n"
+                + "         ^\n"
+                + "SyntaxError: '(' was never closed\n");
+        TracebackDto traceback = output.finish(1, false, 0).getTraceback();
+
+        assertEquals("SyntaxError", traceback.getType());
+        assertEquals(1, traceback.getFrames().size());
+        assertNull(traceback.getFrames().get(0).getFunction());
+        assertEquals("print(", traceback.getFrames().get(0).getCode());
+    }
+
+    @Test
+    void interruptedTracebackHasNoType() {
+        RunOutput output = new RunOutput(1000, null);
+        feed(output, "Traceback (most recent call last):\n"
+                + "  File \"main.py\", line 9, in <module>\n");
+        TracebackDto traceback = output.finish(137, true, 0).getTraceback();
+
+        assertNull(traceback.getType());
+        assertEquals(1, traceback.getFrames().size());
+    }
+
+    @Test
+    void plainOutputHasNoTraceback() {
+        RunOutput output = new RunOutput(1000, null);
+        feed(output, "Error: not a traceback\nvalue: 1\n");
+        RunResultDto result = output.finish(0, false, 0);
+
+        assertNull(result.getTraceback());
+        assertEquals("Error: not a traceback\nvalue: 1\n", result.getOutput());
+    }
+
+    @Test
+    void multiByteCharacterSplitAcrossFramesIsDecoded() {
+        RunOutput output = new RunOutput(1000, null);
+        byte[] bytes = "안녕\n하세요".getBytes(StandardCharsets.UTF_8);
+        // 한 글자(3byte)의 중간에서 frame을 나눔
+        for (int offset = 0; offset < bytes.length; offset += 2) {
+            byte[] frame = Arrays.copyOfRange(bytes, offset, Math.min(offset + 2, bytes.length));
+            output.accept(1, frame, frame.length);
+        }
+
+        assertEquals("안녕\n하세요", output.finish(0, false, 0).getOutput());
+    }
+
+    @Test
+    void longLineIsFlushedAtCharacterBoundary() {
+        RunOutput output = new RunOutput(100000, null);
+        StringBuilder text = new StringBuilder("a");
+        for (int i = 0; i < 5000; i++) {
+            text.append('가');
+        }
+        // 줄바꿈 없이 1000byte씩 넘겨 8192byte를 넘는 순간 글자 중간에서 끊기게 함
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < bytes.length; offset += 1000) {
+            byte[] frame = Arrays.copyOfRange(bytes, offset, Math.min(offset + 1000, bytes.length));
+            output.accept(1, frame, frame.length);
+        }
+
+        assertEquals(text.toString(), output.finish(0, false, 0).getOutput());
+    }
+
+    @Test
+    void outputOverLimitIsTruncatedButTracebackIsStillFound() {
+        RunOutput output = new RunOutput(10, null);
+        feed(output, "0123456789abcdef\n"
+                + "Traceback (most recent call last):\n"
+                + "  File \"main.py\", line 1, in <module>\n"
+                + "NameError: name 'x' is not defined\n");
+        RunResultDto result = output.finish(1, false, 0);
+
+        assertEquals("0123456789", result.getOutput());
+        assertTrue(result.getTruncated());
+        assertEquals("NameError", result.getTraceback().getType());
+    }
+
+    private static void feed(RunOutput output, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        output.accept(1, bytes, bytes.length);
+    }
+}
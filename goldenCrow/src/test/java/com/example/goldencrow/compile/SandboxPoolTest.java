@@ -0,0 +1,96 @@
+package com.example.goldencrow.compile;
+
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SandboxPool이 compile.sandbox.network 설정에 따라 네트워크를 쓰는 코드를 sandbox 밖으로 보내는지 확인하는 테스트
+ * 대기 중인 sandbox가 없는 상태로 만들어, null의 이유를 networkRouted, unavailable 지표로 구분한다.
+ */
+class SandboxPoolTest {
+
+    private static final String CLIENT = "import json, requests as rq\nprint(rq.get('https://example.com').status_code)\n";
+
+    @TempDir
+    Path dir;
+
+    private SandboxPool sandboxPool;
+    private ResourceProfiles resourceProfiles;
+
+    @BeforeEach
+    void setUp() {
+        resourceProfiles = new ResourceProfiles(new MockEnvironment());
+        sandboxPool = new SandboxPool();
+        ReflectionTestUtils.setField(sandboxPool, "size", 4);
+        ReflectionTestUtils.setField(sandboxPool, "maxUploadBytes", 1 << 20);
+        ReflectionTestUtils.setField(sandboxPool, "networkPolicy", "route");
+        ReflectionTestUtils.setField(sandboxPool, "resourceProfiles", resourceProfiles);
+        ReflectionTestUtils.setField(sandboxPool, "dockerEngineClient", mock(DockerEngineClient.class));
+    }
+
+    @Test
+    void networkImportsAreDetected() {
+        assertTrue(SandboxPool.usesNetwork("import socket\n"));
+        assertTrue(SandboxPool.usesNetwork("import os, sys, urllib.request\n"));
+        assertTrue(SandboxPool.usesNetwork("x = 1\n    from http.client import HTTPConnection\n"));
+        assertTrue(SandboxPool.usesNetwork(CLIENT));
+
+        assertFalse(SandboxPool.usesNetwork("import os, sys\nprint(input())\n"));
+        assertFalse(SandboxPool.usesNetwork("import requests_cache_helper\n"));
+        assertFalse(SandboxPool.usesNetwork("# import socket\nprint('socket')\n"));
+    }
+
+    @Test
+    void networkSnippetIsRoutedOutOfSandbox() {
+        assertNull(sandboxPool.snippet("run", "run.py", CLIENT, "", resourceProfiles.unlogin()));
+
+        assertEquals(1L, sandboxPool.metrics().get("networkRouted"));
+        assertEquals(0L, sandboxPool.metrics().get("unavailable"));
+    }
+
+    @Test
+    void networkProjectIsRoutedOutOfSandbox() throws IOException {
+        File project = dir.toFile();
+        File pkg = new File(project, "team/api");
+        assertTrue(pkg.mkdirs());
+        Files.write(new File(project, "team/main.py").toPath(), "import api.client\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(pkg, "client.py").toPath(), "from urllib import request\n".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(sandboxPool.project(project, "7", "7/team/main.py", "", resourceProfiles.run(null)));
+
+        assertEquals(1L, sandboxPool.metrics().get("networkRouted"));
+    }
+
+    @Test
+    void offlineSnippetStillUsesSandbox() {
+        // 대기 중인 sandbox가 없어 null이지만, 네트워크 때문에 보낸 것은 아님
+        assertNull(sandboxPool.snippet("run", "run.py", "print(1)\n", "", resourceProfiles.unlogin()));
+
+        assertEquals(0L, sandboxPool.metrics().get("networkRouted"));
+        assertEquals(1L, sandboxPool.metrics().get("unavailable"));
+    }
+
+    @Test
+    void noneCanRunNetworkCodeWithoutNetwork() {
+        ReflectionTestUtils.setField(sandboxPool, "networkPolicy", "none");
+
+        assertNull(sandboxPool.snippet("run", "run.py", CLIENT, "", resourceProfiles.unlogin()));
+
+        assertEquals(0L, sandboxPool.metrics().get("networkRouted"));
+        assertEquals(1L, sandboxPool.metrics().get("unavailable"));
+        assertEquals("none", sandboxPool.metrics().get("networkPolicy"));
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.goldencrow.compile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TeamRunQueue가 팀별로 하나씩 실행하고, 같은 요청만 합치며, 대기열 길이와 대기 시간을 제한하는지 확인하는 테스트
+ */
+class TeamRunQueueTest {
+
+    private static final String BUSY = "busy";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Thread> threads = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(2000);
+        }
+    }
+
+    @Test
+    void sameRequestsWaitingTogetherRunOnce() throws InterruptedException {
+        TeamRunQueue queue = new TeamRunQueue(4, 20000);
+        AtomicInteger runs = new AtomicInteger();
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+
+        submitAsync(queue, "1", "first", blocking("first"), results);
+        awaitSubmitted(queue, 1);
+        submitAsync(queue, "1", "same", counting(runs, "same"), results);
+        submitAsync(queue, "1", "same", counting(runs, "same"), results);
+        awaitSubmitted(queue, 3);
+        release.countDown();
+
+        assertEquals(Arrays.asList("first", "same", "same"), take(results, 3));
+        assertEquals(1, runs.get());
+        assertEquals(1L, queue.metrics().get("coalesced"));
+    }
+
+    @Test
+    void differentRequestsRunOneAtATimeInOrder() throws InterruptedException {
+        TeamRunQueue queue = new TeamRunQueue(4, 20000);
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        Queue<String> order = new ConcurrentLinkedQueue<>();
+
+        submitAsync(queue, "1", "a", blocking("a"), results);
+        awaitSubmitted(queue, 1);
+        submitAsync(queue, "1", "b", exclusive(concurrent, maxConcurrent, order, "b"), results);
+        awaitSubmitted(queue, 2);
+        submitAsync(queue, "1", "c", exclusive(concurrent, maxConcurrent, order, "c"), results);
+        awaitSubmitted(queue, 3);
+        // 다른 팀은 기다리지 않음
+        assertEquals("other", queue.submit("2", "a", () -> "other", retryAfter -> BUSY));
+        release.countDown();
+
+        assertEquals(Arrays.asList("a", "b", "c"), take(results, 3));
+        assertEquals(Arrays.asList("b", "c"), new ArrayList<>(order));
+        assertEquals(1, maxConcurrent.get());
+        assertEquals(0L, queue.metrics().get("coalesced"));
+    }
+
+    @Test
+    void requestOverMaxPendingIsRejectedImmediately() throws InterruptedException {
+        TeamRunQueue queue = new TeamRunQueue(1, 20000);
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+
+        submitAsync(queue, "1", "a", blocking("a"), results);
+        awaitSubmitted(queue, 1);
+        submitAsync(queue, "1", "b", () -> "b", results);
+        awaitSubmitted(queue, 2);
+
+        // 대기 중인 같은 요청에는 합쳐지고, 새 묶음은 거절됨
+        submitAsync(queue, "1", "b", () -> "b", results);
+        awaitSubmitted(queue, 3);
+        long[] retryAfter = new long[1];
+        assertEquals(BUSY, queue.submit("1", "c", () -> "c", seconds -> {
+            retryAfter[0] = seconds;
+            return BUSY;
+        }));
+        assertTrue(retryAfter[0] >= 1);
+        assertEquals(1L, queue.metrics().get("rejected"));
+
+        release.countDown();
+        assertEquals(Arrays.asList("a", "b", "b"), take(results, 3));
+    }
+
+    @Test
+    void waitingRequestTimesOutBehindHungRun() throws InterruptedException {
+        TeamRunQueue queue = new TeamRunQueue(4, 100);
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        submitAsync(queue, "1", "hung", blocking("hung"), results);
+        awaitSubmitted(queue, 1);
+
+        long start = System.nanoTime();
+        assertEquals(BUSY, queue.submit("1", "b", () -> "b", retryAfter -> BUSY));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        assertEquals(1L, queue.metrics().get("timedOut"));
+
+        // 시간 초과로 빠진 묶음은 실행되지 않음
+        release.countDown();
+        assertEquals("hung", results.poll(2, TimeUnit.SECONDS));
+        assertEquals("next", queue.submit("1", "c", () -> "next", retryAfter -> BUSY));
+        assertEquals(2L, queue.metrics().get("executed"));
+    }
+
+    @Test
+    void interruptedWaiterLeavesAndKeepsInterruptFlag() throws InterruptedException {
+        TeamRunQueue queue = new TeamRunQueue(4, 20000);
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        submitAsync(queue, "1", "a", blocking("a"), results);
+        awaitSubmitted(queue, 1);
+
+        BlockingQueue<Boolean> interrupted = new LinkedBlockingQueue<>();
+        Thread waiter = new Thread(() -> {
+            results.add(queue.submit("1", "b", () -> "b", retryAfter -> BUSY));
+            interrupted.add(Thread.currentThread().isInterrupted());
+        });
+        waiter.start();
+        threads.add(waiter);
+        awaitSubmitted(queue, 2);
+        waiter.interrupt();
+
+        assertEquals(BUSY, results.poll(2, TimeUnit.SECONDS));
+        assertTrue(interrupted.poll(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void coalescedRequestRunsWhenFirstWaiterLeaves() throws InterruptedException {
+        TeamRunQueue queue = new TeamRunQueue(4, 20000);
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        submitAsync(queue, "1", "a", blocking("a"), results);
+        awaitSubmitted(queue, 1);
+
+        Thread first = submitAsync(queue, "1", "b", () -> "b", results);
+        awaitSubmitted(queue, 2);
+        submitAsync(queue, "1", "b", () -> "b", results);
+        awaitSubmitted(queue, 3);
+        first.interrupt();
+        assertEquals(BUSY, results.poll(2, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertEquals(Arrays.asList("a", "b"), take(results, 2));
+    }
+
+    @Test
+    void exceptionReachesCallerAndLaneContinues() {
+        TeamRunQueue queue = new TeamRunQueue(4, 20000);
+
+        assertThrows(IllegalStateException.class, () -> queue.submit("1", "a", () -> {
+            throw new IllegalStateException("failed");
+        }, retryAfter -> BUSY));
+        assertEquals("b", queue.submit("1", "b", () -> "b", retryAfter -> BUSY));
+        assertEquals(0, queue.metrics().get("activeTeams"));
+    }
+
+    private Thread submitAsync(TeamRunQueue queue, String teamSeq, String key, Supplier<String> task,
+                               BlockingQueue<String> results) {
+        Thread thread = new Thread(() -> results.add(queue.submit(teamSeq, key, task, retryAfter -> BUSY)));
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+        return thread;
+    }
+
+    /**
+     * 결과를 count개 받아 정렬해 반환하는 내부 로직 (결과를 받는 thread의 순서는 정해져 있지 않음)
+     */
+    private static List<String> take(BlockingQueue<String> results, int count) throws InterruptedException {
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String result = results.poll(2, TimeUnit.SECONDS);
+            assertNotNull(result);
+            taken.add(result);
+        }
+        Collections.sort(taken);
+        return taken;
+    }
+
+    private Supplier<String> blocking(String result) {
+        return () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        };
+    }
+
+    private static Supplier<String> counting(AtomicInteger runs, String result) {
+        return () -> {
+            runs.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static Supplier<String> exclusive(AtomicInteger concurrent, AtomicInteger maxConcurrent,
+                                              Queue<String> order, String result) {
+        return () -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            order.add(result);
+            Thread.yield();
+            concurrent.decrementAndGet();
+            return result;
+        };
+    }
+
+    /**
+     * 다른 thread의 요청이 대기열에 들어갈 때까지 기다리는 내부 로직
+     */
+    private static void awaitSubmitted(TeamRunQueue queue, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!queue.metrics().get("submitted").equals(count) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, queue.metrics().get("submitted"));
+        // submitted는 대기열에 들어가기 직전에 세므로 잠시 더 기다림
+        Thread.sleep(20);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.goldencrow.compile.bench;
+
+import com.example.goldencrow.compile.ImageCache;
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerSpecDto;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * 컴파일 경로(pyCompileService)의 단계별 지연 시간과 동시 실행 처리량을 재는 벤치마크
+ * <p>
+ * N개 팀이 동시에 실행을 반복하면서 CompileService와 같은 순서로 Docker Engine API를 호출한다.
+ * (이전 컨테이너 정리 - Dockerfile 생성 - 이미지 빌드 - 컨테이너 시작 - 포트 조회 - 출력 수집)
+ * 단계별 p50, p99, 최대값과 실행 한 번의 전체 시간, 초당 실행 수를 출력한다.
+ * <p>
+ * 실행 방법 (test classpath에서 main 실행)
+ * <pre>
+ * -Dbench.docker=fake            Docker 흉내 서버 사용 (기본, CI용)
+ * -Dbench.docker=127.0.0.1:2375  로컬 Docker Engine 사용
+ * -Dbench.teams=8                동시에 실행하는 팀 수
+ * -Dbench.iterations=20          팀별 측정 횟수
+ * -Dbench.warmup=3               팀별 측정 전 실행 횟수
+ * -Dbench.type=4                 프로젝트 타입 (패키지 목록 생성에 사용)
+ * -Dbench.image=python:3.10      실제 Docker에서 빌드, 실행에 쓸 기본 이미지
+ * -Dbench.fake.build=40          흉내 서버의 API별 지연 (ms, stop, remove, build, create, start, run, inspect)
+ * </pre>
+ * 실제 Docker에서는 의존성을 설치하지 않는 LABEL만 있는 Dockerfile을 빌드해 빌드 API 자체의 비용만 잰다.
+ */
+public class CompileBenchmark {
+    private static final String[] PHASES = {"stop", "dockerfile", "build", "start", "port", "output", "total"};
+
+    private final DockerEngineClient client;
+    private final ImageCache imageCache = new ImageCache();
+    private final boolean fake;
+    private final int type;
+    private final String baseImage;
+    private final Map<String, List<Long>> samples = new ConcurrentHashMap<>();
+
+    public CompileBenchmark(DockerEngineClient client, boolean fake, int type, String baseImage) {
+        this.client = client;
+        this.fake = fake;
+        this.type = type;
+        this.baseImage = baseImage;
+        for (String phase : PHASES) {
+            samples.put(phase, Collections.synchronizedList(new ArrayList<>()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String docker = System.getProperty("bench.docker", "fake");
+        int teams = Integer.getInteger("bench.teams", 8);
+        int iterations = Integer.getInteger("bench.iterations", 20);
+        int warmup = Integer.getInteger("bench.warmup", 3);
+        int type = Integer.getInteger("bench.type", 4);
+        String image = System.getProperty("bench.image", "python:3.10");
+
+        boolean fake = "fake".equals(docker);
+        FakeDockerEngine engine = fake ? new FakeDockerEngine(FakeDockerEngine.defaultDelays()) : null;
+        String host = fake ? "127.0.0.1" : docker.substring(0, docker.indexOf(':'));
+        int port = fake ? engine.getPort() : Integer.parseInt(docker.substring(docker.indexOf(':') + 1));
+        DockerEngineClient client = new DockerEngineClient(host, port, "v1.41", 3000, 60000, 300000,
+                teams * 2, 5000, 1048576);
+        try {
+            CompileBenchmark benchmark = new CompileBenchmark(client, fake, type, image);
+            System.out.printf("docker=%s teams=%d iterations=%d warmup=%d type=%d%n",
+                    docker, teams, iterations, warmup, type);
+            long elapsed = benchmark.run(teams, iterations, warmup);
+            benchmark.report(teams * iterations, elapsed);
+            System.out.println("docker client " + client.metrics());
+            if (engine != null) {
+                System.out.println("fake engine requests " + engine.getRequests());
+            }
+        } finally {
+            client.close();
+            if (engine != null) {
+                engine.close();
+            }
+        }
+    }
+
+    /**
+     * 팀별 스레드에서 동시에 실행을 반복하는 내부 로직
+     *
+     * @return 측정 구간의 전체 시간 (ns)
+     */
+    public long run(int teams, int iterations, int warmup) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(teams);
+        CyclicBarrier measured = new CyclicBarrier(teams + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < teams; t++) {
+            String team = "crowbench_team_" + t;
+            futures.add(executor.submit(() -> {
+                File project = project(team);
+                try {
+                    for (int i = 0; i < warmup; i++) {
+                        compile(team, project, false);
+                    }
+                    measured.await();
+                    for (int i = 0; i < iterations; i++) {
+                        compile(team, project, true);
+                    }
+                    client.removeContainer(team, true);
+                } finally {
+                    delete(project.toPath());
+                }
+                return null;
+            }));
+        }
+        // 모든 팀의 준비 실행이 끝난 뒤부터 측정
+        measured.await();
+        long startedAt = System.nanoTime();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    /**
+     * CompileService와 같은 순서로 한 번 실행하는 내부 로직
+     */
+    private void compile(String team, File project, boolean record) throws Exception {
+        long startedAt = System.nanoTime();
+
+        long phase = System.nanoTime();
+        client.stopContainer(team, 1);
+        client.removeContainer(team, true);
+        record(record, "stop", phase);
+
+        // 패키지 목록과 tag를 만들고 build context를 씀 (ImageCache.build와 같은 파일)
+        phase = System.nanoTime();
+        String requirements = imageCache.requirements(type, project);
+        String tag = imageCache.tagFor(type, project).replace("crowcache", "crowbench");
+        File context = new File(project, "context");
+        if (!context.isDirectory() && !context.mkdirs()) {
+            throw new IOException("cannot create " + context);
+        }
+        try (FileWriter writer = new FileWriter(new File(context, "Dockerfile"), false)) {
+            writer.write("FROM " + baseImage + "\nLABEL crow.bench=\"" + tag.substring(tag.indexOf(':') + 1) + "\"\n");
+        }
+        try (FileWriter writer = new FileWriter(new File(context, "requirements.txt"), false)) {
+            writer.write(requirements == null ? "" : requirements);
+        }
+        record(record, "dockerfile", phase);
+
+        phase = System.nanoTime();
+        client.buildImage(tag, context);
+        record(record, "build", phase);
+
+        phase = System.nanoTime();
+        ContainerSpecDto spec = new ContainerSpecDto(fake ? tag : baseImage,
+                "sh", "-c", "echo 'Hello, Crow!'; sleep 0.3").publish("3000", "");
+        client.startContainer(client.createContainer(team, spec));
+        record(record, "start", phase);
+
+        phase = System.nanoTime();
+        if (client.hostPort(team, "3000") == null) {
+            throw new IllegalStateException("no port for " + team);
+        }
+        record(record, "port", phase);
+
+        phase = System.nanoTime();
+        DockerEngineClient.OutputBuffer output = new DockerEngineClient.OutputBuffer(1048576);
+        if (client.streamContainer(team, output) != 0 || !output.text().contains("Hello")) {
+            throw new IllegalStateException("unexpected output " + output.text());
+        }
+        record(record, "output", phase);
+
+        record(record, "total", startedAt);
+    }
+
+    private void record(boolean record, String phase, long startedAt) {
+        if (record) {
+            samples.get(phase).add(System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * 단계별 p50, p99, 최대, 평균 (ms)과 처리량을 출력하는 내부 로직
+     */
+    public void report(int runs, long elapsedNanos) {
+        System.out.printf("%-10s %7s %9s %9s %9s %9s%n", "phase", "count", "p50(ms)", "p99(ms)", "max(ms)", "mean(ms)");
+        for (String phase : PHASES) {
+            List<Long> values = new ArrayList<>(samples.get(phase));
+            if (values.isEmpty()) {
+                continue;
+            }
+            Collections.sort(values);
+            long sum = 0;
+            for (long value : values) {
+                sum += value;
+            }
+            System.out.printf("%-10s %7d %9.2f %9.2f %9.2f %9.2f%n", phase, values.size(),
+                    millis(percentile(values, 50)), millis(percentile(values, 99)),
+                    millis(values.get(values.size() - 1)), millis(sum / values.size()));
+        }
+        System.out.printf("throughput %.2f runs/s (%d runs in %.2f s)%n",
+                runs / (elapsedNanos / 1e9), runs, elapsedNanos / 1e9);
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static File project(String team) throws IOException {
+        File project = Files.createTempDirectory(team).toFile();
+        try (FileWriter writer = new FileWriter(new File(project, "requirements.txt"))) {
+            writer.write("requests\n");
+        }
+        return project;
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<Path> it = paths.sorted(Comparator.reverseOrder()).iterator();
+            while (it.hasNext()) {
+                Files.deleteIfExists(it.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.goldencrow.compile.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 컴파일 경로 벤치마크에서 실제 Docker 대신 쓰는 Docker Engine API 흉내
+ * <p>
+ * DockerEngineClient가 컴파일 중에 호출하는 API(stop, rm, build, create, start, logs, wait, inspect)만
+ * 지원하고, 각 API는 설정한 시간만큼 기다린 뒤 응답한다. 네트워크와 데몬이 없는 CI에서
+ * 클라이언트, 연결 재사용, 직렬화 비용과 동시 실행 시의 대기를 측정하기 위한 것이다.
+ */
+public class FakeDockerEngine implements AutoCloseable {
+    static {
+        // 응답 헤더와 body를 나눠 보낼 때 Nagle 알고리즘으로 생기는 지연(~40ms)이 측정에 섞이지 않도록 함
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-docker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Long> delays;
+    private final Map<String, FakeContainer> containers = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> images = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPort = new AtomicInteger(32768);
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * FakeDockerEngine 생성자
+     *
+     * @param delays API별 응답 지연 (ms, stop, remove, build, create, start, run, inspect)
+     * @throws IOException 포트를 열지 못한 경우
+     */
+    public FakeDockerEngine(Map<String, Long> delays) throws IOException {
+        this.delays = new HashMap<>(delays);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/", this::handle);
+        server.setExecutor(workers);
+        server.start();
+    }
+
+    /**
+     * 기본 지연 시간 (ms), -Dbench.fake.{name}=ms 로 바꿀 수 있다.
+     *
+     * @return API별 응답 지연
+     */
+    public static Map<String, Long> defaultDelays() {
+        Map<String, Long> delays = new HashMap<>();
+        delays.put("stop", 5L);
+        delays.put("remove", 5L);
+        delays.put("build", 40L);
+        delays.put("create", 10L);
+        delays.put("start", 15L);
+        delays.put("run", 30L);
+        delays.put("inspect", 1L);
+        for (Map.Entry<String, Long> entry : delays.entrySet()) {
+            entry.setValue(Long.getLong("bench.fake." + entry.getKey(), entry.getValue()));
+        }
+        return delays;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            drain(exchange.getRequestBody());
+            route(exchange, exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(),
+                    query(exchange.getRequestURI().getRawQuery()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 500, "{\"message\":\"interrupted\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String rawPath, Map<String, String> query)
+            throws IOException, InterruptedException {
+        // /v1.41/containers/{id}/start -> [containers, {id}, start]
+        String path = rawPath.substring(rawPath.indexOf('/', 1) + 1);
+        String[] parts = path.split("/");
+        if ("build".equals(path) && "POST".equals(method)) {
+            delay("build");
+            images.put(query.get("t"), Boolean.TRUE);
+            send(exchange, 200, "{\"stream\":\"Successfully built\\n\"}\r\n");
+            return;
+        }
+        if ("images".equals(parts[0]) && parts.length == 3 && "GET".equals(method)) {
+            delay("inspect");
+            if (!images.containsKey(decode(parts[1]))) {
+                send(exchange, 404, "{\"message\":\"No such image\"}");
+                return;
+            }
+            send(exchange, 200, "{\"Id\":\"sha256:bench\",\"Size\":1048576}");
+            return;
+        }
+        if (!"containers".equals(parts[0]) || parts.length < 2) {
+            send(exchange, 404, "{\"message\":\"page not found\"}");
+            return;
+        }
+        if ("create".equals(parts[1])) {
+            delay("create");
+            String name = query.get("name");
+            if (containers.putIfAbsent(name, new FakeContainer(nextPort.getAndIncrement())) != null) {
+                send(exchange, 409, "{\"message\":\"Conflict\"}");
+                return;
+            }
+            send(exchange, 201, "{\"Id\":\"" + name + "\",\"Warnings\":[]}");
+            return;
+        }
+        String name = decode(parts[1]);
+        FakeContainer container = containers.get(name);
+        if (container == null) {
+            send(exchange, 404, "{\"message\":\"No such container: " + name + "\"}");
+            return;
+        }
+        String action = parts.length > 2 ? parts[2] : "";
+        if ("DELETE".equals(method)) {
+            delay("remove");
+            containers.remove(name);
+            send(exchange, 204, null);
+        } else if ("stop".equals(action)) {
+            if (container.running) {
+                delay("stop");
+                container.running = false;
+            }
+            send(exchange, 204, null);
+        } else if ("start".equals(action)) {
+            delay("start");
+            container.running = true;
+            container.startedAt = System.currentTimeMillis();
+            send(exchange, 204, null);
+        } else if ("logs".equals(action)) {
+            // 프로그램이 끝날 때까지 기다린 뒤 출력 frame 하나를 보냄
+            long left = container.startedAt + delays.get("run") - System.currentTimeMillis();
+            if (left > 0) {
+                Thread.sleep(left);
+            }
+            container.running = false;
+            exchange.sendResponseHeaders(200, 0);
+            byte[] output = "Hello, Crow!\n".getBytes(StandardCharsets.UTF_8);
+            byte[] header = {1, 0, 0, 0, 0, 0, 0, (byte) output.length};
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(header);
+                out.write(output);
+            }
+        } else if ("wait".equals(action)) {
+            send(exchange, 200, "{\"StatusCode\":0}");
+        } else if ("json".equals(action)) {
+            delay("inspect");
+            String ports = container.running
+                    ? "{\"3000/tcp\":[{\"HostIp\":\"0.0.0.0\",\"HostPort\":\"" + container.port + "\"}]}" : "{}";
+            send(exchange, 200, "{\"Id\":\"" + name + "\",\"State\":{\"Running\":" + container.running
+                    + ",\"ExitCode\":0},\"NetworkSettings\":{\"Ports\":" + ports + "}}");
+        } else {
+            send(exchange, 404, "{\"message\":\"page not found\"}");
+        }
+    }
+
+    private void delay(String name) throws InterruptedException {
+        long millis = delays.getOrDefault(name, 0L);
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buf = new byte[8192];
+        while (in.read(buf) != -1) {
+            // build context는 읽고 버림
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 흉내낸 컨테이너의 상태
+     */
+    private static class FakeContainer {
+        private final int port;
+        private volatile boolean running = false;
+        private volatile long startedAt;
+
+        private FakeContainer(int port) {
+            this.port = port;
+        }
+    }
+}
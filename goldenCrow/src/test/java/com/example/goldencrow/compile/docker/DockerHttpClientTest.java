@@ -0,0 +1,376 @@
+package com.example.goldencrow.compile.docker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DockerHttpClient를 실제 Docker 대신 소켓으로 응답하는 stub 서버에 붙여 확인하는 테스트
+ */
+class DockerHttpClientTest {
+
+    private StubServer server;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void chunkedResponseIsDecodedAndConnectionIsReused() throws IOException {
+        server = new StubServer((request, out) -> {
+            out.write(ascii("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    + "6\r\nhello \r\n5\r\nworld\r\n0\r\n\r\n"));
+            return true;
+        });
+        DockerHttpClient client = server.client();
+
+        for (int i = 0; i < 3; i++) {
+            try (DockerResponse response = client.execute("GET", "/version", null, null, null, 1000)) {
+                assertEquals(200, response.getStatus());
+                assertEquals("hello world", response.readText());
+            }
+        }
+        assertEquals(1, client.opened.get());
+        assertEquals(2, client.reused.get());
+        assertEquals(1, server.connections.get());
+        assertEquals(1, client.idleConnections());
+    }
+
+    @Test
+    void chunkedRequestBodyIsSentWhole() throws IOException {
+        server = new StubServer((request, out) -> {
+            byte[] body = ascii(String.valueOf(request.body.length));
+            out.write(ascii("HTTP/1.1 200 OK\r\nContent-Length: " + body.length + "\r\n\r\n"));
+            out.write(body);
+            return true;
+        });
+        byte[] payload = new byte[100000];
+        new Random(7).nextBytes(payload);
+
+        try (DockerResponse response = server.client().execute("POST", "/build", "application/x-tar", null,
+                out -> out.write(payload), 1000)) {
+            assertEquals("100000", response.readText());
+        }
+        assertEquals("chunked", server.requests.get(0).headers.get("transfer-encoding"));
+        assertArrayEquals(payload, server.requests.get(0).body);
+    }
+
+    @Test
+    void upgradedConnectionIsHandedOverAndNotPooled() throws IOException {
+        server = new StubServer((request, out) -> {
+            out.write(ascii("HTTP/1.1 101 UPGRADED\r\nConnection: Upgrade\r\nUpgrade: tcp\r\n\r\n"));
+            out.flush();
+            // stdin을 EOF까지 읽고 stdout frame으로 돌려줌
+            byte[] stdin = readAll(request.in);
+            out.write(frame(1, stdin));
+            return false;
+        });
+        DockerHttpClient client = server.client();
+
+        DockerResponse response = client.execute("POST", "/exec/abc/start", "application/json",
+                ascii("{}"), null, 1000, true);
+        try {
+            assertEquals(101, response.getStatus());
+            response.getUpgradedOutput().write(ascii("print(1)\n"));
+            response.closeUpgradedOutput();
+            byte[] output = readAll(response.getBody());
+            assertArrayEquals(frame(1, ascii("print(1)\n")), output);
+        } finally {
+            response.close();
+        }
+        assertEquals(0, client.idleConnections());
+    }
+
+    @Test
+    void multiplexedFramesAreSplitByStream() throws IOException {
+        byte[] large = new byte[20000];
+        Arrays.fill(large, (byte) 'x');
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        frames.write(frame(1, ascii("out\n")));
+        frames.write(frame(2, ascii("err\n")));
+        frames.write(frame(1, large));
+        byte[] stream = frames.toByteArray();
+        server = new StubServer((request, out) -> {
+            // frame 헤더가 chunk 경계에 걸치도록 5byte 단위로 나눠 보냄
+            out.write(ascii("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"));
+            for (int offset = 0; offset < stream.length; offset += 5) {
+                int length = Math.min(5, stream.length - offset);
+                out.write(ascii(Integer.toHexString(length) + "\r\n"));
+                out.write(stream, offset, length);
+                out.write(ascii("\r\n"));
+            }
+            out.write(ascii("0\r\n\r\n"));
+            return true;
+        });
+        DockerEngineClient client = new DockerEngineClient("127.0.0.1", server.getPort(), "v1.41",
+                1000, 1000, 1000, 4, 60000, 1 << 20);
+
+        List<String> received = new ArrayList<>();
+        assertTrue(client.logs("abc", false, (type, data, length) -> {
+            received.add(type + ":" + length + ":" + new String(data, 0, Math.min(length, 4), StandardCharsets.UTF_8));
+            return true;
+        }));
+        assertEquals(Arrays.asList("1:4:out\n", "2:4:err\n", "1:20000:xxxx"), received);
+    }
+
+    @Test
+    void connectionIdleTooLongIsReplacedBeforeSending() throws IOException, InterruptedException {
+        server = new StubServer((request, out) -> {
+            out.write(ascii("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok"));
+            // keep-alive 응답을 보낸 뒤 서버가 먼저 연결을 닫음
+            return false;
+        });
+        DockerHttpClient client = server.client(50);
+
+        try (DockerResponse response = client.execute("GET", "/a", null, null, null, 1000)) {
+            assertEquals("ok", response.readText());
+        }
+        server.awaitClosed(1);
+        Thread.sleep(100);
+        try (DockerResponse response = client.execute("POST", "/b", null, null, null, 1000)) {
+            assertEquals("ok", response.readText());
+        }
+        assertEquals(2, client.opened.get());
+        assertEquals(0, client.reused.get());
+        assertEquals(1, client.stale.get());
+        assertEquals(Arrays.asList("GET /a", "POST /b"), server.lines());
+    }
+
+    @Test
+    void recentlyIdleConnectionClosedByServerIsResentBeforeFlush() throws IOException {
+        server = new StubServer((request, out) -> {
+            out.write(ascii("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok"));
+            // keep-alive 응답을 보낸 뒤 서버가 먼저 연결을 닫음
+            return false;
+        });
+        DockerHttpClient client = server.client();
+        byte[] payload = new byte[1 << 20];
+
+        try (DockerResponse response = client.execute("GET", "/a", null, null, null, 1000)) {
+            assertEquals("ok", response.readText());
+        }
+        server.awaitClosed(1);
+        // 쉰 시간으로는 걸러지지 않지만, 큰 body를 다 보내기 전에 끊겨 새 연결로 다시 보냄
+        try (DockerResponse response = client.execute("POST", "/build", "application/x-tar", null,
+                out -> out.write(payload), 1000)) {
+            assertEquals("ok", response.readText());
+        }
+        assertEquals(2, client.opened.get());
+        assertEquals(1, client.stale.get());
+        assertEquals(Arrays.asList("GET /a", "POST /build"), server.lines());
+    }
+
+    @Test
+    void requestIsNotResentWhenConnectionClosesAfterFlush() throws IOException {
+        AtomicInteger served = new AtomicInteger();
+        server = new StubServer((request, out) -> {
+            if (served.incrementAndGet() == 1) {
+                out.write(ascii("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n"));
+                return true;
+            }
+            // 요청을 받은 뒤 응답 없이 닫음 (Docker Engine이 처리했는지 알 수 없음)
+            return false;
+        });
+        DockerHttpClient client = server.client();
+        client.execute("GET", "/a", null, null, null, 1000).close();
+
+        assertThrows(EOFException.class,
+                () -> client.execute("POST", "/containers/create", "application/json", ascii("{}"), null, 1000));
+        assertEquals(Arrays.asList("GET /a", "POST /containers/create"), server.lines());
+        assertEquals(0, client.idleConnections());
+    }
+
+    @Test
+    void socketIsClosedWhenResponseTimesOut() throws IOException {
+        CountDownLatch peerClosed = new CountDownLatch(1);
+        server = new StubServer((request, out) -> {
+            // 응답하지 않고, 클라이언트가 연결을 닫아 EOF가 올 때까지 기다림
+            if (request.in.read() == -1) {
+                peerClosed.countDown();
+            }
+            return false;
+        });
+        DockerHttpClient client = server.client();
+
+        assertThrows(SocketTimeoutException.class,
+                () -> client.execute("GET", "/slow", null, null, null, 200));
+        assertTrue(await(peerClosed));
+        assertEquals(0, client.idleConnections());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] frame(int stream, byte[] data) {
+        byte[] frame = new byte[8 + data.length];
+        frame[0] = (byte) stream;
+        frame[4] = (byte) (data.length >>> 24);
+        frame[5] = (byte) (data.length >>> 16);
+        frame[6] = (byte) (data.length >>> 8);
+        frame[7] = (byte) data.length;
+        System.arraycopy(data, 0, frame, 8, data.length);
+        return frame;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 요청 하나에 응답을 쓰는 handler
+     */
+    private interface Handler {
+        /**
+         * @return 연결을 유지하고 다음 요청을 읽으려면 true, 연결을 닫으려면 false
+         */
+        boolean handle(Request request, OutputStream out) throws IOException;
+    }
+
+    private static class Request {
+        private String line;
+        private final Map<String, String> headers = new HashMap<>();
+        private byte[] body;
+        private InputStream in;
+    }
+
+    /**
+     * 연결마다 thread 하나로 요청을 읽어 handler에 넘기는 HTTP/1.1 stub 서버
+     */
+    private static class StubServer implements Closeable {
+        private final ServerSocket serverSocket;
+        private final Handler handler;
+        private final List<Request> requests = new CopyOnWriteArrayList<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+
+        StubServer(Handler handler) throws IOException {
+            this.handler = handler;
+            this.serverSocket = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "stub-docker");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        DockerHttpClient client() {
+            return client(60000);
+        }
+
+        DockerHttpClient client(long maxIdleMillis) {
+            return new DockerHttpClient("127.0.0.1", getPort(), 1000, 4, maxIdleMillis, null);
+        }
+
+        List<String> lines() {
+            List<String> lines = new ArrayList<>();
+            for (Request request : requests) {
+                lines.add(request.line.substring(0, request.line.lastIndexOf(' ')));
+            }
+            return lines;
+        }
+
+        void awaitClosed(int count) {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (closed.get() < count && System.currentTimeMillis() < deadline) {
+                Thread.yield();
+            }
+            assertTrue(closed.get() >= count);
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread worker = new Thread(() -> serve(socket), "stub-docker-connection");
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket connection = socket) {
+                InputStream in = new BufferedInputStream(connection.getInputStream());
+                OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+                Request request;
+                while ((request = readRequest(in)) != null) {
+                    requests.add(request);
+                    boolean keep = handler.handle(request, out);
+                    out.flush();
+                    if (!keep) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // 클라이언트가 먼저 끊은 경우
+            } finally {
+                closed.incrementAndGet();
+            }
+        }
+
+        private static Request readRequest(InputStream in) throws IOException {
+            String line = HttpStreams.readLine(in);
+            if (line == null) {
+                return null;
+            }
+            Request request = new Request();
+            request.line = line;
+            String header;
+            while ((header = HttpStreams.readLine(in)) != null && !header.isEmpty()) {
+                int colon = header.indexOf(':');
+                request.headers.put(header.substring(0, colon).trim().toLowerCase(), header.substring(colon + 1).trim());
+            }
+            if ("chunked".equals(request.headers.get("transfer-encoding"))) {
+                request.body = readAll(new HttpStreams.ChunkedInputStream(in));
+            } else {
+                byte[] body = new byte[Integer.parseInt(request.headers.getOrDefault("content-length", "0"))];
+                new DataInputStream(in).readFully(body);
+                request.body = body;
+            }
+            request.in = in;
+            return request;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.goldencrow.compile.docker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.*;
+import java.io.*;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DockerTls가 평문 TCP를 loopback에만 허용하고, TLS 연결에서도 exec stdin EOF(half-close)를 알릴 수 있는지 확인하는 테스트
+ * 인증서는 JDK의 keytool로 테스트마다 만든다.
+ */
+class DockerTlsTest {
+
+    private static final String PASSWORD = "changeit";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void plainTcpIsOnlyAllowedOnLoopback() {
+        assertNull(DockerTls.socketFactory(false, "127.0.0.1", null, null, null, null));
+        assertNull(DockerTls.socketFactory(false, "localhost", null, null, null, null));
+        assertThrows(IllegalStateException.class,
+                () -> DockerTls.socketFactory(false, "10.0.0.1", null, null, null, null));
+    }
+
+    @Test
+    void unreadableKeyStoreFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> DockerTls.socketFactory(true, "127.0.0.1",
+                dir.resolve("missing.p12").toString(), PASSWORD, null, null));
+    }
+
+    @Test
+    void upgradedTlsConnectionCanCloseStdinAndKeepReading() throws Exception {
+        String keyStore = generateKeyStore();
+        SSLServerSocket serverSocket = serverSocket(keyStore);
+        Thread server = new Thread(() -> serveUpgrade(serverSocket), "stub-docker-tls");
+        server.setDaemon(true);
+        server.start();
+        try {
+            DockerHttpClient client = new DockerHttpClient("127.0.0.1", serverSocket.getLocalPort(), 1000, 4,
+                    60000, DockerTls.socketFactory(true, "127.0.0.1", keyStore, PASSWORD, keyStore, PASSWORD));
+
+            DockerResponse response = client.execute("POST", "/exec/abc/start", "application/json",
+                    "{}".getBytes(StandardCharsets.UTF_8), null, 2000, true);
+            try {
+                assertEquals(101, response.getStatus());
+                response.getUpgradedOutput().write("print(1)\n".getBytes(StandardCharsets.UTF_8));
+                response.getUpgradedOutput().flush();
+                response.closeUpgradedOutput();
+                assertEquals("got:print(1)\n", readAll(response.getBody()));
+            } finally {
+                response.close();
+            }
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * 101 응답 뒤 stdin을 EOF까지 읽고, 받은 내용을 돌려준 뒤 닫는 stub Docker Engine
+     */
+    private static void serveUpgrade(SSLServerSocket serverSocket) {
+        try (SSLSocket socket = (SSLSocket) serverSocket.accept()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            // 요청 줄과 헤더는 확인하지 않고 body "{}"까지 읽음
+            String line;
+            do {
+                line = HttpStreams.readLine(in);
+            } while (line != null && !line.isEmpty());
+            new DataInputStream(in).readFully(new byte[2]);
+            OutputStream out = socket.getOutputStream();
+            out.write("HTTP/1.1 101 UPGRADED\r\nConnection: Upgrade\r\nUpgrade: tcp\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String stdin = readAll(in);
+            out.write(("got:" + stdin).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            // 테스트가 먼저 끝난 경우
+        }
+    }
+
+    private SSLServerSocket serverSocket(String keyStore) throws Exception {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(keyStore)) {
+            store.load(in, PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(store, PASSWORD.toCharArray());
+        SSLContext context = SSLContext.getInstance("TLSv1.3");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        SSLServerSocket serverSocket = (SSLServerSocket) context.getServerSocketFactory()
+                .createServerSocket(0, 4, InetAddress.getLoopbackAddress());
+        serverSocket.setNeedClientAuth(false);
+        return serverSocket;
+    }
+
+    /**
+     * 127.0.0.1 인증서와 개인 키가 든 PKCS12 파일을 만드는 내부 로직 (trust store로도 사용)
+     */
+    private String generateKeyStore() throws IOException, InterruptedException {
+        String path = dir.resolve("docker.p12").toString();
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "docker", "-keyalg", "RSA",
+                "-keysize", "2048", "-dname", "CN=docker", "-ext", "san=ip:127.0.0.1", "-validity", "1",
+                "-storetype", "PKCS12", "-keystore", path, "-storepass", PASSWORD, "-keypass", PASSWORD)
+                .redirectErrorStream(true).start();
+        readAll(process.getInputStream());
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+        return path;
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
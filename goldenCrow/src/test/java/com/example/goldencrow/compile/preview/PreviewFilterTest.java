@@ -0,0 +1,92 @@
+package com.example.goldencrow.compile.preview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PreviewFilter가 {teamSeq}.{미리보기 도메인} 요청만 경로를 바꾸지 않고 팀 서버로 보내고,
+ * 서비스 도메인의 요청은 그대로 Controller로 넘기는지 확인하는 테스트
+ */
+class PreviewFilterTest {
+    private static final String DOMAIN = "preview.example.com";
+
+    private PreviewService previewService;
+    private MockHttpServletResponse response;
+    private MockFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        previewService = mock(PreviewService.class);
+        response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+    }
+
+    @Test
+    void teamHostIsProxiedAtRoot() throws ServletException, IOException {
+        MockHttpServletRequest request = request("7.Preview.Example.com", "/admin/login/");
+
+        new PreviewFilter(previewService, true, DOMAIN).doFilter(request, response, chain);
+
+        verify(previewService).proxy(7L, "/admin/login/", request, response);
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void emptyPathIsSentAsRoot() throws ServletException, IOException {
+        MockHttpServletRequest request = request("12.preview.example.com", "");
+
+        new PreviewFilter(previewService, true, DOMAIN).doFilter(request, response, chain);
+
+        verify(previewService).proxy(eq(12L), eq("/"), any(), any());
+    }
+
+    @Test
+    void serviceHostIsNotProxied() throws ServletException, IOException {
+        MockHttpServletRequest request = request("k7d207.p.ssafy.io", "/api/compile/py");
+
+        new PreviewFilter(previewService, true, DOMAIN).doFilter(request, response, chain);
+
+        assertSame(request, chain.getRequest());
+        verifyNoInteractions(previewService);
+    }
+
+    @Test
+    void unknownLabelIsNotFound() throws ServletException, IOException {
+        for (String host : new String[]{"admin.preview.example.com", "1.2.preview.example.com", "07.preview.example.com"}) {
+            MockHttpServletResponse res = new MockHttpServletResponse();
+            MockFilterChain filterChain = new MockFilterChain();
+
+            new PreviewFilter(previewService, true, DOMAIN).doFilter(request(host, "/"), res, filterChain);
+
+            assertEquals(404, res.getStatus(), host);
+            assertNull(filterChain.getRequest(), host);
+        }
+        verifyNoInteractions(previewService);
+    }
+
+    @Test
+    void disabledPreviewPassesEverythingThrough() throws ServletException, IOException {
+        MockHttpServletRequest request = request("7.preview.example.com", "/");
+
+        new PreviewFilter(previewService, false, DOMAIN).doFilter(request, response, chain);
+
+        assertSame(request, chain.getRequest());
+        verifyNoInteractions(previewService);
+    }
+
+    private static MockHttpServletRequest request(String host, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServerName(host);
+        return request;
+    }
+}
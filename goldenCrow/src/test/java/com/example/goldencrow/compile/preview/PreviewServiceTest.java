@@ -0,0 +1,227 @@
+package com.example.goldencrow.compile.preview;
+
+import com.example.goldencrow.compile.CompileService;
+import com.example.goldencrow.compile.ContainerPool;
+import com.example.goldencrow.compile.ContainerReaper;
+import com.example.goldencrow.compile.PooledContainer;
+import com.example.goldencrow.compile.docker.DockerEngineClient;
+import com.example.goldencrow.compile.docker.dto.ContainerInspectDto;
+import com.example.goldencrow.compile.docker.dto.ContainerStateDto;
+import com.example.goldencrow.team.entity.TeamEntity;
+import com.example.goldencrow.team.repository.TeamRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PreviewService가 팀 서버로 보내는 요청 헤더와 브라우저로 돌려주는 응답 헤더(Location, Set-Cookie)를 확인하고,
+ * 인증 없는 미리보기 요청으로 서버를 띄우지 않는지 확인하는 테스트
+ * 팀 서버는 요청 하나에 정해진 응답을 보내는 ServerSocket으로 대신한다.
+ */
+class PreviewServiceTest {
+    private static final String CONTAINER = "crowpool_3_7_abcd1234";
+
+    private DockerEngineClient dockerEngineClient;
+    private ContainerPool containerPool;
+    private TeamRepository teamRepository;
+    private CompileService compileService;
+    private PreviewService previewService;
+    private ServerSocket upstream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        dockerEngineClient = mock(DockerEngineClient.class);
+        containerPool = mock(ContainerPool.class);
+        teamRepository = mock(TeamRepository.class);
+        compileService = mock(CompileService.class);
+
+        ContainerStateDto state = new ContainerStateDto();
+        state.setRunning(true);
+        ContainerInspectDto inspect = new ContainerInspectDto();
+        inspect.setState(state);
+        when(dockerEngineClient.inspectContainer(CONTAINER)).thenReturn(inspect);
+        when(dockerEngineClient.hostPort(CONTAINER, "5000")).thenReturn(String.valueOf(upstream.getLocalPort()));
+        when(containerPool.leasedBy(7L)).thenReturn(Collections.singletonList(
+                new PooledContainer(CONTAINER, 3, null, 7L, "/home/ubuntu/crow_data/7")));
+
+        previewService = new PreviewService(2, 4, 5000, 1000, 5000, 2, 4000, 5000,
+                "127.0.0.1", "JSESSIONID");
+        ReflectionTestUtils.setField(previewService, "dockerEngineClient", dockerEngineClient);
+        ReflectionTestUtils.setField(previewService, "containerPool", containerPool);
+        ReflectionTestUtils.setField(previewService, "containerReaper", mock(ContainerReaper.class));
+        ReflectionTestUtils.setField(previewService, "teamRepository", teamRepository);
+        ReflectionTestUtils.setField(previewService, "compileService", compileService);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        previewService.shutdown();
+        upstream.close();
+    }
+
+    @Test
+    void requestHeadersKeepHostAndDropUserCredentials() throws Exception {
+        List<String> received = serveOnce("HTTP/1.1 204 No Content\r\n\r\n");
+        MockHttpServletRequest request = request("/admin/");
+        request.setQueryString("q=1");
+        request.addHeader("Authorization", "Bearer user-token");
+        request.addHeader("Cookie", "JSESSIONID=service-session; csrftoken=abc");
+
+        MockHttpServletResponse response = proxy(7L, "/admin/", request);
+
+        assertEquals(204, response.getStatus());
+        awaitRequest(received);
+        assertEquals("GET /admin/?q=1 HTTP/1.1", received.get(0));
+        assertTrue(received.contains("Host: 7.preview.example.com"));
+        assertTrue(received.contains("Cookie: csrftoken=abc"));
+        assertTrue(received.contains("X-Forwarded-For: 10.0.0.1"));
+        assertTrue(received.contains("X-Forwarded-Proto: http"));
+        for (String header : received) {
+            assertFalse(header.toLowerCase().startsWith("authorization"), header);
+            assertFalse(header.contains("service-session"), header);
+        }
+    }
+
+    @Test
+    void redirectLocationIsPassedThroughUnchanged() throws Exception {
+        serveOnce("HTTP/1.1 302 Found\r\n"
+                + "Location: /accounts/login/?next=/admin/\r\n"
+                + "Set-Cookie: JSESSIONID=team-server; Path=/\r\n"
+                + "Set-Cookie: csrftoken=abc; Path=/\r\n"
+                + "Connection: close\r\n"
+                + "Content-Length: 0\r\n\r\n");
+
+        MockHttpServletResponse response = proxy(7L, "/admin/", request("/admin/"));
+
+        assertEquals(302, response.getStatus());
+        // 팀 서버는 자기 origin의 루트에서 열리므로 경로를 붙이지 않음
+        assertEquals("/accounts/login/?next=/admin/", response.getHeader("Location"));
+        assertNull(response.getCookie("JSESSIONID"));
+        assertEquals("abc", response.getCookie("csrftoken").getValue());
+        assertNull(response.getHeader("Connection"));
+    }
+
+    @Test
+    void absoluteLocationIsPassedThroughUnchanged() throws Exception {
+        serveOnce("HTTP/1.1 301 Moved Permanently\r\n"
+                + "Location: https://7.preview.example.com/docs/\r\n"
+                + "Content-Length: 0\r\n\r\n");
+
+        MockHttpServletResponse response = proxy(7L, "/docs", request("/docs"));
+
+        assertEquals(301, response.getStatus());
+        assertEquals("https://7.preview.example.com/docs/", response.getHeader("Location"));
+    }
+
+    @Test
+    void stoppedServerIsNotStartedByPreviewRequest() throws Exception {
+        TeamEntity team = new TeamEntity();
+        team.setTeamSeq(8L);
+        team.setTeamName("crow");
+        when(teamRepository.findByTeamSeq(8L)).thenReturn(Optional.of(team));
+        Map<String, String> type = new HashMap<>();
+        type.put("type", "3");
+        type.put("path", "/home/ubuntu/crow_data/8/crow/app.py");
+        when(compileService.findProjectTypeService("8/crow")).thenReturn(type);
+
+        MockHttpServletResponse response = proxy(8L, "/", request("/"));
+
+        assertEquals(503, response.getStatus());
+        verify(dockerEngineClient).inspectContainer("crowstudio_crow_8");
+        verify(compileService, never()).pyCompileService(anyInt(), anyString(), anyString());
+        verify(dockerEngineClient, never()).createContainer(anyString(), any());
+        verify(containerPool, never()).lease(anyInt(), any(), anyString());
+        assertEquals(1L, previewService.metrics().get("notRunning"));
+    }
+
+    @Test
+    void unknownTeamIsNotFound() throws Exception {
+        when(teamRepository.findByTeamSeq(9L)).thenReturn(Optional.empty());
+
+        MockHttpServletResponse response = proxy(9L, "/", request("/"));
+
+        assertEquals(404, response.getStatus());
+        verifyNoInteractions(compileService);
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServerName("7.preview.example.com");
+        request.addHeader("Host", "7.preview.example.com");
+        request.setRemoteAddr("10.0.0.1");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    /**
+     * 요청을 보내고 async 처리가 끝날 때까지 기다리는 내부 로직
+     */
+    private MockHttpServletResponse proxy(Long teamSeq, String path, MockHttpServletRequest request)
+            throws InterruptedException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        previewService.proxy(teamSeq, path, request, response);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (request.isAsyncStarted()) {
+            assertTrue(System.currentTimeMillis() < deadline, "proxy did not complete");
+            Thread.sleep(10);
+        }
+        return response;
+    }
+
+    /**
+     * 연결 하나를 받아 요청 헤더를 기록하고 정해진 응답을 보내는 내부 로직
+     *
+     * @return 받은 요청 줄과 헤더 (요청을 다 읽으면 채워짐)
+     */
+    private List<String> serveOnce(String reply) {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Thread thread = new Thread(() -> {
+            try (Socket socket = upstream.accept()) {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                List<String> lines = new ArrayList<>();
+                String line;
+                while ((line = in.readLine()) != null && !line.isEmpty()) {
+                    lines.add(line);
+                }
+                received.addAll(lines);
+                OutputStream out = socket.getOutputStream();
+                out.write(reply.getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+            } catch (IOException e) {
+                // 테스트가 끝나 ServerSocket이 닫힘
+            }
+        }, "preview-upstream");
+        thread.setDaemon(true);
+        thread.start();
+        return received;
+    }
+
+    private static void awaitRequest(List<String> received) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(received.isEmpty(), "upstream received no request");
+    }
+}
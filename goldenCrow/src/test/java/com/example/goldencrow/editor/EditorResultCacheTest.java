@@ -0,0 +1,115 @@
+package com.example.goldencrow.editor;
+
+import com.example.goldencrow.common.ProcessResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EditorResultCache가 크기와 개수 제한에 맞춰 가장 오래 쓰지 않은 결과부터 버리는지 확인하는 테스트
+ */
+class EditorResultCacheTest {
+
+    /**
+     * 100글자 출력 결과 하나의 크기 (256 + 2 * 100)
+     */
+    private static final long ENTRY_BYTES = 456;
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOverMaxEntries() {
+        EditorResultCache cache = new EditorResultCache(true, 1 << 20, 2);
+        cache.put("a", result("a"));
+        cache.put("b", result("b"));
+        assertNotNull(cache.get("a"));
+
+        cache.put("c", result("c"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2, cache.metrics().get("entries"));
+        assertEquals(1L, cache.metrics().get("evictions"));
+    }
+
+    @Test
+    void entriesAreEvictedOverMaxBytes() {
+        EditorResultCache cache = new EditorResultCache(true, ENTRY_BYTES * 2, 100);
+        cache.put("a", result("a"));
+        cache.put("b", result("b"));
+        assertEquals(ENTRY_BYTES * 2, cache.metrics().get("bytes"));
+
+        cache.put("c", result("c"));
+
+        assertNull(cache.get("a"));
+        assertEquals(ENTRY_BYTES * 2, cache.metrics().get("bytes"));
+        assertEquals(1L, cache.metrics().get("evictions"));
+    }
+
+    @Test
+    void replacedEntryIsCountedOnce() {
+        EditorResultCache cache = new EditorResultCache(true, 1 << 20, 100);
+        cache.put("a", result("a"));
+        cache.put("a", new ProcessResult(0, "short", false, false, null, 0, 0));
+
+        assertEquals(1, cache.metrics().get("entries"));
+        assertEquals(256L + 2 * 5, cache.metrics().get("bytes"));
+        assertEquals("short", cache.get("a").getOutput());
+    }
+
+    @Test
+    void resultLargerThanCacheIsNotStored() {
+        EditorResultCache cache = new EditorResultCache(true, ENTRY_BYTES - 1, 100);
+        cache.put("a", result("a"));
+
+        assertNull(cache.get("a"));
+        assertEquals(0L, cache.metrics().get("bytes"));
+    }
+
+    @Test
+    void incompleteResultsAreNotStored() {
+        EditorResultCache cache = new EditorResultCache(true, 1 << 20, 100);
+        cache.put("truncated", new ProcessResult(0, "out", true, false, null, 0, 0));
+        cache.put("timedOut", new ProcessResult(-1, "out", false, true, null, 0, 0));
+        cache.put("failed", ProcessResult.failed("busy"));
+
+        assertEquals(0, cache.metrics().get("entries"));
+    }
+
+    @Test
+    void storedResultHasNoTiming() {
+        EditorResultCache cache = new EditorResultCache(true, 1 << 20, 100);
+        cache.put("a", new ProcessResult(1, "out", false, false, null, 30, 400));
+
+        ProcessResult stored = cache.get("a");
+        assertEquals(1, stored.getExitCode());
+        assertEquals(0, stored.getWaitMillis());
+        assertEquals(0, stored.getRunMillis());
+        assertEquals(1L, cache.metrics().get("hits"));
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        EditorResultCache cache = new EditorResultCache(false, 1 << 20, 100);
+        cache.put("a", result("a"));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.metrics().get("entries"));
+    }
+
+    @Test
+    void keyPartsAreSeparated() {
+        assertNotEquals(EditorResultCache.key("black", null, "ab", "c"), EditorResultCache.key("black", null, "a", "bc"));
+        assertEquals(EditorResultCache.key("black", "", "a", "b"), EditorResultCache.key("black", null, "a", "b"));
+    }
+
+    /**
+     * 100글자 출력을 가진 결과
+     */
+    private static ProcessResult result(String fill) {
+        StringBuilder output = new StringBuilder();
+        while (output.length() < 100) {
+            output.append(fill);
+        }
+        return new ProcessResult(0, output.substring(0, 100), false, false, null, 0, 0);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.goldencrow.editor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PythonBlock이 코드를 최상위 블록으로 나누고 정의 블록의 stub을 만드는지 확인하는 테스트
+ */
+class PythonBlockTest {
+
+    @Test
+    void codeIsSplitIntoModuleAndDefinitionBlocks() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "import os",
+                "",
+                "@app.route('/')",
+                "@login_required",
+                "def index():",
+                "    return 'ok'",
+                "class Item:",
+                "    name = 'item'",
+                "",
+                "if __name__ == '__main__':",
+                "    index()"));
+
+        assertEquals(4, blocks.size());
+        assertBlock(blocks.get(0), false, 1, 2);
+        assertBlock(blocks.get(1), true, 3, 6);
+        assertBlock(blocks.get(2), true, 7, 9);
+        assertBlock(blocks.get(3), false, 10, 11);
+        assertTrue(blocks.get(1).overlaps(4, 4));
+        assertFalse(blocks.get(1).overlaps(7, 11));
+    }
+
+    @Test
+    void functionBodyIsReplacedByStubWithReferencedNames() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "def build(name):",
+                "    path = os.path.join(ROOT, name)",
+                "    if not path:",
+                "        return None",
+                "    return path"));
+
+        PythonBlock block = blocks.get(0);
+        assertEquals(Arrays.asList(
+                "def build(name):",
+                "    return " + PythonBlock.STUB + "(path, os, ROOT, name)",
+                "",
+                "",
+                ""), block.getStubLines());
+        assertEquals("def build(name):\n    return " + PythonBlock.STUB + "()\n", block.getHeader());
+    }
+
+    @Test
+    void classBodyIsKeptAndMethodBodiesAreStubbed() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "class Repo(Base):",
+                "    table = TABLE",
+                "",
+                "    @staticmethod",
+                "    def find(key):",
+                "        return cache[key]"));
+
+        assertEquals(1, blocks.size());
+        assertEquals(Arrays.asList(
+                "class Repo(Base):",
+                "    table = TABLE",
+                "",
+                "    @staticmethod",
+                "    def find(key):",
+                "        return " + PythonBlock.STUB + "(cache, key)"), blocks.get(0).getStubLines());
+    }
+
+    @Test
+    void stringsAndCommentsAreNotCode() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "def text():",
+                "    '''",
+                "def hidden():",
+                "    unused_in_docstring",
+                "    '''",
+                "    s = 'a # b' + other  # comment_name",
+                "    return s"));
+
+        assertEquals(1, blocks.size());
+        List<String> stub = blocks.get(0).getStubLines();
+        assertEquals(7, stub.size());
+        assertEquals("    return " + PythonBlock.STUB + "(s, other)", stub.get(1));
+    }
+
+    @Test
+    void namesInFormatStringsAreReferenced() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "def greet():",
+                "    return f\"hello {user.name} {{braces}} {count:>{width}} {items['key']!r}\" + 'plain {skipped}' + rb'{raw}'"));
+
+        assertEquals("    return " + PythonBlock.STUB + "(user, count, width, items)", blocks.get(0).getStubLines().get(1));
+    }
+
+    @Test
+    void continuedLinesStayInTheirBlock() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "def total(a,",
+                "b):",
+                "    value = a + \\",
+                "b",
+                "    return value",
+                "RESULT = total(1,",
+                "2)"));
+
+        assertEquals(2, blocks.size());
+        assertBlock(blocks.get(0), true, 1, 5);
+        assertBlock(blocks.get(1), false, 6, 7);
+        assertEquals(Arrays.asList(
+                "def total(a,",
+                "b):",
+                "    return " + PythonBlock.STUB + "(value, a, b)",
+                "",
+                ""), blocks.get(0).getStubLines());
+    }
+
+    @Test
+    void oneLineDefinitionIsKept() {
+        List<PythonBlock> blocks = PythonBlock.split(lines(
+                "def square(x): return x * x",
+                "class Empty: pass"));
+
+        assertEquals(2, blocks.size());
+        assertEquals(Arrays.asList("def square(x): return x * x"), blocks.get(0).getStubLines());
+        assertEquals(Arrays.asList("class Empty: pass"), blocks.get(1).getStubLines());
+    }
+
+    @Test
+    void unbalancedCodeCannotBeSplit() {
+        assertNull(PythonBlock.split(lines("def f():", "    return (1,")));
+        assertNull(PythonBlock.split(lines("def f():", "    '''open")));
+    }
+
+    private static void assertBlock(PythonBlock block, boolean definition, int start, int end) {
+        assertEquals(definition, block.isDefinition());
+        assertEquals(start, block.getStart());
+        assertEquals(end, block.getEnd());
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines);
+    }
+}
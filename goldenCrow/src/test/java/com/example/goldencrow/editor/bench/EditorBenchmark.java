@@ -0,0 +1,351 @@
+package com.example.goldencrow.editor.bench;
+
+import com.example.goldencrow.common.CommandClass;
+import com.example.goldencrow.common.ProcessExecutor;
+import com.example.goldencrow.common.ProcessResult;
+import com.example.goldencrow.editor.EditorResultCache;
+import com.example.goldencrow.editor.EditorService;
+import com.example.goldencrow.editor.EditorWorkerPool;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.example.goldencrow.common.Constants.SUCCESS;
+
+/**
+ * 포맷팅, 린트 경로(formatService, formatReadService, lintService)의 처리량과 지연 시간을 재는 벤치마크
+ * <p>
+ * 파일 크기와 동시 요청 수를 바꿔 가며 같은 크기의 Python 코드를 반복해서 포맷팅, 조회, 린트하고,
+ * 칸마다 초당 처리 수, p50, p99, 최대 지연 시간과 실패 수를 출력한다.
+ * worker 모드는 black, pylint를 import 해 둔 EditorWorkerPool로, process 모드는 워커 없이 요청마다 명령어를 띄워 처리하므로
+ * 두 모드의 차이와 black, pylint --version 실행 시간이 프로세스를 띄우는 비용이다.
+ * 로컬에 설치된 black, pylint만 사용하며 네트워크는 쓰지 않는다.
+ * <p>
+ * 실행 방법 (test classpath에서 main 실행)
+ * <pre>
+ * -Dbench.modes=worker,process          측정할 실행 방식
+ * -Dbench.ops=format,read,lint          측정할 동작 (inline: formatCodeService, incremental: lintIncrementalService도 가능)
+ * -Dbench.sizes=1024,16384,131072,1048576  파일 크기 (byte)
+ * -Dbench.concurrency=1,4,16,64         동시 요청 수
+ * -Dbench.requests=32                   칸마다 측정할 최소 요청 수 (동시 요청 수의 배수로 올림)
+ * -Dbench.warmup=2                      칸마다 측정 전 스레드별 요청 수
+ * -Dbench.workers=2                     worker 모드의 워커 프로세스 수
+ * -Dbench.timeout=60000                 요청 하나의 제한 시간 (ms)
+ * -Dbench.spawn=10                      --version 실행 횟수
+ * -Dbench.cache=false                   결과 캐시 사용 여부 (끄면 도구 실행 경로만 잼)
+ * -Dbench.python=python3                워커를 실행할 python
+ * </pre>
+ * format, read는 EditorService.PATH(/home/ubuntu/crow_data/temp/)에 파일을 쓰므로 쓸 수 없으면 건너뛴다.
+ */
+public class EditorBenchmark {
+
+    private final String mode;
+    private final EditorService editorService;
+    private final List<Row> rows;
+
+    public EditorBenchmark(String mode, EditorService editorService, List<Row> rows) {
+        this.mode = mode;
+        this.editorService = editorService;
+        this.rows = rows;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = Arrays.asList(System.getProperty("bench.modes", "worker,process").split(","));
+        List<String> ops = new ArrayList<>(Arrays.asList(System.getProperty("bench.ops", "format,read,lint").split(",")));
+        int[] sizes = ints(System.getProperty("bench.sizes", "1024,16384,131072,1048576"));
+        int[] concurrency = ints(System.getProperty("bench.concurrency", "1,4,16,64"));
+        int requests = Integer.getInteger("bench.requests", 32);
+        int warmup = Integer.getInteger("bench.warmup", 2);
+        int workers = Integer.getInteger("bench.workers", 2);
+        long timeout = Long.getLong("bench.timeout", 60000L);
+        int spawn = Integer.getInteger("bench.spawn", 10);
+        boolean cache = Boolean.parseBoolean(System.getProperty("bench.cache", "false"));
+        String python = System.getProperty("bench.python", "python3");
+
+        int maxConcurrency = 1;
+        for (int c : concurrency) {
+            maxConcurrency = Math.max(maxConcurrency, c);
+        }
+        // 대기열이 가득 차 거절되는 요청 없이 지연 시간을 재도록 ProcessExecutor 설정을 맞춤 (-D로 직접 주면 그 값 사용)
+        defaultProperty("process.lint.queue", String.valueOf(maxConcurrency * 2));
+        defaultProperty("process.lint.timeout", String.valueOf(timeout));
+
+        File temp = new File(EditorService.PATH);
+        if ((ops.contains("format") || ops.contains("read")) && !temp.isDirectory() && !temp.mkdirs()) {
+            System.out.println("cannot create " + EditorService.PATH + ", skipping format and read");
+            ops.remove("format");
+            ops.remove("read");
+        }
+
+        System.out.printf("modes=%s ops=%s sizes=%s concurrency=%s requests=%d warmup=%d workers=%d cache=%s%n",
+                modes, ops, Arrays.toString(sizes), Arrays.toString(concurrency), requests, warmup, workers, cache);
+        ProcessExecutor processExecutor = new ProcessExecutor(new StandardEnvironment());
+        try {
+            spawn(processExecutor, spawn);
+
+            List<Row> rows = new ArrayList<>();
+            System.out.printf("%-8s %-12s %8s %5s %6s %6s %9s %9s %9s %9s%n",
+                    "mode", "op", "size", "conc", "count", "errors", "ops/s", "p50(ms)", "p99(ms)", "max(ms)");
+            for (String mode : modes) {
+                EditorWorkerPool pool = new EditorWorkerPool(python, mode.equals("worker") ? workers : 0,
+                        maxConcurrency * 2, 8, timeout, 500, 60000);
+                EditorService service = new EditorService(processExecutor, pool,
+                        new EditorResultCache(cache, 64L * 1024 * 1024, 4096));
+                try {
+                    EditorBenchmark benchmark = new EditorBenchmark(mode, service, rows);
+                    for (int size : sizes) {
+                        String code = code(size);
+                        for (int c : concurrency) {
+                            benchmark.cell(ops, code, size, c, (requests + c - 1) / c, warmup);
+                        }
+                    }
+                    System.out.println(mode + " " + service.metricsService());
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            overhead(rows);
+        } finally {
+            processExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 한 파일 크기, 동시 요청 수에서 동작별로 측정하는 내부 로직
+     * format으로 만든 temp 파일은 read에서 읽어 지우고, read를 재지 않으면 측정 후 지운다.
+     */
+    public void cell(List<String> ops, String code, int size, int concurrency, int perThread, int warmup)
+            throws Exception {
+        List<Queue<String>> names = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            names.add(new ArrayDeque<>());
+        }
+        for (String op : ops) {
+            if (op.equals("read") && !ops.contains("format")) {
+                continue;
+            }
+            Row row = new Row(mode, op, size, concurrency);
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            CyclicBarrier measured = new CyclicBarrier(concurrency + 1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < concurrency; t++) {
+                Queue<String> own = names.get(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < warmup; i++) {
+                        call(op, code, own, null);
+                    }
+                    measured.await();
+                    for (int i = 0; i < perThread; i++) {
+                        call(op, code, own, row);
+                    }
+                    return null;
+                }));
+            }
+            // 모든 스레드의 준비 요청이 끝난 뒤부터 측정
+            measured.await();
+            long startedAt = System.nanoTime();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            row.elapsed = System.nanoTime() - startedAt;
+            executor.shutdown();
+            rows.add(row);
+            row.print();
+        }
+        for (Queue<String> own : names) {
+            for (String name : own) {
+                editorService.formatReadService("python", name);
+            }
+        }
+    }
+
+    /**
+     * 동작 하나를 실행하고 지연 시간을 기록하는 내부 로직 (row가 null이면 기록하지 않음)
+     */
+    private void call(String op, String code, Queue<String> names, Row row) {
+        long startedAt = System.nanoTime();
+        boolean ok;
+        try {
+            switch (op) {
+                case "format": {
+                    Map<String, String> res = editorService.formatService("python", code);
+                    ok = SUCCESS.equals(res.get("result"));
+                    if (ok) {
+                        names.add(res.get("data"));
+                    }
+                    break;
+                }
+                case "read": {
+                    String name = names.poll();
+                    if (name == null) {
+                        // read 요청 수만큼 format 결과가 없으면 측정하지 않고 하나 만듦
+                        name = editorService.formatService("python", code).get("data");
+                        startedAt = System.nanoTime();
+                    }
+                    Map<String, String> res = editorService.formatReadService("python", name);
+                    ok = SUCCESS.equals(res.get("result")) && res.get("data") != null;
+                    break;
+                }
+                case "inline":
+                    ok = SUCCESS.equals(editorService.formatCodeService("python", code).get("result"));
+                    break;
+                case "incremental":
+                    ok = SUCCESS.equals(editorService.lintIncrementalService("python", code, 0, 0).get("result"));
+                    break;
+                default:
+                    ok = SUCCESS.equals(editorService.lintService("python", code).get("result"));
+                    break;
+            }
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (row != null) {
+            row.record(System.nanoTime() - startedAt, ok);
+        }
+    }
+
+    /**
+     * black, pylint를 --version으로 띄워 도구 하나를 띄우는 데 드는 시간을 재는 내부 로직
+     */
+    private static void spawn(ProcessExecutor processExecutor, int times) {
+        for (String tool : new String[]{"black", "pylint"}) {
+            List<Long> values = new ArrayList<>();
+            String version = null;
+            for (int i = 0; i < times; i++) {
+                long startedAt = System.nanoTime();
+                ProcessResult result = processExecutor.run(CommandClass.LINT, new String[]{tool, "--version"});
+                if (!result.isSuccess()) {
+                    System.out.println("spawn " + tool + " failed: " + (result.isStarted()
+                            ? result.getOutput().trim() : result.getError()));
+                    values.clear();
+                    break;
+                }
+                values.add(System.nanoTime() - startedAt);
+                version = result.getOutput().split("\n")[0].trim();
+            }
+            if (!values.isEmpty()) {
+                Collections.sort(values);
+                System.out.printf("spawn %-7s p50 %8.2f ms  p99 %8.2f ms  (%s)%n", tool,
+                        millis(percentile(values, 50)), millis(percentile(values, 99)), version);
+            }
+        }
+    }
+
+    /**
+     * 같은 칸의 process 모드와 worker 모드의 p50 차이(요청마다 프로세스를 띄우는 비용)를 출력하는 내부 로직
+     */
+    private static void overhead(List<Row> rows) {
+        boolean header = false;
+        for (Row process : rows) {
+            // read는 black, pylint를 실행하지 않으므로 제외
+            if (!process.mode.equals("process") || process.op.equals("read")) {
+                continue;
+            }
+            for (Row worker : rows) {
+                if (worker.mode.equals("worker") && worker.op.equals(process.op)
+                        && worker.size == process.size && worker.concurrency == process.concurrency) {
+                    if (!header) {
+                        System.out.printf("%-12s %8s %5s %14s %14s%n", "op", "size", "conc",
+                                "p50 diff(ms)", "ops/s ratio");
+                        header = true;
+                    }
+                    double ratio = process.throughput() == 0 ? 0 : worker.throughput() / process.throughput();
+                    System.out.printf("%-12s %8d %5d %14.2f %14.2f%n", process.op, process.size,
+                            process.concurrency, millis(process.percentile(50)) - millis(worker.percentile(50)), ratio);
+                }
+            }
+        }
+    }
+
+    /**
+     * 대략 size byte의 포맷팅이 필요한 Python 코드를 만드는 내부 로직
+     */
+    private static String code(int size) {
+        StringBuilder sb = new StringBuilder("import os\nimport sys\n\n\n");
+        int i = 0;
+        while (sb.length() < size) {
+            sb.append("def func_").append(i).append("(a,b = 1):\n")
+                    .append("    values=[a,b,").append(i).append(", len(sys.argv)]\n")
+                    .append("    total = 0\n")
+                    .append("    for v in values :\n")
+                    .append("        total+=v*2\n")
+                    .append("    return {'id':").append(i).append(",'total':total, 'cwd': os.getcwd()}\n\n\n");
+            i++;
+        }
+        return sb.toString();
+    }
+
+    private static void defaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static int[] ints(String value) {
+        String[] parts = value.split(",");
+        int[] res = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            res[i] = Integer.parseInt(parts[i].trim());
+        }
+        return res;
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * 한 칸(실행 방식, 동작, 파일 크기, 동시 요청 수)의 측정값
+     */
+    static class Row {
+        private final String mode;
+        private final String op;
+        private final int size;
+        private final int concurrency;
+        private final List<Long> samples = Collections.synchronizedList(new ArrayList<>());
+        private volatile int errors;
+        private long elapsed;
+
+        Row(String mode, String op, int size, int concurrency) {
+            this.mode = mode;
+            this.op = op;
+            this.size = size;
+            this.concurrency = concurrency;
+        }
+
+        synchronized void record(long nanos, boolean ok) {
+            samples.add(nanos);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        double throughput() {
+            return elapsed == 0 ? 0 : samples.size() / (elapsed / 1e9);
+        }
+
+        long percentile(int percent) {
+            List<Long> sorted = new ArrayList<>(samples);
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            Collections.sort(sorted);
+            return EditorBenchmark.percentile(sorted, percent);
+        }
+
+        void print() {
+            List<Long> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            System.out.printf("%-8s %-12s %8d %5d %6d %6d %9.2f %9.2f %9.2f %9.2f%n", mode, op, size, concurrency,
+                    sorted.size(), errors, throughput(), millis(percentile(50)), millis(percentile(99)),
+                    millis(sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1)));
+        }
+    }
+}